@@ -0,0 +1,744 @@
+package nablarch.common.databind;
+
+import java.beans.ConstructorProperties;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import nablarch.core.beans.BeanUtil;
+import nablarch.core.beans.BeansException;
+import nablarch.core.beans.ConversionUtil;
+
+/**
+ * Beanの生成とプロパティへのアクセスを行うクラス。
+ * <p/>
+ * Beanのクラスごとに一度だけ生成してキャッシュし、コンストラクタ、セッタ及びゲッタは
+ * {@link LambdaMetafactory}で生成した関数で呼び出す。
+ * プロパティは{@link #getAccessors(String[])}で事前に項目の順に取得しておくことで、
+ * レコードごとにプロパティ名で検索せずにアクセスできる。
+ * <p/>
+ * {@link GeneratedBeanAccessor}の実装クラスがコンパイル時に生成されている場合は、関数の代わりに実装クラスを使用する。
+ * <p/>
+ * レコードクラスと、{@link ConstructorProperties}が設定されたpublicなコンストラクタを持つクラスは、
+ * セッタを使用せずに全てのプロパティの値をコンストラクタに渡して生成する(コンストラクタバインディング)。
+ * この場合は{@link #getCreator(String[])}で取得した{@link Creator}で生成する。
+ * <p/>
+ * 関数を生成できないプロパティ(アクセスできないクラスのプロパティや、ネストしたプロパティ等)は、
+ * {@link BeanUtil}でプロパティ名を指定してアクセスする。
+ * いずれの場合も、値の変換は{@link BeanUtil#setProperty(Object, String, Object)}と同じく{@link ConversionUtil}で行う。
+ *
+ * @param <T> Beanの型
+ * @author Naoki Yamamoto
+ */
+public final class BeanBinder<T> {
+
+    /** Beanのクラスごとの{@link BeanBinder} */
+    private static final ClassValue<BeanBinder<?>> BINDERS = new ClassValue<BeanBinder<?>>() {
+        @Override
+        protected BeanBinder<?> computeValue(final Class<?> type) {
+            return new BeanBinder<Object>(type);
+        }
+    };
+
+    /** Beanのクラス */
+    private final Class<T> beanClass;
+
+    /** コンパイル時に生成された{@link GeneratedBeanAccessor}(生成されていない場合は{@code null}) */
+    private final GeneratedBeanAccessor<T> generated;
+
+    /** デフォルトコンストラクタを呼び出す関数(生成できない場合は{@code null}) */
+    private final Supplier<T> constructor;
+
+    /** コンストラクタバインディングで使用するコンストラクタ(使用しない場合は{@code null}) */
+    private final Constructor<T> bindingConstructor;
+
+    /** コンストラクタバインディングで使用するコンストラクタの引数と対応するプロパティ名 */
+    private final String[] parameterNames;
+
+    /** コンストラクタバインディングで使用するコンストラクタを、引数の配列で呼び出すハンドル(生成できない場合は{@code null}) */
+    private final MethodHandle bindingHandle;
+
+    /** プロパティ名ごとの{@link Accessor} */
+    private final Map<String, Accessor> accessors = new ConcurrentHashMap<String, Accessor>();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param beanClass Beanのクラス
+     */
+    @SuppressWarnings("unchecked")
+    private BeanBinder(final Class<?> beanClass) {
+        this.beanClass = (Class<T>) beanClass;
+        generated = loadGenerated(this.beanClass);
+        constructor = generated != null ? createConstructor(generated) : createConstructor(this.beanClass);
+        bindingConstructor = findBindingConstructor(this.beanClass);
+        parameterNames = bindingConstructor == null ? null : findParameterNames(bindingConstructor);
+        bindingHandle = bindingConstructor == null ? null : createBindingHandle(bindingConstructor);
+    }
+
+    /**
+     * Beanのクラスに対応した{@link BeanBinder}を取得する。
+     *
+     * @param beanClass Beanのクラス
+     * @param <T> Beanの型
+     * @return {@link BeanBinder}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BeanBinder<T> get(final Class<T> beanClass) {
+        return (BeanBinder<T>) BINDERS.get(beanClass);
+    }
+
+    /**
+     * デフォルトコンストラクタでBeanを生成する。
+     *
+     * @return Beanのインスタンス
+     * @throws BeansException Beanの生成に失敗した場合
+     */
+    public T newInstance() {
+        if (constructor == null) {
+            return DataBindUtil.newInstance(beanClass);
+        }
+        try {
+            return constructor.get();
+        } catch (RuntimeException e) {
+            throw new BeansException(e);
+        }
+    }
+
+    /**
+     * コンストラクタバインディングで生成するクラスか否かを返す。
+     *
+     * @return コンストラクタバインディングで生成する場合は{@code true}
+     */
+    public boolean isConstructorBinding() {
+        return bindingConstructor != null;
+    }
+
+    /**
+     * 指定されたプロパティ名の順に値を受け取り、コンストラクタバインディングでBeanを生成する{@link Creator}を取得する。
+     * <p/>
+     * 指定されなかったプロパティと対応する引数には、{@code null}(プリミティブ型の場合は初期値)を渡す。
+     *
+     * @param propertyNames プロパティ名
+     * @return {@link Creator}
+     * @throws IllegalStateException コンストラクタバインディングで生成するクラスでない場合
+     * @throws BeansException プロパティ名と対応する引数が存在しない場合
+     */
+    public Creator<T> getCreator(final String[] propertyNames) {
+        if (bindingConstructor == null) {
+            throw new IllegalStateException(
+                    "constructor for binding is not found. class = [" + beanClass.getName() + ']');
+        }
+        return new Creator<T>(this, propertyNames);
+    }
+
+    /**
+     * プロパティの{@link Accessor}を取得する。
+     *
+     * @param propertyName プロパティ名
+     * @return {@link Accessor}
+     */
+    public Accessor getAccessor(final String propertyName) {
+        Accessor accessor = accessors.get(propertyName);
+        if (accessor == null) {
+            accessor = createAccessor(propertyName);
+            accessors.put(propertyName, accessor);
+        }
+        return accessor;
+    }
+
+    /**
+     * プロパティの{@link Accessor}を、指定されたプロパティ名の順に取得する。
+     *
+     * @param propertyNames プロパティ名
+     * @return {@link Accessor}の配列
+     */
+    public Accessor[] getAccessors(final String[] propertyNames) {
+        final Accessor[] result = new Accessor[propertyNames.length];
+        for (int i = 0; i < propertyNames.length; i++) {
+            result[i] = getAccessor(propertyNames[i]);
+        }
+        return result;
+    }
+
+    /**
+     * プロパティの{@link Accessor}を生成する。
+     *
+     * @param propertyName プロパティ名
+     * @return {@link Accessor}
+     */
+    private Accessor createAccessor(final String propertyName) {
+        if (beanClass.isRecord()) {
+            for (final RecordComponent component : beanClass.getRecordComponents()) {
+                if (component.getName().equals(propertyName)) {
+                    return new Accessor(beanClass, propertyName, component.getType(), null,
+                            createGetter(component.getAccessor()));
+                }
+            }
+            return new Accessor(beanClass, propertyName, null, null, null);
+        }
+        final PropertyDescriptor descriptor = findDescriptor(propertyName);
+        if (descriptor == null) {
+            return new Accessor(beanClass, propertyName, null, null, null);
+        }
+        if (generated != null) {
+            final BiConsumer<Object, Object> setter = createSetter(generated, propertyName);
+            final Function<Object, Object> getter = createGetter(generated, propertyName);
+            return new Accessor(beanClass, propertyName, descriptor.getPropertyType(),
+                    setter != null ? setter : createSetter(descriptor.getWriteMethod()),
+                    getter != null ? getter : createGetter(descriptor.getReadMethod()));
+        }
+        return new Accessor(beanClass, propertyName, descriptor.getPropertyType(),
+                createSetter(descriptor.getWriteMethod()), createGetter(descriptor.getReadMethod()));
+    }
+
+    /**
+     * コンパイル時に生成された{@link GeneratedBeanAccessor}を読み込む。
+     *
+     * @param beanClass Beanのクラス
+     * @param <T> Beanの型
+     * @return {@link GeneratedBeanAccessor}。生成されていない場合は{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> GeneratedBeanAccessor<T> loadGenerated(final Class<T> beanClass) {
+        try {
+            final Class<?> generatedClass = Class.forName(beanClass.getName() + GeneratedBeanAccessor.SUFFIX, true,
+                    beanClass.getClassLoader());
+            if (!GeneratedBeanAccessor.class.isAssignableFrom(generatedClass)) {
+                return null;
+            }
+            return (GeneratedBeanAccessor<T>) generatedClass.getConstructor().newInstance();
+        } catch (Exception | LinkageError ignored) {
+            // 生成されていない場合や使用できない場合は、関数を生成してアクセスする
+            return null;
+        }
+    }
+
+    /**
+     * 生成された{@link GeneratedBeanAccessor}でBeanを生成する関数を返す。
+     *
+     * @param generated 生成された{@link GeneratedBeanAccessor}
+     * @param <T> Beanの型
+     * @return 関数
+     */
+    private static <T> Supplier<T> createConstructor(final GeneratedBeanAccessor<T> generated) {
+        return new Supplier<T>() {
+            @Override
+            public T get() {
+                return generated.newInstance();
+            }
+        };
+    }
+
+    /**
+     * 生成された{@link GeneratedBeanAccessor}でセッタを呼び出す関数を返す。
+     *
+     * @param generated 生成された{@link GeneratedBeanAccessor}
+     * @param propertyName プロパティ名
+     * @param <T> Beanの型
+     * @return 関数。セッタが生成されていない場合は{@code null}
+     */
+    private static <T> BiConsumer<Object, Object> createSetter(final GeneratedBeanAccessor<T> generated,
+            final String propertyName) {
+        final int index = Arrays.asList(generated.getWritablePropertyNames()).indexOf(propertyName);
+        if (index < 0) {
+            return null;
+        }
+        return new BiConsumer<Object, Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void accept(final Object bean, final Object value) {
+                generated.set((T) bean, index, value);
+            }
+        };
+    }
+
+    /**
+     * 生成された{@link GeneratedBeanAccessor}でゲッタを呼び出す関数を返す。
+     *
+     * @param generated 生成された{@link GeneratedBeanAccessor}
+     * @param propertyName プロパティ名
+     * @param <T> Beanの型
+     * @return 関数。ゲッタが生成されていない場合は{@code null}
+     */
+    private static <T> Function<Object, Object> createGetter(final GeneratedBeanAccessor<T> generated,
+            final String propertyName) {
+        final int index = Arrays.asList(generated.getReadablePropertyNames()).indexOf(propertyName);
+        if (index < 0) {
+            return null;
+        }
+        return new Function<Object, Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object apply(final Object bean) {
+                return generated.get((T) bean, index);
+            }
+        };
+    }
+
+    /**
+     * プロパティ名に対応する{@link PropertyDescriptor}を取得する。
+     *
+     * @param propertyName プロパティ名
+     * @return {@link PropertyDescriptor}。存在しない場合は{@code null}
+     */
+    private PropertyDescriptor findDescriptor(final String propertyName) {
+        if (beanClass.isRecord()) {
+            return null;
+        }
+        for (final PropertyDescriptor descriptor : BeanUtil.getPropertyDescriptors(beanClass)) {
+            if (descriptor.getName().equals(propertyName)) {
+                return descriptor;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * デフォルトコンストラクタを呼び出す関数を生成する。
+     *
+     * @param beanClass Beanのクラス
+     * @param <T> Beanの型
+     * @return 関数。生成できない場合は{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> createConstructor(final Class<T> beanClass) {
+        try {
+            final Constructor<T> constructor = beanClass.getConstructor();
+            if (!isAccessible(beanClass) || Modifier.isAbstract(beanClass.getModifiers())) {
+                return null;
+            }
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            final MethodHandle handle = lookup.unreflectConstructor(constructor);
+            final CallSite site = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), handle, MethodType.methodType(beanClass));
+            return (Supplier<T>) site.getTarget().invoke();
+        } catch (Throwable ignored) {
+            // 関数を生成できない場合は、リフレクションで生成する
+            return null;
+        }
+    }
+
+    /**
+     * コンストラクタバインディングで使用するコンストラクタを取得する。
+     * <p/>
+     * レコードクラスの場合は標準コンストラクタを、それ以外のクラスの場合は
+     * {@link ConstructorProperties}が設定されたpublicなコンストラクタを返す。
+     *
+     * @param beanClass Beanのクラス
+     * @param <T> Beanの型
+     * @return コンストラクタ。コンストラクタバインディングで生成しないクラスの場合は{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Constructor<T> findBindingConstructor(final Class<T> beanClass) {
+        if (beanClass.isRecord()) {
+            final RecordComponent[] components = beanClass.getRecordComponents();
+            final Class<?>[] types = new Class<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                types[i] = components[i].getType();
+            }
+            try {
+                return beanClass.getDeclaredConstructor(types);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        if (Modifier.isAbstract(beanClass.getModifiers())) {
+            return null;
+        }
+        Constructor<T> found = null;
+        for (final Constructor<?> constructor : beanClass.getConstructors()) {
+            if (constructor.isAnnotationPresent(ConstructorProperties.class)) {
+                if (found != null) {
+                    // コンストラクタバインディングで使用するコンストラクタは0個か1個であるべき
+                    throw new IllegalStateException(
+                            "constructor for binding should be defined only one. class = [" + beanClass.getName() + ']');
+                }
+                found = (Constructor<T>) constructor;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * コンストラクタの引数と対応するプロパティ名を取得する。
+     *
+     * @param constructor コンストラクタ
+     * @return プロパティ名
+     */
+    private static String[] findParameterNames(final Constructor<?> constructor) {
+        final Class<?> beanClass = constructor.getDeclaringClass();
+        if (beanClass.isRecord()) {
+            final RecordComponent[] components = beanClass.getRecordComponents();
+            final String[] names = new String[components.length];
+            for (int i = 0; i < components.length; i++) {
+                names[i] = components[i].getName();
+            }
+            return names;
+        }
+        final String[] names = constructor.getAnnotation(ConstructorProperties.class).value();
+        if (names.length != constructor.getParameterCount()) {
+            throw new IllegalStateException("the number of property names does not match the number of parameters."
+                    + " class = [" + beanClass.getName() + "], property names = " + Arrays.toString(names));
+        }
+        return names;
+    }
+
+    /**
+     * コンストラクタを引数の配列で呼び出すハンドルを生成する。
+     *
+     * @param constructor コンストラクタ
+     * @return ハンドル。生成できない場合は{@code null}
+     */
+    private static MethodHandle createBindingHandle(final Constructor<?> constructor) {
+        if (!isAccessible(constructor.getDeclaringClass()) || !Modifier.isPublic(constructor.getModifiers())) {
+            return null;
+        }
+        try {
+            return MethodHandles.lookup()
+                    .unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException ignored) {
+            // ハンドルを生成できない場合は、リフレクションで生成する
+            return null;
+        }
+    }
+
+    /**
+     * セッタを呼び出す関数を生成する。
+     *
+     * @param method セッタ
+     * @return 関数。生成できない場合は{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> createSetter(final Method method) {
+        if (method == null || !isAccessible(method.getDeclaringClass())) {
+            return null;
+        }
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            final MethodHandle handle = lookup.unreflect(method);
+            final CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class), handle,
+                    MethodType.methodType(void.class, method.getDeclaringClass(),
+                            handle.type().wrap().parameterType(1)));
+            return (BiConsumer<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable ignored) {
+            // 関数を生成できない場合は、BeanUtilでアクセスする
+            return null;
+        }
+    }
+
+    /**
+     * ゲッタを呼び出す関数を生成する。
+     *
+     * @param method ゲッタ
+     * @return 関数。生成できない場合は{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createGetter(final Method method) {
+        if (method == null || !isAccessible(method.getDeclaringClass())) {
+            return null;
+        }
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            final MethodHandle handle = lookup.unreflect(method);
+            final CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class), handle,
+                    MethodType.methodType(handle.type().wrap().returnType(), method.getDeclaringClass()));
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable ignored) {
+            // 関数を生成できない場合は、BeanUtilでアクセスする
+            return null;
+        }
+    }
+
+    /**
+     * クラスが、エンクロージングクラスも含めてpublicか否かを判定する。
+     *
+     * @param clazz クラス
+     * @return publicの場合は{@code true}
+     */
+    private static boolean isAccessible(final Class<?> clazz) {
+        for (Class<?> c = clazz; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Beanのプロパティにアクセスするクラス。
+     * <p/>
+     * 本クラスはスレッドセーフである。
+     */
+    public static final class Accessor {
+
+        /** Beanのクラス */
+        private final Class<?> beanClass;
+
+        /** プロパティ名 */
+        private final String propertyName;
+
+        /** プロパティの型(プロパティが見つからない場合は{@code null}) */
+        private final Class<?> propertyType;
+
+        /** セッタを呼び出す関数(生成できない場合は{@code null}) */
+        private final BiConsumer<Object, Object> setter;
+
+        /** ゲッタを呼び出す関数(生成できない場合は{@code null}) */
+        private final Function<Object, Object> getter;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param beanClass Beanのクラス
+         * @param propertyName プロパティ名
+         * @param propertyType プロパティの型
+         * @param setter セッタを呼び出す関数
+         * @param getter ゲッタを呼び出す関数
+         */
+        private Accessor(final Class<?> beanClass, final String propertyName, final Class<?> propertyType,
+                final BiConsumer<Object, Object> setter, final Function<Object, Object> getter) {
+            this.beanClass = beanClass;
+            this.propertyName = propertyName;
+            this.propertyType = propertyType;
+            this.setter = setter;
+            this.getter = getter;
+        }
+
+        /**
+         * プロパティ名を返す。
+         *
+         * @return プロパティ名
+         */
+        public String getPropertyName() {
+            return propertyName;
+        }
+
+        /**
+         * プロパティの型を返す。
+         *
+         * @return プロパティの型。関数でセッタを呼び出せない場合は{@code null}
+         */
+        public Class<?> getPropertyType() {
+            return setter == null ? null : propertyType;
+        }
+
+        /**
+         * 値をプロパティの型に変換して、プロパティに設定する。
+         *
+         * @param bean Bean
+         * @param value 値
+         * @throws BeansException 値の変換または設定に失敗した場合
+         */
+        public void set(final Object bean, final Object value) {
+            if (setter == null || !beanClass.isInstance(bean)) {
+                BeanUtil.setProperty(bean, propertyName, value);
+                return;
+            }
+            try {
+                setter.accept(bean, ConversionUtil.convert(propertyType, value));
+            } catch (Exception e) {
+                throw new BeansException("An error occurred while writing to the property :" + propertyName, e);
+            }
+        }
+
+        /**
+         * プロパティの型の値を、変換せずにプロパティに設定する。
+         *
+         * @param bean Bean
+         * @param value プロパティの型の値
+         * @throws BeansException 値の設定に失敗した場合
+         */
+        public void setConverted(final Object bean, final Object value) {
+            if (setter == null || !beanClass.isInstance(bean)) {
+                BeanUtil.setProperty(bean, propertyName, value);
+                return;
+            }
+            try {
+                setter.accept(bean, value);
+            } catch (Exception e) {
+                throw new BeansException("An error occurred while writing to the property :" + propertyName, e);
+            }
+        }
+
+        /**
+         * プロパティの値を取得する。
+         *
+         * @param bean Bean
+         * @return プロパティの値
+         * @throws BeansException 値の取得に失敗した場合
+         */
+        public Object get(final Object bean) {
+            if (getter == null || !beanClass.isInstance(bean)) {
+                return BeanUtil.getProperty(bean, propertyName);
+            }
+            try {
+                return getter.apply(bean);
+            } catch (Exception e) {
+                throw new BeansException("Failed to read property. property name: " + propertyName, e);
+            }
+        }
+    }
+
+    /**
+     * コンストラクタバインディングでBeanを生成するクラス。
+     * <p/>
+     * 値は{@link BeanBinder#getCreator(String[])}に指定したプロパティ名の順に受け取る。
+     * 本クラスはスレッドセーフである。
+     *
+     * @param <T> Beanの型
+     */
+    public static final class Creator<T> {
+
+        /** Beanのクラス */
+        private final Class<T> beanClass;
+
+        /** 値と対応するプロパティ名 */
+        private final String[] propertyNames;
+
+        /** 値と対応するプロパティの型 */
+        private final Class<?>[] propertyTypes;
+
+        /** 値と対応するコンストラクタの引数のインデックス */
+        private final int[] argumentIndexes;
+
+        /** 値が指定されなかった引数に渡す初期値 */
+        private final Object[] defaultArguments;
+
+        /** コンストラクタ */
+        private final Constructor<T> constructor;
+
+        /** コンストラクタを引数の配列で呼び出すハンドル(生成できない場合は{@code null}) */
+        private final MethodHandle handle;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param binder {@link BeanBinder}
+         * @param propertyNames 値と対応するプロパティ名
+         */
+        private Creator(final BeanBinder<T> binder, final String[] propertyNames) {
+            beanClass = binder.beanClass;
+            constructor = binder.bindingConstructor;
+            handle = binder.bindingHandle;
+            this.propertyNames = propertyNames.clone();
+
+            final List<String> parameterNames = Arrays.asList(binder.parameterNames);
+            final Class<?>[] parameterTypes = constructor.getParameterTypes();
+            propertyTypes = new Class<?>[propertyNames.length];
+            argumentIndexes = new int[propertyNames.length];
+            for (int i = 0; i < propertyNames.length; i++) {
+                final int index = parameterNames.indexOf(propertyNames[i]);
+                if (index < 0) {
+                    throw new BeansException("constructor parameter not found. class = [" + beanClass.getName()
+                            + "], property name = [" + propertyNames[i] + ']');
+                }
+                argumentIndexes[i] = index;
+                propertyTypes[i] = parameterTypes[index];
+            }
+            defaultArguments = new Object[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (parameterTypes[i].isPrimitive()) {
+                    defaultArguments[i] = Array.get(Array.newInstance(parameterTypes[i], 1), 0);
+                }
+            }
+        }
+
+        /**
+         * 値と対応するプロパティの型を返す。
+         *
+         * @param index 値のインデックス
+         * @return プロパティの型
+         */
+        public Class<?> getPropertyType(final int index) {
+            return propertyTypes[index];
+        }
+
+        /**
+         * 値をプロパティの型に変換する。
+         *
+         * @param index 値のインデックス
+         * @param value 値
+         * @return 変換した値
+         * @throws BeansException 値の変換に失敗した場合
+         */
+        public Object convert(final int index, final Object value) {
+            try {
+                return ConversionUtil.convert(propertyTypes[index], value);
+            } catch (Exception e) {
+                throw new BeansException("An error occurred while writing to the property :" + propertyNames[index], e);
+            }
+        }
+
+        /**
+         * 値をプロパティの型に変換して、Beanを生成する。
+         *
+         * @param values プロパティ名の順の値
+         * @return Beanのインスタンス
+         * @throws BeansException 値の変換またはBeanの生成に失敗した場合
+         */
+        public T newInstance(final Object[] values) {
+            final Object[] arguments = defaultArguments.clone();
+            for (int i = 0; i < values.length; i++) {
+                arguments[argumentIndexes[i]] = convert(i, values[i]);
+            }
+            return invoke(arguments);
+        }
+
+        /**
+         * プロパティの型の値を変換せずに、Beanを生成する。
+         *
+         * @param values プロパティ名の順の、プロパティの型の値
+         * @return Beanのインスタンス
+         * @throws BeansException Beanの生成に失敗した場合
+         */
+        public T newInstanceConverted(final Object[] values) {
+            final Object[] arguments = defaultArguments.clone();
+            for (int i = 0; i < values.length; i++) {
+                arguments[argumentIndexes[i]] = values[i];
+            }
+            return invoke(arguments);
+        }
+
+        /**
+         * コンストラクタを呼び出す。
+         *
+         * @param arguments 引数
+         * @return Beanのインスタンス
+         */
+        private T invoke(final Object[] arguments) {
+            try {
+                if (handle == null) {
+                    return constructor.newInstance(arguments);
+                }
+                return beanClass.cast((Object) handle.invokeExact(arguments));
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeansException("An error occurred while creating the bean. class = [" + beanClass.getName()
+                        + ']', e);
+            }
+        }
+    }
+}
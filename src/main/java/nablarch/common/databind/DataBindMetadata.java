@@ -0,0 +1,227 @@
+package nablarch.common.databind;
+
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import nablarch.common.databind.csv.Csv;
+import nablarch.common.databind.csv.CsvDataBindConfig;
+import nablarch.common.databind.csv.Quoted;
+import nablarch.core.beans.BeanUtil;
+
+/**
+ * データバインドで使用する、Beanのクラスごとの情報を保持するクラス。
+ * <p/>
+ * クラスごとに一度だけ生成して{@link ClassValue}にキャッシュするため、取得時にロックを獲得しない。
+ * 各情報は初めて参照された時に解決してキャッシュする。
+ * 複数のスレッドから同時に参照された場合は重複して解決することがあるが、結果は同じとなる。
+ * <p/>
+ * {@link Csv}で{@link Csv#recordFilter()}または{@link Csv#invalidRecordHandler()}を指定したクラスは、
+ * 状態を持つインスタンスをマッパー間で共有しないよう、{@link DataBindConfig}をキャッシュせずに毎回生成する。
+ *
+ * @author Naoki Yamamoto
+ */
+public final class DataBindMetadata {
+
+    /** Beanのクラスごとの{@link DataBindMetadata} */
+    private static final ClassValue<DataBindMetadata> METADATA = new ClassValue<DataBindMetadata>() {
+        @Override
+        protected DataBindMetadata computeValue(final Class<?> type) {
+            MISS_COUNT.increment();
+            return new DataBindMetadata(type);
+        }
+    };
+
+    /** 取得した回数 */
+    private static final LongAdder LOOKUP_COUNT = new LongAdder();
+
+    /** キャッシュに存在せず生成した回数 */
+    private static final LongAdder MISS_COUNT = new LongAdder();
+
+    /** 空の配列 */
+    private static final String[] EMPTY = new String[0];
+
+    /** Beanのクラス */
+    private final Class<?> beanClass;
+
+    /** {@link DataBindConfig}(解決していない場合は{@code null}) */
+    private volatile DataBindConfig dataBindConfig;
+
+    /** {@link Csv#properties()}(解決していない場合は{@code null}) */
+    private volatile String[] csvProperties;
+
+    /** ファイル行数を保持するプロパティ名 */
+    private volatile String lineNumberProperty;
+
+    /** ファイル行数を保持するプロパティ名を解決済みか否か */
+    private volatile boolean lineNumberPropertyResolved;
+
+    /** {@link Quoted}が設定されたプロパティ名(解決していない場合は{@code null}) */
+    private volatile String[] quotedProperties;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param beanClass Beanのクラス
+     */
+    private DataBindMetadata(final Class<?> beanClass) {
+        this.beanClass = beanClass;
+    }
+
+    /**
+     * Beanのクラスに対応した{@link DataBindMetadata}を取得する。
+     *
+     * @param beanClass Beanのクラス
+     * @return {@link DataBindMetadata}
+     */
+    public static DataBindMetadata get(final Class<?> beanClass) {
+        LOOKUP_COUNT.increment();
+        return METADATA.get(beanClass);
+    }
+
+    /**
+     * キャッシュから取得できた回数を返す。
+     *
+     * @return キャッシュから取得できた回数
+     */
+    public static long getHitCount() {
+        return LOOKUP_COUNT.sum() - MISS_COUNT.sum();
+    }
+
+    /**
+     * キャッシュに存在せず生成した回数を返す。
+     *
+     * @return キャッシュに存在せず生成した回数
+     */
+    public static long getMissCount() {
+        return MISS_COUNT.sum();
+    }
+
+    /**
+     * Beanのクラスを返す。
+     *
+     * @return Beanのクラス
+     */
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * Beanの生成とプロパティへのアクセスを行う{@link BeanBinder}を返す。
+     *
+     * @return {@link BeanBinder}
+     */
+    public BeanBinder<?> getBinder() {
+        return BeanBinder.get(beanClass);
+    }
+
+    /**
+     * Beanのクラスに設定された{@link DataBindConfig}を返す。
+     *
+     * @return {@link DataBindConfig}
+     * @throws IllegalStateException 設定が存在しない場合や、設定が正しくない場合
+     */
+    public DataBindConfig getDataBindConfig() {
+        DataBindConfig config = dataBindConfig;
+        if (config == null) {
+            config = DataBindUtil.resolveDataBindConfig(beanClass);
+            if (isShareable(config)) {
+                dataBindConfig = config;
+            }
+        }
+        return config;
+    }
+
+    /**
+     * {@link Csv#properties()}に設定されているプロパティ名を返す。
+     *
+     * @return プロパティ名
+     */
+    public String[] getCsvProperties() {
+        String[] properties = csvProperties;
+        if (properties == null) {
+            properties = beanClass.getAnnotation(Csv.class).properties();
+            csvProperties = properties;
+        }
+        return properties;
+    }
+
+    /**
+     * ファイル行数を保持するプロパティ名を返す。
+     * <p/>
+     * レコードクラスの場合は、アクセサメソッドに{@link LineNumber}が設定されたコンポーネントを対象とする。
+     *
+     * @return ファイル行数を保持するプロパティ名。存在しない場合は{@code null}
+     * @throws IllegalStateException ファイル行数を保持するプロパティが複数存在する場合
+     */
+    public String getLineNumberProperty() {
+        if (!lineNumberPropertyResolved) {
+            final List<String> names = findAnnotatedProperties(LineNumber.class);
+            if (names.size() > 1) {
+                // ファイル行数を保持するプロパティは0個か1個であるべき
+                throw new IllegalStateException(
+                        "line number column should be defined only one. class = [" + beanClass.getName() + "]");
+            }
+            lineNumberProperty = names.isEmpty() ? null : names.get(0);
+            lineNumberPropertyResolved = true;
+        }
+        return lineNumberProperty;
+    }
+
+    /**
+     * {@link Quoted}が設定されたプロパティ名を返す。
+     *
+     * @return プロパティ名
+     */
+    public String[] getQuotedProperties() {
+        String[] properties = quotedProperties;
+        if (properties == null) {
+            properties = findAnnotatedProperties(Quoted.class).toArray(EMPTY);
+            quotedProperties = properties;
+        }
+        return properties.clone();
+    }
+
+    /**
+     * ゲッタ(レコードクラスの場合はアクセサメソッド)にアノテーションが設定されたプロパティ名を取得する。
+     *
+     * @param annotation アノテーション
+     * @return プロパティ名
+     */
+    private List<String> findAnnotatedProperties(final Class<? extends Annotation> annotation) {
+        final List<String> names = new ArrayList<String>();
+        if (beanClass.isRecord()) {
+            for (final RecordComponent component : beanClass.getRecordComponents()) {
+                if (component.getAccessor().getAnnotation(annotation) != null) {
+                    names.add(component.getName());
+                }
+            }
+            return names;
+        }
+        for (final PropertyDescriptor pd : BeanUtil.getPropertyDescriptors(beanClass)) {
+            if (pd.getReadMethod() != null && pd.getReadMethod().getAnnotation(annotation) != null) {
+                names.add(pd.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * {@link DataBindConfig}をマッパー間で共有できるか否かを判定する。
+     * <p/>
+     * アノテーションから生成したレコードのフィルタや不正なレコードのハンドラを持つ場合は、共有しない。
+     *
+     * @param config {@link DataBindConfig}
+     * @return 共有できる場合は{@code true}
+     */
+    private static boolean isShareable(final DataBindConfig config) {
+        if (config instanceof CsvDataBindConfig) {
+            final CsvDataBindConfig csvConfig = (CsvDataBindConfig) config;
+            return csvConfig.getRecordFilter() == null && csvConfig.getInvalidRecordHandler() == null;
+        }
+        return true;
+    }
+}
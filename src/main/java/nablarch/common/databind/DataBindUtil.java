@@ -1,16 +1,12 @@
 package nablarch.common.databind;
 
-import java.beans.PropertyDescriptor;
 import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 import nablarch.common.databind.csv.Csv;
 import nablarch.common.databind.csv.CsvDataBindConfigConverter;
 import nablarch.common.databind.fixedlength.FixedLengthDataBindConfigConverter;
-import nablarch.core.beans.BeanUtil;
 import nablarch.core.beans.BeansException;
 import nablarch.core.util.annotation.Published;
 
@@ -29,58 +25,52 @@ public final class DataBindUtil {
     private static final List<DataBindConfigConverter<?>> CONVERTERS = Arrays.<DataBindConfigConverter<?>>asList(
             new CsvDataBindConfigConverter(), new FixedLengthDataBindConfigConverter());
 
-    /** {@link Csv#properties()}に設定されているプロパティ名配列のキャッシュ */
-    private static final Map<Class<?>, String[]> CSV_PROPERTY_NAMES_MAP = new WeakHashMap<Class<?>, String[]>();
-
     /**
      * クラスに対応したCSVのプロパティ情報を取得する。
      * <p/>
-     * キャッシュ上にCSVのプロパティ情報が存在する場合はその情報を返す。
-     * まだキャッシュされていない場合には、CSVのプロパティ情報を生成しキャッシュに格納する。
+     * CSVのプロパティ情報は{@link DataBindMetadata}にキャッシュする。
      *
      * @param clazz Beanの{@link Class}
      * @return CSVのプロパティ情報
      */
-    public static synchronized String[] findCsvProperties(final Class<?> clazz) {
-        String[] propertyNames = CSV_PROPERTY_NAMES_MAP.get(clazz);
-        if (propertyNames == null) {
-            propertyNames = clazz.getAnnotation(Csv.class)
-                                 .properties();
-            CSV_PROPERTY_NAMES_MAP.put(clazz, propertyNames);
-        }
-        return propertyNames;
+    public static String[] findCsvProperties(final Class<?> clazz) {
+        return DataBindMetadata.get(clazz).getCsvProperties();
     }
 
     /**
      * クラスに対応したファイル行数を保持するプロパティの情報を取得する。
+     * <p/>
+     * レコードクラスの場合は、アクセサメソッドに{@link LineNumber}が設定されたコンポーネントを対象とする。
+     * プロパティの情報は{@link DataBindMetadata}にキャッシュする。
      *
      * @param clazz Beanの{@link Class}
      * @return ファイル行数を保持するプロパティの情報
      */
     @Published(tag = "architect")
     public static String findLineNumberProperty(final Class<?> clazz) {
-        String propertyName = null;
-        for (PropertyDescriptor pd : BeanUtil.getPropertyDescriptors(clazz)) {
-            if (hasLineNumberProperty(pd)) {
-                if (propertyName != null) {
-                    // ファイル行数を保持するプロパティは0個か1個であるべき
-                    throw new IllegalStateException(
-                            "line number column should be defined only one. class = [" + clazz.getName() + "]");
-                }
-                propertyName = pd.getName();
-            }
-        }
-        return propertyName;
+        return DataBindMetadata.get(clazz).getLineNumberProperty();
     }
 
     /**
      * Beanの{@link Class}に設定された{@link DataBindConfig}を取得する。
+     * <p/>
+     * 設定は{@link DataBindMetadata}にキャッシュする。
      *
      * @param clazz Beanクラス
      * @param <T> 総称型
      * @return {@link DataBindConfig}オブジェクト
      */
     public static <T> DataBindConfig createDataBindConfig(final Class<T> clazz) {
+        return DataBindMetadata.get(clazz).getDataBindConfig();
+    }
+
+    /**
+     * Beanの{@link Class}に設定されたアノテーションから{@link DataBindConfig}を生成する。
+     *
+     * @param clazz Beanクラス
+     * @return {@link DataBindConfig}オブジェクト
+     */
+    static DataBindConfig resolveDataBindConfig(final Class<?> clazz) {
         for (final DataBindConfigConverter<?> converter : CONVERTERS) {
             if (clazz.getAnnotation(converter.getType()) != null) {
                 return converter.convert(clazz);
@@ -91,6 +81,8 @@ public final class DataBindUtil {
 
     /**
      * Beanのインスタンスを生成する。
+     * <p/>
+     * コンストラクタバインディングで生成するクラスの場合は、全ての値をコンストラクタに渡して生成する。
      *
      * @param clazz Beanクラス
      * @param propertyNames プロパティ名の配列
@@ -100,11 +92,14 @@ public final class DataBindUtil {
      */
     @Published(tag = "architect")
     public static <T> T getInstance(Class<T> clazz, String[] propertyNames, String[] values) {
-        T bean;
-        bean = newInstance(clazz);
+        final BeanBinder<T> binder = BeanBinder.get(clazz);
+        if (binder.isConstructorBinding()) {
+            return binder.getCreator(Arrays.copyOf(propertyNames, values.length)).newInstance(values);
+        }
+        final T bean = binder.newInstance();
 
         for (int i = 0; i < values.length; i++) {
-            BeanUtil.setProperty(bean, propertyNames[i], values[i]);
+            binder.getAccessor(propertyNames[i]).set(bean, values[i]);
         }
         return bean;
     }
@@ -119,6 +114,8 @@ public final class DataBindUtil {
 
     /**
      * ファイル行数を持つBeanのインスタンスを生成する。
+     * <p/>
+     * コンストラクタバインディングで生成するクラスの場合は、ファイル行数も含めた全ての値をコンストラクタに渡して生成する。
      *
      * @param clazz Beanクラス
      * @param propertyNames プロパティ名の配列
@@ -132,30 +129,22 @@ public final class DataBindUtil {
     public static <T> T getInstanceWithLineNumber(Class<T> clazz, String[] propertyNames, String[] values,
             String lineNumberPropertyName, long lineNumber) {
 
-        T bean;
-        try {
-            bean = clazz.newInstance();
-        } catch (Exception e) {
-            throw new BeansException(e);
+        final BeanBinder<T> binder = BeanBinder.get(clazz);
+        if (binder.isConstructorBinding()) {
+            final String[] names = Arrays.copyOf(propertyNames, values.length + 1);
+            names[values.length] = lineNumberPropertyName;
+            final Object[] arguments = Arrays.copyOf(values, values.length + 1, Object[].class);
+            arguments[values.length] = lineNumber;
+            return binder.getCreator(names).newInstance(arguments);
         }
+        final T bean = binder.newInstance();
 
         for (int i = 0; i < values.length; i++) {
-            BeanUtil.setProperty(bean, propertyNames[i], values[i]);
+            binder.getAccessor(propertyNames[i]).set(bean, values[i]);
         }
 
-        BeanUtil.setProperty(bean, lineNumberPropertyName, lineNumber);
+        binder.getAccessor(lineNumberPropertyName).set(bean, lineNumber);
 
         return bean;
     }
-
-    /**
-     * {@link LineNumber}アノテーションが設定されたプロパティが存在するか否かを判定する。
-     *
-     * @param pd Beanの{@link PropertyDescriptor}
-     * @return {@link LineNumber}アノテーションが設定されたプロパティが存在する場合は{@code true}
-     */
-    private static boolean hasLineNumberProperty(PropertyDescriptor pd) {
-        return pd.getReadMethod() != null && pd.getReadMethod()
-                                               .getAnnotation(LineNumber.class) != null;
-    }
 }
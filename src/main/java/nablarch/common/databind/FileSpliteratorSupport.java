@@ -0,0 +1,196 @@
+package nablarch.common.databind;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * ファイルをレコードの境界で分割しながら読み込む{@link Spliterator}のサポートクラス。
+ * <p/>
+ * ファイルは0から{@code count}までの番号を振った境界で区切られているものとし、
+ * 本クラスは境界の番号の範囲を読み込み対象として保持する。
+ * 分割は読み込みを開始する前の範囲を境界の番号で二等分して行い、
+ * 読み込みは範囲全体を1つの{@link ObjectMapper}で順に行う。
+ * <p/>
+ * 分割したインスタンスは読み込み中の{@link ObjectMapper}を共有して管理し、
+ * 範囲を読み終える前にストリームの処理が終了した場合は、{@link #closeMappers()}でまとめて閉じる。
+ * <p/>
+ * 境界のファイル上の位置とレコード番号、範囲を読み込む{@link ObjectMapper}の生成はサブクラスで行う。
+ * サブクラスは、同じファイルを読み込む複数のインスタンスが別のスレッドから同時に使用されることを考慮すること。
+ *
+ * @param <T> 読み込むオブジェクトの型
+ * @author Naoki Yamamoto
+ */
+public abstract class FileSpliteratorSupport<T> implements Spliterator<T> {
+
+    /** 範囲の先頭の境界の番号 */
+    private int from;
+
+    /** 範囲の終端の境界の番号 */
+    private int to;
+
+    /** 範囲を読み込む{@link ObjectMapper}(読み込みを開始するまでは{@code null}) */
+    private ObjectMapper<T> mapper;
+
+    /** 範囲を読み終えたか否か */
+    private boolean finished;
+
+    /** 分割元と共有する、読み込み中の{@link ObjectMapper} */
+    private Set<ObjectMapper<T>> openMappers =
+            Collections.newSetFromMap(new ConcurrentHashMap<ObjectMapper<T>, Boolean>());
+
+    /**
+     * コンストラクタ。
+     *
+     * @param from 範囲の先頭の境界の番号
+     * @param to 範囲の終端の境界の番号
+     */
+    protected FileSpliteratorSupport(final int from, final int to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        if (finished) {
+            return false;
+        }
+        if (mapper == null) {
+            mapper = createMapper(getOffset(from), getOffset(to), getLineNumber(from));
+            openMappers.add(mapper);
+        }
+        final T object;
+        try {
+            object = mapper.read();
+        } catch (RuntimeException e) {
+            finish();
+            throw e;
+        }
+        if (object == null) {
+            finish();
+            return false;
+        }
+        action.accept(object);
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (mapper != null || finished || to - from < 2) {
+            return null;
+        }
+        final int middle = (from + to) >>> 1;
+        final FileSpliteratorSupport<T> prefix = newSpliterator(from, middle);
+        prefix.openMappers = openMappers;
+        from = middle;
+        return prefix;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 件数は事前に分からないため、範囲のバイト数を推定値として返す。
+     */
+    @Override
+    public long estimateSize() {
+        return finished ? 0L : getOffset(to) - getOffset(from);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * 読み込みを開始したか否かを返す。
+     *
+     * @return 読み込みを開始した場合は{@code true}
+     */
+    protected boolean isStarted() {
+        return mapper != null || finished;
+    }
+
+    /**
+     * 範囲の終端の境界の番号を変更する。
+     * <p/>
+     * 境界を初めて分割する際に、境界の数を確定させるために使用する。
+     * 読み込みを開始する前に呼び出すこと。
+     *
+     * @param newTo 範囲の終端の境界の番号
+     */
+    protected void setTo(final int newTo) {
+        to = newTo;
+    }
+
+    /**
+     * 本インスタンスと分割したインスタンスで読み込み中の{@link ObjectMapper}を全て閉じる。
+     * <p/>
+     * {@link java.util.stream.Stream#findFirst()}などで範囲を読み終える前にストリームの処理が終了した場合に、
+     * 先読みや並列の変換に使用するスレッドを停止するため、ストリームを閉じる際に呼び出す。
+     */
+    protected void closeMappers() {
+        for (final ObjectMapper<T> openMapper : openMappers) {
+            close(openMapper);
+        }
+    }
+
+    /**
+     * 範囲の読み込みを終了し、{@link ObjectMapper}を閉じる。
+     */
+    private void finish() {
+        finished = true;
+        if (mapper != null) {
+            close(mapper);
+        }
+    }
+
+    /**
+     * 読み込み中の{@link ObjectMapper}を閉じる。
+     * <p/>
+     * 既に閉じている場合は何もしない。
+     *
+     * @param openMapper 読み込み中の{@link ObjectMapper}
+     */
+    private void close(final ObjectMapper<T> openMapper) {
+        if (openMappers.remove(openMapper)) {
+            openMapper.close();
+        }
+    }
+
+    /**
+     * 境界のファイル上の位置を返す。
+     *
+     * @param index 境界の番号
+     * @return ファイル上の位置(バイト)
+     */
+    protected abstract long getOffset(int index);
+
+    /**
+     * 境界の直後のレコードのレコード番号を返す。
+     *
+     * @param index 境界の番号
+     * @return レコード番号
+     */
+    protected abstract long getLineNumber(int index);
+
+    /**
+     * ファイル上の範囲を読み込む{@link ObjectMapper}を生成する。
+     *
+     * @param start 範囲の先頭(この位置を含む)
+     * @param end 範囲の終端(この位置を含まない)
+     * @param firstLineNumber 範囲の先頭のレコード番号
+     * @return 範囲を読み込む{@link ObjectMapper}
+     */
+    protected abstract ObjectMapper<T> createMapper(long start, long end, long firstLineNumber);
+
+    /**
+     * 分割した範囲を読み込むインスタンスを生成する。
+     *
+     * @param from 範囲の先頭の境界の番号
+     * @param to 範囲の終端の境界の番号
+     * @return 範囲を読み込むインスタンス
+     */
+    protected abstract FileSpliteratorSupport<T> newSpliterator(int from, int to);
+}
@@ -0,0 +1,58 @@
+package nablarch.common.databind;
+
+/**
+ * {@link nablarch.common.databind.processor.BeanAccessorProcessor}がコンパイル時に生成する、Beanにアクセスするクラスのインタフェース。
+ * <p/>
+ * 実装クラスはBeanのクラスと同じパッケージに、Beanのクラスのバイナリ名に{@link #SUFFIX}を付けた名前で生成される。
+ * {@link BeanBinder}は実装クラスが存在する場合、コンストラクタとプロパティの呼び出しに使用する。
+ * <p/>
+ * プロパティは、セッタとゲッタそれぞれで0始まりのインデックスにより指定する。
+ * 値の変換は行わないため、{@link #set(Object, int, Object)}にはプロパティの型の値を渡すこと。
+ *
+ * @param <T> Beanの型
+ * @author Naoki Yamamoto
+ */
+public interface GeneratedBeanAccessor<T> {
+
+    /** 実装クラスの名前に付ける接尾辞 */
+    String SUFFIX = "_DataBindAccessor";
+
+    /**
+     * デフォルトコンストラクタでBeanを生成する。
+     *
+     * @return Beanのインスタンス
+     */
+    T newInstance();
+
+    /**
+     * セッタを持つプロパティの名前を返す。
+     *
+     * @return プロパティ名(インデックスの順)
+     */
+    String[] getWritablePropertyNames();
+
+    /**
+     * ゲッタを持つプロパティの名前を返す。
+     *
+     * @return プロパティ名(インデックスの順)
+     */
+    String[] getReadablePropertyNames();
+
+    /**
+     * プロパティに値を設定する。
+     *
+     * @param bean Bean
+     * @param index {@link #getWritablePropertyNames()}上のインデックス
+     * @param value プロパティの型の値
+     */
+    void set(T bean, int index, Object value);
+
+    /**
+     * プロパティの値を取得する。
+     *
+     * @param bean Bean
+     * @param index {@link #getReadablePropertyNames()}上のインデックス
+     * @return プロパティの値
+     */
+    Object get(T bean, int index);
+}
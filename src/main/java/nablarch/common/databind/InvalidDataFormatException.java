@@ -27,6 +27,21 @@ public class InvalidDataFormatException extends RuntimeException {
         this.lineNumber = lineNumber;
     }
 
+    /**
+     * 指定された行番号とメッセージを持つ{@code InvalidCsvFormatException}を生成する。
+     * <p/>
+     * 不正なレコードを読み飛ばす場合など大量に生成する場合は、
+     * スタックトレースを記録しないことで生成のコストを抑えられる。
+     *
+     * @param message メッセージ
+     * @param lineNumber 行番号
+     * @param writableStackTrace スタックトレースを記録する場合は{@code true}
+     */
+    public InvalidDataFormatException(final String message, final long lineNumber, final boolean writableStackTrace) {
+        super(MESSAGE + message + " line number = [" + lineNumber + ']', null, true, writableStackTrace);
+        this.lineNumber = lineNumber;
+    }
+
     /**
      * エラー発生レコード番号を取得する。
      * @return エラー発生レコード番号
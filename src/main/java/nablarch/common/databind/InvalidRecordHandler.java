@@ -0,0 +1,33 @@
+package nablarch.common.databind;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * フォーマットが不正なレコードを読み飛ばして読み込みを続ける場合に、不正なレコードを受け取るインタフェース。
+ * <p/>
+ * 不正なレコードを別ファイルに出力するなど、後から再処理できるように退避する用途で使用する。
+ * 本インタフェースを設定した場合、不正なレコードで{@link InvalidDataFormatException}を送出せずに、
+ * 次のレコードの先頭から読み込みを再開する。
+ * <p/>
+ * 受け取る{@link InvalidDataFormatException}は、大量の不正なレコードを高速に処理するため、スタックトレースを持たない。
+ * <p/>
+ * 並列に読み込む場合は複数のスレッドから同時に呼び出されるため、スレッドセーフに実装すること。
+ *
+ * @author Naoki Yamamoto
+ * @see nablarch.common.databind.csv.CsvDataBindConfig#withInvalidRecordHandler(InvalidRecordHandler)
+ * @see nablarch.common.databind.fixedlength.FixedLengthDataBindConfig#withInvalidRecordHandler(InvalidRecordHandler)
+ */
+@Published
+public interface InvalidRecordHandler {
+
+    /**
+     * 不正なレコードを処理する。
+     * <p/>
+     * レコードは、入力上のレコードの先頭から読み込みを再開する位置までを、改行文字を除いて文字列としたものである。
+     * 固定長の場合は、レコードのバイト列を設定された文字コードで文字列に変換したものである。
+     *
+     * @param record 不正なレコード
+     * @param cause 不正の理由とレコード番号を持つ例外
+     */
+    void handle(String record, InvalidDataFormatException cause);
+}
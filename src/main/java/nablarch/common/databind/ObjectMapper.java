@@ -29,6 +29,23 @@ public interface ObjectMapper<T> extends Closeable {
     @Published
     T read();
 
+    /**
+     * 指定されたオブジェクトに、次のレコードをマッピングする。
+     * <p/>
+     * 新たなオブジェクトを生成せずに、呼び出し元が所有するオブジェクトの値をレコードごとに上書きする。
+     * 返却したオブジェクトは次の呼び出しで上書きされるため、保持する場合は呼び出し元で複製すること。
+     * <p/>
+     * デフォルト実装は{@link UnsupportedOperationException}を送出する。
+     *
+     * @param target マッピング先のオブジェクト
+     * @return マッピング先のオブジェクト。レコードが存在しない場合は{@code null}
+     * @throws UnsupportedOperationException オブジェクトを再利用したマッピングに対応していない場合
+     */
+    @Published
+    default T read(T target) {
+        throw new UnsupportedOperationException("unsupported read method.");
+    }
+
     /**
      * リソースを開放する。
      */
@@ -1,18 +1,32 @@
 package nablarch.common.databind;
 
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import nablarch.common.databind.csv.BeanCsvMapper;
 import nablarch.common.databind.csv.CsvBeanMapper;
 import nablarch.common.databind.csv.CsvDataBindConfig;
 import nablarch.common.databind.csv.CsvMapMapper;
+import nablarch.common.databind.csv.CsvObjectMapperSupport;
+import nablarch.common.databind.csv.CsvParallelReader;
+import nablarch.common.databind.csv.CsvSpliterator;
 import nablarch.common.databind.csv.MapCsvMapper;
+import nablarch.common.databind.fixedlength.FixedLengthBeanMapper;
+import nablarch.common.databind.fixedlength.FixedLengthDataBindConfig;
+import nablarch.common.databind.fixedlength.FixedLengthMapMapper;
+import nablarch.common.databind.fixedlength.FixedLengthSpliterator;
 import nablarch.core.repository.SystemRepository;
+import nablarch.core.util.FileUtil;
 import nablarch.core.util.annotation.Published;
 
 /**
@@ -206,6 +220,358 @@ public abstract class ObjectMapperFactory {
         return factory.createMapper(clazz, writer, dataBindConfig);
     }
 
+    /**
+     * 指定された読み込み位置から読み込みを再開する、入力用の{@link ObjectMapper}を生成する。
+     * <p/>
+     * 読み込み位置は、読み込み中の{@link ObjectMapper}から取得したものを指定する
+     * ({@link CsvObjectMapperSupport#getPosition()}、{@link FixedLengthBeanMapper#getPosition()}など)。
+     * 読み込み位置より前のデータは読み込まない。
+     *
+     * @param clazz バインディング対象のJavaのクラス
+     * @param path 読み込むファイル
+     * @param position 読み込みを再開する位置
+     * @param <T> バインディング対象のJavaのクラス
+     * @return データとJava ObjectのMapper
+     */
+    @Published
+    public static <T> ObjectMapper<T> create(final Class<T> clazz, final Path path, final ReadPosition position) {
+        final ObjectMapperFactory factory = createFactory();
+        return factory.createMapper(clazz, path, position);
+    }
+
+    /**
+     * 指定された読み込み位置から読み込みを再開する、入力用の{@link ObjectMapper}を生成する。
+     *
+     * @param clazz バインディング対象のJavaのクラス
+     * @param path 読み込むファイル
+     * @param dataBindConfig マッパー設定
+     * @param position 読み込みを再開する位置
+     * @param <T> バインディング対象のJavaのクラス
+     * @return データとJava ObjectのMapper
+     * @see #create(Class, Path, ReadPosition)
+     */
+    @Published
+    public static <T> ObjectMapper<T> create(final Class<T> clazz, final Path path,
+            final DataBindConfig dataBindConfig, final ReadPosition position) {
+        final ObjectMapperFactory factory = createFactory();
+        return factory.createMapper(clazz, path, dataBindConfig, position);
+    }
+
+    /**
+     * ファイルを読み込む{@link Stream}を生成する。
+     * <p/>
+     * ストリームは、ファイル上のレコードの順に要素を返す。
+     * {@link Stream#parallel()}で並列ストリームとした場合、ファイルをレコードの境界で分割し、
+     * 分割した範囲ごとに別のスレッドで読み込む。
+     * CSVファイルはクォート文字の偶奇からレコードの先頭を求めて分割し({@link CsvSpliterator}を参照)、
+     * 固定長ファイルはレコード長から求めたレコードの先頭で分割する({@link FixedLengthSpliterator}を参照)。
+     * <p/>
+     * ファイルはストリームの{@link Stream#close()}で閉じるため、try-with-resources文で使用すること。
+     *
+     * @param clazz バインディング対象のJavaのクラス
+     * @param path 読み込むファイル
+     * @param <T> バインディング対象のJavaのクラス
+     * @return ファイルを読み込む{@link Stream}
+     */
+    @Published
+    public static <T> Stream<T> stream(final Class<T> clazz, final Path path) {
+        final ObjectMapperFactory factory = createFactory();
+        return factory.createStream(clazz, path);
+    }
+
+    /**
+     * ファイルを読み込む{@link Stream}を生成する。
+     *
+     * @param clazz バインディング対象のJavaのクラス
+     * @param path 読み込むファイル
+     * @param dataBindConfig マッパー設定
+     * @param <T> バインディング対象のJavaのクラス
+     * @return ファイルを読み込む{@link Stream}
+     * @see #stream(Class, Path)
+     */
+    @Published
+    public static <T> Stream<T> stream(final Class<T> clazz, final Path path, final DataBindConfig dataBindConfig) {
+        final ObjectMapperFactory factory = createFactory();
+        return factory.createStream(clazz, path, dataBindConfig);
+    }
+
+    /**
+     * ファイルを並列に読み込み、読み込んだオブジェクトごとにアクションを実行する。
+     * <p/>
+     * CSVファイルの場合は、ファイルを複数の範囲に分割し、範囲ごとに別のスレッドで読み込む({@link CsvParallelReader}を参照)。
+     * アクションは複数のスレッドから同時に呼び出されるため、スレッドセーフであること。
+     * また、範囲をまたいだ処理の順序は保証しない。
+     * CSV以外のファイルの場合は、1スレッドで順に読み込む。
+     *
+     * @param clazz バインディング対象のJavaのクラス
+     * @param path 読み込むファイル
+     * @param parallelism 並列度
+     * @param action 読み込んだオブジェクトを処理するアクション
+     * @param <T> バインディング対象のJavaのクラス
+     */
+    @Published
+    public static <T> void forEachInParallel(
+            final Class<T> clazz, final Path path, final int parallelism, final Consumer<? super T> action) {
+        final ObjectMapperFactory factory = createFactory();
+        factory.readInParallel(clazz, path, parallelism, action);
+    }
+
+    /**
+     * ファイルを並列に読み込み、読み込んだオブジェクトごとにアクションを実行する。
+     * <p/>
+     * CSVファイルの場合は、ファイルを複数の範囲に分割し、範囲ごとに別のスレッドで読み込む({@link CsvParallelReader}を参照)。
+     * アクションは複数のスレッドから同時に呼び出されるため、スレッドセーフであること。
+     * また、範囲をまたいだ処理の順序は保証しない。
+     * CSV以外のファイルの場合は、1スレッドで順に読み込む。
+     *
+     * @param clazz バインディング対象のJavaのクラス
+     * @param path 読み込むファイル
+     * @param dataBindConfig マッパー設定
+     * @param parallelism 並列度
+     * @param action 読み込んだオブジェクトを処理するアクション
+     * @param <T> バインディング対象のJavaのクラス
+     */
+    @Published
+    public static <T> void forEachInParallel(final Class<T> clazz, final Path path,
+            final DataBindConfig dataBindConfig, final int parallelism, final Consumer<? super T> action) {
+        final ObjectMapperFactory factory = createFactory();
+        factory.readInParallel(clazz, path, dataBindConfig, parallelism, action);
+    }
+
+    /**
+     * ファイルを並列に読み込み、読み込んだオブジェクトごとにアクションを実行する。
+     * <p/>
+     * マッピング設定はバインディング対象のクラスのアノテーションから生成する。
+     *
+     * @param clazz データとのバインディングを行うクラス
+     * @param path 読み込むファイル
+     * @param parallelism 並列度
+     * @param action 読み込んだオブジェクトを処理するアクション
+     * @param <T> バインディング対象のJavaのクラス
+     */
+    public <T> void readInParallel(
+            final Class<T> clazz, final Path path, final int parallelism, final Consumer<? super T> action) {
+        final DataBindConfig dataBindConfig = DataBindUtil.createDataBindConfig(clazz);
+        if (dataBindConfig instanceof CsvDataBindConfig) {
+            new CsvParallelReader<T>(clazz, (CsvDataBindConfig) dataBindConfig, path, parallelism).forEach(action);
+            return;
+        }
+        final InputStream stream = newInputStream(path);
+        final ObjectMapper<T> mapper;
+        try {
+            mapper = createMapper(clazz, stream);
+        } catch (RuntimeException e) {
+            FileUtil.closeQuietly(stream);
+            throw e;
+        }
+        readAll(mapper, action);
+    }
+
+    /**
+     * ファイルを並列に読み込み、読み込んだオブジェクトごとにアクションを実行する。
+     *
+     * @param clazz データとのバインディングを行うクラス
+     * @param path 読み込むファイル
+     * @param dataBindConfig マッピング設定
+     * @param parallelism 並列度
+     * @param action 読み込んだオブジェクトを処理するアクション
+     * @param <T> バインディング対象のJavaのクラス
+     */
+    public <T> void readInParallel(final Class<T> clazz, final Path path, final DataBindConfig dataBindConfig,
+            final int parallelism, final Consumer<? super T> action) {
+        if (!Map.class.isAssignableFrom(clazz)) {
+            throw new IllegalArgumentException("this class should not be set config. class = [" + clazz.getName() + ']');
+        }
+        if (dataBindConfig instanceof CsvDataBindConfig) {
+            new CsvParallelReader<T>(clazz, (CsvDataBindConfig) dataBindConfig, path, parallelism).forEach(action);
+            return;
+        }
+        final InputStream stream = newInputStream(path);
+        final ObjectMapper<T> mapper;
+        try {
+            mapper = createMapper(clazz, stream, dataBindConfig);
+        } catch (RuntimeException e) {
+            FileUtil.closeQuietly(stream);
+            throw e;
+        }
+        readAll(mapper, action);
+    }
+
+    /**
+     * ファイルを読み込む{@link Stream}を生成する。
+     * <p/>
+     * マッピング設定はバインディング対象のクラスのアノテーションから生成する。
+     *
+     * @param clazz データとのバインディングを行うクラス
+     * @param path 読み込むファイル
+     * @param <T> バインディング対象のJavaのクラス
+     * @return ファイルを読み込む{@link Stream}
+     */
+    public <T> Stream<T> createStream(final Class<T> clazz, final Path path) {
+        return createFileStream(clazz, DataBindUtil.createDataBindConfig(clazz), path);
+    }
+
+    /**
+     * ファイルを読み込む{@link Stream}を生成する。
+     *
+     * @param clazz データとのバインディングを行うクラス
+     * @param path 読み込むファイル
+     * @param dataBindConfig マッピング設定
+     * @param <T> バインディング対象のJavaのクラス
+     * @return ファイルを読み込む{@link Stream}
+     */
+    public <T> Stream<T> createStream(final Class<T> clazz, final Path path, final DataBindConfig dataBindConfig) {
+        if (!Map.class.isAssignableFrom(clazz)) {
+            throw new IllegalArgumentException("this class should not be set config. class = [" + clazz.getName() + ']');
+        }
+        return createFileStream(clazz, dataBindConfig, path);
+    }
+
+    /**
+     * ファイルを読み込む{@link Stream}を生成する。
+     *
+     * @param clazz データとのバインディングを行うクラス
+     * @param dataBindConfig マッピング設定
+     * @param path 読み込むファイル
+     * @param <T> バインディング対象のJavaのクラス
+     * @return ファイルを読み込む{@link Stream}
+     */
+    private static <T> Stream<T> createFileStream(final Class<T> clazz, final DataBindConfig dataBindConfig,
+            final Path path) {
+        if (dataBindConfig instanceof CsvDataBindConfig) {
+            return CsvSpliterator.stream(clazz, (CsvDataBindConfig) dataBindConfig, path);
+        } else if (dataBindConfig instanceof FixedLengthDataBindConfig) {
+            return FixedLengthSpliterator.stream(clazz, (FixedLengthDataBindConfig) dataBindConfig, path);
+        }
+        throw new IllegalArgumentException("Unsupported config or class. class = [" + clazz.getName() + "],"
+                + " config = [" + (dataBindConfig == null ? "null" : dataBindConfig.getClass().getName()) + ']');
+    }
+
+    /**
+     * 指定された読み込み位置から読み込みを再開する{@link ObjectMapper}を生成する。
+     * <p/>
+     * マッピング設定はバインディング対象のクラスのアノテーションから生成する。
+     *
+     * @param clazz データとのバインディングを行うクラス
+     * @param path 読み込むファイル
+     * @param position 読み込みを再開する位置
+     * @param <T> バインディング対象のJavaのクラス
+     * @return データとJava ObjectのMapper
+     */
+    public <T> ObjectMapper<T> createMapper(final Class<T> clazz, final Path path, final ReadPosition position) {
+        return createRestartMapper(clazz, DataBindUtil.createDataBindConfig(clazz), path, position);
+    }
+
+    /**
+     * 指定された読み込み位置から読み込みを再開する{@link ObjectMapper}を生成する。
+     *
+     * @param clazz データとのバインディングを行うクラス
+     * @param path 読み込むファイル
+     * @param dataBindConfig マッピング設定
+     * @param position 読み込みを再開する位置
+     * @param <T> バインディング対象のJavaのクラス
+     * @return データとJava ObjectのMapper
+     */
+    public <T> ObjectMapper<T> createMapper(final Class<T> clazz, final Path path,
+            final DataBindConfig dataBindConfig, final ReadPosition position) {
+        if (!Map.class.isAssignableFrom(clazz)) {
+            throw new IllegalArgumentException("this class should not be set config. class = [" + clazz.getName() + ']');
+        }
+        if (dataBindConfig instanceof CsvDataBindConfig) {
+            ((CsvDataBindConfig) dataBindConfig).verify();
+        }
+        return createRestartMapper(clazz, dataBindConfig, path, position);
+    }
+
+    /**
+     * 指定された読み込み位置から読み込みを再開する{@link ObjectMapper}を生成する。
+     * <p/>
+     * {@link ObjectMapper}の生成に失敗した場合は、開いたファイルを閉じる。
+     *
+     * @param clazz データとのバインディングを行うクラス
+     * @param dataBindConfig マッピング設定
+     * @param path 読み込むファイル
+     * @param position 読み込みを再開する位置
+     * @param <T> バインディング対象のJavaのクラス
+     * @return データとJava ObjectのMapper
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectMapper<T> createRestartMapper(final Class<T> clazz, final DataBindConfig dataBindConfig,
+            final Path path, final ReadPosition position) {
+        if (!(dataBindConfig instanceof CsvDataBindConfig) && !(dataBindConfig instanceof FixedLengthDataBindConfig)) {
+            throw new IllegalArgumentException("Unsupported config or class. class = [" + clazz.getName() + "],"
+                    + " config = [" + (dataBindConfig == null ? "null" : dataBindConfig.getClass().getName()) + ']');
+        }
+        final boolean map = Map.class.isAssignableFrom(clazz);
+        final InputStream stream = newInputStream(path, position);
+        try {
+            if (dataBindConfig instanceof CsvDataBindConfig) {
+                final CsvDataBindConfig config = (CsvDataBindConfig) dataBindConfig;
+                return map ? (ObjectMapper<T>) new CsvMapMapper(config, stream, position)
+                        : new CsvBeanMapper<T>(clazz, config, stream, position);
+            }
+            final FixedLengthDataBindConfig config = (FixedLengthDataBindConfig) dataBindConfig;
+            return map ? (ObjectMapper<T>) new FixedLengthMapMapper(config, stream, position)
+                    : new FixedLengthBeanMapper<T>(clazz, config, stream, position);
+        } catch (RuntimeException e) {
+            FileUtil.closeQuietly(stream);
+            throw e;
+        }
+    }
+
+    /**
+     * 読み込み位置に移動したファイルの入力ストリームを開く。
+     * <p/>
+     * 読み込み中に位置を移動できるよう、{@link FileInputStream}を使用する。
+     *
+     * @param path ファイル
+     * @param position 読み込み位置
+     * @return 入力ストリーム
+     */
+    private static InputStream newInputStream(final Path path, final ReadPosition position) {
+        FileInputStream stream = null;
+        try {
+            stream = new FileInputStream(path.toFile());
+            stream.getChannel().position(position.getOffset());
+            return stream;
+        } catch (IOException e) {
+            FileUtil.closeQuietly(stream);
+            throw new RuntimeException("failed to read file.", e);
+        }
+    }
+
+    /**
+     * ファイルの入力ストリームを開く。
+     *
+     * @param path ファイル
+     * @return 入力ストリーム
+     */
+    private static InputStream newInputStream(final Path path) {
+        try {
+            return Files.newInputStream(path);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+    }
+
+    /**
+     * 全てのオブジェクトを順に読み込み、アクションを実行する。
+     *
+     * @param mapper 読み込みに使用する{@link ObjectMapper}
+     * @param action 読み込んだオブジェクトを処理するアクション
+     * @param <T> バインディング対象のJavaのクラス
+     */
+    private static <T> void readAll(final ObjectMapper<T> mapper, final Consumer<? super T> action) {
+        try {
+            T object;
+            while ((object = mapper.read()) != null) {
+                action.accept(object);
+            }
+        } finally {
+            mapper.close();
+        }
+    }
+
     /**
      * {@link ObjectMapper}を生成する。
      *
@@ -0,0 +1,66 @@
+package nablarch.common.databind;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * ファイル上の範囲を読み込む{@link InputStream}。
+ * <p/>
+ * 位置を指定して読み込むため、同じチャネルを複数のスレッドから同時に使用できる。
+ * チャネルはファイル全体で共有することを想定しているため、{@link #close()}ではチャネルを閉じない。
+ *
+ * @author Naoki Yamamoto
+ */
+public final class RangeInputStream extends InputStream {
+
+    /** ファイルのチャネル */
+    private final FileChannel channel;
+
+    /** 範囲の終端 */
+    private final long end;
+
+    /** 次に読み込む位置 */
+    private long position;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param channel ファイルのチャネル
+     * @param start 範囲の先頭
+     * @param end 範囲の終端
+     */
+    public RangeInputStream(final FileChannel channel, final long start, final long end) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        final long remaining = end - position;
+        if (remaining <= 0) {
+            return -1;
+        }
+        final int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), position);
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.max(0L, Math.min(end - position, Integer.MAX_VALUE));
+    }
+}
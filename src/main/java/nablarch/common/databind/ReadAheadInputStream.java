@@ -0,0 +1,107 @@
+package nablarch.common.databind;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 入力ストリームを別スレッドで先読みする{@link InputStream}。
+ * <p/>
+ * 指定された数のバッファを循環させ、呼び出し側がデータを処理している間に次のデータを読み込む。
+ * バッファ数を2とした場合はダブルバッファリングとなる。
+ * ネットワークファイルシステム上のファイルなど、読み込みの待ち時間が大きい入力に使用する。
+ * <p/>
+ * {@link #read(byte[], int, int)}は、入力の終端に達しない限り指定された長さを読み込むまで待機する。
+ * 本クラスはスレッドセーフではない。
+ *
+ * @author Naoki Yamamoto
+ */
+public final class ReadAheadInputStream extends InputStream {
+
+    /** 先読みを行う{@link ReadAheadPipeline} */
+    private final ReadAheadPipeline<byte[]> pipeline;
+
+    /** 読み込み中のバッファ */
+    private ReadAheadPipeline.Block<byte[]> block;
+
+    /** 読み込み中のバッファ上の次に読み込む位置 */
+    private int position;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param in 先読みする入力ストリーム
+     * @param bufferCount バッファ数
+     * @param bufferSize バッファ1つあたりのサイズ(バイト)
+     * @throws IllegalArgumentException バッファ数またはバッファサイズが0以下の場合
+     */
+    public ReadAheadInputStream(final InputStream in, final int bufferCount, final int bufferSize) {
+        if (bufferCount <= 0) {
+            throw new IllegalArgumentException("buffer count must be greater than 0. buffer count = [" + bufferCount + ']');
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("buffer size must be greater than 0. buffer size = [" + bufferSize + ']');
+        }
+        final byte[][] buffers = new byte[bufferCount][bufferSize];
+        pipeline = new ReadAheadPipeline<byte[]>(new ReadAheadPipeline.Source<byte[]>() {
+            @Override
+            public int read(final byte[] buffer) throws IOException {
+                return in.read(buffer);
+            }
+
+            @Override
+            public void close() throws IOException {
+                in.close();
+            }
+        }, buffers);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        return block.data[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int count = 0;
+        while (count < len && ensureAvailable()) {
+            final int n = Math.min(len - count, block.length - position);
+            System.arraycopy(block.data, position, b, off + count, n);
+            position += n;
+            count += n;
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    @Override
+    public int available() {
+        return block == null || block.length < 0 ? 0 : block.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        pipeline.close();
+    }
+
+    /**
+     * 読み込み中のバッファに未読のデータが存在する状態にする。
+     *
+     * @return 未読のデータが存在する場合は{@code true}、入力の終端に達した場合は{@code false}
+     * @throws IOException 入力の読み込みに失敗した場合
+     */
+    private boolean ensureAvailable() throws IOException {
+        while (block == null || position >= block.length) {
+            if (block != null && block.length < 0) {
+                return false;
+            }
+            block = pipeline.next();
+            position = 0;
+        }
+        return true;
+    }
+}
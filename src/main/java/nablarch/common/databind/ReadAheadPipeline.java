@@ -0,0 +1,185 @@
+package nablarch.common.databind;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 入力を別スレッドで先読みし、固定数のバッファを循環させて受け渡すクラス。
+ * <p/>
+ * 先読みスレッドは空きバッファに入力を読み込み、読み込み済みのバッファとして呼び出し側に渡す。
+ * 呼び出し側が読み終えたバッファは空きバッファに戻して再利用するため、
+ * 先読みするデータ量はバッファ数までに制限される。
+ * <p/>
+ * 呼び出し側は1スレッドであること。
+ *
+ * @param <B> バッファの型(byte[]またはchar[])
+ * @author Naoki Yamamoto
+ */
+final class ReadAheadPipeline<B> {
+
+    /**
+     * 先読みする入力。
+     *
+     * @param <B> バッファの型
+     */
+    interface Source<B> {
+
+        /**
+         * バッファに入力を読み込む。
+         *
+         * @param buffer バッファ
+         * @return 読み込んだ長さ。入力の終端に達した場合は{@code -1}
+         * @throws IOException 入力の読み込みに失敗した場合
+         */
+        int read(B buffer) throws IOException;
+
+        /**
+         * 入力を閉じる。
+         *
+         * @throws IOException 入力を閉じることに失敗した場合
+         */
+        void close() throws IOException;
+    }
+
+    /**
+     * 受け渡すバッファ。
+     *
+     * @param <B> バッファの型
+     */
+    static final class Block<B> {
+
+        /** バッファ */
+        final B data;
+
+        /** 読み込んだ長さ(入力の終端の場合は{@code -1}) */
+        int length;
+
+        /** 読み込みで発生した例外 */
+        IOException error;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param data バッファ
+         */
+        Block(final B data) {
+            this.data = data;
+        }
+    }
+
+    /** 先読みする入力 */
+    private final Source<B> source;
+
+    /** 空きバッファ */
+    private final BlockingQueue<Block<B>> free;
+
+    /** 読み込み済みのバッファ */
+    private final BlockingQueue<Block<B>> filled;
+
+    /** 先読みスレッド */
+    private final Thread thread;
+
+    /** 呼び出し側に渡したバッファ */
+    private Block<B> current;
+
+    /** 閉じたか否か */
+    private volatile boolean closed;
+
+    /**
+     * コンストラクタ。
+     * <p/>
+     * 先読みスレッドを開始する。
+     *
+     * @param source 先読みする入力
+     * @param buffers 循環させるバッファ
+     */
+    ReadAheadPipeline(final Source<B> source, final B[] buffers) {
+        this.source = source;
+        free = new ArrayBlockingQueue<Block<B>>(buffers.length);
+        filled = new ArrayBlockingQueue<Block<B>>(buffers.length);
+        for (final B buffer : buffers) {
+            free.add(new Block<B>(buffer));
+        }
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                fill();
+            }
+        }, "databind-read-ahead");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 次の読み込み済みのバッファを取得する。
+     * <p/>
+     * 前回取得したバッファは空きバッファに戻すため、以降は使用しないこと。
+     * 入力の終端に達した後は、長さが{@code -1}のバッファを返し続ける。
+     *
+     * @return 読み込み済みのバッファ
+     * @throws IOException 入力の読み込みに失敗した場合
+     */
+    Block<B> next() throws IOException {
+        if (closed) {
+            throw new IOException("stream closed.");
+        }
+        if (current != null) {
+            if (current.length < 0) {
+                return current;
+            }
+            free.add(current);
+            current = null;
+        }
+        try {
+            current = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for read-ahead buffer.");
+        }
+        if (current.error != null) {
+            final IOException error = current.error;
+            current.length = -1;
+            throw error;
+        }
+        return current;
+    }
+
+    /**
+     * 先読みを停止し、入力を閉じる。
+     *
+     * @throws IOException 入力を閉じることに失敗した場合
+     */
+    void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        thread.interrupt();
+        source.close();
+    }
+
+    /**
+     * 入力の終端に達するか閉じられるまで、空きバッファに入力を読み込む。
+     */
+    private void fill() {
+        try {
+            while (!closed) {
+                final Block<B> block = free.take();
+                try {
+                    block.length = source.read(block.data);
+                } catch (IOException e) {
+                    block.length = -1;
+                    block.error = closed ? null : e;
+                }
+                filled.put(block);
+                if (block.length < 0) {
+                    return;
+                }
+            }
+        } catch (InterruptedException ignored) {
+            // 閉じられた場合は先読みを終了する
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package nablarch.common.databind;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 入力を別スレッドで先読みする{@link Reader}。
+ * <p/>
+ * 元の{@link Reader}が{@link java.io.InputStreamReader}の場合は、
+ * 文字コードの変換も先読みするスレッドで行われる。
+ * バッファの扱いは{@link ReadAheadInputStream}と同じ。
+ * <p/>
+ * 本クラスはスレッドセーフではない。
+ *
+ * @author Naoki Yamamoto
+ */
+public final class ReadAheadReader extends Reader {
+
+    /** 先読みを行う{@link ReadAheadPipeline} */
+    private final ReadAheadPipeline<char[]> pipeline;
+
+    /** 読み込み中のバッファ */
+    private ReadAheadPipeline.Block<char[]> block;
+
+    /** 読み込み中のバッファ上の次に読み込む位置 */
+    private int position;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param in 先読みする{@link Reader}
+     * @param bufferCount バッファ数
+     * @param bufferSize バッファ1つあたりのサイズ(文字数)
+     * @throws IllegalArgumentException バッファ数またはバッファサイズが0以下の場合
+     */
+    public ReadAheadReader(final Reader in, final int bufferCount, final int bufferSize) {
+        if (bufferCount <= 0) {
+            throw new IllegalArgumentException("buffer count must be greater than 0. buffer count = [" + bufferCount + ']');
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("buffer size must be greater than 0. buffer size = [" + bufferSize + ']');
+        }
+        final char[][] buffers = new char[bufferCount][bufferSize];
+        pipeline = new ReadAheadPipeline<char[]>(new ReadAheadPipeline.Source<char[]>() {
+            @Override
+            public int read(final char[] buffer) throws IOException {
+                return in.read(buffer);
+            }
+
+            @Override
+            public void close() throws IOException {
+                in.close();
+            }
+        }, buffers);
+    }
+
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int count = 0;
+        while (count < len && ensureAvailable()) {
+            final int n = Math.min(len - count, block.length - position);
+            System.arraycopy(block.data, position, cbuf, off + count, n);
+            position += n;
+            count += n;
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        pipeline.close();
+    }
+
+    /**
+     * 読み込み中のバッファに未読のデータが存在する状態にする。
+     *
+     * @return 未読のデータが存在する場合は{@code true}、入力の終端に達した場合は{@code false}
+     * @throws IOException 入力の読み込みに失敗した場合
+     */
+    private boolean ensureAvailable() throws IOException {
+        while (block == null || position >= block.length) {
+            if (block != null && block.length < 0) {
+                return false;
+            }
+            block = pipeline.next();
+            position = 0;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,84 @@
+package nablarch.common.databind;
+
+import java.io.Serializable;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 入力ファイル上の読み込み位置を表すクラス。
+ * <p/>
+ * レコードの読み込み後に{@link ObjectMapper}から取得し、
+ * {@link ObjectMapperFactory#create(Class, java.nio.file.Path, ReadPosition)}に指定することで、
+ * それ以前のデータを読み込むことなく、次のレコードから読み込みを再開できる。
+ * <p/>
+ * チェックポイントとして保存できるよう、直列化可能とする。
+ * 値は再開時の位置を表すのみで、その内容を解釈する必要はない。
+ *
+ * @author Naoki Yamamoto
+ */
+@Published
+public final class ReadPosition implements Serializable {
+
+    /** シリアルバージョンUID */
+    private static final long serialVersionUID = 1L;
+
+    /** ファイルの先頭を表す読み込み位置 */
+    public static final ReadPosition START = new ReadPosition(0L, 1L);
+
+    /** 次に読み込むレコードの開始位置(バイト) */
+    private final long offset;
+
+    /** 次に読み込むレコードのレコード番号 */
+    private final long nextLineNumber;
+
+    /**
+     * 読み込み位置を生成する。
+     *
+     * @param offset 次に読み込むレコードの開始位置(バイト)
+     * @param nextLineNumber 次に読み込むレコードのレコード番号
+     */
+    public ReadPosition(final long offset, final long nextLineNumber) {
+        this.offset = offset;
+        this.nextLineNumber = nextLineNumber;
+    }
+
+    /**
+     * 次に読み込むレコードの開始位置を返す。
+     *
+     * @return 開始位置(バイト)
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * 次に読み込むレコードのレコード番号を返す。
+     *
+     * @return レコード番号
+     */
+    public long getNextLineNumber() {
+        return nextLineNumber;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReadPosition)) {
+            return false;
+        }
+        final ReadPosition that = (ReadPosition) o;
+        return offset == that.offset && nextLineNumber == that.nextLineNumber;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (int) (offset ^ (offset >>> 32)) + (int) (nextLineNumber ^ (nextLineNumber >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "offset = [" + offset + "], next line number = [" + nextLineNumber + ']';
+    }
+}
@@ -0,0 +1,277 @@
+package nablarch.common.databind;
+
+import java.util.Arrays;
+
+/**
+ * 読み込んだ値を、元のバイト列または文字列をキーとしてキャッシュするクラス。
+ * <p/>
+ * 取り得る値が少ない項目で、同じ値に対して同じインスタンスを使用するために使用する。
+ * キャッシュする値の数には上限があり、上限に達した場合はCLOCK方式で参照されていない値から破棄する。
+ * 長さが{@link #MAX_KEY_LENGTH}を超えるキーは、キャッシュの対象外とする。
+ * <p/>
+ * 読み込みごとに作成することを想定しており、本クラスはスレッドセーフではない。
+ *
+ * @param <V> キャッシュする値の型
+ * @author Naoki Yamamoto
+ */
+public final class ValueCache<V> {
+
+    /** キャッシュの対象とするキーの最大長 */
+    public static final int MAX_KEY_LENGTH = 256;
+
+    /** 空きを表すスロット番号 */
+    private static final int NONE = -1;
+
+    /** ハッシュ値ごとの先頭のスロット番号 */
+    private final int[] heads;
+
+    /** 同じハッシュ値を持つ次のスロット番号 */
+    private final int[] nexts;
+
+    /** スロットごとのキーのハッシュ値 */
+    private final int[] hashes;
+
+    /** スロットごとのキー(byte[]またはchar[]) */
+    private final Object[] keys;
+
+    /** スロットごとの値 */
+    private final Object[] values;
+
+    /** スロットごとの参照ビット */
+    private final boolean[] referenced;
+
+    /** 使用中のスロット数 */
+    private int size;
+
+    /** 次に破棄の候補とするスロット番号 */
+    private int hand;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param capacity キャッシュする値の上限数
+     * @throws IllegalArgumentException 上限数が0以下の場合
+     */
+    public ValueCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("cache size must be greater than 0. cache size = [" + capacity + ']');
+        }
+        heads = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+        Arrays.fill(heads, NONE);
+        nexts = new int[capacity];
+        hashes = new int[capacity];
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        referenced = new boolean[capacity];
+    }
+
+    /**
+     * バイト列をキーとして、キャッシュされた値を取得する。
+     *
+     * @param src キーを含む配列
+     * @param offset キーの開始位置
+     * @param length キーの長さ
+     * @return キャッシュされた値。キャッシュされていない場合は{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final byte[] src, final int offset, final int length) {
+        if (length > MAX_KEY_LENGTH) {
+            return null;
+        }
+        final int hash = hash(src, offset, length);
+        for (int slot = heads[hash & (heads.length - 1)]; slot != NONE; slot = nexts[slot]) {
+            if (hashes[slot] == hash && keys[slot] instanceof byte[]
+                    && equals((byte[]) keys[slot], src, offset, length)) {
+                referenced[slot] = true;
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * バイト列をキーとして、値をキャッシュする。
+     *
+     * @param src キーを含む配列
+     * @param offset キーの開始位置
+     * @param length キーの長さ
+     * @param value 値
+     */
+    public void put(final byte[] src, final int offset, final int length, final V value) {
+        if (length > MAX_KEY_LENGTH) {
+            return;
+        }
+        add(hash(src, offset, length), Arrays.copyOfRange(src, offset, offset + length), value);
+    }
+
+    /**
+     * 文字列をキーとして、キャッシュされた値を取得する。
+     *
+     * @param src キーを含む配列
+     * @param offset キーの開始位置
+     * @param length キーの長さ
+     * @return キャッシュされた値。キャッシュされていない場合は{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final char[] src, final int offset, final int length) {
+        if (length > MAX_KEY_LENGTH) {
+            return null;
+        }
+        final int hash = hash(src, offset, length);
+        for (int slot = heads[hash & (heads.length - 1)]; slot != NONE; slot = nexts[slot]) {
+            if (hashes[slot] == hash && keys[slot] instanceof char[]
+                    && equals((char[]) keys[slot], src, offset, length)) {
+                referenced[slot] = true;
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 文字列をキーとして、値をキャッシュする。
+     *
+     * @param src キーを含む配列
+     * @param offset キーの開始位置
+     * @param length キーの長さ
+     * @param value 値
+     */
+    public void put(final char[] src, final int offset, final int length, final V value) {
+        if (length > MAX_KEY_LENGTH) {
+            return;
+        }
+        add(hash(src, offset, length), Arrays.copyOfRange(src, offset, offset + length), value);
+    }
+
+    /**
+     * キャッシュしている値の数を返す。
+     *
+     * @return キャッシュしている値の数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * スロットにキーと値を格納する。
+     * <p/>
+     * 空きスロットが無い場合は、参照ビットが立っていないスロットを破棄して使用する。
+     *
+     * @param hash キーのハッシュ値
+     * @param key キー
+     * @param value 値
+     */
+    private void add(final int hash, final Object key, final Object value) {
+        final int slot;
+        if (size < keys.length) {
+            slot = size++;
+        } else {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = (hand + 1) % keys.length;
+            }
+            slot = hand;
+            hand = (hand + 1) % keys.length;
+            unlink(slot);
+        }
+        final int bucket = hash & (heads.length - 1);
+        hashes[slot] = hash;
+        keys[slot] = key;
+        values[slot] = value;
+        referenced[slot] = false;
+        nexts[slot] = heads[bucket];
+        heads[bucket] = slot;
+    }
+
+    /**
+     * スロットをハッシュ値ごとのリストから取り除く。
+     *
+     * @param slot スロット番号
+     */
+    private void unlink(final int slot) {
+        final int bucket = hashes[slot] & (heads.length - 1);
+        if (heads[bucket] == slot) {
+            heads[bucket] = nexts[slot];
+            return;
+        }
+        int prev = heads[bucket];
+        while (nexts[prev] != slot) {
+            prev = nexts[prev];
+        }
+        nexts[prev] = nexts[slot];
+    }
+
+    /**
+     * バイト列のハッシュ値を計算する。
+     *
+     * @param src バイト列を含む配列
+     * @param offset 開始位置
+     * @param length 長さ
+     * @return ハッシュ値
+     */
+    private static int hash(final byte[] src, final int offset, final int length) {
+        int h = 1;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h = 31 * h + src[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 文字列のハッシュ値を計算する。
+     *
+     * @param src 文字列を含む配列
+     * @param offset 開始位置
+     * @param length 長さ
+     * @return ハッシュ値
+     */
+    private static int hash(final char[] src, final int offset, final int length) {
+        int h = 1;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h = 31 * h + src[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * キーとバイト列が一致するか否かを判定する。
+     *
+     * @param key キー
+     * @param src バイト列を含む配列
+     * @param offset 開始位置
+     * @param length 長さ
+     * @return 一致する場合は{@code true}
+     */
+    private static boolean equals(final byte[] key, final byte[] src, final int offset, final int length) {
+        if (key.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key[i] != src[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * キーと文字列が一致するか否かを判定する。
+     *
+     * @param key キー
+     * @param src 文字列を含む配列
+     * @param offset 開始位置
+     * @param length 長さ
+     * @return 一致する場合は{@code true}
+     */
+    private static boolean equals(final char[] key, final char[] src, final int offset, final int length) {
+        if (key.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key[i] != src[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
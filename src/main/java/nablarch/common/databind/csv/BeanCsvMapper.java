@@ -1,10 +1,10 @@
 package nablarch.common.databind.csv;
 
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
 
-import nablarch.core.beans.BeanUtil;
+import nablarch.common.databind.BeanBinder;
 
 /**
  * Java BeansオブジェクトをCSVにマッピングするクラス。
@@ -14,6 +14,9 @@ import nablarch.core.beans.BeanUtil;
  */
 public class BeanCsvMapper<T> extends ObjectCsvMapperSupport<T> {
 
+    /** 出力する項目と対応するプロパティの{@link BeanBinder.Accessor} */
+    private final BeanBinder.Accessor[] accessors;
+
     /**
      * コンストラクタ。
      *
@@ -22,7 +25,18 @@ public class BeanCsvMapper<T> extends ObjectCsvMapperSupport<T> {
      * @param outputStream 出力リソース
      */
     public BeanCsvMapper(final Class<T> clazz, final CsvDataBindConfig config, final OutputStream outputStream) {
-        this(clazz, config, new OutputStreamWriter(outputStream, config.getCharset()));
+        this(clazz, config, toWriter(outputStream, config));
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param clazz Beanクラス
+     * @param config フォーマット定義
+     * @param channel 出力リソース
+     */
+    public BeanCsvMapper(final Class<T> clazz, final CsvDataBindConfig config, final WritableByteChannel channel) {
+        this(clazz, config, toWriter(channel, config));
     }
 
     /**
@@ -34,16 +48,15 @@ public class BeanCsvMapper<T> extends ObjectCsvMapperSupport<T> {
      */
     public BeanCsvMapper(final Class<T> clazz, final CsvDataBindConfig config, final Writer writer) {
         super(config, writer);
+        accessors = BeanBinder.get(clazz).getAccessors(config.getKeys());
         writeHeader();
     }
 
     @Override
     public Object[] convertValues(T object) {
-        final String[] keys = config.getKeys();
-        final Object[] fieldValues = new Object[keys.length];
-        for (int i = 0; i < keys.length; i++) {
-            final String propertyName = keys[i];
-            fieldValues[i] = BeanUtil.getProperty(object, propertyName);
+        final Object[] fieldValues = new Object[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            fieldValues[i] = accessors[i].get(object);
         }
         return fieldValues;
     }
@@ -6,6 +6,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 import nablarch.common.databind.DataBindConfig;
+import nablarch.common.databind.InvalidRecordHandler;
 import nablarch.core.util.annotation.Published;
 
 /**
@@ -111,4 +112,85 @@ public @interface Csv {
      * CSVの項目順にヘッダー名を列挙する。
      */
     String[] headers() default {};
+
+    /**
+     * 読み込み時にBeanへ設定するプロパティのリスト。
+     * <p/>
+     * 列の多いCSVから一部の項目のみを読み込む場合に、読み込むプロパティ名を列挙する。
+     * 列挙しなかったプロパティに対応する項目は、文字列を生成せずに読み飛ばす。
+     * 指定しない場合は、全てのプロパティを読み込む。
+     *
+     * @see CsvDataBindConfig#withProjection(String...)
+     */
+    String[] projection() default {};
+
+    /**
+     * 読み込み時にBeanへ変換するレコードを判定するフィルタのクラス。
+     * <p/>
+     * 指定したクラスはデフォルトコンストラクタでインスタンス化する。
+     * フィルタが変換対象外と判定したレコードは、Beanを生成せずに読み飛ばす。
+     * 指定しない場合は、全てのレコードをBeanへ変換する。
+     *
+     * @see CsvDataBindConfig#withRecordFilter(CsvRecordFilter)
+     */
+    Class<? extends CsvRecordFilter> recordFilter() default CsvRecordFilter.class;
+
+    /**
+     * 読み込み時に値をキャッシュするプロパティのリスト。
+     * <p/>
+     * 区分値やコード値のように取り得る値が少ないプロパティを列挙すると、
+     * 同じ値に対してキャッシュした文字列のインスタンスを使用する。
+     * 指定しない場合は、値をキャッシュしない。
+     *
+     * @see CsvDataBindConfig#withCachedColumns(int, String...)
+     */
+    String[] cachedColumns() default {};
+
+    /**
+     * 読み込み時にプロパティごとにキャッシュする値の上限数。
+     *
+     * @see CsvDataBindConfig#withCachedColumns(int, String...)
+     */
+    int columnCacheSize() default 1024;
+
+    /**
+     * 読み込み時にレコードをBeanへ変換するスレッド数。
+     * <p/>
+     * 1以上を指定すると、レコードの読み込みとは別のスレッドで並列にBeanへ変換する。
+     * 変換したBeanはファイル上の順序で返却する。
+     * 指定しない場合は、読み込みと同じスレッドで変換する。
+     *
+     * @see CsvDataBindConfig#withParallelBind(int)
+     */
+    int bindParallelism() default 0;
+
+    /**
+     * 書き込み時にレコードをフォーマットするスレッド数。
+     * <p/>
+     * 1以上を指定すると、書き込みを依頼したスレッドとは別のスレッドで並列にフォーマットし、依頼した順に出力する。
+     * 指定しない場合は、書き込みを依頼したスレッドでフォーマットして出力する。
+     *
+     * @see CsvDataBindConfig#withParallelWrite(int)
+     */
+    int writeParallelism() default 0;
+
+    /**
+     * 読み込み時に不正なレコードを受け取るハンドラのクラス。
+     * <p/>
+     * 指定した場合、フォーマットが不正なレコードで例外を送出せずに、レコードをハンドラに渡して読み込みを続ける。
+     * ハンドラのクラスはデフォルトコンストラクタを持つこと。
+     * 指定しない場合は、不正なレコードで例外を送出する。
+     *
+     * @see CsvDataBindConfig#withInvalidRecordHandler(InvalidRecordHandler)
+     */
+    Class<? extends InvalidRecordHandler> invalidRecordHandler() default InvalidRecordHandler.class;
+
+    /**
+     * 読み込み時にプロパティの型に応じて値を直接解析するか否か。
+     * <p/>
+     * {@code true}を指定すると、数値と日付のプロパティは項目ごとの文字列を生成せずに値を解析する。
+     *
+     * @see CsvDataBindConfig#withTypedBinding(boolean)
+     */
+    boolean typedBinding() default false;
 }
@@ -0,0 +1,383 @@
+package nablarch.common.databind.csv;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+import nablarch.common.databind.BeanBinder;
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.core.beans.BeanUtil;
+import nablarch.core.util.NumberUtil;
+
+/**
+ * CSVの項目をBeanのプロパティに設定する方法を、プロパティごとに保持するクラス。
+ * <p/>
+ * 変換方法はBeanのクラスと項目のキーから一度だけ決定する。
+ * 数値と日付のプロパティは、項目の文字を直接解析した値を変換せずに設定する。
+ * それ以外のプロパティは、項目の文字列を{@link BeanUtil}で変換して設定する。
+ * <p/>
+ * コンストラクタバインディングの場合は、プロパティに設定する代わりにコンストラクタに渡す値に変換する。
+ * <p/>
+ * 本クラスは状態を持たないため、複数のスレッドから同時に使用できる。
+ *
+ * @author Naoki Yamamoto
+ * @see CsvDataBindConfig#withTypedBinding(boolean)
+ */
+final class CsvBeanBindPlan {
+
+    /** 直接解析する値の型 */
+    private enum ValueType {
+        /** {@code int}または{@link Integer} */
+        INT,
+        /** {@code long}または{@link Long} */
+        LONG,
+        /** {@link BigDecimal} */
+        BIG_DECIMAL,
+        /** {@link LocalDate} */
+        LOCAL_DATE
+    }
+
+    /** {@link BigDecimal}の仮数を{@code long}で解析できる最大の桁数 */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /** 項目と対応するプロパティの{@link BeanBinder.Accessor}(コンストラクタバインディングの場合は{@code null}) */
+    private final BeanBinder.Accessor[] accessors;
+
+    /** 項目と対応するコンストラクタの{@link BeanBinder.Creator}(コンストラクタバインディングでない場合は{@code null}) */
+    private final BeanBinder.Creator<?> creator;
+
+    /** 項目と対応するプロパティ名 */
+    private final String[] propertyNames;
+
+    /** 項目と対応するプロパティの型(型が分からない場合は{@code null}) */
+    private final Class<?>[] propertyTypes;
+
+    /** プロパティに設定する値の型(直接解析しないプロパティは{@code null}) */
+    private final ValueType[] types;
+
+    /** 解析に失敗した場合に送出する例外がスタックトレースを持つか否か */
+    private final boolean writableStackTrace;
+
+    /**
+     * セッタでプロパティに設定するコンストラクタ。
+     *
+     * @param accessors 項目と対応するプロパティの{@link BeanBinder.Accessor}
+     * @param writableStackTrace 解析に失敗した場合に送出する例外がスタックトレースを持つか否か
+     */
+    CsvBeanBindPlan(final BeanBinder.Accessor[] accessors, final boolean writableStackTrace) {
+        this.accessors = accessors;
+        this.creator = null;
+        this.writableStackTrace = writableStackTrace;
+        propertyNames = new String[accessors.length];
+        propertyTypes = new Class<?>[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            propertyNames[i] = accessors[i].getPropertyName();
+            propertyTypes[i] = accessors[i].getPropertyType();
+        }
+        types = toValueTypes(propertyTypes);
+    }
+
+    /**
+     * コンストラクタの引数に変換するコンストラクタ。
+     *
+     * @param creator 項目と対応するコンストラクタの{@link BeanBinder.Creator}
+     * @param propertyNames 項目と対応するプロパティ名
+     * @param writableStackTrace 解析に失敗した場合に送出する例外がスタックトレースを持つか否か
+     */
+    CsvBeanBindPlan(final BeanBinder.Creator<?> creator, final String[] propertyNames,
+            final boolean writableStackTrace) {
+        this.accessors = null;
+        this.creator = creator;
+        this.writableStackTrace = writableStackTrace;
+        this.propertyNames = propertyNames;
+        propertyTypes = new Class<?>[propertyNames.length];
+        for (int i = 0; i < propertyNames.length; i++) {
+            propertyTypes[i] = creator.getPropertyType(i);
+        }
+        types = toValueTypes(propertyTypes);
+    }
+
+    /**
+     * 項目の数を返す。
+     *
+     * @return 項目の数
+     */
+    int size() {
+        return propertyNames.length;
+    }
+
+    /**
+     * 項目を直接解析するか否かを返す。
+     * <p/>
+     * 直接解析しない項目は、{@link #set(Object, int, CharSequence, long)}に文字列を渡すこと。
+     *
+     * @param index 項目のインデックス
+     * @return 直接解析する場合は{@code true}
+     */
+    boolean isTyped(final int index) {
+        return types[index] != null;
+    }
+
+    /**
+     * 項目の値をBeanのプロパティに設定する。
+     *
+     * @param bean Bean
+     * @param index 項目のインデックス
+     * @param value 項目の値。直接解析しない項目の場合は{@link String}
+     * @param lineNumber レコードの行番号
+     * @throws InvalidDataFormatException 値がプロパティの型の形式に合わない場合
+     */
+    void set(final Object bean, final int index, final CharSequence value, final long lineNumber) {
+        if (types[index] == null) {
+            accessors[index].set(bean, value);
+            return;
+        }
+        accessors[index].setConverted(bean, parse(index, value, lineNumber));
+    }
+
+    /**
+     * 項目の値を、コンストラクタに渡すプロパティの型の値に変換する。
+     *
+     * @param index 項目のインデックス
+     * @param value 項目の値。直接解析しない項目の場合は{@link String}
+     * @param lineNumber レコードの行番号
+     * @return プロパティの型の値
+     * @throws InvalidDataFormatException 値がプロパティの型の形式に合わない場合
+     */
+    Object convert(final int index, final CharSequence value, final long lineNumber) {
+        if (types[index] == null) {
+            return creator.convert(index, value);
+        }
+        return parse(index, value, lineNumber);
+    }
+
+    /**
+     * 項目の値を直接解析する。
+     *
+     * @param index 項目のインデックス
+     * @param value 項目の値
+     * @param lineNumber レコードの行番号
+     * @return 解析した値
+     */
+    private Object parse(final int index, final CharSequence value, final long lineNumber) {
+        if (value == null) {
+            if (propertyTypes[index].isPrimitive()) {
+                throw invalid(index, null, lineNumber);
+            }
+            return null;
+        }
+        switch (types[index]) {
+            case INT:
+                return (int) parseLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE, index, lineNumber);
+            case LONG:
+                return parseLong(value, Long.MIN_VALUE, Long.MAX_VALUE, index, lineNumber);
+            case BIG_DECIMAL:
+                return parseBigDecimal(value, index, lineNumber);
+            default:
+                return parseLocalDate(value, index, lineNumber);
+        }
+    }
+
+    /**
+     * 符号付きの10進数を解析する。
+     *
+     * @param value 値
+     * @param min 最小値
+     * @param max 最大値
+     * @param index 項目のインデックス
+     * @param lineNumber レコードの行番号
+     * @return 解析した値
+     */
+    private long parseLong(final CharSequence value, final long min, final long max, final int index,
+            final long lineNumber) {
+        final int length = value.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0) {
+            final char first = value.charAt(0);
+            if (first == '-') {
+                negative = true;
+                i++;
+            } else if (first == '+') {
+                i++;
+            }
+        }
+        if (i == length) {
+            throw invalid(index, value, lineNumber);
+        }
+        // 負の値として累積し、最小値の絶対値も桁あふれせずに扱う
+        final long limit = negative ? min : -max;
+        final long multiplyLimit = limit / 10;
+        long result = 0L;
+        for (; i < length; i++) {
+            final int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                throw invalid(index, value, lineNumber);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw invalid(index, value, lineNumber);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * {@link BigDecimal}を解析する。
+     * <p/>
+     * 仮数が18桁以下で指数部を持たない値は、仮数と小数点以下の桁数から直接生成する。
+     * それ以外の値は{@link BigDecimal#BigDecimal(char[])}で解析する。
+     *
+     * @param value 値
+     * @param index 項目のインデックス
+     * @param lineNumber レコードの行番号
+     * @return 解析した値
+     */
+    private BigDecimal parseBigDecimal(final CharSequence value, final int index, final long lineNumber) {
+        final int length = value.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            i++;
+        }
+        long unscaled = 0L;
+        int digits = 0;
+        int scale = -1;
+        for (; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        final BigDecimal parsed;
+        if (i == length && digits > 0 && digits <= MAX_LONG_DIGITS) {
+            parsed = BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+        } else {
+            final char[] chars = new char[length];
+            for (int j = 0; j < length; j++) {
+                chars[j] = value.charAt(j);
+            }
+            try {
+                parsed = new BigDecimal(chars);
+            } catch (NumberFormatException e) {
+                throw invalid(index, value, lineNumber);
+            }
+        }
+        try {
+            NumberUtil.verifyBigDecimalScale(parsed);
+        } catch (IllegalArgumentException e) {
+            throw invalid(index, value, lineNumber);
+        }
+        return parsed;
+    }
+
+    /**
+     * {@code yyyy-MM-dd}または{@code yyyyMMdd}形式の日付を解析する。
+     *
+     * @param value 値
+     * @param index 項目のインデックス
+     * @param lineNumber レコードの行番号
+     * @return 解析した値
+     */
+    private LocalDate parseLocalDate(final CharSequence value, final int index, final long lineNumber) {
+        final int separatorWidth;
+        if (value.length() == 8) {
+            separatorWidth = 0;
+        } else if (value.length() == 10 && value.charAt(4) == '-' && value.charAt(7) == '-') {
+            separatorWidth = 1;
+        } else {
+            throw invalid(index, value, lineNumber);
+        }
+        final int year = parseDigits(value, 0, 4, index, lineNumber);
+        final int month = parseDigits(value, 4 + separatorWidth, 2, index, lineNumber);
+        final int day = parseDigits(value, 6 + separatorWidth * 2, 2, index, lineNumber);
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            throw invalid(index, value, lineNumber);
+        }
+    }
+
+    /**
+     * 指定された範囲の数字を解析する。
+     *
+     * @param value 値
+     * @param start 開始位置
+     * @param count 桁数
+     * @param index 項目のインデックス
+     * @param lineNumber レコードの行番号
+     * @return 解析した値
+     */
+    private int parseDigits(final CharSequence value, final int start, final int count, final int index,
+            final long lineNumber) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            final int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalid(index, value, lineNumber);
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    /**
+     * 値がプロパティの型の形式に合わないことを表す例外を生成する。
+     *
+     * @param index 項目のインデックス
+     * @param value 値
+     * @param lineNumber レコードの行番号
+     * @return 例外
+     */
+    private InvalidDataFormatException invalid(final int index, final CharSequence value, final long lineNumber) {
+        return new InvalidDataFormatException("value does not match the property type."
+                + " property name = [" + propertyNames[index] + "],"
+                + " property type = [" + propertyTypes[index].getName() + "],"
+                + " value = [" + value + "].", lineNumber, writableStackTrace);
+    }
+
+    /**
+     * プロパティの型ごとに、直接解析する値の型を取得する。
+     *
+     * @param propertyTypes プロパティの型
+     * @return 直接解析する値の型
+     */
+    private static ValueType[] toValueTypes(final Class<?>[] propertyTypes) {
+        final ValueType[] result = new ValueType[propertyTypes.length];
+        for (int i = 0; i < propertyTypes.length; i++) {
+            if (propertyTypes[i] != null) {
+                result[i] = toValueType(propertyTypes[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * プロパティの型から、直接解析する値の型を取得する。
+     *
+     * @param type プロパティの型
+     * @return 直接解析する値の型。直接解析しない型の場合は{@code null}
+     */
+    private static ValueType toValueType(final Class<?> type) {
+        if (type == int.class || type == Integer.class) {
+            return ValueType.INT;
+        } else if (type == long.class || type == Long.class) {
+            return ValueType.LONG;
+        } else if (type == BigDecimal.class) {
+            return ValueType.BIG_DECIMAL;
+        } else if (type == LocalDate.class) {
+            return ValueType.LOCAL_DATE;
+        }
+        return null;
+    }
+}
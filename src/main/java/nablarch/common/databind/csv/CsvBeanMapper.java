@@ -1,11 +1,12 @@
 package nablarch.common.databind.csv;
 
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.Arrays;
 
+import nablarch.common.databind.BeanBinder;
 import nablarch.common.databind.DataBindUtil;
-import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ReadPosition;
 import nablarch.core.util.StringUtil;
 
 /**
@@ -16,11 +17,27 @@ import nablarch.core.util.StringUtil;
  */
 public class CsvBeanMapper<T> extends CsvObjectMapperSupport<T> {
 
-    /** Beanのクラス */
-    private final Class<T> clazz;
+    /** Beanの生成とプロパティへのアクセスを行う{@link BeanBinder} */
+    private final BeanBinder<T> binder;
 
-    /** 行番号を格納するプロパティ名 */
-    private final String lineNumberPropertyName;
+    /** 読み込む項目と対応するプロパティの{@link BeanBinder.Accessor}(コンストラクタバインディングの場合は{@code null}) */
+    private final BeanBinder.Accessor[] accessors;
+
+    /**
+     * 読み込む項目と行番号を引数に渡す{@link BeanBinder.Creator}(コンストラクタバインディングでない場合は{@code null})。
+     * <p/>
+     * 値は読み込む項目の順で、行番号を格納するプロパティが存在する場合は最後に行番号を渡す。
+     */
+    private final BeanBinder.Creator<T> creator;
+
+    /** {@link #creator}に渡す値の数 */
+    private final int creatorSize;
+
+    /** 行番号を格納するプロパティの{@link BeanBinder.Accessor}(プロパティが存在しない場合は{@code null}) */
+    private final BeanBinder.Accessor lineNumberAccessor;
+
+    /** プロパティごとの変換方法(プロパティの型に応じて直接解析しない場合は{@code null}) */
+    private final CsvBeanBindPlan bindPlan;
 
     /**
      * コンストラクタ。
@@ -30,7 +47,25 @@ public class CsvBeanMapper<T> extends CsvObjectMapperSupport<T> {
      * @param inputStream 入力ストリーム
      */
     public CsvBeanMapper(final Class<T> clazz, final CsvDataBindConfig config, final InputStream inputStream) {
-        this(clazz, config, new InputStreamReader(inputStream, config.getCharset()));
+        this(clazz, config, new CsvDataReader(inputStream, config));
+    }
+
+    /**
+     * 指定された読み込み位置から読み込みを再開するコンストラクタ。
+     * <p/>
+     * 入力ストリームは、読み込み位置が指すレコードの先頭から始まっていること。
+     * ファイルの先頭以外から再開する場合、ヘッダ行は読み込まない。
+     *
+     * @param clazz Beanの{@link Class}
+     * @param config CSV用の設定情報
+     * @param inputStream 入力ストリーム
+     * @param position 読み込みを再開する位置
+     * @see #getPosition()
+     */
+    public CsvBeanMapper(final Class<T> clazz, final CsvDataBindConfig config, final InputStream inputStream,
+            final ReadPosition position) {
+        this(clazz, restartConfig(config, position), new CsvDataReader(inputStream, config,
+                CsvTokenizerSupport.DEFAULT_BUFFER_SIZE, position));
     }
 
     /**
@@ -38,29 +73,191 @@ public class CsvBeanMapper<T> extends CsvObjectMapperSupport<T> {
      *
      * @param clazz Beanの{@link Class}
      * @param config CSV用の設定情報
-     * @param reader リーダー
+     * @param reader CSVのリーダ
      */
-    public CsvBeanMapper(final Class<T> clazz, final CsvDataBindConfig config, final Reader reader) {
+    CsvBeanMapper(final Class<T> clazz, final CsvDataBindConfig config, final CsvDataReader reader) {
         super(config, reader);
-        this.clazz = clazz;
-        lineNumberPropertyName = DataBindUtil.findLineNumberProperty(clazz);
+        binder = BeanBinder.get(clazz);
+        final String[] creatorKeys = createCreatorKeys(clazz);
+        creator = creatorKeys == null ? null : binder.getCreator(creatorKeys);
+        creatorSize = creatorKeys == null ? 0 : creatorKeys.length;
+        accessors = creator == null ? binder.getAccessors(getReadKeys()) : null;
+        lineNumberAccessor = creator == null ? createLineNumberAccessor(clazz) : null;
+        bindPlan = createBindPlan(config, creatorKeys);
         readHeader();
     }
 
+    /**
+     * コンストラクタ。
+     *
+     * @param clazz Beanの{@link Class}
+     * @param config CSV用の設定情報
+     * @param reader リーダー
+     */
+    public CsvBeanMapper(final Class<T> clazz, final CsvDataBindConfig config, final Reader reader) {
+        this(clazz, config, newCsvDataReader(config, reader));
+    }
+
+    /**
+     * 行番号を格納するプロパティの{@link BeanBinder.Accessor}を取得する。
+     *
+     * @param clazz Beanの{@link Class}
+     * @return {@link BeanBinder.Accessor}。プロパティが存在しない場合は{@code null}
+     */
+    private BeanBinder.Accessor createLineNumberAccessor(final Class<T> clazz) {
+        final String lineNumberPropertyName = DataBindUtil.findLineNumberProperty(clazz);
+        return StringUtil.isNullOrEmpty(lineNumberPropertyName) ? null : binder.getAccessor(lineNumberPropertyName);
+    }
+
+    /**
+     * コンストラクタバインディングの場合に、コンストラクタに値を渡すプロパティ名を生成する。
+     *
+     * @param clazz Beanの{@link Class}
+     * @return 読み込む項目と行番号を格納するプロパティの名前。コンストラクタバインディングでない場合は{@code null}
+     * @see BeanBinder#isConstructorBinding()
+     */
+    private String[] createCreatorKeys(final Class<T> clazz) {
+        if (!binder.isConstructorBinding()) {
+            return null;
+        }
+        final String[] keys = getReadKeys();
+        final String lineNumberPropertyName = DataBindUtil.findLineNumberProperty(clazz);
+        if (StringUtil.isNullOrEmpty(lineNumberPropertyName)) {
+            return keys;
+        }
+        final String[] result = Arrays.copyOf(keys, keys.length + 1);
+        result[keys.length] = lineNumberPropertyName;
+        return result;
+    }
+
+    /**
+     * プロパティごとの変換方法を生成する。
+     *
+     * @param config CSV用の設定情報
+     * @param creatorKeys コンストラクタに値を渡すプロパティ名(コンストラクタバインディングでない場合は{@code null})
+     * @return 変換方法。プロパティの型に応じて直接解析しない場合は{@code null}
+     * @see CsvDataBindConfig#withTypedBinding(boolean)
+     */
+    private CsvBeanBindPlan createBindPlan(final CsvDataBindConfig config, final String[] creatorKeys) {
+        if (!config.isTypedBinding()) {
+            return null;
+        }
+        if (creator != null) {
+            return new CsvBeanBindPlan(creator, creatorKeys, config.getInvalidRecordHandler() == null);
+        }
+        return new CsvBeanBindPlan(accessors, config.getInvalidRecordHandler() == null);
+    }
+
     @Override
     protected T createObject(final String[] record) {
-        final String[] keys = config.getKeys();
-        if (keys.length != record.length) {
-            throw new InvalidDataFormatException(
-                    "property size does not match. expected field count = [" + keys.length + "],"
-                            + " actual field count = [" + record.length + "].", reader.getLineNumber());
+        verifyFieldCount(record);
+
+        return bind(record, reader.getLineNumber());
+    }
+
+    @Override
+    boolean isRecordBinding() {
+        return bindPlan != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * コンストラクタバインディングの場合は、Beanを再利用できない。
+     */
+    @Override
+    boolean isReusable() {
+        return creator == null;
+    }
+
+    @Override
+    T createObject(final String[] record, final T target) {
+        verifyFieldCount(record);
+
+        return bindTo(target, record, reader.getLineNumber());
+    }
+
+    @Override
+    T createObject(final CsvRecord record, final T target) {
+        verifyFieldCount(record);
+
+        if (creator != null) {
+            final Object[] values = new Object[creatorSize];
+            for (int i = 0; i < getReadKeys().length; i++) {
+                final int index = toRecordIndex(i);
+                values[i] = bindPlan.convert(i, bindPlan.isTyped(i) ? record.get(index) : getString(record, index),
+                        record.getLineNumber());
+            }
+            return create(values, record.getLineNumber());
+        }
+        final T bean = target != null ? target : binder.newInstance();
+        for (int i = 0; i < accessors.length; i++) {
+            final int index = toRecordIndex(i);
+            bindPlan.set(bean, i, bindPlan.isTyped(i) ? record.get(index) : getString(record, index),
+                    record.getLineNumber());
         }
+        return withLineNumber(bean, record.getLineNumber());
+    }
 
-        if(StringUtil.isNullOrEmpty(lineNumberPropertyName)){
-            return DataBindUtil.getInstance(clazz, keys, record);
-        }else{
-            return DataBindUtil.getInstanceWithLineNumber(clazz, keys, record, lineNumberPropertyName, reader.getLineNumber());
+    @Override
+    protected T bind(final String[] record, final long lineNumber) {
+        if (creator != null) {
+            final Object[] values = new Object[creatorSize];
+            for (int i = 0; i < record.length; i++) {
+                values[i] = bindPlan != null ? bindPlan.convert(i, record[i], lineNumber) : creator.convert(i, record[i]);
+            }
+            return create(values, lineNumber);
         }
+        return bindTo(binder.newInstance(), record, lineNumber);
     }
-}
 
+    /**
+     * レコードの値と行番号を、Beanのプロパティに設定する。
+     *
+     * @param bean Bean
+     * @param record レコード
+     * @param lineNumber 行番号
+     * @return Bean
+     */
+    private T bindTo(final T bean, final String[] record, final long lineNumber) {
+        for (int i = 0; i < record.length; i++) {
+            if (bindPlan != null) {
+                bindPlan.set(bean, i, record[i], lineNumber);
+            } else {
+                accessors[i].set(bean, record[i]);
+            }
+        }
+        return withLineNumber(bean, lineNumber);
+    }
+
+    /**
+     * コンストラクタバインディングでBeanを生成する。
+     * <p/>
+     * 行番号を格納するプロパティが存在する場合は、行番号も引数に渡す。
+     *
+     * @param values 読み込む項目の順の、プロパティの型に変換済みの値
+     * @param lineNumber 行番号
+     * @return Bean
+     */
+    private T create(final Object[] values, final long lineNumber) {
+        final int lineNumberIndex = getReadKeys().length;
+        if (lineNumberIndex < creatorSize) {
+            values[lineNumberIndex] = creator.convert(lineNumberIndex, lineNumber);
+        }
+        return creator.newInstanceConverted(values);
+    }
+
+    /**
+     * 行番号を格納するプロパティが存在する場合、行番号を設定する。
+     *
+     * @param bean Bean
+     * @param lineNumber 行番号
+     * @return Bean
+     */
+    private T withLineNumber(final T bean, final long lineNumber) {
+        if (lineNumberAccessor != null) {
+            lineNumberAccessor.set(bean, lineNumber);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,243 @@
+package nablarch.common.databind.csv;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ReadPosition;
+
+/**
+ * 読み込んだレコードのオブジェクトへの変換を、複数のスレッドで並列に行うクラス。
+ * <p/>
+ * レコードの読み込みは呼び出し側のスレッドで順に行い、読み込んだレコードの変換のみを変換用のスレッドに依頼する。
+ * 変換を依頼したレコードは読み込んだ順にキューに保持し、キューの先頭から変換結果を返すことで、
+ * 変換の完了順に関わらずファイル上の順序で返却する。
+ * キューに保持するレコード数はスレッド数に比例した上限までとし、上限に達するまで入力を先に読み込む。
+ * <p/>
+ * 項目数の検証はレコードを読み込んだ時点で呼び出し側のスレッドで行い、
+ * 検証で発生した例外もキュー上の順序に従って送出する。
+ * 不正なレコードを受け取るハンドラが設定されている場合は、読み込んだ時点でハンドラに渡す。
+ * 変換用のスレッドで不正と判定されたレコードは、読み込んだ時点で保持したレコードの内容とともに、
+ * キュー上の順序に従ってハンドラに渡す。
+ *
+ * @param <T> 変換するオブジェクトの型
+ * @author Naoki Yamamoto
+ */
+final class CsvBindPipeline<T> {
+
+    /** スレッドあたりの変換待ちレコード数の上限 */
+    private static final int RECORDS_PER_THREAD = 32;
+
+    /** レコードを読み込み、変換するマッパー */
+    private final CsvObjectMapperSupport<T> mapper;
+
+    /** 変換用のスレッド */
+    private final ExecutorService executor;
+
+    /** 変換待ちレコード数の上限 */
+    private final int capacity;
+
+    /** 変換を依頼したレコード(読み込んだ順) */
+    private final Queue<Pending<T>> pendings;
+
+    /** 入力の終端に達したか否か */
+    private boolean endOfInput;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param mapper レコードを読み込み、変換するマッパー
+     * @param parallelism 変換に使用するスレッド数
+     */
+    CsvBindPipeline(final CsvObjectMapperSupport<T> mapper, final int parallelism) {
+        this.mapper = mapper;
+        executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "databind-bind");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        capacity = parallelism * RECORDS_PER_THREAD;
+        pendings = new ArrayDeque<Pending<T>>(capacity);
+    }
+
+    /**
+     * 次のレコードを変換したオブジェクトを返す。
+     * <p/>
+     * 変換待ちのレコードが上限に達するまで入力を読み込んでから、先頭のレコードの変換の完了を待ち合わせる。
+     *
+     * @return 変換したオブジェクト。入力の終端に達した場合は{@code null}
+     */
+    T read() {
+        while (true) {
+            fill();
+            final Pending<T> pending = pendings.poll();
+            if (pending == null) {
+                return null;
+            }
+            if (pending.error != null) {
+                throw pending.error;
+            }
+            try {
+                return pending.future.get();
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof InvalidDataFormatException
+                        && mapper.handleInvalidRecord(pending.record, (InvalidDataFormatException) cause)) {
+                    // 変換で不正と判定されたレコードはハンドラに渡し、次のレコードを返す
+                    continue;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException(cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted while binding record.", e);
+            }
+        }
+    }
+
+    /**
+     * 次に返却するレコードの読み込み位置を返す。
+     *
+     * @return 次に返却するレコードの読み込み位置
+     * @throws UnsupportedOperationException 読み込み位置を取得できない入力の場合
+     * @see CsvDataReader#getPosition()
+     */
+    ReadPosition getPosition() {
+        final Pending<T> pending = pendings.peek();
+        if (pending == null || pending.position == null) {
+            return mapper.reader.getPosition();
+        }
+        return pending.position;
+    }
+
+    /**
+     * 指定された数のレコードを読み飛ばす。
+     * <p/>
+     * 変換待ちのレコードを先に破棄し、残りを入力から読み飛ばす。
+     *
+     * @param n 読み飛ばすレコード数
+     * @return 実際に読み飛ばしたレコード数
+     */
+    long skip(final long n) {
+        long skipped = 0L;
+        while (skipped < n && !pendings.isEmpty()) {
+            cancel(pendings.poll());
+            skipped++;
+        }
+        return skipped < n ? skipped + mapper.reader.skip(n - skipped) : skipped;
+    }
+
+    /**
+     * 変換待ちのレコードを全て破棄する。
+     */
+    void clear() {
+        Pending<T> pending;
+        while ((pending = pendings.poll()) != null) {
+            cancel(pending);
+        }
+        endOfInput = false;
+    }
+
+    /**
+     * 変換待ちのレコードを破棄し、変換用のスレッドを停止する。
+     */
+    void close() {
+        pendings.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * 変換待ちのレコードが上限に達するまで、入力を読み込んで変換を依頼する。
+     * <p/>
+     * 読み込みで例外が発生した場合は、例外をキューに追加して読み込みを中断する。
+     */
+    private void fill() {
+        final CsvDataReader reader = mapper.reader;
+        while (!endOfInput && pendings.size() < capacity) {
+            final ReadPosition position = reader.isPositionSupported() ? reader.getPosition() : null;
+            try {
+                final String[] record = mapper.readLine();
+                if (record == null) {
+                    endOfInput = true;
+                    return;
+                }
+                mapper.verifyFieldCount(record);
+                final long lineNumber = reader.getLineNumber();
+                pendings.add(new Pending<T>(position, mapper.getRawRecord(), executor.submit(new Callable<T>() {
+                    @Override
+                    public T call() {
+                        return mapper.bind(record, lineNumber);
+                    }
+                }), null));
+            } catch (InvalidDataFormatException e) {
+                if (!mapper.handleInvalidRecord(e)) {
+                    pendings.add(new Pending<T>(position, null, null, e));
+                    return;
+                }
+            } catch (RuntimeException e) {
+                pendings.add(new Pending<T>(position, null, null, e));
+                return;
+            }
+        }
+    }
+
+    /**
+     * 変換待ちのレコードの変換を取り消す。
+     *
+     * @param pending 変換待ちのレコード
+     */
+    private static void cancel(final Pending<?> pending) {
+        if (pending.future != null) {
+            pending.future.cancel(false);
+        }
+    }
+
+    /**
+     * 変換待ちのレコード。
+     *
+     * @param <T> 変換するオブジェクトの型
+     */
+    private static final class Pending<T> {
+
+        /** レコードの読み込み位置(取得できない場合は{@code null}) */
+        private final ReadPosition position;
+
+        /** レコードの内容(不正なレコードを受け取るハンドラが設定されていない場合は{@code null}) */
+        private final String record;
+
+        /** 変換結果 */
+        private final Future<T> future;
+
+        /** 読み込みで発生した例外 */
+        private final RuntimeException error;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param position レコードの読み込み位置
+         * @param record レコードの内容
+         * @param future 変換結果
+         * @param error 読み込みで発生した例外
+         */
+        private Pending(final ReadPosition position, final String record, final Future<T> future,
+                final RuntimeException error) {
+            this.position = position;
+            this.record = record;
+            this.future = future;
+            this.error = error;
+        }
+    }
+}
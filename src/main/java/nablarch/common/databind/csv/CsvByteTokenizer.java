@@ -0,0 +1,537 @@
+package nablarch.common.databind.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import nablarch.common.databind.ValueCache;
+
+/**
+ * CSVの各要素をバイト列のまま分解するクラス。
+ * <p/>
+ * 入力を文字に変換せずに{@code byte}配列のバッファ上で区切り文字、クォート文字、改行を探し、
+ * 切り出した要素のバイト列のみを文字コードに従って文字列に変換する。
+ * ASCIIの範囲のバイトのみで構成された要素は、文字コードの変換処理を行わずに文字列を生成する。
+ * <p/>
+ * 区切り文字などの探索は、バッファを8バイト単位の{@code long}値として読み込み、
+ * 8バイト分をまとめて比較すること(SWAR)で行う。
+ * <p/>
+ * 区切り文字、クォート文字、改行がマルチバイト文字の一部として現れない文字コードでのみ使用できる。
+ * 使用できるか否かは{@link #isSupported(CsvDataBindConfig)}で判定する。
+ *
+ * @author Naoki Yamamoto
+ */
+class CsvByteTokenizer extends CsvTokenizerSupport {
+
+    /** マルチバイト文字の一部にASCIIの範囲のバイトが現れない文字コード */
+    private static final Set<String> ASCII_SAFE_CHARSETS = new HashSet<String>(Arrays.asList(
+            "UTF-8", "US-ASCII", "ISO-8859-1", "EUC-JP"));
+
+    /** マルチバイト文字の2バイト目に0x40以上のASCIIの範囲のバイトが現れる文字コード */
+    private static final Set<String> SHIFT_JIS_CHARSETS = new HashSet<String>(Arrays.asList(
+            "Shift_JIS", "windows-31j"));
+
+    /** Shift_JIS系の文字コードで、マルチバイト文字の2バイト目に現れるASCIIの範囲のバイトの下限 */
+    private static final char SHIFT_JIS_TRAIL_BYTE_MIN = 0x40;
+
+    /** バイト配列から8バイト単位で値を読み込むための{@link VarHandle} */
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(
+            long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /** 各バイトの最下位ビットを立てた値 */
+    private static final long LOW_BITS = 0x0101010101010101L;
+
+    /** 各バイトの最上位ビットを立てた値 */
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    /** 1バイトの最上位ビット(ASCII以外のバイトであることを表す) */
+    private static final int HIGH_BIT = 0x80;
+
+    /** CRを8バイト分並べた値 */
+    private static final long CR_PATTERN = LOW_BITS * CR;
+
+    /** LFを8バイト分並べた値 */
+    private static final long LF_PATTERN = LOW_BITS * LF;
+
+    /** 解析対象CSVの{@link InputStream} */
+    private final InputStream inputStream;
+
+    /** 文字コード */
+    private final Charset charset;
+
+    /** 読み込んだバイトを保持するバッファ */
+    private final byte[] buffer;
+
+    /** バッファ上の次に読み込む位置 */
+    private int position;
+
+    /** バッファ上の有効なバイト数 */
+    private int limit;
+
+    /** バッファの先頭のバイトの、入力全体での位置 */
+    private long bufferOffset;
+
+    /** 列区切り文字のバイト表現 */
+    private final byte fieldSeparatorByte;
+
+    /** フィールド囲み文字のバイト表現 */
+    private final byte quoteByte;
+
+    /** 列区切り文字を8バイト分並べた値 */
+    private final long fieldSeparatorPattern;
+
+    /** フィールド囲み文字を8バイト分並べた値 */
+    private final long quotePattern;
+
+    /** 要素を組み立てるためのバッファ */
+    private byte[] item = new byte[256];
+
+    /** 組み立て中の要素のバイト数 */
+    private int itemLength;
+
+    /** 組み立て中の要素にASCII以外のバイトが含まれるか否か */
+    private boolean itemHasNonAscii;
+
+    /** 組み立て中の要素がバッファ上に収まっている場合の開始位置(収まっていない場合は{@code -1}) */
+    private int windowItemStart = -1;
+
+    /** レコードに要素を追加する際に使用するデコーダ(初回使用時に生成する) */
+    private CharsetDecoder decoder;
+
+    /** バッファを参照する{@link ByteBuffer}(初回使用時に生成する) */
+    private ByteBuffer bufferView;
+
+    /** 要素を組み立てるためのバッファを参照する{@link ByteBuffer}(バッファの拡張時に作り直す) */
+    private ByteBuffer itemView;
+
+    /** 記録中のレコードのバッファ上の開始位置(記録していない場合は{@code -1}) */
+    private int rawStart = -1;
+
+    /** バッファを読み込み直す際に退避した、記録中のレコードのバイト列 */
+    private byte[] raw;
+
+    /** 退避した記録中のレコードのバイト数 */
+    private int rawLength;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param inputStream 解析対象CSVの{@link InputStream}
+     * @param format CSVの形式を表す{@link CsvDataBindConfig}
+     */
+    public CsvByteTokenizer(final InputStream inputStream, final CsvDataBindConfig format) {
+        this(inputStream, format, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param inputStream 解析対象CSVの{@link InputStream}
+     * @param format CSVの形式を表す{@link CsvDataBindConfig}
+     * @param bufferSize バッファサイズ
+     * @throws IllegalArgumentException バッファサイズが0以下の場合、
+     *                                  またはバイト単位での解析をサポートしないフォーマットの場合
+     */
+    public CsvByteTokenizer(final InputStream inputStream, final CsvDataBindConfig format, final int bufferSize) {
+        super(format, bufferSize);
+        if (!isSupported(format)) {
+            throw new IllegalArgumentException("unsupported format for byte tokenizer. charset = ["
+                    + format.getCharset() + ']');
+        }
+        this.inputStream = inputStream;
+        this.charset = format.getCharset();
+        this.buffer = new byte[bufferSize];
+        fieldSeparatorByte = (byte) fieldSeparator;
+        quoteByte = (byte) quote;
+        fieldSeparatorPattern = LOW_BITS * fieldSeparator;
+        quotePattern = LOW_BITS * quote;
+    }
+
+    /**
+     * バイト単位での解析をサポートするフォーマットか否かを判定する。
+     * <p/>
+     * 文字コードがASCII互換で、列区切り文字とクォート文字がマルチバイト文字の一部として現れない場合にサポートする。
+     *
+     * @param format CSVの形式を表す{@link CsvDataBindConfig}
+     * @return サポートする場合は{@code true}
+     */
+    static boolean isSupported(final CsvDataBindConfig format) {
+        final String charsetName = format.getCharset().name();
+        final char max = (char) Math.max(format.getFieldSeparator(), format.getQuote());
+        if (ASCII_SAFE_CHARSETS.contains(charsetName)) {
+            return max < 0x80;
+        } else if (SHIFT_JIS_CHARSETS.contains(charsetName)) {
+            return max < SHIFT_JIS_TRAIL_BYTE_MIN;
+        }
+        return false;
+    }
+
+    @Override
+    protected boolean scanQuotedItem() throws IOException {
+        while (true) {
+            if (position >= limit && !fill()) {
+                return false;
+            }
+            final byte[] buf = buffer;
+            final int end = limit;
+            final int start = position;
+            long bits = 0;
+            int i = start;
+            while (i < end) {
+                // クォート文字と改行文字以外は8バイト単位で読み飛ばす
+                while (i <= end - Long.BYTES) {
+                    final long word = (long) LONG_VIEW.get(buf, i);
+                    final long found = match(word, quotePattern) | match(word, CR_PATTERN) | match(word, LF_PATTERN);
+                    if (found != 0) {
+                        final int index = Long.numberOfTrailingZeros(found) >>> 3;
+                        bits |= word & HIGH_BITS & ((1L << (index << 3)) - 1);
+                        i += index;
+                        break;
+                    }
+                    bits |= word & HIGH_BITS;
+                    i += Long.BYTES;
+                }
+                if (i == end) {
+                    break;
+                }
+                final byte b = buf[i];
+                if (b == quoteByte) {
+                    break;
+                } else if (b == LF) {
+                    lineNumber++;
+                } else if (b == CR) {
+                    if (i + 1 == end) {
+                        // 次のバイトがバッファ外にあるため、1バイトずつ読み込む処理で判定する
+                        break;
+                    } else if (buf[i + 1] != LF) {
+                        lineNumber++;
+                    }
+                }
+                bits |= b & HIGH_BIT;
+                i++;
+            }
+            appendItem(buf, start, i - start, bits != 0);
+            if (i > start) {
+                // 走査の途中にあるCRは、次のバイトがLFではないため改行文字となる
+                lastCharIsLineSeparator = buf[i - 1] == LF || buf[i - 1] == CR;
+            }
+            position = i;
+            if (i < end) {
+                if (buf[i] == quoteByte) {
+                    return true;
+                }
+                appendItem((byte) read());
+            }
+        }
+    }
+
+    @Override
+    protected void scanItem() throws IOException {
+        clearItem();
+        int start = position - 1;
+        long bits = buffer[start] & HIGH_BIT;
+        while (true) {
+            final byte[] buf = buffer;
+            final int end = limit;
+            int i = position;
+            // 要素の終わりを表すバイトを8バイト単位で探す
+            while (i <= end - Long.BYTES) {
+                final long word = (long) LONG_VIEW.get(buf, i);
+                final long found = match(word, fieldSeparatorPattern) | match(word, quotePattern)
+                        | match(word, CR_PATTERN) | match(word, LF_PATTERN);
+                if (found != 0) {
+                    final int index = Long.numberOfTrailingZeros(found) >>> 3;
+                    bits |= word & HIGH_BITS & ((1L << (index << 3)) - 1);
+                    i += index;
+                    break;
+                }
+                bits |= word & HIGH_BITS;
+                i += Long.BYTES;
+            }
+            while (i < end) {
+                final byte b = buf[i];
+                if (b == fieldSeparatorByte || b == quoteByte || b == CR || b == LF) {
+                    break;
+                }
+                bits |= b & HIGH_BIT;
+                i++;
+            }
+            if (i > position) {
+                lastCharIsLineSeparator = false;
+            }
+            position = i;
+            if (i < end) {
+                if (itemLength == 0) {
+                    // バッファ上に収まっている場合は、バッファ上の範囲を要素とする
+                    windowItemStart = start;
+                    itemLength = i - start;
+                    itemHasNonAscii = bits != 0;
+                } else {
+                    appendItem(buf, start, i - start, bits != 0);
+                }
+                return;
+            }
+            appendItem(buf, start, end - start, bits != 0);
+            if (!fill()) {
+                return;
+            }
+            start = 0;
+            bits = 0;
+        }
+    }
+
+    /**
+     * 8バイト分の値から、指定されたバイトと一致するバイトを探す。
+     * <p/>
+     * 一致したバイトの最上位ビットを立てた値を返す。
+     * 最も下位(バッファ上で先頭側)の一致は正確だが、それより上位には誤検出が含まれる場合がある。
+     * このため、戻り値は最も下位のビットの位置のみを使用すること。
+     *
+     * @param word 8バイト分の値(リトルエンディアン)
+     * @param pattern 探すバイトを8バイト分並べた値
+     * @return 一致したバイトの最上位ビットを立てた値。一致するバイトがない場合は{@code 0}
+     */
+    private static long match(final long word, final long pattern) {
+        final long x = word ^ pattern;
+        return (x - LOW_BITS) & ~x & HIGH_BITS;
+    }
+
+    @Override
+    protected int readNext() throws IOException {
+        if (position >= limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    protected int peek() throws IOException {
+        if (position >= limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    @Override
+    protected void clearItem() {
+        itemLength = 0;
+        itemHasNonAscii = false;
+        windowItemStart = -1;
+    }
+
+    @Override
+    protected void appendQuote() {
+        appendItem(quoteByte);
+    }
+
+    @Override
+    protected String itemToString() {
+        if (windowItemStart >= 0) {
+            return decode(buffer, windowItemStart, itemLength, itemHasNonAscii);
+        }
+        return decode(item, 0, itemLength, itemHasNonAscii);
+    }
+
+    @Override
+    protected String itemToString(final ValueCache<String> cache) {
+        final boolean inWindow = windowItemStart >= 0;
+        final byte[] src = inWindow ? buffer : item;
+        final int offset = inWindow ? windowItemStart : 0;
+        final String cached = cache.get(src, offset, itemLength);
+        if (cached != null) {
+            return cached;
+        }
+        final String value = decode(src, offset, itemLength, itemHasNonAscii);
+        cache.put(src, offset, itemLength, value);
+        return value;
+    }
+
+    @Override
+    protected boolean isItemEmpty() {
+        return itemLength == 0;
+    }
+
+    @Override
+    protected void itemTo(final CsvRecord record) {
+        final boolean inWindow = windowItemStart >= 0;
+        final byte[] src = inWindow ? buffer : item;
+        final int offset = inWindow ? windowItemStart : 0;
+        if (!itemHasNonAscii) {
+            // ASCIIのみの場合は、1バイトを1文字とそのまま対応付ける
+            record.appendAscii(src, offset, itemLength);
+            return;
+        }
+        if (decoder == null) {
+            // 文字列を生成する場合と同じく、不正なバイト列は置換文字に変換する
+            decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        final ByteBuffer in;
+        if (inWindow) {
+            if (bufferView == null) {
+                bufferView = ByteBuffer.wrap(buffer);
+            }
+            in = bufferView;
+        } else {
+            if (itemView == null || itemView.array() != item) {
+                itemView = ByteBuffer.wrap(item);
+            }
+            in = itemView;
+        }
+        in.limit(offset + itemLength).position(offset);
+        final CharBuffer out = record.charBuffer(
+                (int) Math.ceil(itemLength * (double) decoder.maxCharsPerByte()));
+        decoder.reset();
+        decoder.decode(in, out, true);
+        decoder.flush(out);
+        record.commit(out);
+    }
+
+    /**
+     * 組み立て中の要素にバイト列を追加する。
+     *
+     * @param src 追加するバイト列を含む配列
+     * @param offset 開始位置
+     * @param length バイト数
+     * @param nonAscii ASCII以外のバイトを含む場合は{@code true}
+     */
+    private void appendItem(final byte[] src, final int offset, final int length, final boolean nonAscii) {
+        ensureItemCapacity(itemLength + length);
+        System.arraycopy(src, offset, item, itemLength, length);
+        itemLength += length;
+        itemHasNonAscii |= nonAscii;
+    }
+
+    /**
+     * 組み立て中の要素に1バイト追加する。
+     *
+     * @param b 追加するバイト
+     */
+    private void appendItem(final byte b) {
+        ensureItemCapacity(itemLength + 1);
+        item[itemLength++] = b;
+        itemHasNonAscii |= b < 0;
+    }
+
+    /**
+     * 組み立て中の要素のバッファが指定されたサイズを格納できるよう拡張する。
+     *
+     * @param capacity 必要なサイズ
+     */
+    private void ensureItemCapacity(final int capacity) {
+        if (capacity > item.length) {
+            item = Arrays.copyOf(item, Math.max(capacity, item.length * 2));
+        }
+    }
+
+    /**
+     * バイト列を文字列に変換する。
+     *
+     * @param src 変換するバイト列を含む配列
+     * @param offset 開始位置
+     * @param length バイト数
+     * @param nonAscii ASCII以外のバイトを含む場合は{@code true}
+     * @return 文字列
+     */
+    private String decode(final byte[] src, final int offset, final int length, final boolean nonAscii) {
+        if (nonAscii) {
+            return new String(src, offset, length, charset);
+        }
+        // ASCIIのみの場合は、1バイトを1文字とそのまま対応付ける
+        return new String(src, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    protected void beginRawRecord() {
+        rawLength = 0;
+        rawStart = position;
+    }
+
+    @Override
+    protected String rawRecord() {
+        if (rawLength == 0) {
+            return new String(buffer, rawStart, position - rawStart, charset);
+        }
+        final int length = rawLength;
+        appendRaw(rawStart, position - rawStart);
+        final String record = new String(raw, 0, rawLength, charset);
+        rawLength = length;
+        return record;
+    }
+
+    /**
+     * 記録中のレコードのバイト列に、バッファ上のバイト列を追加する。
+     *
+     * @param offset バッファ上の開始位置
+     * @param length バイト数
+     */
+    private void appendRaw(final int offset, final int length) {
+        if (raw == null || rawLength + length > raw.length) {
+            raw = Arrays.copyOf(raw == null ? new byte[0] : raw, Math.max(rawLength + length, rawLength * 2));
+        }
+        System.arraycopy(buffer, offset, raw, rawLength, length);
+        rawLength += length;
+    }
+
+    /**
+     * 入力ストリームの先頭の、入力全体での位置を設定する。
+     * <p/>
+     * 入力の途中から読み込む場合に、入力全体での位置を引き継ぐために使用する。
+     * 読み込みを開始する前に呼び出すこと。
+     *
+     * @param offset 入力ストリームの先頭の位置(バイト)
+     */
+    void setOffset(final long offset) {
+        bufferOffset = offset;
+    }
+
+    /**
+     * 次に読み込むバイトの、入力全体での位置を返す。
+     *
+     * @return 次に読み込むバイトの位置
+     */
+    long getOffset() {
+        return bufferOffset + position;
+    }
+
+    /**
+     * バッファに次のバイトを読み込む。
+     * <p/>
+     * バッファ上の未読のバイトは破棄されるため、バッファを読み切った状態で呼び出すこと。
+     *
+     * @return 読み込めた場合は{@code true}、ファイルの終端に達した場合は{@code false}
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    private boolean fill() throws IOException {
+        if (rawStart >= 0) {
+            appendRaw(rawStart, limit - rawStart);
+            rawStart = limit;
+        }
+        int read;
+        do {
+            read = inputStream.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        bufferOffset += limit;
+        position = 0;
+        limit = read;
+        if (rawStart >= 0) {
+            rawStart = 0;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,295 @@
+package nablarch.common.databind.csv;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 文字を直接バイト列に変換して出力する{@link Writer}。
+ * <p/>
+ * ASCIIの範囲の文字は文字コードの変換処理を行わずに1文字を1バイトとしてバッファに書き込み、
+ * それ以外の文字が連続する範囲のみを{@link CharsetEncoder}で変換する。
+ * 区切り文字、クォート文字、改行がASCIIの範囲である一般的なCSVでは、大部分の文字が変換処理を経由しない。
+ * <p/>
+ * 出力先に{@link WritableByteChannel}を指定した場合は、プールしたダイレクトバッファに変換し、
+ * バッファが一杯になるごとにチャネルに書き込む。
+ * <p/>
+ * 変換できない文字は、{@link java.io.OutputStreamWriter}と同じく文字コードの代替バイト列に置き換える。
+ * ASCIIの範囲の文字が1バイトの同じ値に変換される、状態を持たない文字コードでのみ使用できる。
+ * 使用できるか否かは{@link #isSupported(Charset)}で判定する。
+ *
+ * @author Naoki Yamamoto
+ */
+class CsvByteWriter extends Writer {
+
+    /** ASCIIの範囲の文字が1バイトの同じ値に変換される、状態を持たない文字コード */
+    private static final Set<String> ASCII_COMPATIBLE_CHARSETS = new HashSet<String>(Arrays.asList(
+            "UTF-8", "US-ASCII", "ISO-8859-1", "EUC-JP", "Shift_JIS", "windows-31j"));
+
+    /** バッファの大きさ */
+    static final int BUFFER_SIZE = 8192;
+
+    /** プールするダイレクトバッファの数 */
+    private static final int POOL_SIZE = 16;
+
+    /** ASCIIの範囲の上限 */
+    private static final char ASCII_LIMIT = 0x80;
+
+    /** 再利用するダイレクトバッファ */
+    private static final BlockingQueue<ByteBuffer> DIRECT_BUFFER_POOL = new ArrayBlockingQueue<ByteBuffer>(POOL_SIZE);
+
+    /** 出力先のストリーム(チャネルに出力する場合は{@code null}) */
+    private final OutputStream outputStream;
+
+    /** 出力先のチャネル(ストリームに出力する場合は{@code null}) */
+    private final WritableByteChannel channel;
+
+    /** ASCII以外の文字を変換する{@link CharsetEncoder} */
+    private final CharsetEncoder encoder;
+
+    /** 変換したバイト列を保持するバッファ */
+    private ByteBuffer buffer;
+
+    /** サロゲートペアを変換するための文字 */
+    private final char[] pair = new char[2];
+
+    /** 前回の書き込みの末尾にあり、変換していない上位サロゲート */
+    private char pendingHighSurrogate;
+
+    /** 変換していない上位サロゲートが存在するか否か */
+    private boolean hasPendingHighSurrogate;
+
+    /**
+     * ストリームに出力する{@code CsvByteWriter}を生成する。
+     *
+     * @param outputStream 出力先のストリーム
+     * @param charset 文字コード
+     */
+    CsvByteWriter(final OutputStream outputStream, final Charset charset) {
+        this(outputStream, null, charset, ByteBuffer.allocate(BUFFER_SIZE));
+    }
+
+    /**
+     * チャネルに出力する{@code CsvByteWriter}を生成する。
+     *
+     * @param channel 出力先のチャネル
+     * @param charset 文字コード
+     */
+    CsvByteWriter(final WritableByteChannel channel, final Charset charset) {
+        this(null, channel, charset, acquireDirectBuffer());
+    }
+
+    /**
+     * {@code CsvByteWriter}を生成する。
+     *
+     * @param outputStream 出力先のストリーム
+     * @param channel 出力先のチャネル
+     * @param charset 文字コード
+     * @param buffer 変換したバイト列を保持するバッファ
+     */
+    CsvByteWriter(final OutputStream outputStream, final WritableByteChannel channel, final Charset charset,
+            final ByteBuffer buffer) {
+        this.outputStream = outputStream;
+        this.channel = channel;
+        this.buffer = buffer;
+        encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * 文字コードをサポートするか否かを判定する。
+     *
+     * @param charset 文字コード
+     * @return サポートする場合は{@code true}
+     */
+    static boolean isSupported(final Charset charset) {
+        return ASCII_COMPATIBLE_CHARSETS.contains(charset.name());
+    }
+
+    /**
+     * プールからダイレクトバッファを取得する。
+     * <p/>
+     * プールが空の場合は、新たに生成する。
+     *
+     * @return ダイレクトバッファ
+     */
+    private static ByteBuffer acquireDirectBuffer() {
+        final ByteBuffer pooled = DIRECT_BUFFER_POOL.poll();
+        return pooled != null ? pooled : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        ensureOpen();
+        final int end = off + len;
+        int i = off;
+        if (hasPendingHighSurrogate && i < end) {
+            hasPendingHighSurrogate = false;
+            pair[0] = pendingHighSurrogate;
+            if (Character.isLowSurrogate(cbuf[i])) {
+                pair[1] = cbuf[i++];
+                encode(CharBuffer.wrap(pair, 0, 2));
+            } else {
+                encode(CharBuffer.wrap(pair, 0, 1));
+            }
+        }
+
+        final ByteBuffer out = buffer;
+        while (i < end) {
+            // ASCIIの範囲の文字は、そのまま1バイトとして書き込む
+            while (i < end && cbuf[i] < ASCII_LIMIT) {
+                if (!out.hasRemaining()) {
+                    flushBuffer();
+                }
+                out.put((byte) cbuf[i++]);
+            }
+            if (i == end) {
+                break;
+            }
+
+            final int start = i;
+            while (i < end && cbuf[i] >= ASCII_LIMIT) {
+                i++;
+            }
+            int runEnd = i;
+            if (runEnd == end && Character.isHighSurrogate(cbuf[runEnd - 1])) {
+                // 下位サロゲートは次の書き込みで渡されるため、変換を保留する
+                runEnd--;
+                pendingHighSurrogate = cbuf[runEnd];
+                hasPendingHighSurrogate = true;
+            }
+            if (start < runEnd) {
+                encode(CharBuffer.wrap(cbuf, start, runEnd - start));
+            }
+        }
+    }
+
+    /**
+     * 同じ文字コードで変換済みのバイト列を書き込む。
+     * <p/>
+     * バッファに変換したバイト列を先に出力先に書き込んでから、指定されたバイト列をそのまま書き込む。
+     * 前回の書き込みの末尾に、変換を保留した上位サロゲートが存在しないこと。
+     *
+     * @param bytes バイト列
+     * @param off 書き込みを開始する位置
+     * @param len 書き込むバイト数
+     * @throws IOException 書き込みに失敗した場合
+     */
+    void writeEncoded(final byte[] bytes, final int off, final int len) throws IOException {
+        ensureOpen();
+        flushBuffer();
+        if (channel != null) {
+            final ByteBuffer src = ByteBuffer.wrap(bytes, off, len);
+            while (src.hasRemaining()) {
+                channel.write(src);
+            }
+        } else {
+            outputStream.write(bytes, off, len);
+        }
+    }
+
+    /**
+     * ASCII以外の文字をバッファに変換する。
+     *
+     * @param in 変換する文字
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private void encode(final CharBuffer in) throws IOException {
+        encoder.reset();
+        while (true) {
+            final CoderResult result = encoder.encode(in, buffer, true);
+            if (result.isUnderflow()) {
+                break;
+            }
+            flushBuffer();
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * バッファに変換したバイト列を出力先に書き込む。
+     *
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private void flushBuffer() throws IOException {
+        final ByteBuffer out = buffer;
+        if (out.position() == 0) {
+            return;
+        }
+        out.flip();
+        try {
+            if (channel != null) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+            } else {
+                outputStream.write(out.array(), out.arrayOffset(), out.limit());
+            }
+        } finally {
+            out.clear();
+        }
+    }
+
+    /**
+     * 出力先が閉じられていないことを確認する。
+     *
+     * @throws IOException 閉じられている場合
+     */
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        flushBuffer();
+        if (outputStream != null) {
+            outputStream.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            if (hasPendingHighSurrogate) {
+                // 対になる下位サロゲートが存在しないため、代替バイト列に置き換える
+                hasPendingHighSurrogate = false;
+                pair[0] = pendingHighSurrogate;
+                encode(CharBuffer.wrap(pair, 0, 1));
+            }
+            flushBuffer();
+        } finally {
+            final ByteBuffer released = buffer;
+            buffer = null;
+            if (released.isDirect()) {
+                released.clear();
+                DIRECT_BUFFER_POOL.offer(released);
+            }
+            if (channel != null) {
+                channel.close();
+            } else {
+                outputStream.close();
+            }
+        }
+    }
+}
@@ -3,10 +3,13 @@ package nablarch.common.databind.csv;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import nablarch.common.databind.DataBindConfig;
+import nablarch.common.databind.InvalidRecordHandler;
 import nablarch.core.util.StringUtil;
 import nablarch.core.util.annotation.Published;
 
@@ -75,6 +78,33 @@ public class CsvDataBindConfig implements DataBindConfig {
     /** プロパティ名リスト */
     private final String[] properties;
 
+    /** 読み込み時にオブジェクトへ変換する項目のキーのリスト(空の場合は全ての項目) */
+    private final String[] projection;
+
+    /** 読み込み時にオブジェクトへ変換するレコードを判定するフィルタ(全てのレコードを変換する場合は{@code null}) */
+    private final CsvRecordFilter recordFilter;
+
+    /** 読み込み時に値をキャッシュする項目のキーのリスト(空の場合はキャッシュしない) */
+    private final String[] cachedColumns;
+
+    /** 読み込み時に項目ごとにキャッシュする値の上限数 */
+    private final int columnCacheSize;
+
+    /** 読み込み時に先読みに使用するバッファ数(先読みしない場合は0) */
+    private final int readAheadBuffers;
+
+    /** 読み込み時にレコードをオブジェクトへ変換するスレッド数(並列に変換しない場合は0) */
+    private final int bindParallelism;
+
+    /** 読み込み時に不正なレコードを受け取るハンドラ(不正なレコードで例外を送出する場合は{@code null}) */
+    private final InvalidRecordHandler invalidRecordHandler;
+
+    /** 読み込み時にプロパティの型に応じて値を直接解析するか否か */
+    private final boolean typedBinding;
+
+    /** 書き込み時にレコードをフォーマットするスレッド数(並列にフォーマットしない場合は0) */
+    private final int writeParallelism;
+
     /** デフォルトのフォーマット定義 */
     public static final CsvDataBindConfig DEFAULT = new CsvDataBindConfig(
             ',',                        // フィールドセパレータ
@@ -129,22 +159,8 @@ public class CsvDataBindConfig implements DataBindConfig {
             final boolean emptyToNull,
             final QuoteMode quoteMode,
             final List<String> quotedColumnNames) {
-
-        if (!VALID_LINE_SEPARATOR.matcher(lineSeparator)
-                .matches()) {
-            throw new IllegalArgumentException("invalid line separator. must be set '\\r\\n or \\n or \\r'");
-        }
-        this.fieldSeparator = fieldSeparator;
-        this.lineSeparator = lineSeparator;
-        this.quote = quote;
-        this.ignoreEmptyLine = ignoreEmptyLine;
-        this.requiredHeader = requiredHeader;
-        this.charset = charset;
-        this.emptyToNull = emptyToNull;
-        this.headerTitles = headerTitles;
-        this.properties = new String[0];
-        this.quoteMode = quoteMode;
-        this.quotedColumnNames = quotedColumnNames;
+        this(fieldSeparator, lineSeparator, quote, ignoreEmptyLine, requiredHeader, headerTitles, new String[0],
+                charset, emptyToNull, quoteMode, quotedColumnNames);
     }
 
     /**
@@ -175,6 +191,57 @@ public class CsvDataBindConfig implements DataBindConfig {
             final boolean emptyToNull,
             final QuoteMode quoteMode,
             final List<String> quotedColumnNames) {
+        this(fieldSeparator, lineSeparator, quote, ignoreEmptyLine, requiredHeader, headerTitles, properties,
+                charset, emptyToNull, quoteMode, quotedColumnNames, new String[0], null,
+                new String[0], 0, 0, 0, null, false, 0);
+    }
+
+    /**
+     * CSVのフォーマット定義を生成する。
+     *
+     * @param fieldSeparator 列区切り文字
+     * @param lineSeparator 行区切り文字(\r\n(CRLF) or \r(CR) or \n(LF)であること)
+     * @param quote フィールド囲み文字
+     * @param ignoreEmptyLine 空行を無視するか否か
+     * @param requiredHeader ヘッダ行(タイトル行)が必須か否か
+     * @param headerTitles ヘッダーに出力するタイトル
+     * @param properties プロパティ名リスト
+     * @param charset 文字コード
+     * @param emptyToNull 空のフィールドをnullに変換するかどうか
+     * @param quoteMode 出力時にフィールド囲み文字で囲むフィールドを指定するモード
+     * @param quotedColumnNames フィールド囲み文字で囲むフィールドのリスト
+     * @param projection 読み込み時にオブジェクトへ変換する項目のキーのリスト
+     * @param recordFilter 読み込み時にオブジェクトへ変換するレコードを判定するフィルタ
+     * @param cachedColumns 読み込み時に値をキャッシュする項目のキーのリスト
+     * @param columnCacheSize 読み込み時に項目ごとにキャッシュする値の上限数
+     * @param readAheadBuffers 読み込み時に先読みに使用するバッファ数
+     * @param bindParallelism 読み込み時にレコードをオブジェクトへ変換するスレッド数
+     * @param invalidRecordHandler 読み込み時に不正なレコードを受け取るハンドラ
+     * @param typedBinding 読み込み時にプロパティの型に応じて値を直接解析するか否か
+     * @param writeParallelism 書き込み時にレコードをフォーマットするスレッド数
+     * @throws IllegalArgumentException 行区切り文字が「\r\n(CRLF)・\r(CR)・\n(LF)」以外の場合
+     */
+    private CsvDataBindConfig(
+            final char fieldSeparator,
+            final String lineSeparator,
+            final char quote,
+            final boolean ignoreEmptyLine,
+            final boolean requiredHeader,
+            final String[] headerTitles,
+            final String[] properties,
+            final Charset charset,
+            final boolean emptyToNull,
+            final QuoteMode quoteMode,
+            final List<String> quotedColumnNames,
+            final String[] projection,
+            final CsvRecordFilter recordFilter,
+            final String[] cachedColumns,
+            final int columnCacheSize,
+            final int readAheadBuffers,
+            final int bindParallelism,
+            final InvalidRecordHandler invalidRecordHandler,
+            final boolean typedBinding,
+            final int writeParallelism) {
 
         if (!VALID_LINE_SEPARATOR.matcher(lineSeparator)
                 .matches()) {
@@ -191,6 +258,15 @@ public class CsvDataBindConfig implements DataBindConfig {
         this.properties = properties;
         this.quoteMode = quoteMode;
         this.quotedColumnNames = quotedColumnNames;
+        this.projection = projection;
+        this.recordFilter = recordFilter;
+        this.cachedColumns = cachedColumns;
+        this.columnCacheSize = columnCacheSize;
+        this.readAheadBuffers = readAheadBuffers;
+        this.bindParallelism = bindParallelism;
+        this.invalidRecordHandler = invalidRecordHandler;
+        this.typedBinding = typedBinding;
+        this.writeParallelism = writeParallelism;
     }
 
     /**
@@ -220,7 +296,16 @@ public class CsvDataBindConfig implements DataBindConfig {
                 charset,
                 emptyToNull,
                 quoteMode,
-                quotedColumnNames);
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
     }
 
     /**
@@ -252,7 +337,16 @@ public class CsvDataBindConfig implements DataBindConfig {
                 charset,
                 emptyToNull,
                 quoteMode,
-                quotedColumnNames);
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
     }
 
     /**
@@ -282,7 +376,16 @@ public class CsvDataBindConfig implements DataBindConfig {
                 charset,
                 emptyToNull,
                 quoteMode,
-                quotedColumnNames);
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
     }
 
     /**
@@ -321,7 +424,16 @@ public class CsvDataBindConfig implements DataBindConfig {
                 charset,
                 emptyToNull,
                 quoteMode,
-                quotedColumnNames);
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
     }
 
     /**
@@ -360,7 +472,16 @@ public class CsvDataBindConfig implements DataBindConfig {
                 charset,
                 emptyToNull,
                 quoteMode,
-                quotedColumnNames);
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
     }
 
     /**
@@ -390,7 +511,16 @@ public class CsvDataBindConfig implements DataBindConfig {
                 charset,
                 emptyToNull,
                 quoteMode,
-                quotedColumnNames);
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
     }
 
     /**
@@ -420,7 +550,16 @@ public class CsvDataBindConfig implements DataBindConfig {
                 charset,
                 emptyToNull,
                 quoteMode,
-                quotedColumnNames);
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
     }
 
     /**
@@ -434,6 +573,467 @@ public class CsvDataBindConfig implements DataBindConfig {
         return StringUtil.hasValue(properties) ? properties : headerTitles;
     }
 
+    /**
+     * 読み込み時にオブジェクトへ変換する項目のキーのリストを取得する。
+     *
+     * @return 変換する項目のキーのリスト。全ての項目を変換する場合は空の配列
+     */
+    public String[] getProjection() {
+        return projection;
+    }
+
+    /**
+     * 読み込み時にオブジェクトへ変換する項目を設定する。
+     * <p/>
+     * 指定したキー({@link #getKeys()}の要素)の項目のみを読み込み、オブジェクトへ変換する。
+     * 指定しなかった項目は、文字列を生成せずに読み飛ばす。
+     * 項目数の検証は、読み飛ばした項目も含めて行う。
+     * <p/>
+     * 書き込み時は、本設定に関わらず全ての項目を出力する。
+     *
+     * @param keys 変換する項目のキー。指定しない場合は全ての項目を変換する
+     * @return 新しい{@link CsvDataBindConfig}
+     */
+    public CsvDataBindConfig withProjection(final String... keys) {
+        return new CsvDataBindConfig(
+                fieldSeparator,
+                lineSeparator,
+                quote,
+                ignoreEmptyLine,
+                requiredHeader,
+                headerTitles,
+                properties,
+                charset,
+                emptyToNull,
+                quoteMode,
+                quotedColumnNames,
+                keys,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
+    }
+
+    /**
+     * 読み込み時にオブジェクトへ変換するレコードを判定するフィルタを取得する。
+     *
+     * @return フィルタ。全てのレコードを変換する場合は{@code null}
+     */
+    public CsvRecordFilter getRecordFilter() {
+        return recordFilter;
+    }
+
+    /**
+     * 読み込み時にオブジェクトへ変換するレコードを判定するフィルタを設定する。
+     * <p/>
+     * フィルタはトークン化した項目の値に対してオブジェクトへの変換前に実行し、
+     * 変換対象外と判定したレコードはオブジェクトへ変換せずに読み飛ばす。
+     * 変換対象外のレコードに対しては、項目数の検証も行わない。
+     *
+     * @param newRecordFilter フィルタ。{@code null}の場合は全てのレコードを変換する
+     * @return 新しい{@link CsvDataBindConfig}
+     * @see CsvRecordFilter
+     */
+    public CsvDataBindConfig withRecordFilter(final CsvRecordFilter newRecordFilter) {
+        return new CsvDataBindConfig(
+                fieldSeparator,
+                lineSeparator,
+                quote,
+                ignoreEmptyLine,
+                requiredHeader,
+                headerTitles,
+                properties,
+                charset,
+                emptyToNull,
+                quoteMode,
+                quotedColumnNames,
+                projection,
+                newRecordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
+    }
+
+    /**
+     * 読み込み時にオブジェクトへ変換する項目の、レコード上のインデックスを取得する。
+     *
+     * @return 変換する項目のインデックス(昇順)。全ての項目を変換する場合は{@code null}
+     * @throws IllegalArgumentException {@link #getKeys()}に存在しないキーが設定されている場合
+     */
+    int[] getProjectedIndexes() {
+        if (projection.length == 0) {
+            return null;
+        }
+        final List<String> keys = Arrays.asList(getKeys());
+        final Set<String> projected = new HashSet<String>(Arrays.asList(projection));
+        for (final String key : projected) {
+            if (!keys.contains(key)) {
+                throw new IllegalArgumentException("projection key is not found. key = [" + key + ']');
+            }
+        }
+        final int[] indexes = new int[projected.size()];
+        int count = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (projected.contains(keys.get(i))) {
+                indexes[count++] = i;
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * 読み込み時に値をキャッシュする項目のキーのリストを取得する。
+     *
+     * @return 値をキャッシュする項目のキーのリスト。キャッシュしない場合は空の配列
+     */
+    public String[] getCachedColumns() {
+        return cachedColumns;
+    }
+
+    /**
+     * 読み込み時に項目ごとにキャッシュする値の上限数を取得する。
+     *
+     * @return キャッシュする値の上限数
+     */
+    public int getColumnCacheSize() {
+        return columnCacheSize;
+    }
+
+    /**
+     * 読み込み時に値をキャッシュする項目を設定する。
+     * <p/>
+     * 指定したキー({@link #getKeys()}の要素)の項目は、読み込んだ値を項目ごとにキャッシュし、
+     * 同じ値が出現した場合はキャッシュした文字列のインスタンスを返す。
+     * 区分値やコード値のように取り得る値が少ない項目に指定することで、文字列の生成を抑えることができる。
+     * <p/>
+     * キャッシュする値が上限数に達した場合は、参照されていない値から破棄する。
+     * キャッシュは読み込みごとに作成し、読み込み間では共有しない。
+     *
+     * @param cacheSize 項目ごとにキャッシュする値の上限数
+     * @param keys 値をキャッシュする項目のキー。指定しない場合はキャッシュしない
+     * @return 新しい{@link CsvDataBindConfig}
+     * @throws IllegalArgumentException キャッシュする値の上限数が0以下の場合
+     */
+    public CsvDataBindConfig withCachedColumns(final int cacheSize, final String... keys) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("cache size must be greater than 0. cache size = [" + cacheSize + ']');
+        }
+        return new CsvDataBindConfig(
+                fieldSeparator,
+                lineSeparator,
+                quote,
+                ignoreEmptyLine,
+                requiredHeader,
+                headerTitles,
+                properties,
+                charset,
+                emptyToNull,
+                quoteMode,
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                keys,
+                cacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
+    }
+
+    /**
+     * 読み込み時に先読みに使用するバッファ数を取得する。
+     *
+     * @return バッファ数。先読みしない場合は0
+     */
+    public int getReadAheadBuffers() {
+        return readAheadBuffers;
+    }
+
+    /**
+     * 読み込み時に、入力を別スレッドで先読みするよう設定する。
+     * <p/>
+     * 入力の読み込みと文字コードの変換を別スレッドで行い、
+     * 呼び出し側がレコードを処理している間に次のデータを読み込む。
+     * 先読みするデータ量は、指定したバッファ数までに制限される。
+     * ネットワークファイルシステム上のファイルなど、読み込みの待ち時間が大きい入力に使用する。
+     * <p/>
+     * 先読みする場合、{@link CsvDataReader#seek(CsvRecordIndex, long)}は使用できない。
+     *
+     * @param bufferCount 先読みに使用するバッファ数(2の場合はダブルバッファリング)。0の場合は先読みしない
+     * @return 新しい{@link CsvDataBindConfig}
+     * @throws IllegalArgumentException バッファ数が負の場合
+     * @see nablarch.common.databind.ReadAheadInputStream
+     */
+    public CsvDataBindConfig withReadAhead(final int bufferCount) {
+        if (bufferCount < 0) {
+            throw new IllegalArgumentException("buffer count must not be negative. buffer count = [" + bufferCount + ']');
+        }
+        return new CsvDataBindConfig(
+                fieldSeparator,
+                lineSeparator,
+                quote,
+                ignoreEmptyLine,
+                requiredHeader,
+                headerTitles,
+                properties,
+                charset,
+                emptyToNull,
+                quoteMode,
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                bufferCount,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
+    }
+
+    /**
+     * 読み込み時にレコードをオブジェクトへ変換するスレッド数を取得する。
+     *
+     * @return スレッド数。並列に変換しない場合は0
+     */
+    public int getBindParallelism() {
+        return bindParallelism;
+    }
+
+    /**
+     * 読み込み時に、レコードのオブジェクトへの変換を複数のスレッドで並列に行うよう設定する。
+     * <p/>
+     * レコードの読み込み(トークン分割)は呼び出し側のスレッドで順に行い、
+     * 読み込んだレコードのオブジェクトへの変換のみを指定した数のスレッドで行う。
+     * 変換したオブジェクトはファイル上の順序で返却し、行番号もファイル上の行番号となる。
+     * 項目数が多いBeanへの変換など、変換の負荷がトークン分割より大きい場合に使用する。
+     * <p/>
+     * 並列に変換する場合、変換を待っているレコードの分だけ入力を先に読み込む。
+     * 変換用のスレッドは{@link nablarch.common.databind.ObjectMapper#close()}で停止する。
+     *
+     * @param parallelism 変換に使用するスレッド数。0の場合は呼び出し側のスレッドで変換する
+     * @return 新しい{@link CsvDataBindConfig}
+     * @throws IllegalArgumentException スレッド数が負の場合
+     */
+    public CsvDataBindConfig withParallelBind(final int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("parallelism must not be negative. parallelism = [" + parallelism + ']');
+        }
+        return new CsvDataBindConfig(
+                fieldSeparator,
+                lineSeparator,
+                quote,
+                ignoreEmptyLine,
+                requiredHeader,
+                headerTitles,
+                properties,
+                charset,
+                emptyToNull,
+                quoteMode,
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                parallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
+    }
+
+    /**
+     * 読み込み時に不正なレコードを受け取るハンドラを取得する。
+     *
+     * @return ハンドラ。不正なレコードで例外を送出する場合は{@code null}
+     */
+    public InvalidRecordHandler getInvalidRecordHandler() {
+        return invalidRecordHandler;
+    }
+
+    /**
+     * 読み込み時に、フォーマットが不正なレコードを読み飛ばして読み込みを続けるよう設定する。
+     * <p/>
+     * 不正なレコード(クォート文字の誤りや、項目数の不一致)を読み込んだ場合、
+     * {@link nablarch.common.databind.InvalidDataFormatException}を送出せずに、
+     * レコードの内容と例外をハンドラに渡し、次の行の先頭から読み込みを再開する。
+     * ハンドラが受け取る例外はスタックトレースを持たない。
+     * <p/>
+     * 本設定は{@link CsvBeanMapper}及び{@link CsvMapMapper}での読み込みに適用する。
+     * ヘッダ行が不正な場合は、本設定に関わらず例外を送出する。
+     *
+     * @param handler 不正なレコードを受け取るハンドラ。{@code null}の場合は不正なレコードで例外を送出する
+     * @return 新しい{@link CsvDataBindConfig}
+     */
+    public CsvDataBindConfig withInvalidRecordHandler(final InvalidRecordHandler handler) {
+        return new CsvDataBindConfig(
+                fieldSeparator,
+                lineSeparator,
+                quote,
+                ignoreEmptyLine,
+                requiredHeader,
+                headerTitles,
+                properties,
+                charset,
+                emptyToNull,
+                quoteMode,
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                handler,
+                typedBinding,
+                writeParallelism);
+    }
+
+    /**
+     * 読み込み時にプロパティの型に応じて値を直接解析するか否かを取得する。
+     *
+     * @return 直接解析する場合は{@code true}
+     */
+    public boolean isTypedBinding() {
+        return typedBinding;
+    }
+
+    /**
+     * 読み込み時に、Beanのプロパティの型に応じて値を直接解析するか否かを設定する。
+     * <p/>
+     * 有効にした場合、{@link CsvBeanMapper}はプロパティごとの変換方法を初回に決定し、
+     * 以下の型のプロパティは、項目ごとの文字列を生成せずに読み込んだ文字から直接値を解析して設定する。
+     * <ul>
+     * <li>{@code int}、{@link Integer}、{@code long}、{@link Long}(符号付きの10進数)</li>
+     * <li>{@link java.math.BigDecimal}({@link java.math.BigDecimal#BigDecimal(String)}が受け付ける形式)</li>
+     * <li>{@link java.time.LocalDate}({@code yyyy-MM-dd}または{@code yyyyMMdd}形式)</li>
+     * </ul>
+     * 値が形式に合わない場合や、プリミティブ型のプロパティに対する値が{@code null}の場合は、
+     * 行番号を持つ{@link nablarch.common.databind.InvalidDataFormatException}を送出する。
+     * {@link #withInvalidRecordHandler(InvalidRecordHandler)}が設定されている場合は、ハンドラに渡して読み込みを続ける。
+     * 上記以外の型のプロパティは、本設定に関わらず{@link nablarch.core.beans.BeanUtil}で変換する。
+     * <p/>
+     * 本設定を有効にした場合、上記の型には{@link nablarch.core.beans.BeanUtil}に登録したコンバータを使用しない。
+     *
+     * @param newTypedBinding 直接解析する場合は{@code true}
+     * @return 新しい{@link CsvDataBindConfig}
+     */
+    public CsvDataBindConfig withTypedBinding(final boolean newTypedBinding) {
+        return new CsvDataBindConfig(
+                fieldSeparator,
+                lineSeparator,
+                quote,
+                ignoreEmptyLine,
+                requiredHeader,
+                headerTitles,
+                properties,
+                charset,
+                emptyToNull,
+                quoteMode,
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                newTypedBinding,
+                writeParallelism);
+    }
+
+    /**
+     * 書き込み時にレコードをフォーマットするスレッド数を取得する。
+     *
+     * @return スレッド数。並列にフォーマットしない場合は0
+     */
+    public int getWriteParallelism() {
+        return writeParallelism;
+    }
+
+    /**
+     * 書き込み時に、レコードのフォーマットを複数のスレッドで並列に行うよう設定する。
+     * <p/>
+     * 書き込むオブジェクトから値を取り出す処理は呼び出し側のスレッドで行い、
+     * 一定数のレコードをまとめたチャンクごとに、エスケープやクォート文字での囲み、文字コードの変換を指定した数のスレッドで行う。
+     * フォーマットしたチャンクは、書き込み用の1つのスレッドが書き込みを依頼した順に出力するため、
+     * 出力内容は並列にフォーマットしない場合と同じとなる。
+     * <p/>
+     * 書き込み後に変更される可能性がある値({@link java.util.Date}や{@link StringBuilder}など)は、
+     * 呼び出し側のスレッドで文字列に変換してからフォーマット用のスレッドに渡す。
+     * ただし、数値はクォート文字で囲むかの判定に型を使用するため、
+     * {@link java.util.concurrent.atomic.AtomicLong}などの変更可能な数値は、書き込んだ後に値を変更しないこと。
+     * <p/>
+     * 出力先への書き込みで発生した例外は、以降の書き込みまたは{@link nablarch.common.databind.ObjectMapper#close()}で送出する。
+     * フォーマット用と書き込み用のスレッドは{@link nablarch.common.databind.ObjectMapper#close()}で停止する。
+     *
+     * @param parallelism フォーマットに使用するスレッド数。0の場合は呼び出し側のスレッドでフォーマットして書き込む
+     * @return 新しい{@link CsvDataBindConfig}
+     * @throws IllegalArgumentException スレッド数が負の場合
+     */
+    public CsvDataBindConfig withParallelWrite(final int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("parallelism must not be negative. parallelism = [" + parallelism + ']');
+        }
+        return new CsvDataBindConfig(
+                fieldSeparator,
+                lineSeparator,
+                quote,
+                ignoreEmptyLine,
+                requiredHeader,
+                headerTitles,
+                properties,
+                charset,
+                emptyToNull,
+                quoteMode,
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                parallelism);
+    }
+
+    /**
+     * 読み込み時に値をキャッシュする項目の、レコード上のインデックスを取得する。
+     *
+     * @return 値をキャッシュする項目のインデックス(昇順)。キャッシュしない場合は{@code null}
+     * @throws IllegalArgumentException {@link #getKeys()}に存在しないキーが設定されている場合
+     */
+    int[] getCachedColumnIndexes() {
+        if (cachedColumns.length == 0) {
+            return null;
+        }
+        final List<String> keys = Arrays.asList(getKeys());
+        final Set<String> cached = new HashSet<String>(Arrays.asList(cachedColumns));
+        for (final String key : cached) {
+            if (!keys.contains(key)) {
+                throw new IllegalArgumentException("cached column key is not found. key = [" + key + ']');
+            }
+        }
+        final int[] indexes = new int[cached.size()];
+        int count = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (cached.contains(keys.get(i))) {
+                indexes[count++] = i;
+            }
+        }
+        return indexes;
+    }
+
     /**
      * 文字コードを取得する。
      *
@@ -471,7 +1071,16 @@ public class CsvDataBindConfig implements DataBindConfig {
                 newCharset,
                 emptyToNull,
                 quoteMode,
-                quotedColumnNames);
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
     }
 
     /**
@@ -501,7 +1110,16 @@ public class CsvDataBindConfig implements DataBindConfig {
                 charset,
                 newEmptyToNull,
                 quoteMode,
-                quotedColumnNames);
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
     }
 
     /**
@@ -531,7 +1149,16 @@ public class CsvDataBindConfig implements DataBindConfig {
                 charset,
                 emptyToNull,
                 newQuoteMode,
-                quotedColumnNames);
+                quotedColumnNames,
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
     }
 
     /**
@@ -564,7 +1191,16 @@ public class CsvDataBindConfig implements DataBindConfig {
                 charset,
                 emptyToNull,
                 quoteMode,
-                Arrays.asList(fieldNames));
+                Arrays.asList(fieldNames),
+                projection,
+                recordFilter,
+                cachedColumns,
+                columnCacheSize,
+                readAheadBuffers,
+                bindParallelism,
+                invalidRecordHandler,
+                typedBinding,
+                writeParallelism);
     }
 
     /**
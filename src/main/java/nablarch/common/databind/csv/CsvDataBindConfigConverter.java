@@ -1,13 +1,12 @@
 package nablarch.common.databind.csv;
 
-import java.beans.PropertyDescriptor;
 import java.text.MessageFormat;
-import java.util.ArrayList;
-import java.util.List;
 
 import nablarch.common.databind.DataBindConfig;
 import nablarch.common.databind.DataBindConfigConverter;
-import nablarch.core.beans.BeanUtil;
+import nablarch.common.databind.DataBindMetadata;
+import nablarch.common.databind.DataBindUtil;
+import nablarch.common.databind.InvalidRecordHandler;
 
 /**
  * {@link Csv}アノテーションを{@link CsvDataBindConfig}に変換するクラス。
@@ -40,8 +39,36 @@ public class CsvDataBindConfigConverter implements DataBindConfigConverter<Csv>
                     .withQuoteMode(csvFormat.quoteMode());
         }
 
+        if (csv.projection().length != 0) {
+            config = config.withProjection(csv.projection());
+        }
+
+        if (csv.recordFilter() != CsvRecordFilter.class) {
+            config = config.withRecordFilter(DataBindUtil.newInstance(csv.recordFilter()));
+        }
+
+        if (csv.cachedColumns().length != 0) {
+            config = config.withCachedColumns(csv.columnCacheSize(), csv.cachedColumns());
+        }
+
+        if (csv.bindParallelism() != 0) {
+            config = config.withParallelBind(csv.bindParallelism());
+        }
+
+        if (csv.writeParallelism() != 0) {
+            config = config.withParallelWrite(csv.writeParallelism());
+        }
+
+        if (csv.invalidRecordHandler() != InvalidRecordHandler.class) {
+            config = config.withInvalidRecordHandler(DataBindUtil.newInstance(csv.invalidRecordHandler()));
+        }
+
+        if (csv.typedBinding()) {
+            config = config.withTypedBinding(true);
+        }
+
         if (config.getQuoteMode() == CsvDataBindConfig.QuoteMode.CUSTOM) {
-            config = config.withQuotedColumnNames(findQuotedItemList(beanClass));
+            config = config.withQuotedColumnNames(DataBindMetadata.get(beanClass).getQuotedProperties());
         }
 
         if (config.isRequiredHeader()) {
@@ -87,21 +114,4 @@ public class CsvDataBindConfigConverter implements DataBindConfigConverter<Csv>
                     "properties is required. class = [{0}]", clazz.getName()));
         }
     }
-
-    /**
-     * クォート文字で囲む対象の項目リストを取得する。
-     * @param clazz Beanクラス
-     * @param <T> Beanクラスの型
-     * @return クォート文字で囲む対象の項目
-     */
-    private static <T> String[] findQuotedItemList(final Class<T> clazz) {
-        final List<String> quotedColumnNames = new ArrayList<String>();
-        PropertyDescriptor[] pds = BeanUtil.getPropertyDescriptors(clazz);
-        for (PropertyDescriptor pd : pds) {
-            if (pd.getReadMethod().getAnnotation(Quoted.class) != null) {
-                quotedColumnNames.add(pd.getName());
-            }
-        }
-        return quotedColumnNames.toArray(new String[quotedColumnNames.size()]);
-    }
 }
@@ -1,11 +1,22 @@
 package nablarch.common.databind.csv;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
 
 import nablarch.common.databind.DataReader;
+import nablarch.common.databind.ReadAheadInputStream;
+import nablarch.common.databind.ReadAheadReader;
+import nablarch.common.databind.ReadPosition;
+import nablarch.common.databind.ValueCache;
+import nablarch.core.util.StringUtil;
 
 /**
  * CSVの解析を行うクラス。
@@ -14,11 +25,29 @@ import nablarch.common.databind.DataReader;
  */
 public class CsvDataReader implements DataReader<String[]> {
 
-    /** CSVの要素を分解して扱う{@link CsvTokenizer} */
-    private final CsvTokenizer tokenizer;
+    /** CSVの要素を分解して扱う{@link CsvTokenizerSupport}({@link #seek(CsvRecordIndex, long)}で作り直す) */
+    private CsvTokenizerSupport tokenizer;
 
     /** 入力リソース */
-    private final BufferedReader reader;
+    private final Closeable reader;
+
+    /** CSVのフォーマット */
+    private final CsvDataBindConfig format;
+
+    /** 解析時に使用するバッファのサイズ */
+    private final int bufferSize;
+
+    /** 1レコード分のデータを読み込むリスト(レコードをまたいで再利用する) */
+    private final List<String> record = new ArrayList<String>();
+
+    /** 最後に読み込んだレコードの項目数 */
+    private int fieldCount;
+
+    /** 最後に読み込んだレコードが空行か否か */
+    private boolean emptyLine;
+
+    /** 項目のインデックスごとの値のキャッシュ(キャッシュしない項目は{@code null}) */
+    private final ValueCache<String>[] columnCaches;
 
     /**
      * コンストラクタ
@@ -36,8 +65,112 @@ public class CsvDataReader implements DataReader<String[]> {
      * @param format CSVのフォーマットを定義した{@link CsvDataBindConfig}
      */
     public CsvDataReader(final BufferedReader bufferedReader, final CsvDataBindConfig format) {
-        reader = bufferedReader;
-        this.tokenizer = new CsvTokenizer(bufferedReader, format);
+        this(bufferedReader, format, CsvTokenizerSupport.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * コンストラクタ
+     * <p/>
+     * CSVは指定されたサイズのバッファ単位で読み込み、解析する。
+     *
+     * @param bufferedReader 解析を行うCSVの{@link BufferedReader}
+     * @param format CSVのフォーマットを定義した{@link CsvDataBindConfig}
+     * @param bufferSize 解析時に使用するバッファのサイズ(文字数)
+     */
+    public CsvDataReader(final BufferedReader bufferedReader, final CsvDataBindConfig format, final int bufferSize) {
+        this.format = format;
+        this.bufferSize = bufferSize;
+        if (format.getReadAheadBuffers() > 0) {
+            final Reader readAheadReader = new ReadAheadReader(bufferedReader, format.getReadAheadBuffers(), bufferSize);
+            reader = readAheadReader;
+            this.tokenizer = new CsvTokenizer(readAheadReader, format, bufferSize);
+        } else {
+            reader = bufferedReader;
+            this.tokenizer = new CsvTokenizer(bufferedReader, format, bufferSize);
+        }
+        columnCaches = createColumnCaches(format);
+    }
+
+    /**
+     * コンストラクタ
+     * <p/>
+     * {@link CsvDataBindConfig#getCharset()}がASCII互換の文字コード(UTF-8、Shift_JIS、EUC-JPなど)の場合は、
+     * 入力をバイト列のまま解析し、要素ごとに文字列へ変換する。
+     * それ以外の場合は、入力全体を文字に変換してから解析する。
+     *
+     * @param inputStream 解析を行うCSVの{@link InputStream}
+     * @param format CSVのフォーマットを定義した{@link CsvDataBindConfig}
+     */
+    public CsvDataReader(final InputStream inputStream, final CsvDataBindConfig format) {
+        this(inputStream, format, CsvTokenizerSupport.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * コンストラクタ
+     * <p/>
+     * CSVは指定されたサイズのバッファ単位で読み込み、解析する。
+     * 解析方法は{@link #CsvDataReader(InputStream, CsvDataBindConfig)}と同じ。
+     *
+     * @param inputStream 解析を行うCSVの{@link InputStream}
+     * @param format CSVのフォーマットを定義した{@link CsvDataBindConfig}
+     * @param bufferSize 解析時に使用するバッファのサイズ
+     */
+    public CsvDataReader(final InputStream inputStream, final CsvDataBindConfig format, final int bufferSize) {
+        this(inputStream, format, bufferSize, ReadPosition.START);
+    }
+
+    /**
+     * ファイルの途中から読み込む{@code CsvDataReader}を生成する。
+     * <p/>
+     * 入力ストリームは、指定された読み込み位置(レコードの先頭)から始まっていること。
+     *
+     * @param inputStream 解析を行うCSVの{@link InputStream}
+     * @param format CSVのフォーマットを定義した{@link CsvDataBindConfig}
+     * @param bufferSize 解析時に使用するバッファのサイズ
+     * @param position 入力ストリームの先頭の読み込み位置
+     */
+    CsvDataReader(final InputStream inputStream, final CsvDataBindConfig format, final int bufferSize,
+            final ReadPosition position) {
+        this.format = format;
+        this.bufferSize = bufferSize;
+        final int readAheadBuffers = format.getReadAheadBuffers();
+        if (CsvByteTokenizer.isSupported(format)) {
+            final InputStream in = readAheadBuffers > 0
+                    ? new ReadAheadInputStream(inputStream, readAheadBuffers, bufferSize) : inputStream;
+            reader = in;
+            final CsvByteTokenizer byteTokenizer = new CsvByteTokenizer(in, format, bufferSize);
+            byteTokenizer.setOffset(position.getOffset());
+            tokenizer = byteTokenizer;
+        } else {
+            // 先読みする場合は、文字コードの変換も先読みするスレッドで行う
+            final Reader in = readAheadBuffers > 0
+                    ? new ReadAheadReader(new InputStreamReader(inputStream, format.getCharset()), readAheadBuffers, bufferSize)
+                    : new BufferedReader(new InputStreamReader(inputStream, format.getCharset()));
+            reader = in;
+            tokenizer = new CsvTokenizer(in, format, bufferSize);
+        }
+        tokenizer.setLineNumber(position.getNextLineNumber());
+        columnCaches = createColumnCaches(format);
+    }
+
+    /**
+     * 項目のインデックスごとの値のキャッシュを生成する。
+     *
+     * @param format CSVのフォーマットを定義した{@link CsvDataBindConfig}
+     * @return 値のキャッシュ
+     * @see CsvDataBindConfig#withCachedColumns(int, String...)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ValueCache<String>[] createColumnCaches(final CsvDataBindConfig format) {
+        final int[] indexes = format.getCachedColumnIndexes();
+        if (indexes == null) {
+            return new ValueCache[0];
+        }
+        final ValueCache<String>[] caches = new ValueCache[indexes[indexes.length - 1] + 1];
+        for (final int index : indexes) {
+            caches[index] = new ValueCache<String>(format.getColumnCacheSize());
+        }
+        return caches;
     }
 
 
@@ -55,7 +188,9 @@ public class CsvDataReader implements DataReader<String[]> {
                 // ファイルの終端に達している場合はnullを返す
                 return null;
             } else {
-                final List<String> record = readLine();
+                readLine();
+                fieldCount = record.size();
+                emptyLine = fieldCount == 1 && StringUtil.isNullOrEmpty(record.get(0));
                 return record.toArray(new String[record.size()]);
             }
         } catch (IOException e) {
@@ -63,19 +198,265 @@ public class CsvDataReader implements DataReader<String[]> {
         }
     }
 
+    /**
+     * CSVの解析を行い、1レコードのうち指定された項目のデータを格納した{@link String}の配列を生成する。
+     * <p/>
+     * 指定されなかった項目は文字列を生成せずに読み飛ばす。
+     * 最後に指定された項目より後ろの項目も、レコードの終端まで読み飛ばす。
+     * レコード全体の項目数は{@link #getFieldCount()}で取得できる。
+     * <p/>
+     * レコードに存在しない項目が指定された場合、その項目の値は{@code null}となる。
+     * ファイルの終端に達した場合には、{@code null}を返す。
+     *
+     * @param columns 読み込む項目のインデックス(0始まり、昇順であること)
+     * @return 指定された項目のデータを、指定された順に格納した{@link String}の配列
+     */
+    public String[] read(final int[] columns) {
+        try {
+            if (tokenizer.isEndOfFile()) {
+                // ファイルの終端に達している場合はnullを返す
+                return null;
+            }
+            final String[] values = new String[columns.length];
+            boolean firstEmpty = false;
+            int count = 0;
+            int next = 0;
+            tokenizer.reset();
+            while (!tokenizer.isEndOfLine()) {
+                final boolean empty;
+                if (next < columns.length && columns[next] == count) {
+                    final String value = next(count);
+                    values[next++] = value;
+                    empty = StringUtil.isNullOrEmpty(value);
+                } else {
+                    empty = tokenizer.skip();
+                }
+                if (count == 0) {
+                    firstEmpty = empty;
+                }
+                count++;
+            }
+            fieldCount = count;
+            emptyLine = count == 1 && firstEmpty;
+            return values;
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+    }
+
+    /**
+     * 最後に読み込んだレコードの項目数を返す。
+     * <p/>
+     * {@link #read(int[])}で読み飛ばした項目も含めた数を返す。
+     *
+     * @return 項目数
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * 最後に読み込んだレコードが空行か否かを返す。
+     * <p/>
+     * 項目が1つのみで、その項目が空の場合に空行とする。
+     *
+     * @return 空行の場合は{@code true}
+     */
+    public boolean isEmptyLine() {
+        return emptyLine;
+    }
+
+    /**
+     * CSVの解析を行い、1レコード分のデータを指定された{@link CsvRecord}に読み込む。
+     * <p/>
+     * {@link CsvRecord}が保持していた要素はクリアされる。
+     * 同じ{@link CsvRecord}を繰り返し指定することで、レコードごとに文字列や配列を生成せずに読み込むことができる。
+     *
+     * @param csvRecord 読み込み先の{@link CsvRecord}
+     * @return 読み込めた場合は{@code true}、ファイルの終端に達した場合は{@code false}
+     */
+    public boolean read(final CsvRecord csvRecord) {
+        csvRecord.clear();
+        try {
+            if (tokenizer.isEndOfFile()) {
+                // ファイルの終端に達している場合は読み込まない
+                return false;
+            }
+            tokenizer.reset();
+            while (!tokenizer.isEndOfLine()) {
+                tokenizer.nextTo(csvRecord);
+            }
+            csvRecord.setLineNumber(tokenizer.getLineNumber());
+            fieldCount = csvRecord.size();
+            emptyLine = fieldCount == 1 && (csvRecord.isNull(0) || csvRecord.get(0).length() == 0);
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+    }
+
+    /**
+     * 指定された数のレコードを読み飛ばす。
+     * <p/>
+     * 読み飛ばすレコードの項目は、文字列を生成せずに読み飛ばす。
+     * 空行を無視する設定の場合({@link CsvDataBindConfig#isIgnoreEmptyLine()})、空行は読み飛ばすレコード数に数えない。
+     *
+     * @param n 読み飛ばすレコード数
+     * @return 実際に読み飛ばしたレコード数。ファイルの終端に達した場合は指定された数より少なくなる
+     */
+    public long skip(final long n) {
+        try {
+            long skipped = 0L;
+            while (skipped < n && !tokenizer.isEndOfFile()) {
+                boolean firstEmpty = false;
+                int count = 0;
+                tokenizer.reset();
+                while (!tokenizer.isEndOfLine()) {
+                    final boolean empty = tokenizer.skip();
+                    if (count == 0) {
+                        firstEmpty = empty;
+                    }
+                    count++;
+                }
+                if (!format.isIgnoreEmptyLine() || count != 1 || !firstEmpty) {
+                    skipped++;
+                }
+            }
+            return skipped;
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+    }
+
+    /**
+     * 索引を使用して、指定されたレコードの直前に移動する。
+     * <p/>
+     * 次に読み込むレコードは、ヘッダ行を除いたレコードを先頭から{@code 0}始まりで数えた、指定された位置のレコードとなる。
+     * 索引上で直前の位置に移動した後、残りのレコードを{@link #skip(long)}で読み飛ばす。
+     * <p/>
+     * 入力リソースが{@link FileInputStream}で、
+     * 文字コードがバイト単位で解析できる場合({@link CsvByteTokenizer#isSupported(CsvDataBindConfig)}を参照)のみ使用できる。
+     *
+     * @param index 入力ファイルの索引
+     * @param recordNumber 移動先のレコード(先頭を{@code 0}とした位置)
+     * @throws IllegalArgumentException 索引が入力ファイルのものでない場合、またはレコードが範囲外の場合
+     * @throws UnsupportedOperationException 移動できない入力リソースの場合
+     */
+    public void seek(final CsvRecordIndex index, final long recordNumber) {
+        if (!(reader instanceof FileInputStream)) {
+            throw new UnsupportedOperationException("seek is not supported. input must be a FileInputStream"
+                    + " with a byte parsable charset.");
+        }
+        final FileInputStream inputStream = (FileInputStream) reader;
+        final int entry = index.floorEntry(recordNumber);
+        try {
+            final FileChannel channel = inputStream.getChannel();
+            if (channel.size() != index.getFileSize()) {
+                throw new IllegalArgumentException("index does not match the file. file size = ["
+                        + channel.size() + "], index file size = [" + index.getFileSize() + ']');
+            }
+            channel.position(index.getOffset(entry));
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+        // 読み込み済みのバッファを破棄するため、移動先から読み込むトークナイザを作り直す
+        final CsvByteTokenizer byteTokenizer = new CsvByteTokenizer(inputStream, format, bufferSize);
+        byteTokenizer.setOffset(index.getOffset(entry));
+        byteTokenizer.setLineNumber(index.getLineNumber(entry));
+        tokenizer = byteTokenizer;
+        skip(recordNumber - (long) entry * index.getInterval());
+    }
+
+    /**
+     * 次に読み込むレコードの読み込み位置を返す。
+     * <p/>
+     * 返却した読み込み位置から読み込みを再開することで、それ以前のデータを読み込まずに次のレコードから読み込める。
+     * 入力をバイト列のまま解析している場合({@link #CsvDataReader(InputStream, CsvDataBindConfig)}を参照)のみ使用できる。
+     *
+     * @return 次に読み込むレコードの読み込み位置
+     * @throws UnsupportedOperationException 入力を文字に変換してから解析している場合
+     */
+    public ReadPosition getPosition() {
+        if (!isPositionSupported()) {
+            throw new UnsupportedOperationException("read position is not supported. input must be an InputStream"
+                    + " with a byte parsable charset.");
+        }
+        return new ReadPosition(((CsvByteTokenizer) tokenizer).getOffset(), tokenizer.getNextLineNumber());
+    }
+
+    /**
+     * フォーマット不正のレコードの残りを読み飛ばし、次のレコードの先頭に移動する。
+     * <p/>
+     * {@link CsvDataBindConfig#getInvalidRecordHandler()}が設定されている場合に、
+     * 不正なレコードを読み込んで{@link nablarch.common.databind.InvalidDataFormatException}が送出された直後に呼び出す。
+     *
+     * @return 不正なレコードの内容(行区切り文字を除く)
+     */
+    String recover() {
+        try {
+            tokenizer.recover();
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+        return tokenizer.getRawRecord();
+    }
+
+    /**
+     * 最後に読み込んだレコードの内容を返す。
+     * <p/>
+     * {@link CsvDataBindConfig#getInvalidRecordHandler()}が設定されている場合のみ使用できる。
+     *
+     * @return レコードの内容(行区切り文字を除く)
+     */
+    String getRawRecord() {
+        return tokenizer.getRawRecord();
+    }
+
+    /**
+     * 読み込み位置を取得できるか否かを返す。
+     *
+     * @return 入力をバイト列のまま解析している場合は{@code true}
+     * @see #getPosition()
+     */
+    boolean isPositionSupported() {
+        return tokenizer instanceof CsvByteTokenizer;
+    }
+
     /**
      * 1レコード分のデータを読み込む。
      *
-     * @return 1レコード分のデータ
      * @throws IOException ファイルアクセスに失敗した場合
      */
-    private List<String> readLine() throws IOException {
-        final List<String> record = new ArrayList<String>();
+    private void readLine() throws IOException {
+        record.clear();
         tokenizer.reset();
         while (!tokenizer.isEndOfLine()) {
-            record.add(tokenizer.next());
+            record.add(next(record.size()));
         }
-        return record;
+    }
+
+    /**
+     * 次の要素を取得する。
+     * <p/>
+     * 値をキャッシュする項目の場合は、キャッシュを使用する。
+     *
+     * @param index 項目のインデックス
+     * @return 要素
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    private String next(final int index) throws IOException {
+        final ValueCache<String> cache = getColumnCache(index);
+        return cache == null ? tokenizer.next() : tokenizer.next(cache);
+    }
+
+    /**
+     * 項目の値のキャッシュを返す。
+     *
+     * @param index 項目のインデックス
+     * @return 値のキャッシュ。値をキャッシュしない項目の場合は{@code null}
+     */
+    ValueCache<String> getColumnCache(final int index) {
+        return index < columnCaches.length ? columnCaches[index] : null;
     }
 
     /**
@@ -2,6 +2,10 @@ package nablarch.common.databind.csv;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import nablarch.common.databind.DataWriter;
 import nablarch.common.databind.csv.CsvDataBindConfig.QuoteMode;
@@ -9,20 +13,58 @@ import nablarch.core.util.StringUtil;
 
 /**
  * CSVを出力するクラス。
+ * <p/>
+ * レコードは再利用する文字バッファに組み立て、まとめて出力先に書き込む。
+ * フィールドの値は1回の走査で、クォート文字のエスケープとクォート文字で囲む必要があるかの判定を行う。
+ * クォート文字で囲むか否かの方針は、生成時にプロパティ名リストから列ごとに決定する。
+ * 数値や日付の値は、{@link CsvFieldFormatter}で文字列を生成せずにバッファに書き込む。
+ * <p/>
+ * {@link #write(Object[])}はレコードごとに出力先に書き込む。
+ * 複数のレコードをまとめて書き込む場合は、{@link #append(Object[])}でバッファに追加し、
+ * バッファが一定の大きさに達するごとに出力先に書き込む。
  *
  * @author Hisaaki Shioiri
  */
 public class CsvDataWriter implements DataWriter<Object[]> {
 
-    /** フォーマット定義 */
-    private final CsvDataBindConfig config;
+    /** 出力先に書き込むバッファの大きさ */
+    static final int BUFFER_SIZE = 8192;
+
+    /** クォート文字で囲まない */
+    private static final byte QUOTE_NEVER = 0;
+
+    /** 常にクォート文字で囲む */
+    private static final byte QUOTE_ALWAYS = 1;
+
+    /** 値が数値でない場合にクォート文字で囲む */
+    private static final byte QUOTE_IF_NOT_NUMERIC = 2;
+
+    /** 値がクォート文字、改行、フィールド区切り文字を含む場合にクォート文字で囲む */
+    private static final byte QUOTE_IF_NEEDED = 3;
 
     /** 出力先のリソース */
-    private final BufferedWriter writer;
+    private final Writer writer;
+
+    /** クォート文字 */
+    private final char quote;
+
+    /** フィールド区切り文字 */
+    private final char fieldSeparator;
+
+    /** レコード区切り文字 */
+    private final char[] lineSeparator;
 
-    /** プロパティ名リスト */
-    private final String[] properties;
+    /** 数値や日付を{@link CsvFieldFormatter}で書き込むか否か */
+    private final boolean formatSupported;
 
+    /** 列ごとのクォート方針 */
+    private final byte[] quotingPlan;
+
+    /** レコードを組み立てるバッファ */
+    private char[] buffer = new char[BUFFER_SIZE];
+
+    /** バッファに書き込んだ文字数 */
+    private int position;
 
     /**
      * 指定されたフォーマット定義を持つ{@code CsvLineFormatter}を生成する。
@@ -32,107 +74,227 @@ public class CsvDataWriter implements DataWriter<Object[]> {
      * @param properties プロパティ名リスト
      */
     public CsvDataWriter(final BufferedWriter writer, final CsvDataBindConfig config, final String[] properties) {
-        this.config = config;
-        this.writer = writer;
-        this.properties = properties;
+        this((Writer) writer, config, properties);
     }
 
     /**
-     * nullを空文字列に変換する。
+     * 指定されたフォーマット定義を持つ{@code CsvLineFormatter}を生成する。
+     * <p/>
+     * 出力先には文字をまとめて書き込むため、{@link CsvByteWriter}のようにバッファリングを行う出力先を指定すること。
      *
-     * @param column 値
-     * @return nullを空文字列に変換したもの
+     * @param writer 出力リソース
+     * @param config フォーマット定義
+     * @param properties プロパティ名リスト
      */
-    private static Object nullToEmpty(final Object column) {
-        return column == null ? "" : column;
+    CsvDataWriter(final Writer writer, final CsvDataBindConfig config, final String[] properties) {
+        this.writer = writer;
+        quote = config.getQuote();
+        fieldSeparator = config.getFieldSeparator();
+        lineSeparator = config.getLineSeparator().toCharArray();
+        quotingPlan = createQuotingPlan(config, properties);
+        formatSupported = CsvFieldFormatter.isSupported(config);
     }
 
     /**
      * フィールドのフォーマットを行う。
+     * <p/>
+     * クォート文字で囲むかが値によって決まる場合は、開始のクォート文字の位置を空けて値を書き込み、
+     * 囲む必要がなければ値を詰める。
      *
-     * @param fieldName フィールド名
+     * @param column 列の位置
      * @param fieldValue フィールドの値
-     * @throws IOException 書き込み例外
      */
-    private void writeField(final String fieldName, final Object fieldValue) throws IOException {
-        final String fieldStr = StringUtil.toString(fieldValue);
+    private void writeField(final int column, final Object fieldValue) {
+        final byte plan = quotingPlan[column];
+        if (fieldValue != null && formatSupported) {
+            // 数値や日付は文字列を生成せずに書き込む(エスケープが必要な文字は含まれない)
+            ensureCapacity(CsvFieldFormatter.MAX_LENGTH + 2);
+            final int end = CsvFieldFormatter.format(fieldValue, buffer, position + 1);
+            if (end >= 0) {
+                endField(plan, fieldValue, false, end);
+                return;
+            }
+        }
 
-        final char quote = config.getQuote();
-        final boolean quotedField = isQuotedField(fieldName, fieldValue);
+        final Object value = fieldValue == null ? "" : fieldValue;
+        final String fieldStr = StringUtil.toString(value);
+        final int length = fieldStr.length();
+        // 全ての文字をエスケープし、クォート文字で囲んだ場合の長さを確保する
+        ensureCapacity(length * 2 + 2);
 
-        if (quotedField) {
-            writer.write((int) quote);
-        }
-        for (int i = 0; i < fieldStr.length(); i++) {
-            final char c = fieldStr.charAt(i);
-            writer.write((int) c);
-            if (c == quote) {
-                writer.write((int) c);
+        final char[] buf = buffer;
+        int pos = position + 1;
+        boolean hasEscapedChar = false;
+        if (plan == QUOTE_IF_NEEDED) {
+            for (int i = 0; i < length; i++) {
+                final char c = fieldStr.charAt(i);
+                buf[pos++] = c;
+                if (c == quote) {
+                    buf[pos++] = c;
+                    hasEscapedChar = true;
+                } else if (c == '\r' || c == '\n' || c == fieldSeparator) {
+                    hasEscapedChar = true;
+                }
+            }
+        } else {
+            // クォート文字で囲むかが値の内容によらない列は、クォート文字のエスケープのみ行う
+            for (int i = 0; i < length; i++) {
+                final char c = fieldStr.charAt(i);
+                buf[pos++] = c;
+                if (c == quote) {
+                    buf[pos++] = c;
+                }
             }
         }
-        if (quotedField) {
-            writer.write((int) quote);
+        endField(plan, value, hasEscapedChar, pos);
+    }
+
+    /**
+     * 開始のクォート文字の位置を空けて書き込んだフィールドを、クォート文字で囲むか詰めて確定する。
+     *
+     * @param plan 列のクォート方針
+     * @param value フィールドの値
+     * @param hasEscapedChar エスケープが必要な文字を持っているかどうか
+     * @param end 書き込んだ値の次の位置
+     */
+    private void endField(final byte plan, final Object value, final boolean hasEscapedChar, final int end) {
+        final char[] buf = buffer;
+        final int start = position;
+        int pos = end;
+        if (isQuotedField(plan, value, hasEscapedChar)) {
+            buf[start] = quote;
+            buf[pos++] = quote;
+        } else {
+            System.arraycopy(buf, start + 1, buf, start, pos - start - 1);
+            pos--;
         }
+        position = pos;
     }
 
     /**
      * クォート文字でフィールドを囲む必要があるかどうか。
      *
-     * @param fieldName フィールド名
+     * @param plan 列のクォート方針
      * @param fieldValue フィールドの値
+     * @param hasEscapedChar エスケープが必要な文字を持っているかどうか
      * @return 囲む必要がある場合はtrue
      */
-    private boolean isQuotedField(final String fieldName, final Object fieldValue) {
-        final String fieldStr = fieldValue.toString();
-        if (config.getQuoteMode() == QuoteMode.ALL) {
-            return true;
-        } else if (config.getQuoteMode() == QuoteMode.NOT_NUMERIC) {
-            return !Number.class.isInstance(fieldValue);
-        } else if (config.getQuoteMode() == QuoteMode.CUSTOM) {
-            return config.getQuotedColumnNames()
-                    .contains(fieldName);
-        } else if (config.getQuoteMode() == QuoteMode.NORMAL) {
-            return hasEscapedChar(fieldStr);
+    private static boolean isQuotedField(final byte plan, final Object fieldValue, final boolean hasEscapedChar) {
+        switch (plan) {
+            case QUOTE_ALWAYS:
+                return true;
+            case QUOTE_IF_NOT_NUMERIC:
+                return !(fieldValue instanceof Number);
+            case QUOTE_IF_NEEDED:
+                return hasEscapedChar;
+            default:
+                return false;
         }
-        return false;
     }
 
     /**
-     * エスケープが必要な文字を持っているかどうか。
+     * 列ごとのクォート方針を生成する。
+     * <p/>
+     * {@link QuoteMode#CUSTOM}の場合は、クォート文字で囲む列名を列の位置に対応付ける。
      *
-     * @param value 文字列
-     * @return エスケープが必要な場合は{@code true}
+     * @param config フォーマット定義
+     * @param properties プロパティ名リスト
+     * @return 列ごとのクォート方針
      */
-    private boolean hasEscapedChar(final String value) {
-        for (char c : value.toCharArray()) {
-            if (c == '\r'
-                    || c == '\n'
-                    || c == config.getQuote()
-                    || c == config.getFieldSeparator()) {
-                return true;
+    private static byte[] createQuotingPlan(final CsvDataBindConfig config, final String[] properties) {
+        final byte[] plan = new byte[properties.length];
+        final QuoteMode quoteMode = config.getQuoteMode();
+        if (quoteMode == QuoteMode.CUSTOM) {
+            final Set<String> quotedColumnNames = new HashSet<String>(config.getQuotedColumnNames());
+            for (int i = 0; i < properties.length; i++) {
+                plan[i] = quotedColumnNames.contains(properties[i]) ? QUOTE_ALWAYS : QUOTE_NEVER;
             }
+            return plan;
+        }
+        final byte columnPlan;
+        if (quoteMode == QuoteMode.ALL) {
+            columnPlan = QUOTE_ALWAYS;
+        } else if (quoteMode == QuoteMode.NOT_NUMERIC) {
+            columnPlan = QUOTE_IF_NOT_NUMERIC;
+        } else if (quoteMode == QuoteMode.NORMAL) {
+            columnPlan = QUOTE_IF_NEEDED;
+        } else {
+            columnPlan = QUOTE_NEVER;
+        }
+        Arrays.fill(plan, columnPlan);
+        return plan;
+    }
+
+    /**
+     * バッファに指定された文字数を書き込めるようにする。
+     * <p/>
+     * 書き込めない場合はバッファを拡張する。
+     *
+     * @param length 書き込む文字数
+     */
+    private void ensureCapacity(final int length) {
+        if (position + length > buffer.length) {
+            final char[] expanded = new char[Math.max(buffer.length * 2, position + length)];
+            System.arraycopy(buffer, 0, expanded, 0, position);
+            buffer = expanded;
         }
-        return false;
     }
 
     @Override
     public void write(final Object[] data) throws IOException {
+        append(data);
+        flushBuffer();
+    }
+
+    /**
+     * レコードをバッファに追加する。
+     * <p/>
+     * バッファが{@link #BUFFER_SIZE}に達した場合は、出力先に書き込む。
+     *
+     * @param data レコード
+     * @throws IOException 書き込みに失敗した場合
+     */
+    void append(final Object[] data) throws IOException {
         if (data == null || data.length == 0) {
             throw new IllegalArgumentException("columns should not be empty and null.");
         }
 
         for (int i = 0; i < data.length; i++) {
             if (i != 0) {
-                writer.write((int) config.getFieldSeparator());
+                ensureCapacity(1);
+                buffer[position++] = fieldSeparator;
             }
-            final Object column = data[i];
-            writeField(properties[i], nullToEmpty(column));
+            writeField(i, data[i]);
+        }
+        ensureCapacity(lineSeparator.length);
+        System.arraycopy(lineSeparator, 0, buffer, position, lineSeparator.length);
+        position += lineSeparator.length;
+
+        if (position >= BUFFER_SIZE) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * バッファに追加したレコードを出力先に書き込む。
+     *
+     * @throws IOException 書き込みに失敗した場合
+     */
+    void flushBuffer() throws IOException {
+        if (position == 0) {
+            return;
         }
-        writer.write(config.getLineSeparator());
+        final int length = position;
+        position = 0;
+        writer.write(buffer, 0, length);
     }
 
     @Override
     public void close() throws IOException {
-        writer.close();
+        try {
+            flushBuffer();
+        } finally {
+            writer.close();
+        }
     }
 }
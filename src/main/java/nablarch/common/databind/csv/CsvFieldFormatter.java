@@ -0,0 +1,256 @@
+package nablarch.common.databind.csv;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * 数値や日付の値を、文字列を生成せずに文字バッファに直接書き込むクラス。
+ * <p/>
+ * 書き込む内容は、{@link nablarch.core.util.StringUtil#toString(Object)}で文字列に変換した場合と同じとなる。
+ * 対象とする型は{@link Integer}、{@link Long}、{@link Short}、{@link Byte}、{@link BigDecimal}、
+ * {@link LocalDate}、{@link LocalDateTime}とする。
+ * {@link BigDecimal}は桁数が18桁以下でスケールの絶対値が18以下の場合、
+ * 日付は年が0から9999の場合のみ対象とし、それ以外は対象外とする。
+ * <p/>
+ * 書き込む文字は数字と{@code -.:T}のみで構成されるため、
+ * 区切り文字とクォート文字がこれらの文字と異なる場合のみ使用できる。
+ *
+ * @author Naoki Yamamoto
+ */
+final class CsvFieldFormatter {
+
+    /** 書き込む文字数の上限 */
+    static final int MAX_LENGTH = 48;
+
+    /** 対象とする{@link BigDecimal}のスケールの絶対値の上限 */
+    private static final int MAX_SCALE = 18;
+
+    /** 対象とする{@link BigDecimal}の桁数の上限 */
+    private static final int MAX_PRECISION = 18;
+
+    /** 対象とする年の上限 */
+    private static final int MAX_YEAR = 9999;
+
+    /** 書き込む可能性のある数字以外の文字 */
+    private static final String SYMBOLS = "-.:T";
+
+    /** 1000000(ナノ秒からミリ秒への変換に使用する) */
+    private static final int NANOS_PER_MILLI = 1000000;
+
+    /** 1000(ナノ秒からマイクロ秒への変換に使用する) */
+    private static final int NANOS_PER_MICRO = 1000;
+
+    /**
+     * 隠蔽コンストラクタ。
+     */
+    private CsvFieldFormatter() {
+    }
+
+    /**
+     * 区切り文字とクォート文字が、書き込む可能性のある文字と重ならないか否かを判定する。
+     *
+     * @param config フォーマット定義
+     * @return 重ならず使用できる場合は{@code true}
+     */
+    static boolean isSupported(final CsvDataBindConfig config) {
+        return !isFormatChar(config.getFieldSeparator()) && !isFormatChar(config.getQuote());
+    }
+
+    /**
+     * 書き込む可能性のある文字か否かを判定する。
+     *
+     * @param c 文字
+     * @return 書き込む可能性のある文字の場合は{@code true}
+     */
+    private static boolean isFormatChar(final char c) {
+        return (c >= '0' && c <= '9') || SYMBOLS.indexOf(c) >= 0;
+    }
+
+    /**
+     * 値をバッファに書き込む。
+     * <p/>
+     * バッファには、指定された位置から{@link #MAX_LENGTH}文字を書き込めること。
+     *
+     * @param value 値
+     * @param buf バッファ
+     * @param pos 書き込みを開始する位置
+     * @return 書き込んだ文字の次の位置。対象外の値の場合は{@code -1}
+     */
+    static int format(final Object value, final char[] buf, final int pos) {
+        final Class<?> type = value.getClass();
+        if (type == Integer.class || type == Short.class || type == Byte.class) {
+            return writeLong(((Number) value).intValue(), buf, pos);
+        } else if (type == Long.class) {
+            return writeLong((Long) value, buf, pos);
+        } else if (type == BigDecimal.class) {
+            return writeBigDecimal((BigDecimal) value, buf, pos);
+        } else if (type == LocalDate.class) {
+            return writeDate((LocalDate) value, buf, pos);
+        } else if (type == LocalDateTime.class) {
+            final LocalDateTime dateTime = (LocalDateTime) value;
+            final int end = writeDate(dateTime.toLocalDate(), buf, pos);
+            if (end < 0) {
+                return end;
+            }
+            buf[end] = 'T';
+            return writeTime(dateTime.toLocalTime(), buf, end + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * 整数を10進数で書き込む。
+     *
+     * @param value 値
+     * @param buf バッファ
+     * @param pos 書き込みを開始する位置
+     * @return 書き込んだ文字の次の位置
+     */
+    private static int writeLong(final long value, final char[] buf, final int pos) {
+        int start = pos;
+        // Long.MIN_VALUEを扱えるよう、負の値として桁を取り出す
+        long negative = value;
+        if (value < 0) {
+            buf[start++] = '-';
+        } else {
+            negative = -value;
+        }
+        int digits = 1;
+        for (long rest = negative; rest <= -10; rest /= 10) {
+            digits++;
+        }
+        final int end = start + digits;
+        int p = end;
+        do {
+            buf[--p] = (char) ('0' - negative % 10);
+            negative /= 10;
+        } while (negative != 0);
+        return end;
+    }
+
+    /**
+     * {@link BigDecimal}を指数表記を使用せずに書き込む。
+     *
+     * @param value 値
+     * @param buf バッファ
+     * @param pos 書き込みを開始する位置
+     * @return 書き込んだ文字の次の位置。対象外の値の場合は{@code -1}
+     */
+    private static int writeBigDecimal(final BigDecimal value, final char[] buf, final int pos) {
+        final int scale = value.scale();
+        if (value.precision() > MAX_PRECISION || scale > MAX_SCALE || scale < -MAX_SCALE) {
+            return -1;
+        }
+        final long unscaled = value.unscaledValue().longValue();
+        if (scale <= 0) {
+            if (unscaled == 0) {
+                buf[pos] = '0';
+                return pos + 1;
+            }
+            int end = writeLong(unscaled, buf, pos);
+            for (int i = 0; i < -scale; i++) {
+                buf[end++] = '0';
+            }
+            return end;
+        }
+
+        int start = pos;
+        if (unscaled < 0) {
+            buf[start++] = '-';
+        }
+        // 符号を除いた数字を書き込んだ後、小数点の位置に応じて並べ替える
+        final int digitsEnd = writeLong(Math.abs(unscaled), buf, start);
+        final int digits = digitsEnd - start;
+        if (digits > scale) {
+            final int point = digitsEnd - scale;
+            System.arraycopy(buf, point, buf, point + 1, scale);
+            buf[point] = '.';
+            return digitsEnd + 1;
+        }
+        final int leading = 2 + scale - digits;
+        System.arraycopy(buf, start, buf, start + leading, digits);
+        buf[start] = '0';
+        buf[start + 1] = '.';
+        for (int i = start + 2; i < start + leading; i++) {
+            buf[i] = '0';
+        }
+        return digitsEnd + leading;
+    }
+
+    /**
+     * 日付を{@code yyyy-MM-dd}形式で書き込む。
+     *
+     * @param date 日付
+     * @param buf バッファ
+     * @param pos 書き込みを開始する位置
+     * @return 書き込んだ文字の次の位置。対象外の値の場合は{@code -1}
+     */
+    private static int writeDate(final LocalDate date, final char[] buf, final int pos) {
+        final int year = date.getYear();
+        if (year < 0 || year > MAX_YEAR) {
+            return -1;
+        }
+        writePadded(year, 4, buf, pos);
+        buf[pos + 4] = '-';
+        writePadded(date.getMonthValue(), 2, buf, pos + 5);
+        buf[pos + 7] = '-';
+        writePadded(date.getDayOfMonth(), 2, buf, pos + 8);
+        return pos + 10;
+    }
+
+    /**
+     * 時刻を{@link LocalTime#toString()}と同じ形式で書き込む。
+     * <p/>
+     * 秒とナノ秒が0の場合は秒を省略し、ナノ秒はミリ秒、マイクロ秒、ナノ秒のうち表現できる最短の桁数で書き込む。
+     *
+     * @param time 時刻
+     * @param buf バッファ
+     * @param pos 書き込みを開始する位置
+     * @return 書き込んだ文字の次の位置
+     */
+    private static int writeTime(final LocalTime time, final char[] buf, final int pos) {
+        writePadded(time.getHour(), 2, buf, pos);
+        buf[pos + 2] = ':';
+        writePadded(time.getMinute(), 2, buf, pos + 3);
+        int end = pos + 5;
+        final int second = time.getSecond();
+        final int nano = time.getNano();
+        if (second == 0 && nano == 0) {
+            return end;
+        }
+        buf[end] = ':';
+        writePadded(second, 2, buf, end + 1);
+        end += 3;
+        if (nano == 0) {
+            return end;
+        }
+        buf[end++] = '.';
+        if (nano % NANOS_PER_MILLI == 0) {
+            writePadded(nano / NANOS_PER_MILLI, 3, buf, end);
+            return end + 3;
+        } else if (nano % NANOS_PER_MICRO == 0) {
+            writePadded(nano / NANOS_PER_MICRO, 6, buf, end);
+            return end + 6;
+        }
+        writePadded(nano, 9, buf, end);
+        return end + 9;
+    }
+
+    /**
+     * 0以上の整数を、指定された桁数になるよう先頭を0で埋めて書き込む。
+     *
+     * @param value 値
+     * @param width 桁数
+     * @param buf バッファ
+     * @param pos 書き込みを開始する位置
+     */
+    private static void writePadded(final int value, final int width, final char[] buf, final int pos) {
+        int rest = value;
+        for (int p = pos + width - 1; p >= pos; p--) {
+            buf[p] = (char) ('0' + rest % 10);
+            rest /= 10;
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package nablarch.common.databind.csv;
 
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.HashMap;
 import java.util.Map;
 
-import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ReadPosition;
+
 
 /**
  * CSVフォーマットと{@link Map}をマッピングするクラス。
@@ -22,7 +22,34 @@ public class CsvMapMapper extends CsvObjectMapperSupport<Map<String, ?>> {
      * @param inputStream 入力ストリーム
      */
     public CsvMapMapper(final CsvDataBindConfig config, final InputStream inputStream) {
-        this(config, new InputStreamReader(inputStream, config.getCharset()));
+        this(config, new CsvDataReader(inputStream, config));
+    }
+
+    /**
+     * 指定された読み込み位置から読み込みを再開するコンストラクタ。
+     * <p/>
+     * 入力ストリームは、読み込み位置が指すレコードの先頭から始まっていること。
+     * ファイルの先頭以外から再開する場合、ヘッダ行は読み込まない。
+     *
+     * @param config CSV用の設定情報
+     * @param inputStream 入力ストリーム
+     * @param position 読み込みを再開する位置
+     * @see #getPosition()
+     */
+    public CsvMapMapper(final CsvDataBindConfig config, final InputStream inputStream, final ReadPosition position) {
+        this(restartConfig(config, position), new CsvDataReader(inputStream, config,
+                CsvTokenizerSupport.DEFAULT_BUFFER_SIZE, position));
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param config CSV用の設定情報
+     * @param reader CSVのリーダ
+     */
+    CsvMapMapper(final CsvDataBindConfig config, final CsvDataReader reader) {
+        super(config, reader);
+        readHeader();
     }
 
     /**
@@ -44,6 +71,11 @@ public class CsvMapMapper extends CsvObjectMapperSupport<Map<String, ?>> {
         return createMap(record);
     }
 
+    @Override
+    protected Map<String, ?> bind(final String[] record, final long lineNumber) {
+        return createMap(record);
+    }
+
     /**
      * レコードを{@link Map}に変換する。
      *
@@ -52,23 +84,10 @@ public class CsvMapMapper extends CsvObjectMapperSupport<Map<String, ?>> {
      */
     private Map<String, String> createMap(final String[] record) {
         final Map<String, String> map = new HashMap<String, String>();
-        final String[] keys = config.getKeys();
+        final String[] keys = getReadKeys();
         for (int i = 0; i < record.length; i++) {
             map.put(keys[i], record[i]);
         }
         return map;
     }
-
-    /**
-     * フィールド数がヘッダーのフィールド数と同じであることの検証を行う。
-     *
-     * @param record 検証対象のレコード
-     */
-    private void verifyFieldCount(final String[] record) {
-        if (config.getKeys().length != record.length) {
-            throw new InvalidDataFormatException("property size does not match."
-                    + " expected field count = [" + config.getKeys().length + "],"
-                    + " actual field count = [" + record.length + "].", reader.getLineNumber());
-        }
-    }
 }
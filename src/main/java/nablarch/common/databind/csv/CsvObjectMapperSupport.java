@@ -1,9 +1,14 @@
 package nablarch.common.databind.csv;
 
 import java.io.BufferedReader;
+import java.io.InputStream;
 import java.io.Reader;
 
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.InvalidRecordHandler;
 import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ReadPosition;
+import nablarch.common.databind.ValueCache;
 import nablarch.core.util.FileUtil;
 import nablarch.core.util.StringUtil;
 
@@ -21,6 +26,24 @@ public abstract class CsvObjectMapperSupport<T> implements ObjectMapper<T> {
     /** CSVのリーダ */
     protected final CsvDataReader reader;
 
+    /** 読み込む項目のインデックス(全ての項目を読み込む場合は{@code null}) */
+    private final int[] projectedIndexes;
+
+    /** 読み込む項目のキー */
+    private final String[] readKeys;
+
+    /** オブジェクトへ変換するレコードを判定するフィルタ(全てのレコードを変換する場合は{@code null}) */
+    private final CsvRecordFilter recordFilter;
+
+    /** フィルタで判定するレコード */
+    private final CsvRecord csvRecord = new CsvRecord();
+
+    /** レコードを並列に変換するパイプライン(呼び出し側のスレッドで変換する場合は{@code null}) */
+    private final CsvBindPipeline<T> bindPipeline;
+
+    /** 不正なレコードを受け取るハンドラ(不正なレコードで例外を送出する場合は{@code null}) */
+    private final InvalidRecordHandler invalidRecordHandler;
+
     /**
      * CSV定義と入力リソースを持つ{@code AbstractCsvMapper}を生成する。
      *
@@ -28,8 +51,79 @@ public abstract class CsvObjectMapperSupport<T> implements ObjectMapper<T> {
      * @param reader 入力リソース
      */
     public CsvObjectMapperSupport(final CsvDataBindConfig config, final Reader reader) {
+        this(config, newCsvDataReader(config, reader));
+    }
+
+    /**
+     * CSV定義と入力ストリームを持つ{@code AbstractCsvMapper}を生成する。
+     * <p/>
+     * 入力ストリームは{@link CsvDataBindConfig#getCharset()}に従って読み込む。
+     *
+     * @param config CSVの定義
+     * @param inputStream 入力ストリーム
+     * @see CsvDataReader#CsvDataReader(InputStream, CsvDataBindConfig)
+     */
+    public CsvObjectMapperSupport(final CsvDataBindConfig config, final InputStream inputStream) {
+        this(config, new CsvDataReader(inputStream, config));
+    }
+
+    /**
+     * CSV定義とCSVのリーダを持つ{@code AbstractCsvMapper}を生成する。
+     *
+     * @param config CSVの定義
+     * @param reader CSVのリーダ
+     */
+    CsvObjectMapperSupport(final CsvDataBindConfig config, final CsvDataReader reader) {
         this.config = config;
-        this.reader = new CsvDataReader(toBufferedReader(reader), config);
+        this.reader = reader;
+        projectedIndexes = config.getProjectedIndexes();
+        readKeys = toReadKeys(config, projectedIndexes);
+        recordFilter = config.getRecordFilter();
+        bindPipeline = createBindPipeline(config);
+        invalidRecordHandler = config.getInvalidRecordHandler();
+    }
+
+    /**
+     * レコードを並列に変換するパイプラインを生成する。
+     *
+     * @param config CSVの定義
+     * @return パイプライン。並列に変換しない場合は{@code null}
+     * @see CsvDataBindConfig#withParallelBind(int)
+     */
+    private CsvBindPipeline<T> createBindPipeline(final CsvDataBindConfig config) {
+        return config.getBindParallelism() > 0 ? new CsvBindPipeline<T>(this, config.getBindParallelism()) : null;
+    }
+
+    /**
+     * 読み込みを再開する際のCSVの定義を取得する。
+     * <p/>
+     * ファイルの先頭以外から再開する場合、ヘッダ行は読み込み済みのため、ヘッダ行を必須としない定義を返す。
+     *
+     * @param config CSVの定義
+     * @param position 読み込みを再開する位置
+     * @return 読み込みを再開する際のCSVの定義
+     */
+    static CsvDataBindConfig restartConfig(final CsvDataBindConfig config, final ReadPosition position) {
+        return position.getOffset() == 0L ? config : config.withRequiredHeader(false);
+    }
+
+    /**
+     * 読み込む項目のキーを取得する。
+     *
+     * @param config CSVの定義
+     * @param projectedIndexes 読み込む項目のインデックス(全ての項目を読み込む場合は{@code null})
+     * @return 読み込む項目のキー
+     */
+    private static String[] toReadKeys(final CsvDataBindConfig config, final int[] projectedIndexes) {
+        final String[] keys = config.getKeys();
+        if (projectedIndexes == null) {
+            return keys;
+        }
+        final String[] readKeys = new String[projectedIndexes.length];
+        for (int i = 0; i < projectedIndexes.length; i++) {
+            readKeys[i] = keys[projectedIndexes[i]];
+        }
+        return readKeys;
     }
 
     /**
@@ -39,6 +133,27 @@ public abstract class CsvObjectMapperSupport<T> implements ObjectMapper<T> {
      * @return {@link BufferedReader}
      */
     public BufferedReader toBufferedReader(final Reader reader) {
+        return buffered(reader);
+    }
+
+    /**
+     * リーダを読み込む{@link CsvDataReader}を生成する。
+     *
+     * @param config CSVの定義
+     * @param reader 入力リソース
+     * @return {@link CsvDataReader}
+     */
+    static CsvDataReader newCsvDataReader(final CsvDataBindConfig config, final Reader reader) {
+        return new CsvDataReader(buffered(reader), config);
+    }
+
+    /**
+     * {@link BufferedReader}に変換する。
+     *
+     * @param reader リーダ
+     * @return {@link BufferedReader}
+     */
+    private static BufferedReader buffered(final Reader reader) {
         return reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
     }
 
@@ -49,11 +164,97 @@ public abstract class CsvObjectMapperSupport<T> implements ObjectMapper<T> {
 
     @Override
     public T read() {
-        final String[] record = readLine();
-        if (record == null) {
-            return null;
+        if (bindPipeline != null) {
+            return bindPipeline.read();
+        }
+        return readObject(null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 並列でバインドする場合は、オブジェクトを再利用したマッピングに対応しない。
+     */
+    @Override
+    public T read(final T target) {
+        if (target == null) {
+            throw new IllegalArgumentException("target must not be null.");
+        }
+        if (bindPipeline != null || !isReusable()) {
+            throw new UnsupportedOperationException("unsupported read method.");
+        }
+        return readObject(target);
+    }
+
+    /**
+     * 次のレコードを読み込み、オブジェクトにマッピングする。
+     *
+     * @param target マッピング先のオブジェクト。新たに生成する場合は{@code null}
+     * @return オブジェクト。レコードが存在しない場合は{@code null}
+     */
+    private T readObject(final T target) {
+        while (true) {
+            try {
+                if (isRecordBinding()) {
+                    return readCsvRecord() ? createObject(csvRecord, target) : null;
+                }
+                final String[] record = readLine();
+                if (record == null) {
+                    return null;
+                }
+                return target == null ? createObject(record) : createObject(record, target);
+            } catch (InvalidDataFormatException e) {
+                if (!handleInvalidRecord(e)) {
+                    throw e;
+                }
+            }
         }
-        return createObject(record);
+    }
+
+    /**
+     * 不正なレコードを読み飛ばし、ハンドラに渡す。
+     * <p/>
+     * {@link CsvDataBindConfig#getInvalidRecordHandler()}が設定されていない場合は何もしない。
+     *
+     * @param e 不正なレコードで送出された例外
+     * @return ハンドラに渡した場合は{@code true}
+     */
+    boolean handleInvalidRecord(final InvalidDataFormatException e) {
+        if (invalidRecordHandler == null) {
+            return false;
+        }
+        invalidRecordHandler.handle(reader.recover(), e);
+        return true;
+    }
+
+    /**
+     * 変換で不正と判定されたレコードをハンドラに渡す。
+     * <p/>
+     * 並列に変換する場合に、変換用のスレッドで送出された例外を、読み込んだ時点で保持したレコードの内容とともに渡す。
+     * {@link CsvDataBindConfig#getInvalidRecordHandler()}が設定されていない場合は何もしない。
+     *
+     * @param record 不正なレコードの内容(行区切り文字を除く)
+     * @param e 不正なレコードで送出された例外
+     * @return ハンドラに渡した場合は{@code true}
+     * @see #getRawRecord()
+     */
+    boolean handleInvalidRecord(final String record, final InvalidDataFormatException e) {
+        if (invalidRecordHandler == null) {
+            return false;
+        }
+        invalidRecordHandler.handle(record, e);
+        return true;
+    }
+
+    /**
+     * 最後に読み込んだレコードの内容を返す。
+     * <p/>
+     * {@link CsvDataBindConfig#getInvalidRecordHandler()}が設定されていない場合は、レコードの内容を記録していないため{@code null}を返す。
+     *
+     * @return レコードの内容(行区切り文字を除く)
+     */
+    String getRawRecord() {
+        return invalidRecordHandler == null ? null : reader.getRawRecord();
     }
 
     /**
@@ -64,23 +265,204 @@ public abstract class CsvObjectMapperSupport<T> implements ObjectMapper<T> {
      * @return ヘッダー行
      */
     protected String[] readHeader() {
-        return config.isRequiredHeader() ? readLine() : null;
+        return config.isRequiredHeader() ? readRecord() : null;
     }
 
     /**
      * レコードをJavaObjectに変換する。
+     * <p/>
+     * {@link CsvDataBindConfig#getProjection()}が設定されている場合、
+     * レコードには{@link #getReadKeys()}に対応する項目のみが格納される。
      *
      * @param record レコード
      * @return 変換したJavaObject
      */
     protected abstract T createObject(String[] record);
 
+    /**
+     * 読み込んだ{@link CsvRecord}を、項目ごとの文字列を生成せずにJavaObjectに変換するか否かを返す。
+     * <p/>
+     * {@code true}を返すサブクラスは、{@link #createObject(CsvRecord, Object)}をオーバーライドすること。
+     * レコードを並列に変換する場合は使用しない。
+     *
+     * @return {@link CsvRecord}から変換する場合は{@code true}
+     */
+    boolean isRecordBinding() {
+        return false;
+    }
+
+    /**
+     * {@link #read(Object)}で、呼び出し元のJavaObjectを再利用してマッピングできるか否かを返す。
+     * <p/>
+     * {@code true}を返すサブクラスは、{@link #createObject(String[], Object)}をオーバーライドすること。
+     *
+     * @return 再利用できる場合は{@code true}
+     */
+    boolean isReusable() {
+        return false;
+    }
+
+    /**
+     * {@link CsvRecord}をJavaObjectに変換する。
+     * <p/>
+     * 本クラスの実装は、読み込む項目の値を文字列の配列として{@link #createObject(String[])}
+     * または{@link #createObject(String[], Object)}に渡す。
+     *
+     * @param record レコード
+     * @param target マッピング先のJavaObject。新たに生成する場合は{@code null}
+     * @return 変換したJavaObject
+     * @see #isRecordBinding()
+     */
+    T createObject(final CsvRecord record, final T target) {
+        return target == null ? createObject(toValues(record)) : createObject(toValues(record), target);
+    }
+
+    /**
+     * レコードの値を、呼び出し元のJavaObjectに設定する。
+     * <p/>
+     * 本クラスの実装は{@link UnsupportedOperationException}を送出する。
+     *
+     * @param record レコード
+     * @param target マッピング先のJavaObject
+     * @return マッピング先のJavaObject
+     * @see #isReusable()
+     */
+    T createObject(final String[] record, final T target) {
+        throw new UnsupportedOperationException("unsupported read method.");
+    }
+
+    /**
+     * 項目数を検証済みのレコードをJavaObjectに変換する。
+     * <p/>
+     * {@link CsvDataBindConfig#withParallelBind(int)}で並列に変換する場合に、変換用のスレッドから呼び出される。
+     * 複数のスレッドから同時に呼び出されるため、{@link #reader}など読み込みの状態を参照しないこと。
+     * <p/>
+     * 本クラスの実装は{@link UnsupportedOperationException}を送出する。
+     * 並列の変換に対応するサブクラスは、本メソッドをオーバーライドすること。
+     *
+     * @param record レコード
+     * @param lineNumber レコードの行番号
+     * @return 変換したJavaObject
+     */
+    protected T bind(final String[] record, final long lineNumber) {
+        throw new UnsupportedOperationException("parallel bind is not supported. class = [" + getClass().getName() + ']');
+    }
+
+    /**
+     * レコードの項目と対応するキーを取得する。
+     * <p/>
+     * {@link CsvDataBindConfig#getProjection()}が設定されている場合は、読み込む項目のキーのみを返す。
+     * 設定されていない場合は{@link CsvDataBindConfig#getKeys()}を返す。
+     *
+     * @return レコードの項目と対応するキー
+     */
+    protected String[] getReadKeys() {
+        return readKeys;
+    }
+
+    /**
+     * レコードの項目数が{@link CsvDataBindConfig#getKeys()}の数と同じであることの検証を行う。
+     * <p/>
+     * 読み飛ばした項目がある場合は、読み飛ばした項目も含めた項目数を検証する。
+     *
+     * @param record 検証対象のレコード
+     */
+    protected void verifyFieldCount(final String[] record) {
+        verifyFieldCount(projectedIndexes == null ? record.length : reader.getFieldCount());
+    }
+
+    /**
+     * {@link CsvRecord}の項目数が{@link CsvDataBindConfig#getKeys()}の数と同じであることの検証を行う。
+     *
+     * @param record 検証対象のレコード
+     */
+    void verifyFieldCount(final CsvRecord record) {
+        verifyFieldCount(record.size());
+    }
+
+    /**
+     * 項目数が{@link CsvDataBindConfig#getKeys()}の数と同じであることの検証を行う。
+     *
+     * @param actual 項目数
+     */
+    private void verifyFieldCount(final int actual) {
+        final int expected = config.getKeys().length;
+        if (expected != actual) {
+            throw new InvalidDataFormatException("property size does not match."
+                    + " expected field count = [" + expected + "],"
+                    + " actual field count = [" + actual + "].", reader.getLineNumber(), invalidRecordHandler == null);
+        }
+    }
+
     /**
      * 1レコード文の情報を読み取る。
+     * <p/>
+     * {@link CsvDataBindConfig#getRecordFilter()}が設定されている場合は、
+     * フィルタが変換対象と判定したレコードのみを返す。
+     * {@link CsvDataBindConfig#getProjection()}が設定されている場合は、読み込む項目のみを読み取る。
      *
      * @return 1行の情報
      */
     protected String[] readLine() {
+        if (recordFilter == null) {
+            return readRecord();
+        }
+        while (reader.read(csvRecord)) {
+            if (config.isIgnoreEmptyLine() && reader.isEmptyLine()) {
+                continue;
+            }
+            if (recordFilter.accept(csvRecord)) {
+                return toValues(csvRecord);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 1レコード分の情報を{@link CsvRecord}に読み取る。
+     * <p/>
+     * {@link CsvDataBindConfig#getRecordFilter()}が設定されている場合は、
+     * フィルタが変換対象と判定したレコードのみを読み取る。
+     * {@link CsvDataBindConfig#getProjection()}が設定されている場合も全ての項目を読み取るため、
+     * 読み込む項目は{@link #toRecordIndex(int)}で取得すること。
+     *
+     * @return 読み取った場合は{@code true}。ファイルの終端に達した場合は{@code false}
+     */
+    private boolean readCsvRecord() {
+        while (reader.read(csvRecord)) {
+            if (config.isIgnoreEmptyLine() && reader.isEmptyLine()) {
+                continue;
+            }
+            if (recordFilter == null || recordFilter.accept(csvRecord)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 読み込む項目の、{@link CsvRecord}上のインデックスを取得する。
+     *
+     * @param index {@link #getReadKeys()}上のインデックス
+     * @return {@link CsvRecord}上のインデックス
+     */
+    int toRecordIndex(final int index) {
+        return projectedIndexes == null ? index : projectedIndexes[index];
+    }
+
+    /**
+     * フィルタを使用せずに1レコード文の情報を読み取る。
+     *
+     * @return 1行の情報
+     */
+    private String[] readRecord() {
+        if (projectedIndexes != null) {
+            String[] record = reader.read(projectedIndexes);
+            while (config.isIgnoreEmptyLine() && record != null && reader.isEmptyLine()) {
+                record = reader.read(projectedIndexes);
+            }
+            return record;
+        }
         String[] record = reader.read();
         while (config.isIgnoreEmptyLine() && isEmptyLine(record)) {
             record = reader.read();
@@ -88,11 +470,98 @@ public abstract class CsvObjectMapperSupport<T> implements ObjectMapper<T> {
         return record;
     }
 
+    /**
+     * フィルタで判定したレコードから、読み込む項目の値を取得する。
+     *
+     * @param record レコード
+     * @return 読み込む項目の値
+     */
+    private String[] toValues(final CsvRecord record) {
+        if (projectedIndexes == null) {
+            final String[] values = new String[record.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = getString(record, i);
+            }
+            return values;
+        }
+        final String[] values = new String[projectedIndexes.length];
+        for (int i = 0; i < projectedIndexes.length && projectedIndexes[i] < record.size(); i++) {
+            values[i] = getString(record, projectedIndexes[i]);
+        }
+        return values;
+    }
+
+    /**
+     * レコードの要素を文字列として取得する。
+     * <p/>
+     * 値をキャッシュする項目の場合は、{@link CsvDataReader}が保持するキャッシュを使用する。
+     *
+     * @param record レコード
+     * @param index 要素のインデックス
+     * @return 要素
+     */
+    String getString(final CsvRecord record, final int index) {
+        final ValueCache<String> cache = reader.getColumnCache(index);
+        return cache == null ? record.getString(index) : record.getString(index, cache);
+    }
+
+    /**
+     * 次に読み込むレコードの読み込み位置を返す。
+     * <p/>
+     * 返却した読み込み位置を保存しておくことで、処理を中断した場合に、
+     * {@link nablarch.common.databind.ObjectMapperFactory#create(Class, java.nio.file.Path, ReadPosition)}
+     * を使用して次のレコードから読み込みを再開できる。
+     *
+     * @return 次に読み込むレコードの読み込み位置
+     * @see CsvDataReader#getPosition()
+     */
+    public ReadPosition getPosition() {
+        if (bindPipeline != null) {
+            return bindPipeline.getPosition();
+        }
+        return reader.getPosition();
+    }
+
+    /**
+     * 指定された数のレコードを、オブジェクトに変換せずに読み飛ばす。
+     * <p/>
+     * 読み飛ばすレコードは{@link CsvDataBindConfig#getRecordFilter()}による判定の対象とならない。
+     *
+     * @param n 読み飛ばすレコード数
+     * @return 実際に読み飛ばしたレコード数
+     * @see CsvDataReader#skip(long)
+     */
+    public long skip(final long n) {
+        if (bindPipeline != null) {
+            return bindPipeline.skip(n);
+        }
+        return reader.skip(n);
+    }
+
+    /**
+     * 索引を使用して、指定されたレコードの直前に移動する。
+     * <p/>
+     * 次の{@link #read()}では、ヘッダ行を除いたレコードを先頭から{@code 0}始まりで数えた、指定された位置のレコードを読み込む。
+     *
+     * @param index 入力ファイルの索引
+     * @param recordNumber 移動先のレコード(先頭を{@code 0}とした位置)
+     * @see CsvDataReader#seek(CsvRecordIndex, long)
+     */
+    public void seek(final CsvRecordIndex index, final long recordNumber) {
+        if (bindPipeline != null) {
+            bindPipeline.clear();
+        }
+        reader.seek(index, recordNumber);
+    }
+
     /**
      * ストリームを閉じてリソースを解放する。
      */
     @Override
     public void close() {
+        if (bindPipeline != null) {
+            bindPipeline.close();
+        }
         FileUtil.closeQuietly(reader);
     }
 
@@ -0,0 +1,545 @@
+package nablarch.common.databind.csv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.RangeInputStream;
+import nablarch.common.databind.ReadPosition;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * CSVファイルを複数の範囲に分割し、範囲ごとに並列に読み込むクラス。
+ * <p/>
+ * ファイルをバイト単位で均等に分割した後、各範囲の先頭以降で最初に現れるレコードの先頭を、
+ * クォート文字の出現回数の偶奇から求めて範囲の境界とする。
+ * 分割した範囲は、それぞれ別のスレッドで{@link CsvBeanMapper}または{@link CsvMapMapper}を使用して読み込む。
+ * <p/>
+ * 各範囲の先頭のレコード番号はファイル全体での値を引き継ぐため、
+ * 行番号プロパティの値や{@link nablarch.common.databind.InvalidDataFormatException}のレコード番号は、
+ * 1スレッドで読み込んだ場合と同じになる。
+ * <p/>
+ * 読み込んだオブジェクトを処理するアクションは複数のスレッドから同時に呼び出されるため、スレッドセーフであること。
+ * 同じ範囲内のレコードはファイル上の順に処理されるが、範囲をまたいだ処理の順序は保証しない。
+ * <p/>
+ * 文字コードがバイト単位で解析できない場合({@link CsvByteTokenizer#isSupported(CsvDataBindConfig)}を参照)は、
+ * ファイルを分割せずに1スレッドで読み込む。
+ *
+ * @param <T> 読み込むオブジェクトの型
+ * @author Naoki Yamamoto
+ */
+@Published(tag = "architect")
+public class CsvParallelReader<T> {
+
+    /** 1範囲あたりの最小サイズのデフォルト値(バイト) */
+    private static final long DEFAULT_MIN_CHUNK_SIZE = 1024L * 1024L;
+
+    /** 境界の探索で使用するバッファのサイズ */
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    /** 改行コード(CR) */
+    private static final byte CR = '\r';
+
+    /** 改行コード(LF) */
+    private static final byte LF = '\n';
+
+    /** 読み込むオブジェクトのクラス */
+    private final Class<T> clazz;
+
+    /** CSV用の設定情報 */
+    private final CsvDataBindConfig config;
+
+    /** 読み込むファイル */
+    private final Path path;
+
+    /** 並列度 */
+    private final int parallelism;
+
+    /** 1範囲あたりの最小サイズ(バイト) */
+    private final long minChunkSize;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param clazz 読み込むオブジェクトのクラス(Beanのクラスまたは{@link Map})
+     * @param config CSV用の設定情報
+     * @param path 読み込むファイル
+     * @param parallelism 並列度
+     * @throws IllegalArgumentException 並列度が0以下の場合
+     */
+    public CsvParallelReader(final Class<T> clazz, final CsvDataBindConfig config, final Path path,
+            final int parallelism) {
+        this(clazz, config, path, parallelism, DEFAULT_MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param clazz 読み込むオブジェクトのクラス(Beanのクラスまたは{@link Map})
+     * @param config CSV用の設定情報
+     * @param path 読み込むファイル
+     * @param parallelism 並列度
+     * @param minChunkSize 1範囲あたりの最小サイズ(バイト)
+     * @throws IllegalArgumentException 並列度または1範囲あたりの最小サイズが0以下の場合
+     */
+    CsvParallelReader(final Class<T> clazz, final CsvDataBindConfig config, final Path path,
+            final int parallelism, final long minChunkSize) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be greater than 0. parallelism = [" + parallelism + ']');
+        }
+        if (minChunkSize <= 0) {
+            throw new IllegalArgumentException(
+                    "chunk size must be greater than 0. chunk size = [" + minChunkSize + ']');
+        }
+        if (Map.class.isAssignableFrom(clazz)) {
+            config.verify();
+        }
+        this.clazz = clazz;
+        this.config = config;
+        this.path = path;
+        this.parallelism = parallelism;
+        this.minChunkSize = minChunkSize;
+    }
+
+    /**
+     * ファイルの全レコードを読み込み、アクションを実行する。
+     * <p/>
+     * いずれかの範囲で例外が発生した場合、ファイル上で最も前にある範囲の例外を送出する。
+     * この場合でも、他の範囲のレコードに対するアクションは実行されていることがある。
+     *
+     * @param action 読み込んだオブジェクトを処理するアクション
+     */
+    public void forEach(final Consumer<? super T> action) {
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final List<Chunk> chunks = split(channel, executor);
+            final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(chunks.size());
+            for (final Chunk chunk : chunks) {
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        read(channel, chunk, action);
+                        return null;
+                    }
+                });
+            }
+            invokeAll(executor, tasks);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 範囲内のレコードを読み込み、アクションを実行する。
+     *
+     * @param channel ファイルのチャネル
+     * @param chunk 読み込む範囲
+     * @param action 読み込んだオブジェクトを処理するアクション
+     */
+    private void read(final FileChannel channel, final Chunk chunk, final Consumer<? super T> action) {
+        final ObjectMapper<T> mapper = createMapper(channel, chunk);
+        try {
+            T object;
+            while ((object = mapper.read()) != null) {
+                action.accept(object);
+            }
+        } finally {
+            mapper.close();
+        }
+    }
+
+    /**
+     * 範囲を読み込む{@link ObjectMapper}を生成する。
+     * <p/>
+     * ヘッダ行はファイルの先頭の範囲でのみ読み飛ばす。
+     *
+     * @param channel ファイルのチャネル
+     * @param chunk 読み込む範囲
+     * @return 範囲を読み込む{@link ObjectMapper}
+     */
+    @SuppressWarnings("unchecked")
+    ObjectMapper<T> createMapper(final FileChannel channel, final Chunk chunk) {
+        final CsvDataBindConfig chunkConfig = chunk.start == 0 ? config : config.withRequiredHeader(false);
+        final CsvDataReader reader = new CsvDataReader(new RangeInputStream(channel, chunk.start, chunk.end),
+                chunkConfig, CsvTokenizerSupport.DEFAULT_BUFFER_SIZE, new ReadPosition(chunk.start, chunk.firstLineNumber));
+        if (Map.class.isAssignableFrom(clazz)) {
+            return (ObjectMapper<T>) new CsvMapMapper(chunkConfig, reader);
+        }
+        return new CsvBeanMapper<T>(clazz, chunkConfig, reader);
+    }
+
+    /**
+     * ファイルをレコードの境界で分割する。
+     * <p/>
+     * 均等に分割した各範囲を並列に走査し、範囲の先頭がクォートの外側である場合と内側である場合のそれぞれについて、
+     * 範囲の終端までに見つかる最初のレコードの先頭を求める。
+     * その後、ファイルの先頭から順に範囲内のクォート文字の偶奇を引き継ぎ、実際の境界を確定させる。
+     * 実際の偶奇のレコードの先頭が並列の走査で見つかっていない場合は、その範囲のみ続きを走査する。
+     *
+     * @param channel ファイルのチャネル
+     * @param executor 走査に使用する{@link ExecutorService}
+     * @return 分割した範囲
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    List<Chunk> split(final FileChannel channel, final ExecutorService executor) throws IOException {
+        final long size = channel.size();
+        final int count = CsvByteTokenizer.isSupported(config)
+                ? (int) Math.max(1L, Math.min(parallelism, size / minChunkSize)) : 1;
+        final List<Chunk> chunks = new ArrayList<Chunk>(count);
+        if (count == 1) {
+            chunks.add(new Chunk(0L, size, 1L));
+            return chunks;
+        }
+
+        final List<Callable<ScanResult>> tasks = new ArrayList<Callable<ScanResult>>(count);
+        for (int i = 0; i < count; i++) {
+            final long from = size * i / count;
+            final long to = size * (i + 1) / count;
+            tasks.add(new Callable<ScanResult>() {
+                @Override
+                public ScanResult call() throws IOException {
+                    return scan(channel, from, to, size);
+                }
+            });
+        }
+        final List<ScanResult> results = invokeAll(executor, tasks);
+
+        boolean inQuote = false;
+        long lineBreaks = 0L;
+        long start = 0L;
+        long firstLineNumber = 1L;
+        for (int i = 1; i < count; i++) {
+            final ScanResult previous = results.get(i - 1);
+            inQuote ^= previous.oddQuotes;
+            lineBreaks += previous.lineBreaks;
+            final ScanResult current = results.get(i);
+            final int hypothesis = inQuote ? 1 : 0;
+            if (current.recordStart[hypothesis] == ScanResult.UNRESOLVED) {
+                // 並列の走査では、実際の偶奇に対応するレコードの先頭が見つかる前に走査を終えているため、続きから走査する
+                resume(channel, current, hypothesis, size);
+            }
+            final long end = Math.max(start, current.recordStart[hypothesis]);
+            if (end > start) {
+                chunks.add(new Chunk(start, end, firstLineNumber));
+                start = end;
+                firstLineNumber = lineBreaks + current.lineBreaksBeforeRecordStart[hypothesis] + 1L;
+            }
+        }
+        if (start < size || chunks.isEmpty()) {
+            chunks.add(new Chunk(start, size, firstLineNumber));
+        }
+        return chunks;
+    }
+
+    /**
+     * 範囲を走査し、クォート文字の偶奇・改行の数・最初のレコードの先頭を求める。
+     * <p/>
+     * 改行の数は{@link CsvTokenizerSupport}と同じく、LFまたはLFが後続しないCRを1つとして数える。
+     * レコードの先頭は、範囲の先頭より後ろにある、クォートの外側の行区切り文字の直後の位置とする。
+     * <p/>
+     * 走査は範囲の終端に達し、かつ、いずれかの偶奇についてレコードの先頭が見つかった時点で終える。
+     * もう一方の偶奇のレコードの先頭は{@link ScanResult#UNRESOLVED}のままとし、
+     * 実際の偶奇が確定した後に必要な場合のみ{@link #resume(FileChannel, ScanResult, int, long)}で求める。
+     * ファイルの終端まで見つからない場合はファイルサイズとする。
+     *
+     * @param channel ファイルのチャネル
+     * @param from 範囲の先頭(この位置を含む)
+     * @param to 範囲の終端(この位置を含まない)
+     * @param size ファイルサイズ
+     * @return 走査結果
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    ScanResult scan(final FileChannel channel, final long from, final long to, final long size)
+            throws IOException {
+        final ScanResult result = new ScanResult(from);
+        // CRLFの判定のため、範囲の直前の1バイトから読み込む
+        final ByteScanner scanner = new ByteScanner(channel, from == 0 ? 0 : from - 1, size);
+        result.previous = from == 0 ? -1 : scanner.next();
+        scan(scanner, result, to, -1, size);
+        return result;
+    }
+
+    /**
+     * 走査を終えた位置から走査を再開し、指定された偶奇のレコードの先頭を求める。
+     *
+     * @param channel ファイルのチャネル
+     * @param result 走査結果
+     * @param hypothesis 範囲の先頭がクォートの外側の場合は0、内側の場合は1
+     * @param size ファイルサイズ
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    void resume(final FileChannel channel, final ScanResult result, final int hypothesis, final long size)
+            throws IOException {
+        scan(new ByteScanner(channel, result.position, size), result, result.position, hypothesis, size);
+    }
+
+    /**
+     * 走査結果が保持する位置から走査を進める。
+     *
+     * @param scanner 走査結果が保持する位置から読み込む{@link ByteScanner}
+     * @param result 走査結果
+     * @param to 範囲の終端(この位置を含まない)
+     * @param hypothesis 求めるレコードの先頭の偶奇(いずれかが見つかるまで走査する場合は-1)
+     * @param size ファイルサイズ
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    private void scan(final ByteScanner scanner, final ScanResult result, final long to, final int hypothesis,
+            final long size) throws IOException {
+        final int quote = config.getQuote();
+        final String lineSeparator = config.getLineSeparator();
+        final boolean crlfSeparator = lineSeparator.length() == 2;
+        final boolean crSeparator = lineSeparator.charAt(0) == CR && !crlfSeparator;
+        final long[] recordStart = result.recordStart;
+
+        while (hypothesis < 0
+                ? result.position < to
+                        || (recordStart[0] == ScanResult.UNRESOLVED && recordStart[1] == ScanResult.UNRESOLVED)
+                : recordStart[hypothesis] == ScanResult.UNRESOLVED) {
+            final int c = scanner.next();
+            if (c == -1) {
+                // ファイルの終端までレコードの先頭が見つからない
+                for (int i = 0; i < recordStart.length; i++) {
+                    if (recordStart[i] == ScanResult.UNRESOLVED) {
+                        recordStart[i] = size;
+                    }
+                }
+                break;
+            }
+            if (c == quote) {
+                result.scanOddQuotes = !result.scanOddQuotes;
+            } else if (c == LF || c == CR) {
+                final int next = scanner.peek();
+                if (c == LF || next != LF) {
+                    result.scanLineBreaks++;
+                }
+                final boolean endOfRecord;
+                if (crlfSeparator) {
+                    endOfRecord = c == LF && result.previous == CR;
+                } else if (crSeparator) {
+                    endOfRecord = c == CR && next != LF;
+                } else {
+                    endOfRecord = c == LF;
+                }
+                if (endOfRecord) {
+                    // 範囲の先頭がクォートの外側の場合(0)と内側の場合(1)のそれぞれについて判定する
+                    final int found = result.scanOddQuotes ? 1 : 0;
+                    if (recordStart[found] == ScanResult.UNRESOLVED) {
+                        recordStart[found] = result.position + 1;
+                        result.lineBreaksBeforeRecordStart[found] = result.scanLineBreaks;
+                    }
+                }
+            }
+            result.previous = c;
+            result.position++;
+            if (result.position == to) {
+                result.oddQuotes = result.scanOddQuotes;
+                result.lineBreaks = result.scanLineBreaks;
+            }
+        }
+        if (result.position < to) {
+            result.oddQuotes = result.scanOddQuotes;
+            result.lineBreaks = result.scanLineBreaks;
+        }
+    }
+
+    /**
+     * タスクを全て実行し、結果を返す。
+     * <p/>
+     * 全てのタスクの終了を待ち合わせた後、例外が発生したタスクのうち最も前のタスクの例外を送出する。
+     *
+     * @param executor タスクを実行する{@link ExecutorService}
+     * @param tasks タスク
+     * @param <V> タスクの結果の型
+     * @return タスクの結果
+     */
+    private static <V> List<V> invokeAll(final ExecutorService executor, final List<Callable<V>> tasks) {
+        final List<Future<V>> futures = new ArrayList<Future<V>>(tasks.size());
+        for (final Callable<V> task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        final List<V> results = new ArrayList<V>(futures.size());
+        Throwable failure = null;
+        for (final Future<V> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted while reading file.", e);
+            }
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure instanceof IOException) {
+            throw new RuntimeException("failed to read file.", failure);
+        } else if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+        return results;
+    }
+
+    /**
+     * ファイル上の読み込み範囲を表すクラス。
+     */
+    static final class Chunk {
+
+        /** 範囲の先頭(この位置を含む) */
+        final long start;
+
+        /** 範囲の終端(この位置を含まない) */
+        final long end;
+
+        /** 範囲の先頭のレコード番号 */
+        final long firstLineNumber;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param start 範囲の先頭(この位置を含む)
+         * @param end 範囲の終端(この位置を含まない)
+         * @param firstLineNumber 範囲の先頭のレコード番号
+         */
+        Chunk(final long start, final long end, final long firstLineNumber) {
+            this.start = start;
+            this.end = end;
+            this.firstLineNumber = firstLineNumber;
+        }
+    }
+
+    /**
+     * 範囲の走査結果を保持するクラス。
+     * <p/>
+     * レコードの先頭に関する値は、範囲の先頭がクォートの外側の場合を0番目、内側の場合を1番目の要素に保持する。
+     */
+    static final class ScanResult {
+
+        /** レコードの先頭が未確定であることを表す値 */
+        static final long UNRESOLVED = -1L;
+
+        /** 範囲内のクォート文字の数が奇数か否か */
+        boolean oddQuotes;
+
+        /** 範囲内の改行の数 */
+        long lineBreaks;
+
+        /** 範囲の先頭以降で最初のレコードの先頭(未確定の場合は{@link #UNRESOLVED}) */
+        final long[] recordStart = {UNRESOLVED, UNRESOLVED};
+
+        /** 範囲の先頭からレコードの先頭までの改行の数 */
+        final long[] lineBreaksBeforeRecordStart = new long[2];
+
+        /** 走査を終えた位置(次に読み込む位置) */
+        long position;
+
+        /** 走査を終えた位置の直前のバイト(範囲の先頭がファイルの先頭の場合は-1) */
+        int previous;
+
+        /** 範囲の先頭から走査を終えた位置までのクォート文字の数が奇数か否か */
+        boolean scanOddQuotes;
+
+        /** 範囲の先頭から走査を終えた位置までの改行の数 */
+        long scanLineBreaks;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param from 範囲の先頭
+         */
+        ScanResult(final long from) {
+            position = from;
+        }
+    }
+
+    /**
+     * ファイルを先頭から順に1バイトずつ読み込むクラス。
+     */
+    private static final class ByteScanner {
+
+        /** ファイルのチャネル */
+        private final FileChannel channel;
+
+        /** 読み込みの終端 */
+        private final long size;
+
+        /** 読み込んだバイトを保持するバッファ */
+        private final ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+
+        /** 次にバッファに読み込むファイル上の位置 */
+        private long offset;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param channel ファイルのチャネル
+         * @param offset 読み込みを開始する位置
+         * @param size 読み込みの終端
+         */
+        ByteScanner(final FileChannel channel, final long offset, final long size) {
+            this.channel = channel;
+            this.offset = offset;
+            this.size = size;
+            buffer.flip();
+        }
+
+        /**
+         * 次の1バイトを読み込む。
+         *
+         * @return 読み込んだバイト。終端に達した場合は{@code -1}
+         * @throws IOException ファイルアクセスに失敗した場合
+         */
+        int next() throws IOException {
+            return fill() ? buffer.get() & 0xFF : -1;
+        }
+
+        /**
+         * 位置を移動せずに次の1バイトを読み込む。
+         *
+         * @return 読み込んだバイト。終端に達した場合は{@code -1}
+         * @throws IOException ファイルアクセスに失敗した場合
+         */
+        int peek() throws IOException {
+            return fill() ? buffer.get(buffer.position()) & 0xFF : -1;
+        }
+
+        /**
+         * バッファを読み切っている場合に、次のバイトを読み込む。
+         *
+         * @return 読み込むバイトが存在する場合は{@code true}
+         * @throws IOException ファイルアクセスに失敗した場合
+         */
+        private boolean fill() throws IOException {
+            while (!buffer.hasRemaining()) {
+                if (offset >= size) {
+                    return false;
+                }
+                buffer.clear();
+                final int read = channel.read(buffer, offset);
+                buffer.flip();
+                if (read < 0) {
+                    return false;
+                }
+                offset += read;
+            }
+            return true;
+        }
+    }
+}
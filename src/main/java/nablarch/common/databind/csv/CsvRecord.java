@@ -0,0 +1,351 @@
+package nablarch.common.databind.csv;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import nablarch.common.databind.ValueCache;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * CSVの1レコード分の要素を保持するクラス。
+ * <p/>
+ * {@link CsvDataReader#read(CsvRecord)}で繰り返し使用することを想定しており、
+ * 要素を保持するバッファはレコードをまたいで再利用する。
+ * このため、レコードを読み込む際に要素ごとの文字列は生成しない。
+ * <p/>
+ * {@link #get(int)}が返す{@link CharSequence}は本クラスが保持するバッファを参照するため、
+ * 次のレコードを読み込むと内容が変わる。
+ * 次のレコードの読み込み後も値を使用する場合は、{@link #getString(int)}で文字列を取得すること。
+ * <p/>
+ * 本クラスはスレッドセーフではない。
+ *
+ * @author Naoki Yamamoto
+ */
+@Published
+public class CsvRecord {
+
+    /** 要素の値を連結して保持するバッファ */
+    private char[] chars = new char[1024];
+
+    /** バッファ上の使用済みの文字数 */
+    private int length;
+
+    /** 各要素のバッファ上の開始位置 */
+    private int[] starts = new int[16];
+
+    /** 各要素のバッファ上の終了位置 */
+    private int[] ends = new int[16];
+
+    /** 各要素が{@code null}か否か */
+    private boolean[] nulls = new boolean[16];
+
+    /** 各要素を参照する{@link CharSequence} */
+    private Field[] fields = new Field[0];
+
+    /** 要素数 */
+    private int size;
+
+    /** レコード番号 */
+    private long lineNumber;
+
+    /** バッファを参照する{@link CharBuffer}(バッファの拡張時に作り直す) */
+    private CharBuffer charBuffer;
+
+    /**
+     * 要素数を返す。
+     *
+     * @return 要素数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 要素を返す。
+     * <p/>
+     * 返却する{@link CharSequence}は、次のレコードを読み込むまでの間のみ有効である。
+     *
+     * @param index 要素のインデックス
+     * @return 要素。要素が{@code null}の場合は{@code null}
+     * @throws IndexOutOfBoundsException インデックスが範囲外の場合
+     */
+    public CharSequence get(final int index) {
+        checkIndex(index);
+        if (nulls[index]) {
+            return null;
+        }
+        if (fields.length <= index) {
+            final int current = fields.length;
+            fields = Arrays.copyOf(fields, Math.max(index + 1, starts.length));
+            for (int i = current; i < fields.length; i++) {
+                fields[i] = new Field(i);
+            }
+        }
+        return fields[index];
+    }
+
+    /**
+     * 要素を文字列として返す。
+     *
+     * @param index 要素のインデックス
+     * @return 要素。要素が{@code null}の場合は{@code null}
+     * @throws IndexOutOfBoundsException インデックスが範囲外の場合
+     */
+    public String getString(final int index) {
+        checkIndex(index);
+        return nulls[index] ? null : new String(chars, starts[index], ends[index] - starts[index]);
+    }
+
+    /**
+     * キャッシュを使用して、要素を文字列として返す。
+     * <p/>
+     * 要素の値がキャッシュに存在する場合はキャッシュされた文字列を返し、
+     * 存在しない場合は生成した文字列をキャッシュに追加して返す。
+     *
+     * @param index 要素のインデックス
+     * @param cache 要素の文字列のキャッシュ
+     * @return 要素。要素が{@code null}の場合は{@code null}
+     * @throws IndexOutOfBoundsException インデックスが範囲外の場合
+     */
+    String getString(final int index, final ValueCache<String> cache) {
+        checkIndex(index);
+        if (nulls[index]) {
+            return null;
+        }
+        final int start = starts[index];
+        final int count = ends[index] - start;
+        final String cached = cache.get(chars, start, count);
+        if (cached != null) {
+            return cached;
+        }
+        final String value = new String(chars, start, count);
+        cache.put(chars, start, count, value);
+        return value;
+    }
+
+    /**
+     * 要素が{@code null}か否かを返す。
+     *
+     * @param index 要素のインデックス
+     * @return 要素が{@code null}の場合は{@code true}
+     * @throws IndexOutOfBoundsException インデックスが範囲外の場合
+     */
+    public boolean isNull(final int index) {
+        checkIndex(index);
+        return nulls[index];
+    }
+
+    /**
+     * 全ての要素を文字列の配列として返す。
+     *
+     * @return 要素の配列
+     */
+    public String[] toArray() {
+        final String[] array = new String[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = getString(i);
+        }
+        return array;
+    }
+
+    /**
+     * レコード番号を返す。
+     * <p/>
+     * 値は、レコードの読み込み後の{@link CsvDataReader#getLineNumber()}と同じ。
+     *
+     * @return レコード番号
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * 保持している要素をクリアする。
+     */
+    public void clear() {
+        size = 0;
+        length = 0;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * レコード番号を設定する。
+     *
+     * @param lineNumber レコード番号
+     */
+    void setLineNumber(final long lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * 空の要素を追加する。
+     *
+     * @param asNull {@code null}とする場合は{@code true}
+     */
+    void addEmpty(final boolean asNull) {
+        beginField();
+        endField();
+        nulls[size - 1] = asNull;
+    }
+
+    /**
+     * 要素の追加を開始する。
+     * <p/>
+     * {@link #endField()}を呼び出すまでに追加した文字が、1つの要素となる。
+     */
+    void beginField() {
+        if (size == starts.length) {
+            final int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            nulls = Arrays.copyOf(nulls, capacity);
+        }
+        starts[size] = length;
+    }
+
+    /**
+     * 要素の追加を終了する。
+     */
+    void endField() {
+        ends[size] = length;
+        nulls[size] = false;
+        size++;
+    }
+
+    /**
+     * 追加中の要素に文字を追加する。
+     *
+     * @param src 追加する文字を含む配列
+     * @param offset 開始位置
+     * @param count 文字数
+     */
+    void append(final char[] src, final int offset, final int count) {
+        ensureCapacity(length + count);
+        System.arraycopy(src, offset, chars, length, count);
+        length += count;
+    }
+
+    /**
+     * 追加中の要素に文字を追加する。
+     *
+     * @param src 追加する文字
+     */
+    void append(final StringBuilder src) {
+        final int count = src.length();
+        ensureCapacity(length + count);
+        src.getChars(0, count, chars, length);
+        length += count;
+    }
+
+    /**
+     * 追加中の要素に、ASCIIの範囲のバイトのみで構成されたバイト列を文字として追加する。
+     *
+     * @param src 追加するバイト列を含む配列
+     * @param offset 開始位置
+     * @param count バイト数
+     */
+    void appendAscii(final byte[] src, final int offset, final int count) {
+        ensureCapacity(length + count);
+        final char[] dest = chars;
+        int j = length;
+        for (int i = offset, end = offset + count; i < end; i++) {
+            dest[j++] = (char) src[i];
+        }
+        length = j;
+    }
+
+    /**
+     * 追加中の要素に文字を書き込むための{@link CharBuffer}を返す。
+     * <p/>
+     * 返却する{@link CharBuffer}は、少なくとも指定された文字数を書き込める状態となっている。
+     * 書き込み後は{@link #commit(CharBuffer)}を呼び出すこと。
+     *
+     * @param count 書き込む文字数の上限
+     * @return 文字を書き込むための{@link CharBuffer}
+     */
+    CharBuffer charBuffer(final int count) {
+        ensureCapacity(length + count);
+        if (charBuffer == null) {
+            charBuffer = CharBuffer.wrap(chars);
+        }
+        charBuffer.limit(chars.length).position(length);
+        return charBuffer;
+    }
+
+    /**
+     * {@link #charBuffer(int)}で取得した{@link CharBuffer}に書き込んだ文字を確定する。
+     *
+     * @param buffer 文字を書き込んだ{@link CharBuffer}
+     */
+    void commit(final CharBuffer buffer) {
+        length = buffer.position();
+    }
+
+    /**
+     * バッファが指定された文字数を格納できるよう拡張する。
+     *
+     * @param capacity 必要な文字数
+     */
+    private void ensureCapacity(final int capacity) {
+        if (capacity > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+            charBuffer = null;
+        }
+    }
+
+    /**
+     * インデックスが範囲内であることをチェックする。
+     *
+     * @param index インデックス
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index = [" + index + "], size = [" + size + ']');
+        }
+    }
+
+    /**
+     * バッファ上の要素を参照する{@link CharSequence}。
+     */
+    private final class Field implements CharSequence {
+
+        /** 要素のインデックス */
+        private final int index;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param index 要素のインデックス
+         */
+        private Field(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int length() {
+            return ends[index] - starts[index];
+        }
+
+        @Override
+        public char charAt(final int i) {
+            if (i < 0 || i >= length()) {
+                throw new IndexOutOfBoundsException("index = [" + i + "], length = [" + length() + ']');
+            }
+            return chars[starts[index] + i];
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, starts[index], length());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package nablarch.common.databind.csv;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * CSVのレコードをオブジェクトへ変換する前に、変換対象とするか否かを判定するインタフェース。
+ * <p/>
+ * 判定は、トークン化したままの項目の値({@link CsvRecord})に対して行う。
+ * 変換対象外と判定したレコードは、Beanの生成やプロパティの設定を行わずに読み飛ばす。
+ * <p/>
+ * 項目はヘッダのキーではなく、レコード上のインデックスで参照する。
+ * 項目数が想定と異なるレコードも判定対象となるため、必要に応じて{@link CsvRecord#size()}を確認すること。
+ * なお、ヘッダ行は判定対象とならない。
+ * <p/>
+ * 並列に読み込む場合は複数のスレッドから同時に呼び出されるため、スレッドセーフに実装すること。
+ *
+ * @author Naoki Yamamoto
+ * @see CsvDataBindConfig#withRecordFilter(CsvRecordFilter)
+ */
+@Published
+public interface CsvRecordFilter {
+
+    /**
+     * レコードをオブジェクトへ変換するか否かを判定する。
+     * <p/>
+     * {@link CsvRecord}は次のレコードの読み込み時に再利用されるため、参照を保持してはならない。
+     *
+     * @param record レコード
+     * @return 変換する場合は{@code true}
+     */
+    boolean accept(CsvRecord record);
+}
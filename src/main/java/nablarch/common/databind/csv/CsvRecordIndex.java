@@ -0,0 +1,514 @@
+package nablarch.common.databind.csv;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * CSVファイルのレコードの位置を保持する索引。
+ * <p/>
+ * 一定のレコード数(間隔)ごとに、レコードの開始位置(バイト)とレコード番号(行番号)を保持する。
+ * {@link CsvDataReader#seek(CsvRecordIndex, long)}で索引を使用すると、
+ * 索引上で直前の位置から読み込みを開始するため、ファイルの先頭から解析し直すことなく指定したレコードに移動できる。
+ * <p/>
+ * 索引上のレコードは、ヘッダ行を除いたレコードを先頭から{@code 0}始まりで数える。
+ * 空行を無視する設定の場合({@link CsvDataBindConfig#isIgnoreEmptyLine()})、空行はレコードとして数えない。
+ * <p/>
+ * 索引は、クォート文字の出現回数の偶奇からレコードの終端を判定するバイト単位の走査で作成するため、
+ * 作成時にレコードの解析やオブジェクトへの変換は行わない。
+ * このため、文字コードがバイト単位で解析できない場合({@link CsvByteTokenizer#isSupported(CsvDataBindConfig)}を参照)は使用できない。
+ * <p/>
+ * 索引は{@link #save(Path)}でファイルに保存し、{@link #load(Path)}で読み込むことができる。
+ * 索引の作成時と異なる設定で読み込むファイルや、索引の作成後に変更したファイルには使用できない。
+ * {@link #loadOrBuild(Path, CsvDataBindConfig, int)}は、保存した索引がこれらに該当する場合は索引を作成し直す。
+ *
+ * @author Naoki Yamamoto
+ */
+@Published(tag = "architect")
+public final class CsvRecordIndex {
+
+    /** 索引ファイルの識別子 */
+    private static final int MAGIC = 0x43535649;
+
+    /** 索引ファイルの形式のバージョン */
+    private static final int VERSION = 2;
+
+    /** 索引ファイルの拡張子 */
+    private static final String INDEX_FILE_SUFFIX = ".idx";
+
+    /** 索引の作成で使用するバッファのサイズ */
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    /** 改行コード(CR) */
+    private static final int CR = '\r';
+
+    /** 改行コード(LF) */
+    private static final int LF = '\n';
+
+    /** 索引を作成したファイルのサイズ */
+    private final long fileSize;
+
+    /** 索引を作成したファイルの最終更新日時(ミリ秒) */
+    private final long lastModified;
+
+    /** 位置を保持するレコードの間隔 */
+    private final int interval;
+
+    /** 索引の作成に使用したフィールド囲み文字 */
+    private final char quote;
+
+    /** 索引の作成に使用した行区切り文字 */
+    private final String lineSeparator;
+
+    /** 索引の作成時にヘッダ行を読み飛ばしたか否か */
+    private final boolean requiredHeader;
+
+    /** 索引の作成時に空行を無視したか否か */
+    private final boolean ignoreEmptyLine;
+
+    /** 索引の作成に使用した文字コードの名前 */
+    private final String charset;
+
+    /** レコード数 */
+    private final long recordCount;
+
+    /** レコードの開始位置({@link #interval}レコードごと) */
+    private final long[] offsets;
+
+    /** レコード番号({@link #interval}レコードごと) */
+    private final long[] lineNumbers;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param fileSize 索引を作成したファイルのサイズ
+     * @param lastModified 索引を作成したファイルの最終更新日時(ミリ秒)
+     * @param interval 位置を保持するレコードの間隔
+     * @param quote フィールド囲み文字
+     * @param lineSeparator 行区切り文字
+     * @param requiredHeader ヘッダ行を読み飛ばしたか否か
+     * @param ignoreEmptyLine 空行を無視したか否か
+     * @param charset 文字コードの名前
+     * @param recordCount レコード数
+     * @param offsets レコードの開始位置
+     * @param lineNumbers レコード番号
+     */
+    private CsvRecordIndex(final long fileSize, final long lastModified, final int interval, final char quote,
+            final String lineSeparator, final boolean requiredHeader, final boolean ignoreEmptyLine,
+            final String charset, final long recordCount, final long[] offsets, final long[] lineNumbers) {
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.interval = interval;
+        this.quote = quote;
+        this.lineSeparator = lineSeparator;
+        this.requiredHeader = requiredHeader;
+        this.ignoreEmptyLine = ignoreEmptyLine;
+        this.charset = charset;
+        this.recordCount = recordCount;
+        this.offsets = offsets;
+        this.lineNumbers = lineNumbers;
+    }
+
+    /**
+     * CSVファイルの索引を作成する。
+     *
+     * @param file CSVファイル
+     * @param config CSVの定義
+     * @param interval 位置を保持するレコードの間隔
+     * @return 索引
+     * @throws IllegalArgumentException 間隔が0以下の場合、または文字コードがバイト単位で解析できない場合
+     */
+    public static CsvRecordIndex build(final Path file, final CsvDataBindConfig config, final int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be greater than 0. interval = [" + interval + ']');
+        }
+        if (!CsvByteTokenizer.isSupported(config)) {
+            throw new IllegalArgumentException("unsupported charset for record index. charset = ["
+                    + config.getCharset() + ']');
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            // 走査中に変更された場合も作成し直すよう、走査を開始する前の最終更新日時を保持する
+            final long lastModified = Files.getLastModifiedTime(file).toMillis();
+            return new Builder(config, interval).scan(in, lastModified);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+    }
+
+    /**
+     * CSVファイルと同じディレクトリに保存した索引を読み込む。
+     * <p/>
+     * 索引ファイルは、CSVファイル名に{@code .idx}を付加した名前とする。
+     * 以下の場合は、索引を作成して索引ファイルに保存する。
+     * <ul>
+     *     <li>索引ファイルが存在しない、または読み込めない場合</li>
+     *     <li>索引の作成後に、CSVファイルのサイズまたは最終更新日時が変わっている場合</li>
+     *     <li>索引の作成時と、間隔または索引の作成に使用するCSVの定義が異なる場合</li>
+     * </ul>
+     * 索引の作成に使用するCSVの定義は、フィールド囲み文字、行区切り文字、ヘッダ行の有無、空行を無視するか否か、文字コードとする。
+     *
+     * @param file CSVファイル
+     * @param config CSVの定義
+     * @param interval 索引を作成する場合の、位置を保持するレコードの間隔
+     * @return 索引
+     */
+    public static CsvRecordIndex loadOrBuild(final Path file, final CsvDataBindConfig config, final int interval) {
+        final Path indexFile = file.resolveSibling(file.getFileName() + INDEX_FILE_SUFFIX);
+        if (Files.exists(indexFile)) {
+            CsvRecordIndex saved;
+            try {
+                saved = read(indexFile);
+            } catch (IOException e) {
+                // 途中で切れているなど、読み込めない索引ファイルは作成し直す
+                saved = null;
+            }
+            if (saved != null && saved.isBuiltFor(file, config, interval)) {
+                return saved;
+            }
+        }
+        final CsvRecordIndex index = build(file, config, interval);
+        index.save(indexFile);
+        return index;
+    }
+
+    /**
+     * ファイルに保存した索引を読み込む。
+     *
+     * @param indexFile 索引ファイル
+     * @return 索引
+     * @throws IllegalArgumentException 索引ファイルの形式が不正な場合
+     */
+    public static CsvRecordIndex load(final Path indexFile) {
+        final CsvRecordIndex index;
+        try {
+            index = read(indexFile);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+        if (index == null) {
+            throw new IllegalArgumentException("invalid index file. path = [" + indexFile + ']');
+        }
+        return index;
+    }
+
+    /**
+     * 索引ファイルを読み込む。
+     *
+     * @param indexFile 索引ファイル
+     * @return 索引。索引ファイルの識別子またはバージョンが一致しない場合は{@code null}
+     * @throws IOException 索引ファイルの読み込みに失敗した場合
+     */
+    private static CsvRecordIndex read(final Path indexFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            final long fileSize = in.readLong();
+            final long lastModified = in.readLong();
+            final int interval = in.readInt();
+            final char quote = in.readChar();
+            final String lineSeparator = in.readUTF();
+            final boolean requiredHeader = in.readBoolean();
+            final boolean ignoreEmptyLine = in.readBoolean();
+            final String charset = in.readUTF();
+            final long recordCount = in.readLong();
+            final int size = in.readInt();
+            final long[] offsets = new long[size];
+            final long[] lineNumbers = new long[size];
+            for (int i = 0; i < size; i++) {
+                offsets[i] = in.readLong();
+                lineNumbers[i] = in.readLong();
+            }
+            return new CsvRecordIndex(fileSize, lastModified, interval, quote, lineSeparator,
+                    requiredHeader, ignoreEmptyLine, charset, recordCount, offsets, lineNumbers);
+        }
+    }
+
+    /**
+     * 索引をファイルに保存する。
+     *
+     * @param indexFile 索引ファイル
+     */
+    public void save(final Path indexFile) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileSize);
+            out.writeLong(lastModified);
+            out.writeInt(interval);
+            out.writeChar(quote);
+            out.writeUTF(lineSeparator);
+            out.writeBoolean(requiredHeader);
+            out.writeBoolean(ignoreEmptyLine);
+            out.writeUTF(charset);
+            out.writeLong(recordCount);
+            out.writeInt(offsets.length);
+            for (int i = 0; i < offsets.length; i++) {
+                out.writeLong(offsets[i]);
+                out.writeLong(lineNumbers[i]);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write file.", e);
+        }
+    }
+
+    /**
+     * 本索引が、指定したファイルと設定で作成した索引と同じか否かを判定する。
+     *
+     * @param file CSVファイル
+     * @param config CSVの定義
+     * @param interval 位置を保持するレコードの間隔
+     * @return 同じ場合は{@code true}
+     */
+    private boolean isBuiltFor(final Path file, final CsvDataBindConfig config, final int interval) {
+        try {
+            if (fileSize != Files.size(file) || lastModified != Files.getLastModifiedTime(file).toMillis()) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+        return this.interval == interval
+                && quote == config.getQuote()
+                && lineSeparator.equals(config.getLineSeparator())
+                && requiredHeader == config.isRequiredHeader()
+                && ignoreEmptyLine == config.isIgnoreEmptyLine()
+                && charset.equals(config.getCharset().name());
+    }
+
+    /**
+     * レコード数を返す。
+     *
+     * @return レコード数
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * 索引を作成したファイルのサイズを返す。
+     *
+     * @return ファイルのサイズ
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * 位置を保持するレコードの間隔を返す。
+     *
+     * @return 位置を保持するレコードの間隔
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * 指定したレコード以前で、位置を保持している直近のエントリのインデックスを返す。
+     * <p/>
+     * エントリが指すレコードは、エントリのインデックスと{@link #getInterval()}の積となる。
+     *
+     * @param recordNumber レコード(先頭を{@code 0}とした位置)
+     * @return エントリのインデックス
+     * @throws IllegalArgumentException レコードが範囲外の場合
+     */
+    int floorEntry(final long recordNumber) {
+        if (recordNumber < 0 || recordNumber > recordCount) {
+            throw new IllegalArgumentException("record number is out of range. record number = ["
+                    + recordNumber + "], record count = [" + recordCount + ']');
+        }
+        return (int) Math.min(recordNumber / interval, offsets.length - 1);
+    }
+
+    /**
+     * エントリが指すレコードの開始位置を返す。
+     *
+     * @param entry エントリのインデックス
+     * @return レコードの開始位置(バイト)
+     */
+    long getOffset(final int entry) {
+        return offsets[entry];
+    }
+
+    /**
+     * エントリが指すレコードのレコード番号を返す。
+     *
+     * @param entry エントリのインデックス
+     * @return レコード番号
+     */
+    long getLineNumber(final int entry) {
+        return lineNumbers[entry];
+    }
+
+    /**
+     * CSVファイルを走査して索引を作成するクラス。
+     */
+    private static final class Builder {
+
+        /** CSVの定義 */
+        private final CsvDataBindConfig config;
+
+        /** フィールド囲み文字 */
+        private final int quote;
+
+        /** 行区切り文字がCRLFか否か */
+        private final boolean crlfSeparator;
+
+        /** 行区切り文字がCRか否か */
+        private final boolean crSeparator;
+
+        /** 空行を無視するか否か */
+        private final boolean ignoreEmptyLine;
+
+        /** 位置を保持するレコードの間隔 */
+        private final int interval;
+
+        /** ヘッダ行を読み込む前か否か */
+        private boolean headerPending;
+
+        /** 数えたレコード数 */
+        private long recordCount;
+
+        /** レコードの開始位置 */
+        private long[] offsets = new long[16];
+
+        /** レコード番号 */
+        private long[] lineNumbers = new long[16];
+
+        /** 保持しているエントリ数 */
+        private int size;
+
+        /** 走査中のレコードの、行区切り文字を含むバイト数 */
+        private long recordLength;
+
+        /** 走査中のレコードの先頭の2バイト */
+        private final int[] head = new int[2];
+
+        /** 走査済みの改行の数 */
+        private long lineBreaks;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param config CSVの定義
+         * @param interval 位置を保持するレコードの間隔
+         */
+        Builder(final CsvDataBindConfig config, final int interval) {
+            final String lineSeparator = config.getLineSeparator();
+            this.config = config;
+            quote = config.getQuote();
+            crlfSeparator = lineSeparator.length() == 2;
+            crSeparator = lineSeparator.charAt(0) == CR && !crlfSeparator;
+            ignoreEmptyLine = config.isIgnoreEmptyLine();
+            headerPending = config.isRequiredHeader();
+            this.interval = interval;
+            if (!headerPending) {
+                addEntry(0L);
+            }
+        }
+
+        /**
+         * 入力を走査して索引を作成する。
+         *
+         * @param in 入力ストリーム
+         * @param lastModified 入力のファイルの最終更新日時(ミリ秒)
+         * @return 索引
+         * @throws IOException 入力の読み込みに失敗した場合
+         */
+        CsvRecordIndex scan(final InputStream in, final long lastModified) throws IOException {
+            final byte[] buffer = new byte[SCAN_BUFFER_SIZE];
+            boolean quoted = false;
+            int previous = -1;
+            long position = 0L;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++, position++) {
+                    final int c = buffer[i] & 0xFF;
+                    if (previous == CR && c != LF) {
+                        // LFが続かないCRは、次のバイトを読んだ時点で改行と判定する
+                        lineBreaks++;
+                        if (crSeparator && !quoted) {
+                            endRecord(position, 1);
+                        }
+                    }
+                    if (recordLength < head.length) {
+                        head[(int) recordLength] = c;
+                    }
+                    recordLength++;
+                    if (c == quote) {
+                        quoted = !quoted;
+                    } else if (c == LF) {
+                        lineBreaks++;
+                        if (!quoted && !crSeparator && (!crlfSeparator || previous == CR)) {
+                            endRecord(position + 1, crlfSeparator ? 2 : 1);
+                        }
+                    }
+                    previous = c;
+                }
+            }
+            if (previous == CR) {
+                lineBreaks++;
+                if (crSeparator && !quoted) {
+                    endRecord(position, 1);
+                }
+            }
+            if (recordLength > 0) {
+                endRecord(position, 0);
+            }
+            if (size == 0) {
+                // ヘッダ行のみの場合は、ファイルの終端をレコードの位置とする
+                addEntry(position);
+            }
+            return new CsvRecordIndex(position, lastModified, interval, config.getQuote(), config.getLineSeparator(),
+                    config.isRequiredHeader(), ignoreEmptyLine, config.getCharset().name(), recordCount,
+                    Arrays.copyOf(offsets, size), Arrays.copyOf(lineNumbers, size));
+        }
+
+        /**
+         * レコードの終端を処理する。
+         *
+         * @param next 次のレコードの開始位置
+         * @param separatorLength 行区切り文字のバイト数
+         */
+        private void endRecord(final long next, final int separatorLength) {
+            final long length = recordLength - separatorLength;
+            final boolean empty = length == 0 || (length == 2 && head[0] == quote && head[1] == quote);
+            recordLength = 0L;
+            if (ignoreEmptyLine && empty) {
+                return;
+            }
+            if (headerPending) {
+                headerPending = false;
+            } else {
+                recordCount++;
+                if (recordCount % interval != 0) {
+                    return;
+                }
+            }
+            addEntry(next);
+        }
+
+        /**
+         * 次のレコードの位置をエントリとして追加する。
+         *
+         * @param next 次のレコードの開始位置
+         */
+        private void addEntry(final long next) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                lineNumbers = Arrays.copyOf(lineNumbers, size * 2);
+            }
+            offsets[size] = next;
+            lineNumbers[size] = lineBreaks + 1;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package nablarch.common.databind.csv;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import nablarch.common.databind.FileSpliteratorSupport;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.core.util.FileUtil;
+
+/**
+ * CSVファイルをレコードの境界で分割しながら読み込む{@link java.util.Spliterator}。
+ * <p/>
+ * 初めて分割する際に、{@link CsvParallelReader}と同じくクォート文字の偶奇からレコードの先頭を求めて
+ * ファイルを複数の範囲に分割し、以降はその範囲を単位として分割する。
+ * 分割しない場合(順次ストリームの場合)は、範囲を求めずにファイルの先頭から読み込む。
+ * <p/>
+ * 文字コードがバイト単位で解析できない場合({@link CsvByteTokenizer#isSupported(CsvDataBindConfig)}を参照)は、
+ * 分割せずに読み込む。
+ *
+ * @param <T> 読み込むオブジェクトの型
+ * @author Naoki Yamamoto
+ */
+public final class CsvSpliterator<T> extends FileSpliteratorSupport<T> {
+
+    /** 並列度あたりの範囲の数 */
+    private static final int RANGES_PER_THREAD = 4;
+
+    /** 範囲の分割と読み込みを行う{@link CsvParallelReader} */
+    private final CsvParallelReader<T> reader;
+
+    /** ファイルのチャネル */
+    private final FileChannel channel;
+
+    /** ファイルサイズ */
+    private final long size;
+
+    /** 分割した範囲(分割するまでは{@code null}) */
+    private List<CsvParallelReader.Chunk> chunks;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param reader 範囲の分割と読み込みを行う{@link CsvParallelReader}
+     * @param channel ファイルのチャネル
+     * @param size ファイルサイズ
+     * @param chunks 分割した範囲(分割していない場合は{@code null})
+     * @param from 範囲の先頭の境界の番号
+     * @param to 範囲の終端の境界の番号
+     */
+    private CsvSpliterator(final CsvParallelReader<T> reader, final FileChannel channel, final long size,
+            final List<CsvParallelReader.Chunk> chunks, final int from, final int to) {
+        super(from, to);
+        this.reader = reader;
+        this.channel = channel;
+        this.size = size;
+        this.chunks = chunks;
+    }
+
+    /**
+     * CSVファイルを読み込む{@link Stream}を生成する。
+     * <p/>
+     * {@link Stream#close()}で、読み込み中の範囲の{@link ObjectMapper}とファイルを閉じる。
+     *
+     * @param clazz 読み込むオブジェクトのクラス(Beanのクラスまたは{@link java.util.Map})
+     * @param config CSV用の設定情報
+     * @param path 読み込むファイル
+     * @param <T> 読み込むオブジェクトの型
+     * @return CSVファイルを読み込む{@link Stream}
+     */
+    public static <T> Stream<T> stream(final Class<T> clazz, final CsvDataBindConfig config, final Path path) {
+        return stream(new CsvParallelReader<T>(clazz, config, path,
+                ForkJoinPool.getCommonPoolParallelism() * RANGES_PER_THREAD), path);
+    }
+
+    /**
+     * CSVファイルを読み込む{@link Stream}を生成する。
+     *
+     * @param reader 範囲の分割と読み込みを行う{@link CsvParallelReader}
+     * @param path 読み込むファイル
+     * @param <T> 読み込むオブジェクトの型
+     * @return CSVファイルを読み込む{@link Stream}
+     */
+    static <T> Stream<T> stream(final CsvParallelReader<T> reader, final Path path) {
+        final FileChannel channel;
+        final long size;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+        try {
+            size = channel.size();
+        } catch (IOException e) {
+            FileUtil.closeQuietly(channel);
+            throw new RuntimeException("failed to read file.", e);
+        }
+        final CsvSpliterator<T> spliterator = new CsvSpliterator<T>(reader, channel, size, null, 0, 1);
+        return StreamSupport.stream(spliterator, false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            spliterator.closeMappers();
+                        } finally {
+                            FileUtil.closeQuietly(channel);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 初めて分割する際に、ファイルをレコードの境界で複数の範囲に分割する。
+     */
+    @Override
+    public CsvSpliterator<T> trySplit() {
+        if (chunks == null && !isStarted()) {
+            try {
+                chunks = reader.split(channel, ForkJoinPool.commonPool());
+            } catch (IOException e) {
+                throw new RuntimeException("failed to read file.", e);
+            }
+            setTo(chunks.size());
+        }
+        return (CsvSpliterator<T>) super.trySplit();
+    }
+
+    @Override
+    protected long getOffset(final int index) {
+        if (chunks == null) {
+            return index == 0 ? 0L : size;
+        }
+        return index < chunks.size() ? chunks.get(index).start : size;
+    }
+
+    @Override
+    protected long getLineNumber(final int index) {
+        return chunks == null ? 1L : chunks.get(index).firstLineNumber;
+    }
+
+    @Override
+    protected ObjectMapper<T> createMapper(final long start, final long end, final long firstLineNumber) {
+        return reader.createMapper(channel, new CsvParallelReader.Chunk(start, end, firstLineNumber));
+    }
+
+    @Override
+    protected CsvSpliterator<T> newSpliterator(final int from, final int to) {
+        return new CsvSpliterator<T>(reader, channel, size, chunks, from, to);
+    }
+}
@@ -1,376 +1,269 @@
 package nablarch.common.databind.csv;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.nio.CharBuffer;
 
-import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ValueCache;
 
 /**
  * CSVの各要素を分解するクラス
+ * <p/>
+ * 入力は{@link Reader}から{@code char}配列のバッファにまとめて読み込み、
+ * バッファ上を直接走査して要素を切り出す。
+ * 区切り文字やクォート文字は生成時に{@link CsvDataBindConfig}から取り出して保持し、
+ * レコード番号も走査した範囲の改行を数えることで管理する。
  *
  * @author Naoki Yamamoto
  */
-class CsvTokenizer {
+class CsvTokenizer extends CsvTokenizerSupport {
 
-    /** 改行コード（CR） */
-    private static final char CR = '\r';
+    /** 解析対象CSVの{@link Reader} */
+    private final Reader reader;
 
-    /** 改行コード（LF） */
-    private static final char LF = '\n';
+    /** 読み込んだ文字を保持するバッファ */
+    private final char[] buffer;
 
-    /** 改行コード(CR)の文字列表記 */
-    private static final String CR_STR = String.valueOf(CR);
+    /** バッファ上の次に読み込む位置 */
+    private int position;
 
-    /** 改行コード(LF)の文字列表記 */
-    private static final String LF_STR = String.valueOf(LF);
+    /** バッファ上の有効な文字数 */
+    private int limit;
 
-    /** 改行コード(CRLF) */
-    private static final String CRLF = "\r\n";
+    /** 要素を組み立てるためのバッファ */
+    private final StringBuilder builder = new StringBuilder(256);
 
-    /** 解析対象CSVの{@link BufferedReader} */
-    private final ExtendedReader reader;
+    /** キャッシュを検索するために、組み立て中の要素の文字をコピーする領域 */
+    private char[] scratch = new char[256];
 
-    /** CSVの形式を表す{@link CsvDataBindConfig} */
-    private final CsvDataBindConfig format;
+    /** 組み立て中の要素がバッファ上に収まっている場合の開始位置(収まっていない場合は{@code -1}) */
+    private int windowItemStart = -1;
 
-    /** 次の要素が存在するか否か */
-    private boolean hasNext = true;
+    /** 組み立て中の要素がバッファ上に収まっている場合の文字数 */
+    private int windowItemLength;
+
+    /** 記録中のレコードのバッファ上の開始位置(記録していない場合は{@code -1}) */
+    private int rawStart = -1;
+
+    /** バッファを読み込み直す際に退避した、記録中のレコードの内容 */
+    private final StringBuilder raw = new StringBuilder();
 
     /**
      * コンストラクタ。
      *
-     * @param reader 解析対象CSVの{@link BufferedReader}
+     * @param reader 解析対象CSVの{@link Reader}
      * @param format CSVの形式を表す{@link CsvDataBindConfig}
      */
-    public CsvTokenizer(final BufferedReader reader, final CsvDataBindConfig format) {
-        this.reader = new ExtendedReader(reader);
-        this.format = format;
+    public CsvTokenizer(final Reader reader, final CsvDataBindConfig format) {
+        this(reader, format, DEFAULT_BUFFER_SIZE);
     }
 
     /**
-     * 次の要素を取得する
+     * コンストラクタ。
      *
-     * @return 要素
-     * @throws IOException ファイルアクセスに失敗した場合
+     * @param reader 解析対象CSVの{@link Reader}
+     * @param format CSVの形式を表す{@link CsvDataBindConfig}
+     * @param bufferSize バッファサイズ
+     * @throws IllegalArgumentException バッファサイズが0以下の場合
      */
-    public String next() throws IOException {
-        final int c = reader.read();
-        if (isEndOfFile(c) || isEndOfLine(c)) {
-            hasNext = false;
-            return format.isEmptyToNull() ? null : "";
-        } else if (isFieldSeparator(c)) {
-            return format.isEmptyToNull() ? null : "";
-        } else if (isQuote(c)) {
-            return readQuotedItem();
-        } else {
-            return readItem((char) c);
-        }
+    public CsvTokenizer(final Reader reader, final CsvDataBindConfig format, final int bufferSize) {
+        super(format, bufferSize);
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
     }
 
-    /**
-     * ダブルクォートで囲まれた要素を取得する。
-     *
-     * @return 要素
-     * @throws IOException ファイルアクセスに失敗した場合
-     */
-    private String readQuotedItem() throws IOException {
-        final StringBuilder sb = new StringBuilder(256);
-        final long startLine = reader.getLineNumber();
+    @Override
+    protected boolean scanQuotedItem() throws IOException {
         while (true) {
-            final int c = reader.read();
-            if (isQuote(c)) {
-                final int nextChar = reader.read();
-                if (isQuote(nextChar)) {
-                    sb.append((char) c);
-                } else if (isEndOfLine(nextChar) || isEndOfFile(nextChar)) {
-                    hasNext = false;
-                    break;
-                } else if (isFieldSeparator(nextChar)) {
+            if (position >= limit && !fill()) {
+                return false;
+            }
+            final char[] buf = buffer;
+            final int end = limit;
+            final int start = position;
+            int i = start;
+            while (i < end) {
+                final char c = buf[i];
+                if (c == quote) {
                     break;
-                } else {
-                    // エスケープされていない単独のクォート文字はエラー
-                    throw new InvalidDataFormatException("unescaped quote character.", reader.getLineNumber());
+                } else if (c == LF) {
+                    lineNumber++;
+                } else if (c == CR) {
+                    if (i + 1 == end) {
+                        // 次の文字がバッファ外にあるため、1文字ずつ読み込む処理で判定する
+                        break;
+                    } else if (buf[i + 1] != LF) {
+                        lineNumber++;
+                    }
                 }
-            } else {
-                if (isEndOfFile(c)) {
-                    // クォートが閉じられないままファイルの終端に達した場合はエラー
-                    throw new InvalidDataFormatException("EOF reached before quoted token finished.", startLine);
+                i++;
+            }
+            builder.append(buf, start, i - start);
+            if (i > start) {
+                // 走査の途中にあるCRは、次の文字がLFではないため改行文字となる
+                lastCharIsLineSeparator = buf[i - 1] == LF || buf[i - 1] == CR;
+            }
+            position = i;
+            if (i < end) {
+                if (buf[i] == quote) {
+                    return true;
                 }
-                sb.append((char) c);
+                builder.append((char) read());
             }
         }
-        return sb.toString();
     }
 
-    /**
-     * ダブルクォートで囲まれていない要素を取得する
-     *
-     * @param c 先頭の1文字
-     * @return 要素
-     * @throws IOException ファイルアクセスに失敗した場合
-     */
-    private String readItem(final char c) throws IOException {
-        checkValidChar(c);
-
-        final StringBuilder sb = new StringBuilder(256);
-        sb.append(c);
+    @Override
+    protected void scanItem() throws IOException {
+        clearItem();
+        int start = position - 1;
         while (true) {
-            final int nextChar = reader.read();
-            if (isEndOfFile(nextChar) || isEndOfLine(nextChar)) {
-                hasNext = false;
-                break;
-            } else if (isFieldSeparator(nextChar)) {
-                break;
+            final char[] buf = buffer;
+            final int end = limit;
+            int i = position;
+            while (i < end) {
+                final char c = buf[i];
+                if (c == fieldSeparator || c == quote || c == CR || c == LF) {
+                    break;
+                }
+                i++;
+            }
+            if (i > position) {
+                lastCharIsLineSeparator = false;
             }
-            checkValidChar(nextChar);
-            sb.append((char) nextChar);
+            position = i;
+            if (i < end) {
+                if (builder.length() == 0) {
+                    // バッファ上に収まっている場合は、バッファ上の範囲を要素とする
+                    windowItemStart = start;
+                    windowItemLength = i - start;
+                } else {
+                    builder.append(buf, start, i - start);
+                }
+                return;
+            }
+            builder.append(buf, start, end - start);
+            if (!fill()) {
+                return;
+            }
+            start = 0;
         }
-        return sb.toString();
     }
 
-    /**
-     * クォートで囲まれていない要素で許容される文字かどうかをチェックする。
-     * <p/>
-     * 許容されない文字が存在していた場合、例外を送出する。
-     *
-     * @param c 文字
-     * @throws IOException ファイルアクセスに失敗した場合
-     */
-    private void checkValidChar(final int c) throws IOException {
-        if (isQuote(c)) {
-            throw new InvalidDataFormatException("invalid quote character.", reader.getLineNumber());
-        } else {
-            if (c == LF || c == CR) {
-                throw new InvalidDataFormatException("invalid line separator.", reader.getLineNumber());
-            }
+    @Override
+    protected int readNext() throws IOException {
+        if (position >= limit && !fill()) {
+            return EOF;
         }
+        return buffer[position++];
     }
 
-    /**
-     * 文字が{@link CsvDataBindConfig}で指定されたクォートか否かを判定する。
-     *
-     * @param c 文字
-     * @return {@link CsvDataBindConfig}で指定されたクォートであればtrue
-     */
-    private boolean isQuote(final int c) {
-        return c == format.getQuote();
+    @Override
+    protected int peek() throws IOException {
+        if (position >= limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position];
     }
 
-    /**
-     * 文字が{@link CsvDataBindConfig}で指定された列区切り文字か否かを判定する。
-     *
-     * @param c 文字
-     * @return {@link CsvDataBindConfig}で指定された列区切り文字であれば{@code true}
-     */
-    private boolean isFieldSeparator(final int c) {
-        return c == format.getFieldSeparator();
+    @Override
+    protected void clearItem() {
+        builder.setLength(0);
+        windowItemStart = -1;
     }
 
-    /**
-     * ファイルの終端に達したか否かを判定する。
-     *
-     * @param c 文字
-     * @return ファイルの終端の場合は{@code true}
-     */
-    private boolean isEndOfFile(final int c) {
-        return c == -1;
+    @Override
+    protected void appendQuote() {
+        builder.append(quote);
     }
 
-    /**
-     * ファイルの終端に達したか否か。
-     *
-     * @return ファイルの終端の場合は{@code true}
-     * @throws IOException ファイルアクセスに失敗した場合
-     */
-    public boolean isEndOfFile() throws IOException {
-        return reader.readNextCharAndReset() == -1;
+    @Override
+    protected String itemToString() {
+        if (windowItemStart >= 0) {
+            return new String(buffer, windowItemStart, windowItemLength);
+        }
+        return builder.toString();
     }
 
-    /**
-     * 指定された文字が行末を表しているか否かを判定する。
-     * <p/>
-     * {@link CsvDataBindConfig#getLineSeparator()} が1文字の場合は、指定された文字がその文字と一致している場合行末とする。
-     * {@link CsvDataBindConfig#getLineSeparator()} が2文字の場合は、指定された文字と次の文字が、その文字列と一致している場合に行末とする。
-     *
-     * @param c 文字
-     * @return 行末（改行コードの場合)はtrue
-     * @throws IOException ファイルアクセスに失敗した場合
-     */
-    private boolean isEndOfLine(final int c) throws IOException {
-        final String separator = format.getLineSeparator();
-        if (c == LF) {
-            return separator.equals(LF_STR);
-        } else if (c == CR) {
-            if (reader.readNextCharAndReset() == LF) {
-                if (separator.equals(CRLF)) {
-                    reader.read();
-                    return true;
-                }
-            } else {
-                return separator.equals(CR_STR);
+    @Override
+    protected String itemToString(final ValueCache<String> cache) {
+        final char[] src;
+        final int offset;
+        final int length;
+        if (windowItemStart >= 0) {
+            src = buffer;
+            offset = windowItemStart;
+            length = windowItemLength;
+        } else {
+            length = builder.length();
+            if (scratch.length < length) {
+                scratch = new char[Math.max(length, scratch.length * 2)];
             }
+            builder.getChars(0, length, scratch, 0);
+            src = scratch;
+            offset = 0;
+        }
+        final String cached = cache.get(src, offset, length);
+        if (cached != null) {
+            return cached;
         }
-        return false;
+        final String value = new String(src, offset, length);
+        cache.put(src, offset, length, value);
+        return value;
     }
 
-    /**
-     * 行の終端に達したか否か。
-     *
-     * @return 行の終端の場合は{@code true}
-     */
-    public boolean isEndOfLine() {
-        return !hasNext;
+    @Override
+    protected boolean isItemEmpty() {
+        return windowItemStart >= 0 ? windowItemLength == 0 : builder.length() == 0;
     }
 
-    /**
-     * 新しいレコードを読むために状態をリセットする。
-     */
-    public void reset() {
-        hasNext = true;
+    @Override
+    protected void itemTo(final CsvRecord record) {
+        if (windowItemStart >= 0) {
+            record.append(buffer, windowItemStart, windowItemLength);
+        } else {
+            record.append(builder);
+        }
     }
 
-    /**
-     * 現在のレコード番号を返す。
-     *
-     * @return レコード番号
-     * @throws IOException ファイルアクセスに失敗した場合
-     */
-    public long getLineNumber() {
-        return reader.getLineNumber();
+    @Override
+    protected void beginRawRecord() {
+        raw.setLength(0);
+        rawStart = position;
+    }
+
+    @Override
+    protected String rawRecord() {
+        return new StringBuilder(raw.length() + position - rawStart)
+                .append(raw)
+                .append(buffer, rawStart, position - rawStart)
+                .toString();
     }
 
     /**
-     * ファイル内のレコード番号を管理するための{@link BufferedReader}拡張クラス。
-     * <p/>
-     * {@link java.io.LineNumberReader}を使用すれば、レコード番号を取得することができるが、
-     * このクラスは改行文字を全てLF(\n)に変換してしまう。
-     * このため、本クラスにて改行コードを変換せずにレコード番号を管理できる機能を実現する。
+     * バッファに次の文字を読み込む。
      * <p/>
-     * 本機能は、以下のメソッドはサポートしない。
-     * <ul>
-     * <li>{@link #readLine()}</li>
-     * <li>{@link #read(char[], int, int)}</li>
-     * <li>{@link #read(char[])}</li>
-     * <li>{@link #read(CharBuffer)}</li>
-     * <li>{@link #skip(long)}</li>
-     * </ul>
+     * バッファ上の未読の文字は破棄されるため、バッファを読み切った状態で呼び出すこと。
+     *
+     * @return 読み込めた場合は{@code true}、ファイルの終端に達した場合は{@code false}
+     * @throws IOException ファイルアクセスに失敗した場合
      */
-    private static class ExtendedReader extends BufferedReader {
-
-        /** レコード番号 */
-        private long lineNumber = 1L;
-
-        /** 最後に読み取った文字 */
-        private int lastChar = -1;
-
-        /**
-         * レコード番号付きリーダを生成する。
-         *
-         * @param in {@link Reader}
-         */
-        public ExtendedReader(final Reader in) {
-            super(in);
-        }
-
-        /**
-         * 1文字分読み込む。
-         * <p/>
-         * 読み込んだ文字が改行コードの場合、レコード番号をインクリメントする。
-         */
-        @Override
-        public int read() throws IOException {
-            final int read = super.read();
-            if (isLineSeparator(read)) {
-                lineNumber++;
-            }
-            if (read != -1) {
-                lastChar = read;
-            }
-            return read;
+    private boolean fill() throws IOException {
+        if (rawStart >= 0) {
+            raw.append(buffer, rawStart, limit - rawStart);
+            rawStart = limit;
         }
-
-        /**
-         * 指定された文字が改行文字か否かを判定する。
-         *
-         * @param c 文字
-         * @return 改行文字の場合{@code true}
-         * @throws IOException ファイルアクセスに失敗した場合
-         */
-        private boolean isLineSeparator(final int c) throws IOException {
-            if (c == LF) {
-                return true;
-            } else if (c == CR && readNextCharAndReset() != LF) {
-                return true;
-            }
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
             return false;
         }
-
-        /**
-         * サポートしません。
-         */
-        @Override
-        public int read(char[] cbuf, int off, int len) throws IOException {
-            throw new UnsupportedOperationException("unsupported.");
-        }
-
-        /**
-         * サポートしません。
-         */
-        @Override
-        public int read(CharBuffer target) throws IOException {
-            throw new UnsupportedOperationException("unsupported.");
-        }
-
-        /**
-         * サポートしません。
-         */
-        @Override
-        public int read(char[] cbuf) throws IOException {
-            throw new UnsupportedOperationException("unsupported.");
-        }
-
-        /**
-         * サポートしません。
-         */
-        @Override
-        public String readLine() throws IOException {
-            throw new UnsupportedOperationException("unsupported.");
-        }
-
-        /**
-         * サポートしません。
-         */
-        @Override
-        public long skip(long n) throws IOException {
-            throw new UnsupportedOperationException("unsupported.");
-        }
-
-        /**
-         * カレントポジションを移動せずに次の一文字をリードする。
-         *
-         * @return 読み込んだ文字
-         * @throws IOException ファイルアクセスに失敗した場合
-         */
-        private int readNextCharAndReset() throws IOException {
-            mark(1);
-            final int c = super.read();
-            reset();
-            return c;
-        }
-
-        /**
-         * 現在のレコード番号を返す。
-         *
-         * @return レコード番号
-         */
-        public long getLineNumber() {
-            try {
-                return isLineSeparator(lastChar) ? lineNumber - 1 : lineNumber;
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+        position = 0;
+        limit = read;
+        if (rawStart >= 0) {
+            rawStart = 0;
         }
+        return true;
     }
 }
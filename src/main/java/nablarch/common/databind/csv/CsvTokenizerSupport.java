@@ -0,0 +1,540 @@
+package nablarch.common.databind.csv;
+
+import java.io.IOException;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ValueCache;
+
+/**
+ * CSVの各要素を分解する処理をサポートするクラス。
+ * <p/>
+ * 要素の分解ルールとレコード番号の管理は本クラスで行い、
+ * 入力の読み込みとバッファ上の走査はサブクラスで行う。
+ * サブクラスでは、改行文字・列区切り文字・クォート文字を1単位(文字またはバイト)で扱えること。
+ *
+ * @author Naoki Yamamoto
+ */
+abstract class CsvTokenizerSupport {
+
+    /** デフォルトのバッファサイズ */
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /** 改行コード（CR） */
+    protected static final char CR = '\r';
+
+    /** 改行コード（LF） */
+    protected static final char LF = '\n';
+
+    /** ファイルの終端を表す値 */
+    protected static final int EOF = -1;
+
+    /** 改行コード(CRLF) */
+    private static final String CRLF = "\r\n";
+
+    /** 列区切り文字 */
+    protected final char fieldSeparator;
+
+    /** フィールド囲み文字 */
+    protected final char quote;
+
+    /** 空の要素をnullとするか否か */
+    private final boolean emptyToNull;
+
+    /** 行区切り文字がLFか否か */
+    private final boolean lfSeparator;
+
+    /** 行区切り文字がCRか否か */
+    private final boolean crSeparator;
+
+    /** 行区切り文字がCRLFか否か */
+    private final boolean crlfSeparator;
+
+    /** 行区切り文字 */
+    private final String lineSeparator;
+
+    /** 不正なレコードを読み飛ばすため、レコードの内容を記録するか否か */
+    private final boolean recordRawRecord;
+
+    /** レコード番号 */
+    protected long lineNumber = 1L;
+
+    /** 最後に読み取った文字が改行文字か否か */
+    protected boolean lastCharIsLineSeparator;
+
+    /** 次の要素が存在するか否か */
+    private boolean hasNext = true;
+
+    /** 最後に読み飛ばした要素が空か否か */
+    private boolean skippedItemEmpty;
+
+    /** 要素の文字列を取得する際に使用するキャッシュ(キャッシュしない場合は{@code null}) */
+    private ValueCache<String> itemCache;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param format CSVの形式を表す{@link CsvDataBindConfig}
+     * @param bufferSize バッファサイズ
+     * @throws IllegalArgumentException バッファサイズが0以下の場合
+     */
+    protected CsvTokenizerSupport(final CsvDataBindConfig format, final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("buffer size must be greater than 0. buffer size = [" + bufferSize + ']');
+        }
+        fieldSeparator = format.getFieldSeparator();
+        quote = format.getQuote();
+        emptyToNull = format.isEmptyToNull();
+        final String lineSeparator = format.getLineSeparator();
+        lfSeparator = lineSeparator.equals(String.valueOf(LF));
+        crSeparator = lineSeparator.equals(String.valueOf(CR));
+        crlfSeparator = lineSeparator.equals(CRLF);
+        this.lineSeparator = lineSeparator;
+        recordRawRecord = format.getInvalidRecordHandler() != null;
+    }
+
+    /**
+     * 次の要素を取得する
+     *
+     * @return 要素
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    public String next() throws IOException {
+        return next(null, false);
+    }
+
+    /**
+     * 次の要素を取得する。
+     * <p/>
+     * 要素の値がキャッシュに存在する場合は、キャッシュされた文字列を返す。
+     * 存在しない場合は文字列を生成し、キャッシュに追加する。
+     *
+     * @param cache 要素の文字列のキャッシュ
+     * @return 要素
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    public String next(final ValueCache<String> cache) throws IOException {
+        itemCache = cache;
+        try {
+            return next(null, false);
+        } finally {
+            itemCache = null;
+        }
+    }
+
+    /**
+     * 次の要素を読み込み、レコードに追加する。
+     * <p/>
+     * 要素の文字列は生成せずに、レコードのバッファに直接追加する。
+     *
+     * @param record 要素を追加するレコード
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    public void nextTo(final CsvRecord record) throws IOException {
+        next(record, false);
+    }
+
+    /**
+     * 次の要素を読み飛ばす。
+     * <p/>
+     * 要素の文字列は生成しないが、フォーマットの検証とレコード番号の管理は{@link #next()}と同様に行う。
+     *
+     * @return 読み飛ばした要素が空の場合は{@code true}
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    public boolean skip() throws IOException {
+        next(null, true);
+        return skippedItemEmpty;
+    }
+
+    /**
+     * 次の要素を読み込む。
+     * <p/>
+     * レコードが指定された場合は要素をレコードに追加し、{@code null}を返す。
+     * 読み飛ばす場合は要素を生成せずに{@code null}を返す。
+     * いずれでもない場合は要素を返す。
+     *
+     * @param record 要素を追加するレコード(要素を返す場合は{@code null})
+     * @param skip 要素を読み飛ばす場合は{@code true}
+     * @return 要素
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    private String next(final CsvRecord record, final boolean skip) throws IOException {
+        final int c = read();
+        if (c == EOF || isEndOfLine(c)) {
+            hasNext = false;
+            return emptyItem(record, skip);
+        } else if (c == fieldSeparator) {
+            return emptyItem(record, skip);
+        } else if (c == quote) {
+            return readQuotedItem(record, skip);
+        } else {
+            return readItem(c, record, skip);
+        }
+    }
+
+    /**
+     * ダブルクォートで囲まれた要素を取得する。
+     *
+     * @param record 要素を追加するレコード(要素を返す場合は{@code null})
+     * @param skip 要素を読み飛ばす場合は{@code true}
+     * @return 要素
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    private String readQuotedItem(final CsvRecord record, final boolean skip) throws IOException {
+        clearItem();
+        final long startLine = getLineNumber();
+        while (true) {
+            if (!scanQuotedItem()) {
+                // クォートが閉じられないままファイルの終端に達した場合はエラー
+                throw invalidFormat("EOF reached before quoted token finished.", startLine);
+            }
+            read();
+            final int nextChar = read();
+            if (nextChar == quote) {
+                appendQuote();
+            } else if (nextChar == EOF || isEndOfLine(nextChar)) {
+                hasNext = false;
+                break;
+            } else if (nextChar == fieldSeparator) {
+                break;
+            } else {
+                // エスケープされていない単独のクォート文字はエラー
+                throw invalidFormat("unescaped quote character.", getLineNumber());
+            }
+        }
+        return item(record, skip);
+    }
+
+    /**
+     * ダブルクォートで囲まれていない要素を取得する
+     *
+     * @param c 先頭の1文字
+     * @param record 要素を追加するレコード(要素を返す場合は{@code null})
+     * @param skip 要素を読み飛ばす場合は{@code true}
+     * @return 要素
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    private String readItem(final int c, final CsvRecord record, final boolean skip) throws IOException {
+        checkValidChar(c);
+
+        scanItem();
+        // 後続の読み込みでバッファが上書きされるため、先に要素を取り出す
+        final String item = item(record, skip);
+        final int nextChar = read();
+        if (nextChar == EOF || isEndOfLine(nextChar)) {
+            hasNext = false;
+        } else if (nextChar != fieldSeparator) {
+            checkValidChar(nextChar);
+        }
+        return item;
+    }
+
+    /**
+     * 空の要素を取得する。
+     *
+     * @param record 要素を追加するレコード(要素を返す場合は{@code null})
+     * @param skip 要素を読み飛ばす場合は{@code true}
+     * @return 要素
+     */
+    private String emptyItem(final CsvRecord record, final boolean skip) {
+        if (skip) {
+            skippedItemEmpty = true;
+            return null;
+        } else if (record != null) {
+            record.addEmpty(emptyToNull);
+            return null;
+        }
+        return emptyToNull ? null : "";
+    }
+
+    /**
+     * 組み立て中の要素を取得する。
+     *
+     * @param record 要素を追加するレコード(要素を返す場合は{@code null})
+     * @param skip 要素を読み飛ばす場合は{@code true}
+     * @return 要素
+     */
+    private String item(final CsvRecord record, final boolean skip) {
+        if (skip) {
+            skippedItemEmpty = isItemEmpty();
+            return null;
+        } else if (record != null) {
+            record.beginField();
+            itemTo(record);
+            record.endField();
+            return null;
+        }
+        return itemCache == null ? itemToString() : itemToString(itemCache);
+    }
+
+    /**
+     * クォートで囲まれていない要素で許容される文字かどうかをチェックする。
+     * <p/>
+     * 許容されない文字が存在していた場合、例外を送出する。
+     *
+     * @param c 文字
+     */
+    private void checkValidChar(final int c) {
+        if (c == quote) {
+            throw invalidFormat("invalid quote character.", getLineNumber());
+        } else {
+            if (c == LF || c == CR) {
+                throw invalidFormat("invalid line separator.", getLineNumber());
+            }
+        }
+    }
+
+    /**
+     * フォーマット不正を表す例外を生成する。
+     * <p/>
+     * 不正なレコードを読み飛ばす場合は、生成のコストを抑えるためスタックトレースを記録しない。
+     *
+     * @param message メッセージ
+     * @param lineNumber レコード番号
+     * @return 例外
+     */
+    private InvalidDataFormatException invalidFormat(final String message, final long lineNumber) {
+        return new InvalidDataFormatException(message, lineNumber, !recordRawRecord);
+    }
+
+    /**
+     * 1文字分読み込む。
+     * <p/>
+     * 読み込んだ文字が改行コードの場合、レコード番号をインクリメントする。
+     *
+     * @return 読み込んだ文字。ファイルの終端に達した場合は{@code -1}
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    protected final int read() throws IOException {
+        final int c = readNext();
+        if (c == LF) {
+            lineNumber++;
+            lastCharIsLineSeparator = true;
+        } else if (c == CR && peek() != LF) {
+            lineNumber++;
+            lastCharIsLineSeparator = true;
+        } else if (c != EOF) {
+            lastCharIsLineSeparator = false;
+        }
+        return c;
+    }
+
+    /**
+     * 指定された文字が行末を表しているか否かを判定する。
+     * <p/>
+     * {@link CsvDataBindConfig#getLineSeparator()} が1文字の場合は、指定された文字がその文字と一致している場合行末とする。
+     * {@link CsvDataBindConfig#getLineSeparator()} が2文字の場合は、指定された文字と次の文字が、その文字列と一致している場合に行末とする。
+     *
+     * @param c 文字
+     * @return 行末（改行コードの場合)はtrue
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    private boolean isEndOfLine(final int c) throws IOException {
+        if (c == LF) {
+            return lfSeparator;
+        } else if (c == CR) {
+            if (peek() == LF) {
+                if (crlfSeparator) {
+                    read();
+                    return true;
+                }
+            } else {
+                return crSeparator;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ファイルの終端に達したか否か。
+     *
+     * @return ファイルの終端の場合は{@code true}
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    public boolean isEndOfFile() throws IOException {
+        return peek() == EOF;
+    }
+
+    /**
+     * 行の終端に達したか否か。
+     *
+     * @return 行の終端の場合は{@code true}
+     */
+    public boolean isEndOfLine() {
+        return !hasNext;
+    }
+
+    /**
+     * 新しいレコードを読むために状態をリセットする。
+     */
+    public void reset() {
+        hasNext = true;
+        if (recordRawRecord) {
+            beginRawRecord();
+        }
+    }
+
+    /**
+     * フォーマット不正のレコードの残りを読み飛ばし、次のレコードの先頭に移動する。
+     * <p/>
+     * 行区切り文字またはファイルの終端までを、不正なレコードの一部として読み飛ばす。
+     * 不正なレコードを読み込んだ直後に呼び出すこと。
+     *
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    void recover() throws IOException {
+        if (!hasNext) {
+            return;
+        }
+        int c;
+        do {
+            c = read();
+        } while (c != EOF && !isEndOfLine(c));
+        hasNext = false;
+    }
+
+    /**
+     * 最後に読み込んだレコードの内容を、行区切り文字を除いて返す。
+     * <p/>
+     * {@link CsvDataBindConfig#getInvalidRecordHandler()}が設定されている場合のみ使用できる。
+     *
+     * @return レコードの内容
+     */
+    String getRawRecord() {
+        final String raw = rawRecord();
+        return raw.endsWith(lineSeparator) ? raw.substring(0, raw.length() - lineSeparator.length()) : raw;
+    }
+
+    /**
+     * 現在のレコード番号を返す。
+     * <p/>
+     * 最後に読み込んだ文字が改行文字の場合は、その改行文字が終端となる行のレコード番号を返す。
+     *
+     * @return レコード番号
+     */
+    public long getLineNumber() {
+        return lastCharIsLineSeparator ? lineNumber - 1 : lineNumber;
+    }
+
+    /**
+     * 読み込みを開始する位置のレコード番号を設定する。
+     * <p/>
+     * 入力の途中から読み込む場合に、入力全体でのレコード番号を引き継ぐために使用する。
+     * 読み込みを開始する前に呼び出すこと。
+     *
+     * @param lineNumber 読み込みを開始する位置のレコード番号
+     */
+    void setLineNumber(final long lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * 次に読み込むレコードのレコード番号を返す。
+     * <p/>
+     * レコードの読み込み後に呼び出すこと。
+     *
+     * @return 次に読み込むレコードのレコード番号
+     */
+    long getNextLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * 次の1文字を読み込み、カレントポジションを進める。
+     * <p/>
+     * レコード番号の管理は呼び出し元で行うため、本メソッドでは行わない。
+     *
+     * @return 読み込んだ文字。ファイルの終端に達した場合は{@code -1}
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    protected abstract int readNext() throws IOException;
+
+    /**
+     * カレントポジションを移動せずに次の一文字をリードする。
+     *
+     * @return 読み込んだ文字。ファイルの終端に達した場合は{@code -1}
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    protected abstract int peek() throws IOException;
+
+    /**
+     * ダブルクォートで囲まれていない要素を、先頭の1文字を含めて読み込み、組み立て中の要素とする。
+     * <p/>
+     * 先頭の1文字は読み込み済みであり、直前にバッファから読み込まれた文字であること。
+     * 要素の終わりを表す文字(列区切り文字、クォート文字、改行文字)は読み込まずに残す。
+     * 組み立て中の要素はバッファ上を直接参照してよいため、次の読み込みを行う前に取り出すこと。
+     *
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    protected abstract void scanItem() throws IOException;
+
+    /**
+     * ダブルクォートで囲まれた要素の中身を、次のクォート文字の直前まで読み込み、組み立て中の要素に追加する。
+     * <p/>
+     * クォート文字自体は読み込まずに残す。
+     * 読み込んだ範囲の改行は、レコード番号に反映すること。
+     *
+     * @return クォート文字が見つかった場合は{@code true}、ファイルの終端に達した場合は{@code false}
+     * @throws IOException ファイルアクセスに失敗した場合
+     */
+    protected abstract boolean scanQuotedItem() throws IOException;
+
+    /**
+     * 組み立て中の要素をクリアする。
+     */
+    protected abstract void clearItem();
+
+    /**
+     * 組み立て中の要素にクォート文字を追加する。
+     */
+    protected abstract void appendQuote();
+
+    /**
+     * 組み立て中の要素を文字列に変換する。
+     *
+     * @return 要素
+     */
+    protected abstract String itemToString();
+
+    /**
+     * キャッシュを使用して、組み立て中の要素を文字列に変換する。
+     * <p/>
+     * 要素の値がキャッシュに存在する場合はキャッシュされた文字列を返し、
+     * 存在しない場合は生成した文字列をキャッシュに追加して返す。
+     *
+     * @param cache 要素の文字列のキャッシュ
+     * @return 要素
+     */
+    protected abstract String itemToString(ValueCache<String> cache);
+
+    /**
+     * 組み立て中の要素をレコードに追加する。
+     * <p/>
+     * 追加する要素の開始と終了はこのクラスで行うため、要素の文字のみを追加すること。
+     *
+     * @param record 要素を追加するレコード
+     */
+    protected abstract void itemTo(CsvRecord record);
+
+    /**
+     * 組み立て中の要素が空か否かを判定する。
+     *
+     * @return 空の場合は{@code true}
+     */
+    protected abstract boolean isItemEmpty();
+
+    /**
+     * 次に読み込む位置をレコードの先頭として、レコードの内容の記録を開始する。
+     * <p/>
+     * 記録した内容は{@link #rawRecord()}で取得する。
+     * バッファを読み込み直す際は、バッファ上の記録中の範囲を退避すること。
+     */
+    protected abstract void beginRawRecord();
+
+    /**
+     * 記録を開始した位置から、現在の位置までの内容を返す。
+     *
+     * @return レコードの内容
+     */
+    protected abstract String rawRecord();
+}
@@ -0,0 +1,501 @@
+package nablarch.common.databind.csv;
+
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import nablarch.core.util.StringUtil;
+
+/**
+ * 書き込むレコードのフォーマットを、複数のスレッドで並列に行うクラス。
+ * <p/>
+ * 書き込みを依頼されたレコードを{@link #RECORDS_PER_CHUNK}件ごとのチャンクにまとめ、
+ * チャンク単位でフォーマット用のスレッドにエスケープやクォート文字での囲み、文字コードの変換を依頼する。
+ * フォーマットしたチャンクは、書き込み用の1つのスレッドが依頼した順に出力先に書き込むため、
+ * 出力内容は{@link CsvDataWriter}で1レコードずつ書き込んだ場合と同じとなる。
+ * <p/>
+ * 書き込みを依頼されたレコードは、フォーマットするまで保持するため、配列を複製して保持する。
+ * 変更できない型以外の値は、書き込みを依頼した後に呼び出し側で変更されても出力内容が変わらないよう、
+ * 呼び出し側のスレッドで文字列に変換する。
+ * 数値はクォート文字で囲むかの判定に型を使用するため、変換せずに保持する。
+ * <p/>
+ * 書き込みを待っているチャンク数はスレッド数に比例した上限までとし、上限に達した場合は先頭のチャンクの書き込みを待ち合わせる。
+ * フォーマットや書き込みで例外が発生した場合は、以降のチャンクを書き込まずに、
+ * 次の書き込みの依頼または{@link #close()}で例外を送出する。
+ * 例外を送出した後はレコードを受け付けず、以降の書き込みの依頼と{@link #close()}でも同じ例外を送出する。
+ *
+ * @author Naoki Yamamoto
+ */
+final class CsvWritePipeline {
+
+    /** チャンクにまとめるレコード数 */
+    static final int RECORDS_PER_CHUNK = 2048;
+
+    /** スレッドあたりの書き込み待ちチャンク数の上限 */
+    private static final int CHUNKS_PER_THREAD = 2;
+
+    /** 出力先 */
+    private final Writer target;
+
+    /** フォーマット定義 */
+    private final CsvDataBindConfig config;
+
+    /** フォーマット用のスレッド */
+    private final ExecutorService formatter;
+
+    /** 書き込み用のスレッド */
+    private final ExecutorService io;
+
+    /** 書き込み待ちチャンク数の上限 */
+    private final int capacity;
+
+    /** 書き込みを依頼したチャンク(依頼した順) */
+    private final Queue<Future<Void>> pendings;
+
+    /** チャンクにまとめているレコード */
+    private List<Object[]> records = new ArrayList<Object[]>(RECORDS_PER_CHUNK);
+
+    /** フォーマットまたは書き込みに失敗したか否か */
+    private volatile boolean failed;
+
+    /** 呼び出し側のスレッドで送出した、フォーマットまたは書き込みの失敗を表す例外 */
+    private Throwable failure;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param target 出力先
+     * @param config フォーマット定義
+     * @param parallelism フォーマットに使用するスレッド数
+     */
+    CsvWritePipeline(final Writer target, final CsvDataBindConfig config, final int parallelism) {
+        this.target = target;
+        this.config = config;
+        formatter = Executors.newFixedThreadPool(parallelism, new DaemonThreadFactory("databind-format"));
+        io = Executors.newSingleThreadExecutor(new DaemonThreadFactory("databind-write"));
+        capacity = parallelism * CHUNKS_PER_THREAD;
+        pendings = new ArrayDeque<Future<Void>>(capacity + 1);
+    }
+
+    /**
+     * レコードの書き込みを依頼する。
+     *
+     * @param values レコードの値
+     * @throws RuntimeException フォーマットまたは書き込みに失敗している場合
+     */
+    void write(final Object[] values) {
+        checkFailure();
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("columns should not be empty and null.");
+        }
+        records.add(snapshot(values));
+        if (records.size() >= RECORDS_PER_CHUNK) {
+            submit();
+        }
+    }
+
+    /**
+     * フォーマットするまで保持するレコードの値を生成する。
+     * <p/>
+     * 配列を複製し、変更できない型と数値以外の値は文字列に変換する。
+     * 文字列への変換は{@link CsvDataWriter}と同じ方法で行うため、出力内容は変わらない。
+     *
+     * @param values レコードの値
+     * @return 保持するレコードの値
+     */
+    private static Object[] snapshot(final Object[] values) {
+        final Object[] copy = values.clone();
+        for (int i = 0; i < copy.length; i++) {
+            final Object value = copy[i];
+            if (value != null && !(value instanceof Number) && !isImmutable(value.getClass())) {
+                copy[i] = StringUtil.toString(value);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * 値を変更できない型か否かを判定する。
+     *
+     * @param type 型
+     * @return 値を変更できない型の場合は{@code true}
+     */
+    private static boolean isImmutable(final Class<?> type) {
+        return type == String.class || type == Boolean.class || type == Character.class
+                || type.getName().startsWith("java.time.");
+    }
+
+    /**
+     * フォーマット済みのチャンクの書き込みを依頼する。
+     * <p/>
+     * チャンクにまとめているレコードの書き込みを先に依頼する。
+     *
+     * @param chunks フォーマット済みのチャンク
+     * @throws RuntimeException フォーマットまたは書き込みに失敗している場合
+     */
+    void write(final List<Chunk> chunks) {
+        checkFailure();
+        if (!records.isEmpty()) {
+            submit();
+        }
+        for (final Chunk chunk : chunks) {
+            enqueue(new Callable<Chunk>() {
+                @Override
+                public Chunk call() {
+                    return chunk;
+                }
+            });
+        }
+    }
+
+    /**
+     * 依頼された全てのレコードを書き込み、スレッドを停止する。
+     *
+     * @throws RuntimeException フォーマットまたは書き込みに失敗した場合
+     */
+    void close() {
+        try {
+            checkFailure();
+            if (!records.isEmpty()) {
+                submit();
+            }
+            while (!pendings.isEmpty()) {
+                await(pendings.poll());
+            }
+        } finally {
+            records.clear();
+            pendings.clear();
+            formatter.shutdownNow();
+            io.shutdownNow();
+        }
+    }
+
+    /**
+     * フォーマットまたは書き込みに失敗している場合に、失敗を表す例外を送出する。
+     * <p/>
+     * 書き込み用のスレッドで失敗していて、呼び出し側のスレッドでまだ例外を送出していない場合は、
+     * 失敗したチャンクまで書き込みの完了を待ち合わせて例外を送出する。
+     *
+     * @throws RuntimeException フォーマットまたは書き込みに失敗している場合
+     */
+    private void checkFailure() {
+        if (failure == null && failed) {
+            while (!pendings.isEmpty()) {
+                await(pendings.poll());
+            }
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+    }
+
+    /**
+     * チャンクにまとめたレコードのフォーマットと書き込みを依頼する。
+     */
+    private void submit() {
+        final List<Object[]> chunkRecords = records;
+        records = new ArrayList<Object[]>(RECORDS_PER_CHUNK);
+        final Future<Chunk> formatted = formatter.submit(new Callable<Chunk>() {
+            @Override
+            public Chunk call() throws IOException {
+                final ChunkBuilder builder = new ChunkBuilder(config, target instanceof CsvByteWriter);
+                for (final Object[] values : chunkRecords) {
+                    builder.append(values);
+                }
+                return builder.build();
+            }
+        });
+        enqueue(new Callable<Chunk>() {
+            @Override
+            public Chunk call() throws Exception {
+                return formatted.get();
+            }
+        });
+    }
+
+    /**
+     * チャンクの書き込みを依頼する。
+     * <p/>
+     * 書き込み待ちのチャンクが上限を超えた場合は、先頭のチャンクの書き込みを待ち合わせる。
+     *
+     * @param chunk 書き込むチャンクを返す{@link Callable}
+     */
+    private void enqueue(final Callable<Chunk> chunk) {
+        pendings.add(io.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                if (failed) {
+                    // 先に失敗したチャンクより後ろのチャンクは書き込まない
+                    return null;
+                }
+                try {
+                    chunk.call().writeTo(target);
+                } catch (Exception e) {
+                    failed = true;
+                    throw e;
+                }
+                return null;
+            }
+        }));
+        while (pendings.size() > capacity) {
+            await(pendings.poll());
+        }
+    }
+
+    /**
+     * チャンクの書き込みの完了を待ち合わせる。
+     *
+     * @param pending 書き込みを依頼したチャンク
+     * @throws RuntimeException フォーマットまたは書き込みに失敗した場合
+     */
+    private void await(final Future<Void> pending) {
+        try {
+            pending.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ExecutionException) {
+                // フォーマットで発生した例外
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException) {
+                failure = new RuntimeException("failed to write.", cause);
+            } else if (cause instanceof RuntimeException || cause instanceof Error) {
+                failure = cause;
+            } else {
+                failure = new RuntimeException(cause);
+            }
+            checkFailure();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while writing record.", e);
+        }
+    }
+
+    /**
+     * フォーマット済みのチャンク。
+     */
+    interface Chunk {
+
+        /**
+         * 出力先に書き込む。
+         *
+         * @param out 出力先
+         * @throws IOException 書き込みに失敗した場合
+         */
+        void writeTo(Writer out) throws IOException;
+    }
+
+    /**
+     * レコードをフォーマットしてチャンクを組み立てるクラス。
+     * <p/>
+     * 出力先が{@link CsvByteWriter}の場合は文字コードの変換まで行い、バイト列のチャンクを組み立てる。
+     */
+    static final class ChunkBuilder {
+
+        /** 組み立て中のチャンク */
+        private final Chunk chunk;
+
+        /** チャンクにフォーマットしたレコードを書き込むライター */
+        private final CsvDataWriter writer;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param config フォーマット定義
+         * @param encode 文字コードの変換まで行う場合は{@code true}
+         */
+        ChunkBuilder(final CsvDataBindConfig config, final boolean encode) {
+            if (encode) {
+                final EncodedChunk encoded = new EncodedChunk();
+                chunk = encoded;
+                writer = new CsvDataWriter(new CsvByteWriter(encoded, config.getCharset()), config, config.getKeys());
+            } else {
+                final CharChunk chars = new CharChunk();
+                chunk = chars;
+                writer = new CsvDataWriter(chars, config, config.getKeys());
+            }
+        }
+
+        /**
+         * レコードをフォーマットして追加する。
+         *
+         * @param values レコードの値
+         * @throws IOException フォーマットに失敗した場合
+         */
+        void append(final Object[] values) throws IOException {
+            writer.append(values);
+        }
+
+        /**
+         * 組み立てたチャンクを返す。
+         *
+         * @return チャンク
+         * @throws IOException フォーマットに失敗した場合
+         */
+        Chunk build() throws IOException {
+            writer.close();
+            return chunk;
+        }
+    }
+
+    /**
+     * {@link java.util.stream.Stream}の要素を、フォーマット済みのチャンクとして順に保持するクラス。
+     * <p/>
+     * 並列ストリームでは、分割された範囲ごとに生成し、範囲の順に連結する。
+     */
+    static final class Segment {
+
+        /** フォーマット定義 */
+        private final CsvDataBindConfig config;
+
+        /** 文字コードの変換まで行うか否か */
+        private final boolean encode;
+
+        /** 組み立てたチャンク */
+        private final List<Chunk> chunks = new ArrayList<Chunk>();
+
+        /** 組み立て中のチャンク */
+        private ChunkBuilder builder;
+
+        /** 組み立て中のチャンクのレコード数 */
+        private int building;
+
+        /** レコード数 */
+        private long count;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param config フォーマット定義
+         * @param encode 文字コードの変換まで行う場合は{@code true}
+         */
+        Segment(final CsvDataBindConfig config, final boolean encode) {
+            this.config = config;
+            this.encode = encode;
+        }
+
+        /**
+         * レコードをフォーマットして追加する。
+         * <p/>
+         * {@link #RECORDS_PER_CHUNK}件ごとに、チャンクを組み立てる。
+         *
+         * @param values レコードの値
+         * @throws IOException フォーマットに失敗した場合
+         */
+        void append(final Object[] values) throws IOException {
+            if (builder == null) {
+                builder = new ChunkBuilder(config, encode);
+            }
+            builder.append(values);
+            count++;
+            if (++building >= RECORDS_PER_CHUNK) {
+                seal();
+            }
+        }
+
+        /**
+         * 後ろの範囲のレコードを連結する。
+         *
+         * @param other 後ろの範囲
+         * @return 連結した結果
+         * @throws IOException フォーマットに失敗した場合
+         */
+        Segment concat(final Segment other) throws IOException {
+            seal();
+            other.seal();
+            chunks.addAll(other.chunks);
+            count += other.count;
+            return this;
+        }
+
+        /**
+         * 組み立てたチャンクを返す。
+         *
+         * @return チャンク
+         * @throws IOException フォーマットに失敗した場合
+         */
+        List<Chunk> getChunks() throws IOException {
+            seal();
+            return chunks;
+        }
+
+        /**
+         * レコード数を返す。
+         *
+         * @return レコード数
+         */
+        long getCount() {
+            return count;
+        }
+
+        /**
+         * 組み立て中のチャンクを確定する。
+         *
+         * @throws IOException フォーマットに失敗した場合
+         */
+        private void seal() throws IOException {
+            if (builder != null) {
+                chunks.add(builder.build());
+                builder = null;
+                building = 0;
+            }
+        }
+    }
+
+    /**
+     * 文字のまま保持するチャンク。
+     */
+    private static final class CharChunk extends CharArrayWriter implements Chunk {
+    }
+
+    /**
+     * 文字コードを変換したバイト列を保持するチャンク。
+     * <p/>
+     * 出力先は、同じ文字コードの{@link CsvByteWriter}であること。
+     */
+    private static final class EncodedChunk extends ByteArrayOutputStream implements Chunk {
+
+        @Override
+        public void writeTo(final Writer out) throws IOException {
+            ((CsvByteWriter) out).writeEncoded(buf, 0, count);
+        }
+    }
+
+    /**
+     * デーモンスレッドを生成する{@link ThreadFactory}。
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        /** スレッド名 */
+        private final String name;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param name スレッド名
+         */
+        private DaemonThreadFactory(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
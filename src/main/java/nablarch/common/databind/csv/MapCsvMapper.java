@@ -1,8 +1,8 @@
 package nablarch.common.databind.csv;
 
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
 import java.util.Map;
 
 /**
@@ -19,7 +19,17 @@ public class MapCsvMapper extends ObjectCsvMapperSupport<Map<String, ?>> {
      * @param outputStream 出力リソース
      */
     public MapCsvMapper(final CsvDataBindConfig config, final OutputStream outputStream) {
-        this(config, new OutputStreamWriter(outputStream, config.getCharset()));
+        this(config, toWriter(outputStream, config));
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param config フォーマット定義
+     * @param channel 出力リソース
+     */
+    public MapCsvMapper(final CsvDataBindConfig config, final WritableByteChannel channel) {
+        this(config, toWriter(channel, config));
     }
 
     /**
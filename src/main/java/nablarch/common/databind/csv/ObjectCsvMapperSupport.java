@@ -2,7 +2,16 @@ package nablarch.common.databind.csv;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
 
 import nablarch.common.databind.ObjectMapper;
 import nablarch.core.util.FileUtil;
@@ -21,6 +30,12 @@ public abstract class ObjectCsvMapperSupport<T> implements ObjectMapper<T> {
     /** 1レコードずつ書き込むライター */
     private final CsvDataWriter writer;
 
+    /** {@link #writer}の出力先 */
+    private final Writer target;
+
+    /** レコードを並列にフォーマットするパイプライン(並列にフォーマットしない場合は{@code null}) */
+    private final CsvWritePipeline writePipeline;
+
     /**
      * コンストラクタ。
      *
@@ -29,7 +44,42 @@ public abstract class ObjectCsvMapperSupport<T> implements ObjectMapper<T> {
      */
     public ObjectCsvMapperSupport(final CsvDataBindConfig config, final Writer writer) {
         this.config = config;
-        this.writer = new CsvDataWriter(toBufferedWriter(writer), config, config.getKeys());
+        target = writer instanceof CsvByteWriter ? writer : toBufferedWriter(writer);
+        this.writer = new CsvDataWriter(target, config, config.getKeys());
+        writePipeline = config.getWriteParallelism() > 0
+                ? new CsvWritePipeline(target, config, config.getWriteParallelism()) : null;
+    }
+
+    /**
+     * 出力ストリームに書き込む{@link Writer}を生成する。
+     * <p/>
+     * 文字コードがサポートされている場合は、文字を直接バイト列に変換する{@link CsvByteWriter}を生成する。
+     *
+     * @param outputStream 出力リソース
+     * @param config フォーマット定義
+     * @return {@link Writer}
+     */
+    protected static Writer toWriter(final OutputStream outputStream, final CsvDataBindConfig config) {
+        if (CsvByteWriter.isSupported(config.getCharset())) {
+            return new CsvByteWriter(outputStream, config.getCharset());
+        }
+        return new OutputStreamWriter(outputStream, config.getCharset());
+    }
+
+    /**
+     * チャネルに書き込む{@link Writer}を生成する。
+     * <p/>
+     * 文字コードがサポートされている場合は、文字をダイレクトバッファ上のバイト列に直接変換する{@link CsvByteWriter}を生成する。
+     *
+     * @param channel 出力リソース
+     * @param config フォーマット定義
+     * @return {@link Writer}
+     */
+    protected static Writer toWriter(final WritableByteChannel channel, final CsvDataBindConfig config) {
+        if (CsvByteWriter.isSupported(config.getCharset())) {
+            return new CsvByteWriter(channel, config.getCharset());
+        }
+        return Channels.newWriter(channel, config.getCharset());
     }
 
     /**
@@ -63,6 +113,10 @@ public abstract class ObjectCsvMapperSupport<T> implements ObjectMapper<T> {
 
     @Override
     public void write(T object) {
+        if (writePipeline != null) {
+            writePipeline.write(convertValues(object));
+            return;
+        }
         try {
             writer.write(convertValues(object));
         } catch (IOException e) {
@@ -70,6 +124,102 @@ public abstract class ObjectCsvMapperSupport<T> implements ObjectMapper<T> {
         }
     }
 
+    /**
+     * 複数のオブジェクトをまとめて書き込む。
+     * <p/>
+     * {@link #write(Object)}と異なりレコードごとには出力先に書き込まず、
+     * 一定の大きさのバッファに達するごとにまとめて書き込む。
+     *
+     * @param objects オブジェクト
+     */
+    public void writeAll(final Iterable<? extends T> objects) {
+        if (writePipeline != null) {
+            for (final T object : objects) {
+                writePipeline.write(convertValues(object));
+            }
+            return;
+        }
+        try {
+            for (final T object : objects) {
+                writer.append(convertValues(object));
+            }
+            writer.flushBuffer();
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write.", e);
+        }
+    }
+
+    /**
+     * {@link java.util.stream.Stream}の要素を書き込む{@link Collector}を返す。
+     * <p/>
+     * 要素はストリームを処理するスレッドでフォーマットし、全ての要素を処理した後にストリームの順序で書き込む。
+     * 並列ストリームの場合も、出力内容は{@link #writeAll(Iterable)}で順に書き込んだ場合と同じとなる。
+     * フォーマットした要素は書き込むまでメモリ上に保持するため、大量の要素を書き込む場合は
+     * ストリームを適度な件数に分割して使用すること。
+     * <p/>
+     * 並列ストリームの場合、{@link #convertValues(Object)}は複数のスレッドから呼び出される。
+     *
+     * @return 書き込んだ要素数を結果とする{@link Collector}
+     */
+    public Collector<T, ?, Long> collector() {
+        final boolean encode = target instanceof CsvByteWriter;
+        return Collector.of(
+                new Supplier<CsvWritePipeline.Segment>() {
+                    @Override
+                    public CsvWritePipeline.Segment get() {
+                        return new CsvWritePipeline.Segment(config, encode);
+                    }
+                },
+                new BiConsumer<CsvWritePipeline.Segment, T>() {
+                    @Override
+                    public void accept(final CsvWritePipeline.Segment segment, final T object) {
+                        try {
+                            segment.append(convertValues(object));
+                        } catch (IOException e) {
+                            throw new RuntimeException("failed to write.", e);
+                        }
+                    }
+                },
+                new BinaryOperator<CsvWritePipeline.Segment>() {
+                    @Override
+                    public CsvWritePipeline.Segment apply(
+                            final CsvWritePipeline.Segment left, final CsvWritePipeline.Segment right) {
+                        try {
+                            return left.concat(right);
+                        } catch (IOException e) {
+                            throw new RuntimeException("failed to write.", e);
+                        }
+                    }
+                },
+                new Function<CsvWritePipeline.Segment, Long>() {
+                    @Override
+                    public Long apply(final CsvWritePipeline.Segment segment) {
+                        write(segment);
+                        return segment.getCount();
+                    }
+                });
+    }
+
+    /**
+     * フォーマット済みの要素を書き込む。
+     *
+     * @param segment フォーマット済みの要素
+     */
+    private void write(final CsvWritePipeline.Segment segment) {
+        try {
+            if (writePipeline != null) {
+                writePipeline.write(segment.getChunks());
+                return;
+            }
+            writer.flushBuffer();
+            for (final CsvWritePipeline.Chunk chunk : segment.getChunks()) {
+                chunk.writeTo(target);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write.", e);
+        }
+    }
+
     /**
      * JavaオブジェクトをCSVに出力するための{@link Object}配列に変換する。
      * <p/>
@@ -85,7 +235,13 @@ public abstract class ObjectCsvMapperSupport<T> implements ObjectMapper<T> {
      */
     @Override
     public void close() {
-        FileUtil.closeQuietly(writer);
+        try {
+            if (writePipeline != null) {
+                writePipeline.close();
+            }
+        } finally {
+            FileUtil.closeQuietly(writer);
+        }
     }
 }
 
@@ -29,4 +29,14 @@ public @interface Field {
      * @return フィールドの長さ（バイト数）
      */
     int length();
+
+    /**
+     * 読み込み時に変換後の値をキャッシュする上限数（キャッシュしない場合は0）
+     * <p/>
+     * 区分値やコード値のように取り得る値が少ないフィールドに指定する。
+     * キャッシュした値は複数のレコードで共有されるため、不変な型のフィールドにのみ指定すること。
+     *
+     * @return 変換後の値をキャッシュする上限数
+     */
+    int cacheSize() default 0;
 }
@@ -24,6 +24,9 @@ public class FieldConfig {
     /** コンバータ */
     private final FieldConvert.FieldConverter fieldConverter;
 
+    /** 読み込み時に変換後の値をキャッシュする上限数(キャッシュしない場合は0) */
+    private final int cacheSize;
+
     /**
      * フィールド定義を構築する。
      *
@@ -34,10 +37,29 @@ public class FieldConfig {
      */
     public FieldConfig(
             final String name, final int offset, final int length, final FieldConvert.FieldConverter fieldConverter) {
+        this(name, offset, length, fieldConverter, 0);
+    }
+
+    /**
+     * 読み込み時に変換後の値をキャッシュするフィールド定義を構築する。
+     * <p/>
+     * キャッシュを使用する場合、同じバイト列に対しては変換を行わずに、キャッシュした値を返す。
+     * このため、コンバータは同じバイト列に対して常に同じ値を返すこと。
+     * また、キャッシュした値は複数のレコードで共有されるため、不変なオブジェクトであること。
+     *
+     * @param name フィールド名
+     * @param offset 開始位置(1始まり)
+     * @param length 長さ(バイト数)
+     * @param fieldConverter 入出力時の変換を行うコンバータ
+     * @param cacheSize 読み込み時に変換後の値をキャッシュする上限数(キャッシュしない場合は0)
+     */
+    public FieldConfig(final String name, final int offset, final int length,
+            final FieldConvert.FieldConverter fieldConverter, final int cacheSize) {
         this.name = name;
         this.offset = offset;
         this.length = length;
         this.fieldConverter = fieldConverter;
+        this.cacheSize = cacheSize;
     }
 
     /**
@@ -75,4 +97,13 @@ public class FieldConfig {
     public FieldConverter getFieldConverter() {
         return fieldConverter;
     }
+
+    /**
+     * 読み込み時に変換後の値をキャッシュする上限数を返す。
+     *
+     * @return キャッシュする上限数(キャッシュしない場合は0)
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
 }
@@ -2,12 +2,17 @@ package nablarch.common.databind.fixedlength;
 
 import java.beans.PropertyDescriptor;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+import nablarch.common.databind.BeanBinder;
 import nablarch.common.databind.DataBindUtil;
 import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ReadPosition;
 import nablarch.common.databind.fixedlength.FixedLengthReader.ReadRecord;
 import nablarch.core.beans.BeanUtil;
+import nablarch.core.beans.CopyOptions;
 import nablarch.core.util.FileUtil;
 import nablarch.core.util.StringUtil;
 
@@ -31,6 +36,16 @@ public class FixedLengthBeanMapper<T> implements ObjectMapper<T> {
     /** 行番号を格納するプロパティ名 */
     private final String lineNumberPropertyName;
 
+    /**
+     * フィールドと行番号を引数に渡す{@link BeanBinder.Creator}(コンストラクタバインディングでない場合は{@code null})。
+     * <p/>
+     * 値は{@link #creatorKeys}の順で渡す。
+     */
+    private final BeanBinder.Creator<T> creator;
+
+    /** {@link #creator}に値を渡すプロパティ名(コンストラクタバインディングでない場合は{@code null}) */
+    private final String[] creatorKeys;
+
     /**
      * 固定長をBeanにマッピングするクラスを構築する。
      *
@@ -39,10 +54,53 @@ public class FixedLengthBeanMapper<T> implements ObjectMapper<T> {
      * @param stream 固定長データ
      */
     public FixedLengthBeanMapper(final Class<T> clazz, final FixedLengthDataBindConfig config, final InputStream stream) {
+        this(clazz, config, stream, ReadPosition.START);
+    }
+
+    /**
+     * 指定された読み込み位置から読み込みを再開する、固定長をBeanにマッピングするクラスを構築する。
+     * <p/>
+     * 入力ストリームは、読み込み位置が指すレコードの先頭から始まっていること。
+     *
+     * @param clazz マッピング対象のBeanクラス
+     * @param config 固定長の設定情報
+     * @param stream 固定長データ
+     * @param position 読み込みを再開する位置
+     * @see #getPosition()
+     */
+    public FixedLengthBeanMapper(final Class<T> clazz, final FixedLengthDataBindConfig config, final InputStream stream,
+            final ReadPosition position) {
         this.clazz = clazz;
         this.config = config;
-        this.reader  = new FixedLengthReader(stream, config);
+        this.reader = new FixedLengthReader(stream, config, position);
         lineNumberPropertyName = DataBindUtil.findLineNumberProperty(clazz);
+        creatorKeys = createCreatorKeys();
+        creator = creatorKeys == null ? null : BeanBinder.get(clazz).getCreator(creatorKeys);
+    }
+
+    /**
+     * コンストラクタバインディングの場合に、コンストラクタに値を渡すプロパティ名を生成する。
+     * <p/>
+     * fillerはコンストラクタに渡さない。マルチレイアウトの場合は、コンストラクタバインディングを行わない。
+     *
+     * @return フィールドと行番号を格納するプロパティの名前。コンストラクタバインディングでない場合は{@code null}
+     * @see BeanBinder#isConstructorBinding()
+     */
+    private String[] createCreatorKeys() {
+        if (config.isMultiLayout() || !BeanBinder.get(clazz).isConstructorBinding()) {
+            return null;
+        }
+        final List<String> keys = new ArrayList<String>();
+        for (final FieldConfig fieldConfig : config.getRecordConfig(RecordConfig.SINGLE_LAYOUT_RECORD_NAME)
+                                                   .getFieldConfigList()) {
+            if (!FieldConfig.FILLER_FIELD_NAME.equals(fieldConfig.getName()) && !keys.contains(fieldConfig.getName())) {
+                keys.add(fieldConfig.getName());
+            }
+        }
+        if (StringUtil.hasValue(lineNumberPropertyName)) {
+            keys.add(lineNumberPropertyName);
+        }
+        return keys.toArray(new String[keys.size()]);
     }
 
     @Override
@@ -56,6 +114,9 @@ public class FixedLengthBeanMapper<T> implements ObjectMapper<T> {
         if (read == null) {
             return null;
         }
+        if (creator != null) {
+            return create(read);
+        }
 
         final T bean = createBean(read.getData());
         if (StringUtil.hasValue(lineNumberPropertyName)) {
@@ -64,25 +125,98 @@ public class FixedLengthBeanMapper<T> implements ObjectMapper<T> {
         return bean;
     }
 
+    /**
+     * 読み込んだデータから、コンストラクタバインディングでBeanを生成する。
+     * <p/>
+     * 空文字列のフィールドは、文字列以外のプロパティには{@code null}として渡す。
+     *
+     * @param read 読み込んだデータ
+     * @return 生成されたBean
+     */
+    private T create(final ReadRecord read) {
+        final Map<String, ?> data = read.getData();
+        final Object[] values = new Object[creatorKeys.length];
+        for (int i = 0; i < values.length; i++) {
+            final Object value = data.get(creatorKeys[i]);
+            values[i] = "".equals(value) && creator.getPropertyType(i) != String.class ? null : value;
+        }
+        if (StringUtil.hasValue(lineNumberPropertyName)) {
+            values[values.length - 1] = read.getLineNumber();
+        }
+        return creator.newInstance(values);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * コンストラクタバインディングの場合は、Beanを再利用できない。
+     * マルチレイアウトの場合、レコードごとのプロパティに設定するBeanは新たに生成し、
+     * 読み込んだレコード以外のプロパティには{@code null}を設定する。
+     */
+    @Override
+    public T read(final T target) {
+        if (target == null) {
+            throw new IllegalArgumentException("target must not be null.");
+        }
+        if (creator != null) {
+            throw new UnsupportedOperationException("unsupported read method.");
+        }
+        ReadRecord read = reader.readRecord();
+        if (read == null) {
+            return null;
+        }
+
+        BeanUtil.copy(clazz, target, read.getData(), CopyOptions.empty());
+        if (config.isMultiLayout()) {
+            for (final String recordName : config.getRecordNames()) {
+                BeanUtil.setProperty(target, recordName, null);
+            }
+            copyLayoutRecord(target, read.getData());
+        }
+        if (StringUtil.hasValue(lineNumberPropertyName)) {
+            BeanUtil.setProperty(target, lineNumberPropertyName, read.getLineNumber());
+        }
+        return target;
+    }
+
     /**
      * 読み込んだデータから対応するBeanを生成する。
      * @param read 読み込んだデータ
      * @return 生成されたBean
      */
     private T createBean(Map<String, ?> read) {
+        final T bean = BeanUtil.createAndCopy(clazz, read);
         if (config.isMultiLayout()) {
-            final T bean = BeanUtil.createAndCopy(clazz, read);
-            final MultiLayoutConfig.RecordName recordName = (MultiLayoutConfig.RecordName) read.get("recordName");
-            final PropertyDescriptor descriptor = BeanUtil.getPropertyDescriptor(clazz, recordName.getRecordName());
-            final Object record = BeanUtil.createAndCopy(descriptor.getPropertyType(),
-                                                         (Map<String, ?>) read.get(recordName.getRecordName()));
-            BeanUtil.setProperty(bean, recordName.getRecordName(), record);
-            return bean;
-
-        } else {
-            return BeanUtil.createAndCopy(clazz, read);
+            copyLayoutRecord(bean, read);
         }
+        return bean;
+    }
 
+    /**
+     * マルチレイアウトの場合に、読み込んだレコードのBeanを生成してプロパティに設定する。
+     *
+     * @param bean Bean
+     * @param read 読み込んだデータ
+     */
+    private void copyLayoutRecord(final T bean, final Map<String, ?> read) {
+        final MultiLayoutConfig.RecordName recordName = (MultiLayoutConfig.RecordName) read.get("recordName");
+        final PropertyDescriptor descriptor = BeanUtil.getPropertyDescriptor(clazz, recordName.getRecordName());
+        final Object record = BeanUtil.createAndCopy(descriptor.getPropertyType(),
+                                                     (Map<String, ?>) read.get(recordName.getRecordName()));
+        BeanUtil.setProperty(bean, recordName.getRecordName(), record);
+    }
+
+    /**
+     * 次に読み込むレコードの読み込み位置を返す。
+     * <p/>
+     * 返却した読み込み位置を保存しておくことで、処理を中断した場合に、
+     * {@link nablarch.common.databind.ObjectMapperFactory#create(Class, java.nio.file.Path, ReadPosition)}
+     * を使用して次のレコードから読み込みを再開できる。
+     *
+     * @return 次に読み込むレコードの読み込み位置
+     */
+    public ReadPosition getPosition() {
+        return reader.getPosition();
     }
 
     @Override
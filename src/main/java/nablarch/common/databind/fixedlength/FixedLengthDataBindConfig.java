@@ -3,8 +3,10 @@ package nablarch.common.databind.fixedlength;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 import nablarch.common.databind.DataBindConfig;
+import nablarch.common.databind.InvalidRecordHandler;
 
 /**
  * 固定長のフォーマットをあらわすクラス。
@@ -31,6 +33,12 @@ public class FixedLengthDataBindConfig implements DataBindConfig {
     /** マルチレイアウトの定義 */
     private MultiLayoutConfig multiLayoutConfig;
 
+    /** 読み込み時に先読みに使用するバッファ数(先読みしない場合は0) */
+    private final int readAheadBuffers;
+
+    /** 読み込み時に不正なレコードを受け取るハンドラ(不正なレコードで例外を送出する場合は{@code null}) */
+    private final InvalidRecordHandler invalidRecordHandler;
+
     /**
      * 固定長のフォーマットを構築する。
      *
@@ -48,6 +56,30 @@ public class FixedLengthDataBindConfig implements DataBindConfig {
             final char fillChar,
             final Map<String, RecordConfig> recordConfigs,
             final MultiLayoutConfig multiLayoutConfig) {
+        this(length, charset, lineSeparator, fillChar, recordConfigs, multiLayoutConfig, 0, null);
+    }
+
+    /**
+     * 固定長のフォーマットを構築する。
+     *
+     * @param length レコードの長さ(バイト数)
+     * @param charset 文字セット
+     * @param lineSeparator 改行をあらす文字
+     * @param fillChar 未定義部の埋め文字
+     * @param recordConfigs レコードの定義
+     * @param multiLayoutConfig マルチレイアウトの定義
+     * @param readAheadBuffers 読み込み時に先読みに使用するバッファ数
+     * @param invalidRecordHandler 読み込み時に不正なレコードを受け取るハンドラ
+     */
+    private FixedLengthDataBindConfig(
+            final int length,
+            final Charset charset,
+            final String lineSeparator,
+            final char fillChar,
+            final Map<String, RecordConfig> recordConfigs,
+            final MultiLayoutConfig multiLayoutConfig,
+            final int readAheadBuffers,
+            final InvalidRecordHandler invalidRecordHandler) {
 
         this.length = length;
         this.charset = charset;
@@ -55,6 +87,8 @@ public class FixedLengthDataBindConfig implements DataBindConfig {
         this.fillChar = fillChar;
         this.recordConfigs = Collections.unmodifiableMap(recordConfigs);
         this.multiLayoutConfig = multiLayoutConfig;
+        this.readAheadBuffers = readAheadBuffers;
+        this.invalidRecordHandler = invalidRecordHandler;
     }
 
     /**
@@ -72,12 +106,7 @@ public class FixedLengthDataBindConfig implements DataBindConfig {
             final String lineSeparator,
             final char fillChar,
             final Map<String, RecordConfig> recordConfigs) {
-
-        this.length = length;
-        this.charset = charset;
-        this.lineSeparator = lineSeparator;
-        this.fillChar = fillChar;
-        this.recordConfigs = Collections.unmodifiableMap(recordConfigs);
+        this(length, charset, lineSeparator, fillChar, recordConfigs, null, 0, null);
     }
 
     /**
@@ -126,6 +155,15 @@ public class FixedLengthDataBindConfig implements DataBindConfig {
         return recordConfigs.get(recordName);
     }
 
+    /**
+     * レコード名の一覧を返す。
+     *
+     * @return レコード名の一覧
+     */
+    public Set<String> getRecordNames() {
+        return recordConfigs.keySet();
+    }
+
     /**
      * マルチレイアウトか否かを返す。
      * @return マルチレイアウトであれば {@code true}
@@ -142,4 +180,60 @@ public class FixedLengthDataBindConfig implements DataBindConfig {
     public MultiLayoutConfig getMultiLayoutConfig() {
         return multiLayoutConfig;
     }
+
+    /**
+     * 読み込み時に先読みに使用するバッファ数を返す。
+     *
+     * @return バッファ数。先読みしない場合は0
+     */
+    public int getReadAheadBuffers() {
+        return readAheadBuffers;
+    }
+
+    /**
+     * 読み込み時に、入力を別スレッドで先読みするフォーマットを返す。
+     * <p/>
+     * 入力の読み込みを別スレッドで行い、呼び出し側がレコードを処理している間に次のレコードを読み込む。
+     * バッファ数を2とした場合はダブルバッファリングとなる。
+     *
+     * @param bufferCount 先読みに使用するバッファ数。0の場合は先読みしない
+     * @return 新しい{@link FixedLengthDataBindConfig}
+     * @throws IllegalArgumentException バッファ数が負の場合
+     * @see nablarch.common.databind.ReadAheadInputStream
+     */
+    public FixedLengthDataBindConfig withReadAhead(final int bufferCount) {
+        if (bufferCount < 0) {
+            throw new IllegalArgumentException("buffer count must not be negative. buffer count = [" + bufferCount + ']');
+        }
+        return new FixedLengthDataBindConfig(
+                length, charset, lineSeparator, fillChar, recordConfigs, multiLayoutConfig, bufferCount,
+                invalidRecordHandler);
+    }
+
+    /**
+     * 読み込み時に不正なレコードを受け取るハンドラを返す。
+     *
+     * @return ハンドラ。不正なレコードで例外を送出する場合は{@code null}
+     */
+    public InvalidRecordHandler getInvalidRecordHandler() {
+        return invalidRecordHandler;
+    }
+
+    /**
+     * 読み込み時に、フォーマットが不正なレコードを読み飛ばして読み込みを続けるフォーマットを返す。
+     * <p/>
+     * 改行文字の位置が不正なレコードや、長さが不足する最終レコードを読み込んだ場合、
+     * {@link nablarch.common.databind.InvalidDataFormatException}を送出せずに、
+     * レコードの内容と例外をハンドラに渡して読み込みを続ける。
+     * 改行文字の位置が不正な場合は、次の改行文字までを不正なレコードとし、その直後から読み込みを再開する。
+     * ハンドラが受け取る例外はスタックトレースを持たない。
+     *
+     * @param handler 不正なレコードを受け取るハンドラ。{@code null}の場合は不正なレコードで例外を送出する
+     * @return 新しい{@link FixedLengthDataBindConfig}
+     */
+    public FixedLengthDataBindConfig withInvalidRecordHandler(final InvalidRecordHandler handler) {
+        return new FixedLengthDataBindConfig(
+                length, charset, lineSeparator, fillChar, recordConfigs, multiLayoutConfig, readAheadBuffers,
+                handler);
+    }
 }
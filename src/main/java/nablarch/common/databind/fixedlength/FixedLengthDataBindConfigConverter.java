@@ -66,7 +66,8 @@ public class FixedLengthDataBindConfigConverter implements DataBindConfigConvert
                     field.getName(),
                     fieldAnnotation.offset(),
                     fieldAnnotation.length(),
-                    fieldConverter == null ? new DefaultConverter() : fieldConverter);
+                    fieldConverter == null ? new DefaultConverter() : fieldConverter,
+                    fieldAnnotation.cacheSize());
         }
     }
 
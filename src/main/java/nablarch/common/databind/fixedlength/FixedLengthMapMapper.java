@@ -4,6 +4,7 @@ import java.io.InputStream;
 import java.util.Map;
 
 import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ReadPosition;
 import nablarch.common.databind.fixedlength.FixedLengthReader.ReadRecord;
 import nablarch.core.util.FileUtil;
 
@@ -24,7 +25,22 @@ public class FixedLengthMapMapper implements ObjectMapper<Map<String, ?>> {
      * @param stream 固定長データ
      */
     public FixedLengthMapMapper(final FixedLengthDataBindConfig config, final InputStream stream) {
-        reader = new FixedLengthReader(stream, config);
+        this(config, stream, ReadPosition.START);
+    }
+
+    /**
+     * 指定された読み込み位置から読み込みを再開する、固定長をMapにマッピングするクラスを構築する。
+     * <p/>
+     * 入力ストリームは、読み込み位置が指すレコードの先頭から始まっていること。
+     *
+     * @param config 固定長の設定情報
+     * @param stream 固定長データ
+     * @param position 読み込みを再開する位置
+     * @see #getPosition()
+     */
+    public FixedLengthMapMapper(final FixedLengthDataBindConfig config, final InputStream stream,
+            final ReadPosition position) {
+        reader = new FixedLengthReader(stream, config, position);
     }
 
     @Override
@@ -38,6 +54,19 @@ public class FixedLengthMapMapper implements ObjectMapper<Map<String, ?>> {
         return record == null ? null : record.getData();
     }
 
+    /**
+     * 次に読み込むレコードの読み込み位置を返す。
+     * <p/>
+     * 返却した読み込み位置を保存しておくことで、処理を中断した場合に、
+     * {@link nablarch.common.databind.ObjectMapperFactory#create(Class, java.nio.file.Path, ReadPosition)}
+     * を使用して次のレコードから読み込みを再開できる。
+     *
+     * @return 次に読み込むレコードの読み込み位置
+     */
+    public ReadPosition getPosition() {
+        return reader.getPosition();
+    }
+
     @Override
     public void close() {
         FileUtil.closeQuietly(reader);
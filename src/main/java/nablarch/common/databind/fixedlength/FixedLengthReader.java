@@ -8,10 +8,15 @@ import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
 import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.InvalidRecordHandler;
+import nablarch.common.databind.ReadAheadInputStream;
+import nablarch.common.databind.ReadPosition;
+import nablarch.common.databind.ValueCache;
 import nablarch.core.util.StringUtil;
 
 /**
@@ -21,6 +26,9 @@ import nablarch.core.util.StringUtil;
  */
 public class FixedLengthReader implements Closeable {
 
+    /** 先読みする場合のバッファ1つあたりのサイズの目安(バイト) */
+    private static final int READ_AHEAD_BUFFER_SIZE = 64 * 1024;
+
     /** 入力元 */
     private final ReadableByteChannel readableChannel;
 
@@ -30,6 +38,18 @@ public class FixedLengthReader implements Closeable {
     /** レコード番号 */
     private Long lineNumber = 0L;
 
+    /** 次に読み込むレコードの開始位置(バイト) */
+    private long offset;
+
+    /** フィールドごとの変換後の値のキャッシュ */
+    private final Map<FieldConfig, ValueCache<Object>> valueCaches = new IdentityHashMap<FieldConfig, ValueCache<Object>>();
+
+    /** 不正なレコードを受け取るハンドラ(不正なレコードで例外を送出する場合は{@code null}) */
+    private final InvalidRecordHandler invalidRecordHandler;
+
+    /** 不正なレコードの終端を探す際に読み込み過ぎた、次のレコード以降のバイト列(存在しない場合は{@code null}) */
+    private ByteBuffer unread;
+
     /**
      * 固定長のリーダーを構築する。
      *
@@ -37,81 +57,305 @@ public class FixedLengthReader implements Closeable {
      * @param config 固定長の設定情報
      */
     public FixedLengthReader(final InputStream inputStream, final FixedLengthDataBindConfig config) {
-        readableChannel = Channels.newChannel(inputStream);
+        this(inputStream, config, ReadPosition.START);
+    }
+
+    /**
+     * 指定された読み込み位置から読み込みを再開する固定長のリーダーを構築する。
+     * <p/>
+     * 入力ストリームは、読み込み位置が指すレコードの先頭から始まっていること。
+     *
+     * @param inputStream 読み取る対象
+     * @param config 固定長の設定情報
+     * @param position 読み込みを再開する位置
+     */
+    public FixedLengthReader(final InputStream inputStream, final FixedLengthDataBindConfig config,
+            final ReadPosition position) {
+        if (config.getReadAheadBuffers() > 0) {
+            // 複数のレコードをまとめて先読みする
+            final int recordLength = config.getLength()
+                    + (StringUtil.isNullOrEmpty(config.getLineSeparator()) ? 0 : config.getLineSeparator().length());
+            final int recordsPerBuffer = Math.max(1, READ_AHEAD_BUFFER_SIZE / recordLength);
+            readableChannel = Channels.newChannel(new ReadAheadInputStream(
+                    inputStream, config.getReadAheadBuffers(), recordLength * recordsPerBuffer));
+        } else {
+            readableChannel = Channels.newChannel(inputStream);
+        }
         this.config = config;
+        invalidRecordHandler = config.getInvalidRecordHandler();
+        lineNumber = position.getNextLineNumber() - 1;
+        offset = position.getOffset();
+    }
+
+    /**
+     * 次に読み込むレコードの読み込み位置を返す。
+     * <p/>
+     * レコード長が固定のため、読み込んだレコード数から位置を求める。
+     *
+     * @return 次に読み込むレコードの読み込み位置
+     */
+    public ReadPosition getPosition() {
+        return new ReadPosition(offset, lineNumber + 1);
     }
 
     /**
      * レコードをリードする。
+     * <p/>
+     * 不正なレコードを受け取るハンドラが設定されている場合、不正なレコードはハンドラに渡して読み飛ばす。
      *
      * @return レコード
      */
     public ReadRecord readRecord() {
-        final ByteBuffer buffer = ByteBuffer.allocate(config.getLength());
         try {
-            lineNumber++;
-            final int readLength = readableChannel.read(buffer);
-            if (readLength < 0) {
-                return null;
-            }
-            if (readLength != config.getLength()) {
-                throw new InvalidDataFormatException("last record is short.", lineNumber);
+            while (true) {
+                final ByteBuffer buffer = ByteBuffer.allocate(config.getLength());
+                lineNumber++;
+                final int readLength = readFully(buffer);
+                if (readLength < 0) {
+                    // 終端に達した場合は、レコード番号を進めない
+                    lineNumber--;
+                    return null;
+                }
+                if (readLength != config.getLength()) {
+                    handleInvalidRecord(Arrays.copyOf(buffer.array(), readLength), "last record is short.");
+                    offset += readLength;
+                    continue;
+                }
+                offset += readLength;
+
+                if (!skipLineSeparator(buffer.array())) {
+                    continue;
+                }
+                return toReadRecord(buffer.array());
             }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-            skipLineSeparator();
+    /**
+     * レコードのバイト列を、フィールドごとの値に変換する。
+     *
+     * @param record レコードのバイト列
+     * @return レコード
+     */
+    private ReadRecord toReadRecord(final byte[] record) {
+        final Map<String, Object> map = new HashMap<String, Object>();
 
-            final Map<String, Object> map = new HashMap<String, Object>();
+        final List<FieldConfig> fieldConfigList;
+        if (config.isMultiLayout()) {
+            final MultiLayoutConfig multiLayoutConfig = config.getMultiLayoutConfig();
+            final MultiLayoutConfig.RecordName recordName = multiLayoutConfig.getRecordIdentifier().identifyRecordName(record);
+            map.put("recordName", recordName);
+            fieldConfigList = config.getRecordConfig(recordName.getRecordName()).getFieldConfigList();
 
-            final List<FieldConfig> fieldConfigList;
-            if (config.isMultiLayout()) {
-                final MultiLayoutConfig multiLayoutConfig = config.getMultiLayoutConfig();
-                final MultiLayoutConfig.RecordName recordName = multiLayoutConfig.getRecordIdentifier().identifyRecordName(buffer.array());
-                map.put("recordName", recordName);
-                fieldConfigList = config.getRecordConfig(recordName.getRecordName()).getFieldConfigList();
+            final Map<String, Object> fields = new HashMap<String, Object>();
+            for (final FieldConfig fieldConfig : fieldConfigList) {
+                fields.put(fieldConfig.getName(), readValue(record, config, fieldConfig));
+            }
+            map.put(recordName.getRecordName(), fields);
+        } else {
+            fieldConfigList = config.getRecordConfig(RecordConfig.SINGLE_LAYOUT_RECORD_NAME).getFieldConfigList();
+            for (final FieldConfig fieldConfig : fieldConfigList) {
+                map.put(fieldConfig.getName(), readValue(record, config, fieldConfig));
+            }
+        }
+        return new ReadRecord(map, lineNumber);
+    }
 
-                final Map<String, Object> fields = new HashMap<String, Object>();
-                for (final FieldConfig fieldConfig : fieldConfigList) {
-                    fields.put(fieldConfig.getName(), readValue(buffer.array(), config, fieldConfig));
-                }
-                map.put(recordName.getRecordName(), fields);
-            } else {
-                fieldConfigList = config.getRecordConfig(RecordConfig.SINGLE_LAYOUT_RECORD_NAME).getFieldConfigList();
-                for (final FieldConfig fieldConfig : fieldConfigList) {
-                    map.put(fieldConfig.getName(), readValue(buffer.array(), config, fieldConfig));
-                }
+    /**
+     * 不正なレコードをハンドラに渡す。
+     * <p/>
+     * ハンドラが設定されていない場合は例外を送出する。
+     * ハンドラに渡す例外は、生成のコストを抑えるためスタックトレースを記録しない。
+     *
+     * @param record 不正なレコードのバイト列
+     * @param message 不正の理由
+     */
+    private void handleInvalidRecord(final byte[] record, final String message) {
+        if (invalidRecordHandler == null) {
+            throw new InvalidDataFormatException(message, lineNumber);
+        }
+        invalidRecordHandler.handle(new String(record, config.getCharset()),
+                new InvalidDataFormatException(message, lineNumber, false));
+    }
+
+    /**
+     * バッファが一杯になるか入力の終端に達するまで読み込む。
+     * <p/>
+     * 入力によっては1回の読み込みでバッファが一杯にならないため、繰り返し読み込む。
+     *
+     * @param buffer バッファ
+     * @return 読み込んだバイト数。読み込む前に入力の終端に達していた場合は{@code -1}
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private int readFully(final ByteBuffer buffer) throws IOException {
+        int total = 0;
+        if (unread != null) {
+            // 読み込み過ぎたバイト列を先に読み込む
+            final ByteBuffer src = unread.duplicate();
+            src.limit(src.position() + Math.min(src.remaining(), buffer.remaining()));
+            total = src.remaining();
+            buffer.put(src);
+            unread.position(src.position());
+            if (!unread.hasRemaining()) {
+                unread = null;
             }
-            return new ReadRecord(map, lineNumber);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
+        while (buffer.hasRemaining()) {
+            final int read = readableChannel.read(buffer);
+            if (read < 0) {
+                return total == 0 ? -1 : total;
+            }
+            total += read;
+        }
+        return total;
     }
 
     /**
      * 改行文字を読み飛ばす。
+     * <p/>
+     * 改行文字が不正な場合、ハンドラが設定されていれば{@link #recover(byte[], byte[], int)}で次のレコードの先頭に移動する。
      *
+     * @param record 読み込んだレコードのバイト列
+     * @return 改行文字を読み飛ばした場合は{@code true}、不正なレコードとして読み飛ばした場合は{@code false}
      * @throws IOException 読み飛ばす処理に失敗した場合
      */
-    private void skipLineSeparator() throws IOException {
+    private boolean skipLineSeparator(final byte[] record) throws IOException {
         if (StringUtil.isNullOrEmpty(config.getLineSeparator())) {
-            return;
+            return true;
         }
         final int length = config.getLineSeparator()
                                  .length();
 
         final ByteBuffer buffer = ByteBuffer.allocate(length);
-        final int readLength = readableChannel.read(buffer);
+        final int readLength = readFully(buffer);
 
         if (readLength == -1) {
+            return true;
+        } else if (readLength != length
+                || !new String(buffer.array(), config.getCharset()).equals(config.getLineSeparator())) {
+            if (invalidRecordHandler == null) {
+                throw new InvalidDataFormatException("line separator is invalid.", lineNumber);
+            }
+            recover(record, buffer.array(), readLength);
+            return false;
+        }
+        offset += readLength;
+        return true;
+    }
+
+    /**
+     * 改行文字の位置が不正なレコードを読み飛ばし、次のレコードの先頭に移動する。
+     * <p/>
+     * 読み込んだレコードと改行文字の位置のバイト列、それ以降の入力から最初の改行文字を探し、
+     * 改行文字までを不正なレコードとしてハンドラに渡す。
+     * 改行文字より後ろまで読み込んでいた場合は、次のレコード以降のバイト列として読み戻す。
+     *
+     * @param record 読み込んだレコードのバイト列
+     * @param separator 改行文字の位置から読み込んだバイト列
+     * @param separatorLength 改行文字の位置から読み込んだバイト数
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private void recover(final byte[] record, final byte[] separator, final int separatorLength) throws IOException {
+        final byte[] lineSeparator = config.getLineSeparator().getBytes(config.getCharset());
+        byte[] data = Arrays.copyOf(record, record.length + separatorLength);
+        System.arraycopy(separator, 0, data, record.length, separatorLength);
+        int length = data.length;
+
+        int index = indexOf(data, length, lineSeparator);
+        if (index >= 0) {
+            pushBack(data, index + lineSeparator.length, length - index - lineSeparator.length);
+            length = index + lineSeparator.length;
+        } else {
+            // 改行文字が見つかるまで1バイトずつ読み込む
+            final ByteBuffer one = ByteBuffer.allocate(1);
+            while (!endsWith(data, length, lineSeparator)) {
+                one.clear();
+                if (readFully(one) < 0) {
+                    break;
+                }
+                if (length == data.length) {
+                    data = Arrays.copyOf(data, length * 2);
+                }
+                data[length++] = one.get(0);
+            }
+            index = endsWith(data, length, lineSeparator) ? length - lineSeparator.length : length;
+        }
+        offset += length - record.length;
+        handleInvalidRecord(Arrays.copyOf(data, index), "line separator is invalid.");
+    }
+
+    /**
+     * バイト列を、次に読み込むバイト列として読み戻す。
+     *
+     * @param src 読み戻すバイト列を含む配列
+     * @param offset 開始位置
+     * @param length バイト数
+     */
+    private void pushBack(final byte[] src, final int offset, final int length) {
+        if (length == 0) {
             return;
-        } else if (readLength != length) {
-            throw new InvalidDataFormatException("line separator is invalid.", lineNumber);
-        } else if (!new String(buffer.array(), config.getCharset()).equals(config.getLineSeparator())) {
-            throw new InvalidDataFormatException("line separator is invalid.", lineNumber);
         }
+        final int remaining = unread == null ? 0 : unread.remaining();
+        final byte[] bytes = Arrays.copyOfRange(src, offset, offset + length + remaining);
+        if (remaining > 0) {
+            unread.get(bytes, length, remaining);
+        }
+        unread = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * バイト列から、指定されたバイト列が最初に現れる位置を探す。
+     *
+     * @param data 探す対象のバイト列
+     * @param length 探す対象のバイト数
+     * @param target 探すバイト列
+     * @return 最初に現れる位置。現れない場合は{@code -1}
+     */
+    private static int indexOf(final byte[] data, final int length, final byte[] target) {
+        for (int i = 0; i <= length - target.length; i++) {
+            if (startsWith(data, i, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * バイト列が、指定されたバイト列で終わるか否かを判定する。
+     *
+     * @param data 判定する対象のバイト列
+     * @param length 判定する対象のバイト数
+     * @param target 末尾のバイト列
+     * @return 指定されたバイト列で終わる場合は{@code true}
+     */
+    private static boolean endsWith(final byte[] data, final int length, final byte[] target) {
+        return length >= target.length && startsWith(data, length - target.length, target);
+    }
+
+    /**
+     * バイト列の指定された位置が、指定されたバイト列で始まるか否かを判定する。
+     *
+     * @param data 判定する対象のバイト列
+     * @param offset 判定する位置
+     * @param target 先頭のバイト列
+     * @return 指定されたバイト列で始まる場合は{@code true}
+     */
+    private static boolean startsWith(final byte[] data, final int offset, final byte[] target) {
+        for (int i = 0; i < target.length; i++) {
+            if (data[offset + i] != target[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
      * バイト配列から自身のフィールド部分を抜き出し返却する。
+     * <p/>
+     * 変換後の値をキャッシュするフィールド({@link FieldConfig#getCacheSize()}が1以上)の場合、
+     * 同じバイト列に対してはキャッシュした値を返す。
      *
      * @param record レコード情報
      * @param fixedLengthDataBindConfig 固定長の設定値
@@ -121,8 +365,38 @@ public class FixedLengthReader implements Closeable {
      */
     public Object readValue(final byte[] record, final FixedLengthDataBindConfig fixedLengthDataBindConfig, final FieldConfig fieldConfig) {
         final int zeroOffset = fieldConfig.getOffset() - 1;
-        final byte[] fieldValue = Arrays.copyOfRange(record, zeroOffset, zeroOffset + fieldConfig.getLength());
-        return fieldConfig.getFieldConverter().convertOfRead(fixedLengthDataBindConfig, fieldConfig, fieldValue);
+        final int length = fieldConfig.getLength();
+        final ValueCache<Object> cache = getValueCache(fieldConfig);
+        if (cache != null) {
+            final Object cached = cache.get(record, zeroOffset, length);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final byte[] fieldValue = Arrays.copyOfRange(record, zeroOffset, zeroOffset + length);
+        final Object value = fieldConfig.getFieldConverter().convertOfRead(fixedLengthDataBindConfig, fieldConfig, fieldValue);
+        if (cache != null && value != null) {
+            cache.put(record, zeroOffset, length, value);
+        }
+        return value;
+    }
+
+    /**
+     * フィールドの変換後の値のキャッシュを取得する。
+     *
+     * @param fieldConfig フィールドの設定値
+     * @return キャッシュ。値をキャッシュしないフィールドの場合は{@code null}
+     */
+    private ValueCache<Object> getValueCache(final FieldConfig fieldConfig) {
+        if (fieldConfig.getCacheSize() <= 0) {
+            return null;
+        }
+        ValueCache<Object> cache = valueCaches.get(fieldConfig);
+        if (cache == null) {
+            cache = new ValueCache<Object>(fieldConfig.getCacheSize());
+            valueCaches.put(fieldConfig, cache);
+        }
+        return cache;
     }
 
     @Override
@@ -0,0 +1,152 @@
+package nablarch.common.databind.fixedlength;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import nablarch.common.databind.FileSpliteratorSupport;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.RangeInputStream;
+import nablarch.common.databind.ReadPosition;
+import nablarch.core.util.FileUtil;
+import nablarch.core.util.StringUtil;
+
+/**
+ * 固定長ファイルをレコードの境界で分割しながら読み込む{@link java.util.Spliterator}。
+ * <p/>
+ * レコード長(改行を含む)が固定のため、レコードの先頭を境界として、レコード数で二等分しながら分割する。
+ *
+ * @param <T> 読み込むオブジェクトの型
+ * @author Naoki Yamamoto
+ */
+public final class FixedLengthSpliterator<T> extends FileSpliteratorSupport<T> {
+
+    /** 読み込むオブジェクトのクラス */
+    private final Class<T> clazz;
+
+    /** 固定長の設定情報 */
+    private final FixedLengthDataBindConfig config;
+
+    /** ファイルのチャネル */
+    private final FileChannel channel;
+
+    /** ファイルサイズ */
+    private final long size;
+
+    /** 改行を含むレコード長(バイト) */
+    private final long recordLength;
+
+    /** 境界1つあたりのレコード数 */
+    private final long stride;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param clazz 読み込むオブジェクトのクラス
+     * @param config 固定長の設定情報
+     * @param channel ファイルのチャネル
+     * @param size ファイルサイズ
+     * @param stride 境界1つあたりのレコード数
+     * @param from 範囲の先頭の境界の番号
+     * @param to 範囲の終端の境界の番号
+     */
+    private FixedLengthSpliterator(final Class<T> clazz, final FixedLengthDataBindConfig config,
+            final FileChannel channel, final long size, final long stride, final int from, final int to) {
+        super(from, to);
+        this.clazz = clazz;
+        this.config = config;
+        this.channel = channel;
+        this.size = size;
+        this.stride = stride;
+        recordLength = getRecordLength(config);
+    }
+
+    /**
+     * 固定長ファイルを読み込む{@link Stream}を生成する。
+     * <p/>
+     * {@link Stream#close()}で、読み込み中の範囲の{@link ObjectMapper}とファイルを閉じる。
+     *
+     * @param clazz 読み込むオブジェクトのクラス(Beanのクラスまたは{@link Map})
+     * @param config 固定長の設定情報
+     * @param path 読み込むファイル
+     * @param <T> 読み込むオブジェクトの型
+     * @return 固定長ファイルを読み込む{@link Stream}
+     */
+    public static <T> Stream<T> stream(final Class<T> clazz, final FixedLengthDataBindConfig config,
+            final Path path) {
+        final FileChannel channel;
+        final long size;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read file.", e);
+        }
+        try {
+            size = channel.size();
+        } catch (IOException e) {
+            FileUtil.closeQuietly(channel);
+            throw new RuntimeException("failed to read file.", e);
+        }
+        // 最終レコードの改行は省略可能なため、端数のバイトも1レコードとして数える
+        final long recordLength = getRecordLength(config);
+        final long count = (size + recordLength - 1) / recordLength;
+        // 境界の番号がintに収まるよう、レコード数が多い場合は複数のレコードを1つの単位とする
+        final long stride = Math.max(1L, (count + Integer.MAX_VALUE - 1) / Integer.MAX_VALUE);
+        final int to = (int) ((count + stride - 1) / stride);
+        final FixedLengthSpliterator<T> spliterator =
+                new FixedLengthSpliterator<T>(clazz, config, channel, size, stride, 0, to);
+        return StreamSupport.stream(spliterator, false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            spliterator.closeMappers();
+                        } finally {
+                            FileUtil.closeQuietly(channel);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * 改行を含むレコード長を返す。
+     *
+     * @param config 固定長の設定情報
+     * @return 改行を含むレコード長(バイト)
+     */
+    private static long getRecordLength(final FixedLengthDataBindConfig config) {
+        final String lineSeparator = config.getLineSeparator();
+        return config.getLength() + (StringUtil.isNullOrEmpty(lineSeparator) ? 0 : lineSeparator.length());
+    }
+
+    @Override
+    protected long getOffset(final int index) {
+        return Math.min(index * stride * recordLength, size);
+    }
+
+    @Override
+    protected long getLineNumber(final int index) {
+        return index * stride + 1L;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected ObjectMapper<T> createMapper(final long start, final long end, final long firstLineNumber) {
+        final InputStream stream = new RangeInputStream(channel, start, end);
+        final ReadPosition position = new ReadPosition(start, firstLineNumber);
+        if (Map.class.isAssignableFrom(clazz)) {
+            return (ObjectMapper<T>) new FixedLengthMapMapper(config, stream, position);
+        }
+        return new FixedLengthBeanMapper<T>(clazz, config, stream, position);
+    }
+
+    @Override
+    protected FixedLengthSpliterator<T> newSpliterator(final int from, final int to) {
+        return new FixedLengthSpliterator<T>(clazz, config, channel, size, stride, from, to);
+    }
+}
@@ -65,6 +65,24 @@ public abstract class LayoutBuilderSupport {
     @Published
     public abstract LayoutBuilderSupport field(final String name, final int offset, final int length, final FieldConvert.FieldConverter converter);
 
+    /**
+     * 読み込み時に変換後の値をキャッシュするフィールドを追加する。
+     * <p/>
+     * 区分値やコード値のように取り得る値が少ないフィールドに指定することで、変換とオブジェクトの生成を抑えることができる。
+     * キャッシュした値は複数のレコードで共有されるため、コンバータは不変なオブジェクトを返すこと。
+     *
+     * @param name フィールド名
+     * @param offset オフセット
+     * @param length 長さ
+     * @param converter フィールドコンバータ
+     * @param cacheSize 変換後の値をキャッシュする上限数(キャッシュしない場合は0)
+     * @return 本インスタンス
+     * @see FieldConfig#FieldConfig(String, int, int, FieldConvert.FieldConverter, int)
+     */
+    @Published
+    public abstract LayoutBuilderSupport field(final String name, final int offset, final int length,
+            final FieldConvert.FieldConverter converter, final int cacheSize);
+
     /**
      * 与えられた情報を元に{@link FixedLengthDataBindConfig}を生成して返す。
      *
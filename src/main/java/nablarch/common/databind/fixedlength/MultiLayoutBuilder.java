@@ -45,10 +45,17 @@ public class MultiLayoutBuilder extends LayoutBuilderSupport {
     @Override
     @Published
     public MultiLayoutBuilder field(final String name, final int offset, final int length, final FieldConvert.FieldConverter converter) {
+        return field(name, offset, length, converter, 0);
+    }
+
+    @Override
+    @Published
+    public MultiLayoutBuilder field(final String name, final int offset, final int length,
+            final FieldConvert.FieldConverter converter, final int cacheSize) {
         if (recordName == null) {
             throw new IllegalStateException("must be calling record method before calling field method.");
         }
-        fieldConfigMap.get(recordName).add(new FieldConfig(name, offset, length, converter));
+        fieldConfigMap.get(recordName).add(new FieldConfig(name, offset, length, converter, cacheSize));
         return this;
     }
 
@@ -39,7 +39,14 @@ public class SingleLayoutBuilder extends LayoutBuilderSupport {
     @Override
     @Published
     public SingleLayoutBuilder field(final String name, final int offset, final int length, final FieldConvert.FieldConverter converter) {
-        fieldConfigList.add(new FieldConfig(name, offset, length, converter));
+        return field(name, offset, length, converter, 0);
+    }
+
+    @Override
+    @Published
+    public SingleLayoutBuilder field(final String name, final int offset, final int length,
+            final FieldConvert.FieldConverter converter, final int cacheSize) {
+        fieldConfigList.add(new FieldConfig(name, offset, length, converter, cacheSize));
         return this;
     }
 
@@ -0,0 +1,292 @@
+package nablarch.common.databind.processor;
+
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import nablarch.common.databind.GeneratedBeanAccessor;
+
+/**
+ * {@link nablarch.common.databind.csv.Csv}または{@link nablarch.common.databind.csv.CsvFormat}が設定されたBeanに対して、
+ * {@link GeneratedBeanAccessor}の実装クラスを生成するアノテーションプロセッサ。
+ * <p/>
+ * 生成したクラスは、{@link nablarch.common.databind.BeanBinder}がBeanの生成とプロパティへのアクセスに使用する。
+ * これにより、実行時にセッタやゲッタを呼び出す関数を生成せずに、Beanのメソッドを直接呼び出す。
+ * <p/>
+ * 本プロセッサは自動では実行されないため、使用する場合はコンパイラのオプションで指定すること。
+ * Mavenの場合は、maven-compiler-pluginの{@code annotationProcessors}に本クラスを指定する。
+ * <p/>
+ * publicなメソッドで、同じ名前のメソッドが1つだけのセッタとゲッタを生成の対象とする。
+ * 対象外のプロパティは、これまで通り{@link nablarch.common.databind.BeanBinder}が実行時にアクセスする。
+ *
+ * @author Naoki Yamamoto
+ */
+@SupportedAnnotationTypes({"nablarch.common.databind.csv.Csv", "nablarch.common.databind.csv.CsvFormat"})
+public class BeanAccessorProcessor extends AbstractProcessor {
+
+    /** 生成済みのBeanのクラス名 */
+    private final Set<String> processed = new HashSet<String>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final TypeElement annotation : annotations) {
+            for (final TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                if (isTarget(type) && processed.add(type.getQualifiedName().toString())) {
+                    generate(type);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 生成の対象となるクラスか否かを判定する。
+     * <p/>
+     * 抽象クラスや内部クラス、同じパッケージからアクセスできないクラスは対象としない。
+     *
+     * @param type クラス
+     * @return 対象の場合は{@code true}
+     */
+    private static boolean isTarget(final TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (e.getKind() == ElementKind.CLASS && e.getEnclosingElement() instanceof TypeElement
+                    && !e.getModifiers().contains(Modifier.STATIC)) {
+                // 内部クラスは外側のインスタンスなしに生成できない
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@link GeneratedBeanAccessor}の実装クラスを生成する。
+     *
+     * @param type Beanのクラス
+     */
+    private void generate(final TypeElement type) {
+        final String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        final String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                + GeneratedBeanAccessor.SUFFIX;
+        final String beanName = type.getQualifiedName().toString();
+
+        final Map<String, ExecutableElement> setters = new LinkedHashMap<String, ExecutableElement>();
+        final Map<String, ExecutableElement> getters = new LinkedHashMap<String, ExecutableElement>();
+        collectAccessors(type, setters, getters);
+
+        try {
+            final PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                    .createSourceFile(packageName.isEmpty() ? simpleName : packageName + '.' + simpleName, type)
+                    .openWriter());
+            try {
+                if (!packageName.isEmpty()) {
+                    out.println("package " + packageName + ';');
+                    out.println();
+                }
+                out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+                out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+                out.println("public final class " + simpleName
+                        + " implements " + GeneratedBeanAccessor.class.getName() + '<' + beanName + "> {");
+                out.println();
+                out.println("    private static final String[] WRITABLE = " + toArrayLiteral(setters.keySet()) + ';');
+                out.println();
+                out.println("    private static final String[] READABLE = " + toArrayLiteral(getters.keySet()) + ';');
+                out.println();
+                out.println("    @Override");
+                out.println("    public " + beanName + " newInstance() {");
+                if (hasDefaultConstructor(type)) {
+                    out.println("        return new " + beanName + "();");
+                } else {
+                    out.println("        throw new UnsupportedOperationException(\"default constructor is not accessible."
+                            + " class = [" + beanName + "]\");");
+                }
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public String[] getWritablePropertyNames() {");
+                out.println("        return WRITABLE.clone();");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public String[] getReadablePropertyNames() {");
+                out.println("        return READABLE.clone();");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public void set(final " + beanName + " bean, final int index, final Object value) {");
+                out.println("        switch (index) {");
+                int index = 0;
+                for (final ExecutableElement setter : setters.values()) {
+                    out.println("            case " + index++ + ':');
+                    out.println("                bean." + setter.getSimpleName() + "(("
+                            + toReferenceType(asMemberOf(type, setter).getParameterTypes().get(0)) + ") value);");
+                    out.println("                return;");
+                }
+                out.println("            default:");
+                out.println("                throw new IndexOutOfBoundsException(\"index = [\" + index + ']');");
+                out.println("        }");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public Object get(final " + beanName + " bean, final int index) {");
+                out.println("        switch (index) {");
+                index = 0;
+                for (final ExecutableElement getter : getters.values()) {
+                    out.println("            case " + index++ + ':');
+                    out.println("                return bean." + getter.getSimpleName() + "();");
+                }
+                out.println("            default:");
+                out.println("                throw new IndexOutOfBoundsException(\"index = [\" + index + ']');");
+                out.println("        }");
+                out.println("    }");
+                out.println("}");
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "failed to generate bean accessor. class = [" + beanName + "], cause = [" + e + ']', type);
+        }
+    }
+
+    /**
+     * 生成の対象となるセッタとゲッタを、プロパティ名ごとに収集する。
+     * <p/>
+     * 同じ名前のメソッドが複数存在するプロパティは、実行時と異なるメソッドを選択しないよう対象としない。
+     *
+     * @param type Beanのクラス
+     * @param setters セッタを格納するマップ
+     * @param getters ゲッタを格納するマップ
+     */
+    private void collectAccessors(final TypeElement type, final Map<String, ExecutableElement> setters,
+            final Map<String, ExecutableElement> getters) {
+        final Map<String, List<ExecutableElement>> methods = new LinkedHashMap<String, List<ExecutableElement>>();
+        for (final ExecutableElement method : ElementFilter.methodsIn(
+                processingEnv.getElementUtils().getAllMembers(type))) {
+            final Set<Modifier> modifiers = method.getModifiers();
+            if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)) {
+                continue;
+            }
+            final String name = method.getSimpleName().toString();
+            List<ExecutableElement> overloads = methods.get(name);
+            if (overloads == null) {
+                overloads = new ArrayList<ExecutableElement>();
+                methods.put(name, overloads);
+            }
+            overloads.add(method);
+        }
+        for (final List<ExecutableElement> overloads : methods.values()) {
+            if (overloads.size() != 1) {
+                continue;
+            }
+            final ExecutableElement method = overloads.get(0);
+            final String name = method.getSimpleName().toString();
+            final TypeMirror returnType = asMemberOf(type, method).getReturnType();
+            final int parameterCount = method.getParameters().size();
+            if (name.startsWith("set") && name.length() > 3 && parameterCount == 1
+                    && returnType.getKind() == TypeKind.VOID) {
+                setters.put(Introspector.decapitalize(name.substring(3)), method);
+            } else if (name.startsWith("get") && name.length() > 3 && parameterCount == 0
+                    && returnType.getKind() != TypeKind.VOID && !name.equals("getClass")) {
+                getters.put(Introspector.decapitalize(name.substring(3)), method);
+            } else if (name.startsWith("is") && name.length() > 2 && parameterCount == 0
+                    && returnType.getKind() == TypeKind.BOOLEAN) {
+                getters.put(Introspector.decapitalize(name.substring(2)), method);
+            }
+        }
+    }
+
+    /**
+     * Beanのメンバとしてのメソッドの型を取得する。
+     * <p/>
+     * 総称型のクラスから継承したメソッドの型変数は、Beanのクラスで指定された型に置き換える。
+     *
+     * @param type Beanのクラス
+     * @param method メソッド
+     * @return メソッドの型
+     */
+    private ExecutableType asMemberOf(final TypeElement type, final ExecutableElement method) {
+        return (ExecutableType) processingEnv.getTypeUtils().asMemberOf((DeclaredType) type.asType(), method);
+    }
+
+    /**
+     * 同じパッケージから呼び出せるデフォルトコンストラクタを持つか否かを判定する。
+     *
+     * @param type Beanのクラス
+     * @return 持つ場合は{@code true}
+     */
+    private static boolean hasDefaultConstructor(final TypeElement type) {
+        for (final ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * キャストに使用する参照型の名前を取得する。
+     * <p/>
+     * プリミティブ型はラッパー型に、総称型はイレイジャに変換する。
+     *
+     * @param type 型
+     * @return 参照型の名前
+     */
+    private String toReferenceType(final TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    /**
+     * 文字列の配列のリテラルを生成する。
+     *
+     * @param values 値
+     * @return 配列のリテラル
+     */
+    private static String toArrayLiteral(final Set<String> values) {
+        final StringBuilder literal = new StringBuilder("{");
+        for (final String value : values) {
+            if (literal.length() > 1) {
+                literal.append(", ");
+            }
+            literal.append('"').append(value).append('"');
+        }
+        return literal.append('}').toString();
+    }
+}
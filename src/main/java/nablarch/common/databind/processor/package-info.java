@@ -0,0 +1,4 @@
+/**
+ * データバインドで使用するクラスをコンパイル時に生成する機能を提供する
+ */
+package nablarch.common.databind.processor;
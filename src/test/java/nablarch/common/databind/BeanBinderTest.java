@@ -0,0 +1,233 @@
+package nablarch.common.databind;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.beans.ConstructorProperties;
+import java.math.BigDecimal;
+
+import nablarch.core.beans.BeansException;
+
+import org.junit.Test;
+
+/**
+ * {@link BeanBinder}のテスト。
+ */
+public class BeanBinderTest {
+
+    /**
+     * クラスごとに同じインスタンスが返されること。
+     */
+    @Test
+    public void get() throws Exception {
+        assertThat(BeanBinder.get(Item.class), is(sameInstance(BeanBinder.get(Item.class))));
+        assertThat(BeanBinder.get(Item.class).getAccessor("count"),
+                is(sameInstance(BeanBinder.get(Item.class).getAccessor("count"))));
+    }
+
+    /**
+     * プロパティの型に変換して値を設定し、設定した値を取得できること。
+     */
+    @Test
+    public void setAndGet() throws Exception {
+        final BeanBinder<Item> sut = BeanBinder.get(Item.class);
+        final BeanBinder.Accessor[] accessors = sut.getAccessors(new String[] {"count", "price", "name"});
+        final Item item = sut.newInstance();
+        accessors[0].set(item, "10");
+        accessors[1].set(item, "1.5");
+        accessors[2].set(item, "りんご");
+
+        assertThat(item.getCount(), is(10));
+        assertThat(item.getPrice(), is(new BigDecimal("1.5")));
+        assertThat(item.getName(), is("りんご"));
+        assertThat(accessors[0].get(item), is((Object) 10));
+        assertThat(accessors[1].get(item), is((Object) new BigDecimal("1.5")));
+        assertThat(accessors[2].get(item), is((Object) "りんご"));
+        assertThat(accessors[0].getPropertyType(), is((Object) int.class));
+
+        accessors[1].setConverted(item, null);
+        assertThat(item.getPrice(), is(nullValue()));
+    }
+
+    /**
+     * 変換できない値やプリミティブ型へのnullを設定した場合、{@link BeansException}が送出されること。
+     */
+    @Test
+    public void set_invalidValue() throws Exception {
+        final BeanBinder<Item> sut = BeanBinder.get(Item.class);
+        final Item item = sut.newInstance();
+        try {
+            sut.getAccessor("count").set(item, "abc");
+            fail();
+        } catch (BeansException e) {
+            assertThat(e.getMessage(), is("An error occurred while writing to the property :count"));
+        }
+        try {
+            sut.getAccessor("count").set(item, null);
+            fail();
+        } catch (BeansException e) {
+            assertThat(e.getCause(), is(instanceOf(NullPointerException.class)));
+        }
+    }
+
+    /**
+     * publicでないクラスのプロパティは関数を生成せず、{@link nablarch.core.beans.BeanUtil}と同じ動作となること。
+     */
+    @Test
+    public void nonPublicClass() throws Exception {
+        final BeanBinder.Accessor sut = BeanBinder.get(Hidden.class).getAccessor("value");
+        assertThat(sut.getPropertyType(), is(nullValue()));
+        try {
+            sut.set(new Hidden(), "1");
+            fail();
+        } catch (BeansException e) {
+            assertThat(e.getMessage(), is("Failed to convert property. property name: value"));
+        }
+    }
+
+    /**
+     * デフォルトコンストラクタがない場合、{@link BeansException}が送出されること。
+     */
+    @Test(expected = BeansException.class)
+    public void newInstance_noDefaultConstructor() throws Exception {
+        BeanBinder.get(NoDefaultConstructor.class).newInstance();
+    }
+
+    /**
+     * レコードクラスは、標準コンストラクタに値を変換して渡して生成できること。
+     * 指定されなかったコンポーネントには初期値が渡されること。
+     */
+    @Test
+    public void creator_record() throws Exception {
+        final BeanBinder<ItemRecord> sut = BeanBinder.get(ItemRecord.class);
+        assertThat(sut.isConstructorBinding(), is(true));
+
+        final BeanBinder.Creator<ItemRecord> creator = sut.getCreator(new String[] {"name", "count"});
+        assertThat(creator.getPropertyType(1), is((Object) int.class));
+        assertThat(creator.newInstance(new Object[] {"りんご", "10"}),
+                is(new ItemRecord(10, null, "りんご")));
+        assertThat(sut.getCreator(new String[] {"price"}).newInstanceConverted(new Object[] {BigDecimal.ONE}),
+                is(new ItemRecord(0, BigDecimal.ONE, null)));
+
+        assertThat(sut.getAccessor("name").get(new ItemRecord(1, null, "みかん")), is((Object) "みかん"));
+    }
+
+    /**
+     * {@link ConstructorProperties}が設定されたコンストラクタで生成できること。
+     */
+    @Test
+    public void creator_constructorProperties() throws Exception {
+        final BeanBinder<ImmutableItem> sut = BeanBinder.get(ImmutableItem.class);
+        assertThat(sut.isConstructorBinding(), is(true));
+
+        final ImmutableItem item = sut.getCreator(new String[] {"count", "name"}).newInstance(new Object[] {"3", "ぶどう"});
+        assertThat(item.getCount(), is(3));
+        assertThat(item.getName(), is("ぶどう"));
+    }
+
+    /**
+     * コンストラクタバインディングで生成できない場合や、値の変換に失敗した場合は例外が送出されること。
+     */
+    @Test
+    public void creator_invalid() throws Exception {
+        assertThat(BeanBinder.get(Item.class).isConstructorBinding(), is(false));
+        try {
+            BeanBinder.get(Item.class).getCreator(new String[] {"count"});
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("constructor for binding is not found. class = [" + Item.class.getName() + ']'));
+        }
+        try {
+            BeanBinder.get(ItemRecord.class).getCreator(new String[] {"unknown"});
+            fail();
+        } catch (BeansException e) {
+            assertThat(e.getMessage(), is("constructor parameter not found. class = [" + ItemRecord.class.getName()
+                    + "], property name = [unknown]"));
+        }
+        try {
+            BeanBinder.get(ItemRecord.class).getCreator(new String[] {"count"}).newInstance(new Object[] {"abc"});
+            fail();
+        } catch (BeansException e) {
+            assertThat(e.getMessage(), is("An error occurred while writing to the property :count"));
+        }
+        try {
+            BeanBinder.get(ItemRecord.class).getCreator(new String[] {"count"}).newInstanceConverted(new Object[] {null});
+            fail();
+        } catch (BeansException e) {
+            assertThat(e.getCause(), is(instanceOf(NullPointerException.class)));
+        }
+    }
+
+    public static class Item {
+        private int count;
+        private BigDecimal price;
+        private String name;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public void setPrice(BigDecimal price) {
+            this.price = price;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    static class Hidden {
+        private Long value;
+
+        public Long getValue() {
+            return value;
+        }
+
+        public void setValue(Long value) {
+            this.value = value;
+        }
+    }
+
+    public record ItemRecord(int count, BigDecimal price, String name) {
+    }
+
+    public static class ImmutableItem {
+        private final int count;
+        private final String name;
+
+        @ConstructorProperties({"count", "name"})
+        public ImmutableItem(int count, String name) {
+            this.count = count;
+            this.name = name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class NoDefaultConstructor {
+        public NoDefaultConstructor(String value) {
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package nablarch.common.databind;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import nablarch.common.databind.csv.Csv;
+import nablarch.common.databind.csv.CsvDataBindConfig;
+import nablarch.common.databind.csv.CsvFormat;
+import nablarch.common.databind.csv.CsvRecord;
+import nablarch.common.databind.csv.CsvRecordFilter;
+import nablarch.common.databind.csv.Quoted;
+
+import org.junit.Test;
+
+/**
+ * {@link DataBindMetadata}のテスト。
+ */
+public class DataBindMetadataTest {
+
+    /**
+     * クラスごとに同じインスタンスが返され、取得した回数が計上されること。
+     */
+    @Test
+    public void get() throws Exception {
+        final long miss = DataBindMetadata.getMissCount();
+        final long hit = DataBindMetadata.getHitCount();
+
+        final DataBindMetadata sut = DataBindMetadata.get(Counted.class);
+        assertThat(DataBindMetadata.get(Counted.class), is(sameInstance(sut)));
+        assertThat(sut.getBeanClass(), is((Object) Counted.class));
+        assertThat(sut.getBinder(), is((Object) BeanBinder.get(Counted.class)));
+
+        assertThat(DataBindMetadata.getMissCount() - miss, is(1L));
+        assertThat(DataBindMetadata.getHitCount() - hit, is(1L));
+    }
+
+    /**
+     * 設定やプロパティの情報が解決されてキャッシュされること。
+     */
+    @Test
+    public void metadata() throws Exception {
+        final DataBindMetadata sut = DataBindMetadata.get(Person.class);
+
+        final DataBindConfig config = sut.getDataBindConfig();
+        assertThat(sut.getDataBindConfig(), is(sameInstance(config)));
+        assertThat(((CsvDataBindConfig) config).getQuotedColumnNames(), is(Arrays.asList("name")));
+        assertThat(sut.getCsvProperties(), is(new String[] {"age", "name"}));
+        assertThat(sut.getLineNumberProperty(), is("lineNumber"));
+        assertThat(sut.getQuotedProperties(), is(new String[] {"name"}));
+
+        assertThat(DataBindMetadata.get(Object.class).getLineNumberProperty(), is(nullValue()));
+    }
+
+    /**
+     * アノテーションからフィルタを生成する設定は、キャッシュせずに毎回生成されること。
+     */
+    @Test
+    public void notShareableConfig() throws Exception {
+        final DataBindMetadata sut = DataBindMetadata.get(Filtered.class);
+        assertThat(sut.getDataBindConfig(), is(not(sameInstance(sut.getDataBindConfig()))));
+    }
+
+    /**
+     * 設定が存在しない場合や正しくない場合は、例外が送出され、キャッシュされないこと。
+     */
+    @Test
+    public void invalid() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            try {
+                DataBindMetadata.get(Object.class).getDataBindConfig();
+                fail();
+            } catch (IllegalStateException e) {
+                assertThat(e.getMessage(), is("can not find config. class = [java.lang.Object]"));
+            }
+        }
+        try {
+            DataBindMetadata.get(DuplicateLineNumber.class).getLineNumberProperty();
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("line number column should be defined only one. class = ["
+                    + DuplicateLineNumber.class.getName() + "]"));
+        }
+    }
+
+    @Csv(type = Csv.CsvType.CUSTOM, properties = {"age", "name"}, headers = {"年齢", "氏名"})
+    @CsvFormat(fieldSeparator = ',', lineSeparator = "\r\n", quote = '"', ignoreEmptyLine = true,
+            requiredHeader = true, charset = "UTF-8", quoteMode = CsvDataBindConfig.QuoteMode.CUSTOM,
+            emptyToNull = true)
+    public static class Person {
+        private Integer age;
+        private String name;
+        private Long lineNumber;
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+
+        @Quoted
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = "name", headers = "氏名", recordFilter = SkipNothing.class)
+    public static class Filtered {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class SkipNothing implements CsvRecordFilter {
+        @Override
+        public boolean accept(final CsvRecord record) {
+            return true;
+        }
+    }
+
+    public static class Counted {
+    }
+
+    public static class DuplicateLineNumber {
+        @LineNumber
+        public long getFirst() {
+            return 0L;
+        }
+
+        @LineNumber
+        public long getSecond() {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package nablarch.common.databind;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * {@link ReadAheadInputStream}及び{@link ReadAheadReader}のテスト。
+ */
+public class ReadAheadInputStreamTest {
+
+    /**
+     * バッファ数やバッファサイズに関わらず、元の入力と同じデータが読み込めること。
+     */
+    @Test
+    public void read() throws Exception {
+        final byte[] data = new byte[10000];
+        new Random(1L).nextBytes(data);
+        for (int bufferCount = 1; bufferCount <= 3; bufferCount++) {
+            for (final int bufferSize : new int[] {1, 7, 4096, 20000}) {
+                final ReadAheadInputStream sut = new ReadAheadInputStream(
+                        new ByteArrayInputStream(data), bufferCount, bufferSize);
+                final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+                assertThat(sut.read(), is(data[0] & 0xFF));
+                actual.write(data[0]);
+                final byte[] b = new byte[333];
+                int read;
+                while ((read = sut.read(b, 0, b.length)) != -1) {
+                    assertThat("終端以外では指定した長さを読み込む", read == b.length || actual.size() + read == data.length, is(true));
+                    actual.write(b, 0, read);
+                }
+                assertThat(actual.toByteArray(), is(data));
+                assertThat("終端に達した後も-1を返す", sut.read(), is(-1));
+                sut.close();
+            }
+        }
+    }
+
+    /**
+     * 文字の入力を先読みできること。
+     */
+    @Test
+    public void readChars() throws Exception {
+        final StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            data.append("あいう").append(i);
+        }
+        final ReadAheadReader sut = new ReadAheadReader(new StringReader(data.toString()), 2, 100);
+        final StringBuilder actual = new StringBuilder();
+        final char[] c = new char[77];
+        int read;
+        while ((read = sut.read(c, 0, c.length)) != -1) {
+            actual.append(c, 0, read);
+        }
+        assertThat(actual.toString(), is(data.toString()));
+        sut.close();
+    }
+
+    /**
+     * 先読みで発生した例外が、読み込み時に送出されること。
+     */
+    @Test
+    public void readError() throws Exception {
+        final InputStream in = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (count++ < 10) {
+                    return 'a';
+                }
+                throw new IOException("read error.");
+            }
+        };
+        final ReadAheadInputStream sut = new ReadAheadInputStream(in, 2, 4);
+        final byte[] b = new byte[100];
+        try {
+            sut.read(b, 0, b.length);
+            fail();
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("read error."));
+        }
+        sut.close();
+    }
+
+    /**
+     * 閉じた後は読み込めないこと。
+     */
+    @Test
+    public void close() throws Exception {
+        final ReadAheadInputStream sut = new ReadAheadInputStream(new ByteArrayInputStream(new byte[100]), 1, 10);
+        sut.close();
+        try {
+            sut.read();
+            fail();
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("stream closed."));
+        }
+    }
+
+    /**
+     * バッファ数またはバッファサイズが0以下の場合、例外が送出されること。
+     */
+    @Test
+    public void invalidArguments() throws Exception {
+        try {
+            new ReadAheadInputStream(new ByteArrayInputStream(new byte[0]), 0, 10);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("buffer count must be greater than 0. buffer count = [0]"));
+        }
+        try {
+            new ReadAheadReader(new StringReader(""), 1, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("buffer size must be greater than 0. buffer size = [0]"));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package nablarch.common.databind;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * {@link ValueCache}のテスト。
+ */
+public class ValueCacheTest {
+
+    /**
+     * バイト列と文字列のそれぞれをキーとして値をキャッシュできること。
+     */
+    @Test
+    public void getAndPut() throws Exception {
+        final ValueCache<String> sut = new ValueCache<String>(4);
+        final byte[] bytes = "xxabcxx".getBytes("UTF-8");
+        final char[] chars = "xxabcxx".toCharArray();
+        assertThat(sut.get(bytes, 2, 3), is(nullValue()));
+
+        sut.put(bytes, 2, 3, "bytes");
+        sut.put(chars, 2, 3, "chars");
+        assertThat(sut.get("abc".getBytes("UTF-8"), 0, 3), is("bytes"));
+        assertThat("キーの型が異なる場合は別の値", sut.get("abc".toCharArray(), 0, 3), is("chars"));
+        assertThat("長さが異なる場合はキャッシュされていない", sut.get(bytes, 2, 2), is(nullValue()));
+        assertThat(sut.size(), is(2));
+
+        bytes[2] = 'z';
+        assertThat("キーは複製して保持する", sut.get("abc".getBytes("UTF-8"), 0, 3), is("bytes"));
+    }
+
+    /**
+     * 上限に達した場合、参照されていない値から破棄されること。
+     */
+    @Test
+    public void evict() throws Exception {
+        final ValueCache<String> sut = new ValueCache<String>(3);
+        sut.put(key("a"), 0, 1, "a");
+        sut.put(key("b"), 0, 1, "b");
+        sut.put(key("c"), 0, 1, "c");
+        assertThat(sut.get(key("a"), 0, 1), is("a"));
+        assertThat(sut.get(key("c"), 0, 1), is("c"));
+
+        sut.put(key("d"), 0, 1, "d");
+        assertThat(sut.size(), is(3));
+        assertThat("参照されていない値が破棄される", sut.get(key("b"), 0, 1), is(nullValue()));
+        assertThat(sut.get(key("a"), 0, 1), is("a"));
+        assertThat(sut.get(key("c"), 0, 1), is("c"));
+        assertThat(sut.get(key("d"), 0, 1), is("d"));
+
+        // 破棄と追加を繰り返しても、追加した値を取得できること
+        for (int i = 0; i < 100; i++) {
+            sut.put(key(String.valueOf(i)), 0, String.valueOf(i).length(), String.valueOf(i));
+            assertThat(sut.get(key(String.valueOf(i)), 0, String.valueOf(i).length()), is(String.valueOf(i)));
+        }
+        assertThat(sut.size(), is(3));
+    }
+
+    /**
+     * 最大長を超えるキーはキャッシュされないこと。
+     */
+    @Test
+    public void longKey() throws Exception {
+        final ValueCache<String> sut = new ValueCache<String>(4);
+        final char[] key = new char[ValueCache.MAX_KEY_LENGTH + 1];
+        Arrays.fill(key, 'a');
+        sut.put(key, 0, key.length, "long");
+        assertThat(sut.get(key, 0, key.length), is(nullValue()));
+        assertThat(sut.size(), is(0));
+
+        sut.put(key, 0, ValueCache.MAX_KEY_LENGTH, "max");
+        assertThat(sut.get(key, 0, ValueCache.MAX_KEY_LENGTH), is("max"));
+    }
+
+    /**
+     * 上限数が0以下の場合、例外が送出されること。
+     */
+    @Test
+    public void invalidCapacity() throws Exception {
+        try {
+            new ValueCache<String>(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("cache size must be greater than 0. cache size = [0]"));
+        }
+    }
+
+    private static byte[] key(final String value) throws Exception {
+        return value.getBytes("UTF-8");
+    }
+}
@@ -1,5 +1,6 @@
 package nablarch.common.databind.csv;
 
+import nablarch.common.databind.DataBindMetadata;
 import nablarch.common.databind.ObjectMapper;
 import nablarch.common.databind.ObjectMapperFactory;
 import nablarch.common.databind.csv.Csv.CsvType;
@@ -19,11 +20,15 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doThrow;
@@ -71,6 +76,61 @@ public class BeanCsvMapperTest {
                         + "🙀,𪛊,1,19990101\r\n"));
     }
 
+    /**
+     * チャネルに書き込めること。
+     */
+    @Test
+    public void testWriteChannel() throws Exception {
+        final File file = folder.newFile();
+
+        final CsvDataBindConfig config = (CsvDataBindConfig) DataBindMetadata.get(Person.class).getDataBindConfig();
+        final ObjectMapper<Person> mapper = new BeanCsvMapper<Person>(Person.class, config,
+                FileChannel.open(file.toPath(), StandardOpenOption.WRITE));
+        mapper.write(new Person("あいうえお", "かきくけこ", "20100101", 9));
+        mapper.write(new Person("🙀", "𪛊", "19990101", 1));
+        mapper.close();
+
+        assertThat("CSVが書き込まれていること", readFile(file, "utf-8"),
+                is("あいうえお,かきくけこ,9,20100101\r\n"
+                        + "🙀,𪛊,1,19990101\r\n"));
+    }
+
+    /**
+     * 複数のオブジェクトをまとめて書き込めること。
+     */
+    @Test
+    public void testWriteAll() throws Exception {
+        final StringWriter writer = new StringWriter();
+        final ObjectCsvMapperSupport<Person> mapper =
+                (ObjectCsvMapperSupport<Person>) ObjectMapperFactory.create(Person.class, writer);
+        mapper.writeAll(Arrays.asList(
+                new Person("あいうえお", "かきくけこ", "20100101", 9),
+                new Person(null, null, "19800101", 5),
+                new Person("🙀", "𪛊", "19990101", 1)));
+        mapper.write(new Person("csv", "nablarch", "20100101", 10));
+        mapper.close();
+
+        assertThat(writer.toString(), is("あいうえお,かきくけこ,9,20100101\r\n"
+                + ",,5,19800101\r\n"
+                + "🙀,𪛊,1,19990101\r\n"
+                + "csv,nablarch,10,20100101\r\n"));
+    }
+
+    /**
+     * レコードクラスの値がアクセサメソッドから書き込まれること。
+     */
+    @Test
+    public void testWriteRecordClass() throws Exception {
+        StringWriter writer = new StringWriter();
+        final ObjectMapper<PersonRecord> mapper = ObjectMapperFactory.create(PersonRecord.class, writer);
+        mapper.write(new PersonRecord("csv", "nablarch", 10));
+        mapper.write(new PersonRecord(null, "あいう", 0));
+        mapper.close();
+
+        assertThat("CSVが書き込まれていること", readFile(new StringReader(writer.toString())),
+                is("csv,nablarch,10\r\n,あいう,0\r\n"));
+    }
+
     /**
      * Getterで値を編集している場合その値が書き込まれること
      */
@@ -193,7 +253,7 @@ public class BeanCsvMapperTest {
     public void testWriteError() throws Exception {
         final BufferedWriter mockWriter = mock(BufferedWriter.class);
         final IOException exception = new IOException("io error!");
-        doThrow(exception).when(mockWriter).write(anyInt());
+        doThrow(exception).when(mockWriter).write(any(char[].class), anyInt(), anyInt());
         
         final ObjectMapper<Person> mapper = ObjectMapperFactory.create(Person.class, mockWriter);
         try {
@@ -251,6 +311,10 @@ public class BeanCsvMapperTest {
         return sb.toString();
     }
 
+    @Csv(type = CsvType.RFC4180, properties = {"firstName", "lastName", "familySize"})
+    public record PersonRecord(String firstName, String lastName, int familySize) {
+    }
+
     @Csv(
             type = CsvType.RFC4180,
             properties = {"firstName", "lastName", "familySize", "birthday"}
@@ -6,11 +6,20 @@ import static org.hamcrest.core.AllOf.allOf;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.hamcrest.text.IsEmptyString.isEmptyString;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.InvalidRecordHandler;
 import nablarch.common.databind.LineNumber;
 import nablarch.common.databind.ObjectMapper;
 import nablarch.common.databind.ObjectMapperFactory;
@@ -519,6 +528,260 @@ public class CsvBeanMapperTest {
         mapper.close();
     }
 
+    /**
+     * レコードクラスにコンストラクタバインディングで読み込めること。
+     * 行番号はアクセサメソッドに{@link LineNumber}が設定されたコンポーネントに格納されること。
+     */
+    @Test
+    public void testRead_record() throws Exception {
+        resource.writeLine("年齢,氏名");
+        resource.writeLine("20,山田");
+        resource.writeLine(",");
+        resource.close();
+
+        final ObjectMapper<PersonRecord> mapper = ObjectMapperFactory.create(PersonRecord.class,
+                resource.createInputStream());
+        assertThat(mapper.read(), is(new PersonRecord(20, "山田", 2L)));
+        assertThat(mapper.read(), is(new PersonRecord(null, null, 3L)));
+        assertThat(mapper.read(), is(nullValue()));
+        mapper.close();
+    }
+
+    /**
+     * プロパティの型に応じて直接解析する場合も、レコードクラスにコンストラクタバインディングで読み込めること。
+     */
+    @Test
+    public void testRead_record_typedBinding() throws Exception {
+        resource.writeLine("番号,件数,金額,日付,名前");
+        resource.writeLine("1,10,1.50,2024-02-29,山田");
+        resource.writeLine("2,,-0.001,,");
+        resource.writeLine("x,,,,");
+        resource.close();
+
+        final ObjectMapper<LedgerRecord> mapper = ObjectMapperFactory.create(LedgerRecord.class,
+                resource.createInputStream());
+        assertThat(mapper.read(), is(new LedgerRecord(2L, 1, 10L, new BigDecimal("1.50"),
+                LocalDate.of(2024, 2, 29), "山田")));
+        assertThat(mapper.read(), is(new LedgerRecord(3L, 2, null, new BigDecimal("-0.001"), null, null)));
+        try {
+            mapper.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), containsString("property name = [no], property type = [int], value = [x]."));
+            assertThat(e.getLineNumber(), is(4L));
+        }
+        mapper.close();
+    }
+
+    /**
+     * プロパティの型に応じて直接解析する場合、数値と日付のプロパティに値が設定されること。
+     * <p/>
+     * 空のフィールドはnullとして設定され、それ以外のプロパティはこれまで通り変換されること。
+     */
+    @Test
+    public void testRead_typedBinding() throws Exception {
+        resource.writeLine("番号,件数,金額,日付,名前");
+        resource.writeLine("1,10,1.50,2024-02-29,山田");
+        resource.writeLine("-2147483648,+9223372036854775807,-0.001,20241231,");
+        resource.writeLine("2147483647,,12345678901234567890.5,,田中");
+        resource.writeLine("0,-9223372036854775808,1E+3,1999-01-01,鈴木");
+        resource.close();
+
+        final ObjectMapper<Ledger> mapper = ObjectMapperFactory.create(Ledger.class, resource.createInputStream());
+        final Ledger ledger1 = mapper.read();
+        assertThat(ledger1.getNo(), is(1));
+        assertThat(ledger1.getCount(), is(10L));
+        assertThat(ledger1.getAmount(), is(new BigDecimal("1.50")));
+        assertThat(ledger1.getDate(), is(LocalDate.of(2024, 2, 29)));
+        assertThat(ledger1.getName(), is("山田"));
+        assertThat(ledger1.getLineNumber(), is(2L));
+
+        final Ledger ledger2 = mapper.read();
+        assertThat(ledger2.getNo(), is(Integer.MIN_VALUE));
+        assertThat(ledger2.getCount(), is(Long.MAX_VALUE));
+        assertThat(ledger2.getAmount(), is(new BigDecimal("-0.001")));
+        assertThat(ledger2.getDate(), is(LocalDate.of(2024, 12, 31)));
+        assertThat(ledger2.getName(), is(nullValue()));
+
+        final Ledger ledger3 = mapper.read();
+        assertThat(ledger3.getNo(), is(Integer.MAX_VALUE));
+        assertThat(ledger3.getCount(), is(nullValue()));
+        assertThat(ledger3.getAmount(), is(new BigDecimal("12345678901234567890.5")));
+        assertThat(ledger3.getDate(), is(nullValue()));
+
+        final Ledger ledger4 = mapper.read();
+        assertThat(ledger4.getCount(), is(Long.MIN_VALUE));
+        assertThat(ledger4.getAmount(), is(new BigDecimal("1E+3")));
+        assertThat(ledger4.getLineNumber(), is(5L));
+
+        assertThat(mapper.read(), is(nullValue()));
+        mapper.close();
+    }
+
+    /**
+     * プロパティの型に応じて直接解析する場合、形式に合わない値は行番号を持つ例外が送出されること。
+     */
+    @Test
+    public void testRead_typedBinding_invalid() throws Exception {
+        final String[] invalidRecords = {
+                "1a,1,1,2024-01-01,a",
+                "2147483648,1,1,2024-01-01,a",
+                "1,9223372036854775808,1,2024-01-01,a",
+                "1,-,1,2024-01-01,a",
+                "1,1,1.2.3,2024-01-01,a",
+                "1,1,1,2024-02-30,a",
+                "1,1,1,2024/01/01,a",
+                ",1,1,2024-01-01,a"
+        };
+        for (final String invalidRecord : invalidRecords) {
+            final ObjectMapper<Ledger> mapper = new CsvBeanMapper<Ledger>(Ledger.class,
+                    CsvDataBindConfig.DEFAULT.withProperties("no", "count", "amount", "date", "name")
+                            .withTypedBinding(true),
+                    new ByteArrayInputStream(("h\r\n1,1,1,2024-01-01,a\r\n" + invalidRecord + "\r\n").getBytes("UTF-8")));
+            assertThat(mapper.read().getNo(), is(1));
+            try {
+                mapper.read();
+                fail(invalidRecord);
+            } catch (InvalidDataFormatException e) {
+                assertThat(e.getLineNumber(), is(3L));
+                assertThat(e.getMessage(), containsString("value does not match the property type."));
+            }
+            mapper.close();
+        }
+    }
+
+    /**
+     * プロパティの型に応じて直接解析する場合も、不正なレコードをハンドラに渡して読み込みを続けられること。
+     * <p/>
+     * 並列に変換する場合も、同じ値が設定されること。
+     */
+    @Test
+    public void testRead_typedBinding_handlerAndParallel() throws Exception {
+        resource.writeLine("番号,件数,金額,日付,名前");
+        resource.writeLine("1,10,1.5,2024-01-01,a");
+        resource.writeLine("x,10,1.5,2024-01-01,b");
+        resource.writeLine("3,30,3.5,2024-01-03,c");
+        resource.close();
+
+        final List<String> invalidRecords = new ArrayList<String>();
+        final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT.withProperties("no", "count", "amount", "date", "name")
+                .withTypedBinding(true)
+                .withInvalidRecordHandler(new InvalidRecordHandler() {
+                    @Override
+                    public void handle(final String record, final InvalidDataFormatException cause) {
+                        assertThat(cause.getStackTrace().length, is(0));
+                        invalidRecords.add(cause.getLineNumber() + ":" + record);
+                    }
+                });
+        final ObjectMapper<Ledger> mapper = new CsvBeanMapper<Ledger>(Ledger.class, config, resource.createInputStream());
+        assertThat(mapper.read().getNo(), is(1));
+        final Ledger ledger = mapper.read();
+        assertThat(ledger.getNo(), is(3));
+        assertThat(ledger.getLineNumber(), is(4L));
+        assertThat(mapper.read(), is(nullValue()));
+        assertThat(invalidRecords, is(Arrays.asList("3:x,10,1.5,2024-01-01,b")));
+        mapper.close();
+
+        final ObjectMapper<Ledger> parallel = new CsvBeanMapper<Ledger>(Ledger.class,
+                config.withInvalidRecordHandler(null).withParallelBind(2), resource.createInputStream());
+        final Ledger first = parallel.read();
+        assertThat(first.getCount(), is(10L));
+        assertThat(first.getAmount(), is(new BigDecimal("1.5")));
+        assertThat(first.getDate(), is(LocalDate.of(2024, 1, 1)));
+        try {
+            parallel.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getLineNumber(), is(3L));
+        }
+        assertThat(parallel.read().getLineNumber(), is(4L));
+        parallel.close();
+
+        // 並列に変換する場合も、変換用のスレッドで不正と判定されたレコードがハンドラに渡されること
+        invalidRecords.clear();
+        final ObjectMapper<Ledger> handled = new CsvBeanMapper<Ledger>(Ledger.class,
+                config.withParallelBind(2), resource.createInputStream());
+        assertThat(handled.read().getNo(), is(1));
+        final Ledger next = handled.read();
+        assertThat(next.getNo(), is(3));
+        assertThat(next.getLineNumber(), is(4L));
+        assertThat(handled.read(), is(nullValue()));
+        assertThat(invalidRecords, is(Arrays.asList("3:x,10,1.5,2024-01-01,b")));
+        handled.close();
+    }
+
+    /**
+     * 呼び出し元のBeanを再利用して読み込めること。
+     * 読み込む項目と行番号は、レコードごとに上書きされること。
+     */
+    @Test
+    public void testRead_reuseTarget() throws Exception {
+        resource.writeLine("番号,件数,金額,日付,名前");
+        resource.writeLine("1,10,1.50,20240229,山田");
+        resource.writeLine("2,,,,");
+        resource.close();
+
+        for (final boolean typedBinding : new boolean[] {true, false}) {
+            final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT
+                    .withProperties("no", "count", "amount", "date", "name")
+                    .withTypedBinding(typedBinding);
+            final ObjectMapper<Ledger> mapper = new CsvBeanMapper<Ledger>(Ledger.class, config,
+                    resource.createInputStream());
+            final Ledger target = new Ledger();
+
+            assertThat(mapper.read(target), is(sameInstance(target)));
+            assertThat(target.getNo(), is(1));
+            assertThat(target.getCount(), is(10L));
+            assertThat(target.getAmount(), is(new BigDecimal("1.50")));
+            assertThat(target.getDate(), is(LocalDate.of(2024, 2, 29)));
+            assertThat(target.getName(), is("山田"));
+            assertThat(target.getLineNumber(), is(2L));
+
+            assertThat(mapper.read(target), is(sameInstance(target)));
+            assertThat(target.getNo(), is(2));
+            assertThat(target.getCount(), is(nullValue()));
+            assertThat(target.getAmount(), is(nullValue()));
+            assertThat(target.getDate(), is(nullValue()));
+            assertThat(target.getName(), is(nullValue()));
+            assertThat(target.getLineNumber(), is(3L));
+
+            assertThat(mapper.read(target), is(nullValue()));
+            mapper.close();
+        }
+    }
+
+    /**
+     * Beanを再利用できない場合、{@link UnsupportedOperationException}が送出されること。
+     */
+    @Test
+    public void testRead_reuseTarget_unsupported() throws Exception {
+        resource.writeLine("年齢,氏名");
+        resource.writeLine("20,山田");
+        resource.close();
+
+        final ObjectMapper<PersonRecord> record = ObjectMapperFactory.create(PersonRecord.class,
+                resource.createInputStream());
+        try {
+            record.read(new PersonRecord(1, "a", 1L));
+            fail("コンストラクタバインディングの場合は再利用できない");
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage(), is("unsupported read method."));
+        }
+        assertThat("読み込み前に送出されること", record.read(), is(new PersonRecord(20, "山田", 2L)));
+        record.close();
+
+        final ObjectMapper<PersonDefault> parallel = new CsvBeanMapper<PersonDefault>(PersonDefault.class,
+                CsvDataBindConfig.DEFAULT.withProperties("age", "name").withParallelBind(2),
+                resource.createInputStream());
+        try {
+            parallel.read(new PersonDefault());
+            fail("並列でバインドする場合は再利用できない");
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage(), is("unsupported read method."));
+        }
+        parallel.close();
+    }
+
     @Csv(type = Csv.CsvType.DEFAULT, properties = {"age", "name"})
     public static class Person {
         private Integer age;
@@ -673,6 +936,179 @@ public class CsvBeanMapperTest {
         }
     }
 
+    /**
+     * {@link Csv#projection()}を指定した場合、指定したプロパティのみが読み込まれること
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRead_projection() throws Exception {
+        resource.writeLine("年齢,氏名,住所");
+        resource.writeLine("20,山田太郎,\"東京都\r\n千代田区\"");
+        resource.writeLine("");
+        resource.writeLine("30,,大阪府");
+        resource.close();
+
+        final ObjectMapper<PersonProjection> mapper = ObjectMapperFactory.create(
+                PersonProjection.class, resource.createInputStream());
+        final PersonProjection person1 = mapper.read();
+        final PersonProjection person2 = mapper.read();
+        final PersonProjection person3 = mapper.read();
+        mapper.close();
+
+        assertThat(person1.getAge(), is(20));
+        assertThat(person1.getAddress(), is("東京都\r\n千代田区"));
+        assertThat(person1.getLineNumber(), is(3L));
+        assertThat(person2.getAge(), is(30));
+        assertThat(person2.getAddress(), is("大阪府"));
+        assertThat(person2.getLineNumber(), is(5L));
+        assertThat(person3, is(nullValue()));
+    }
+
+    /**
+     * {@link Csv#recordFilter()}を指定した場合、フィルタが受け入れたレコードのみが読み込まれること。
+     * <p/>
+     * フィルタが受け入れなかったレコードは、項目数の検証も行われないこと。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRead_recordFilter() throws Exception {
+        resource.writeLine("年齢,氏名,状態");
+        resource.writeLine("20,山田太郎,1");
+        resource.writeLine("30,田中次郎,0");
+        resource.writeLine("40,鈴木三郎");
+        resource.writeLine("50,\"佐藤\r\n四郎\",1");
+        resource.close();
+
+        final ObjectMapper<PersonFiltered> mapper = ObjectMapperFactory.create(
+                PersonFiltered.class, resource.createInputStream());
+        final PersonFiltered person1 = mapper.read();
+        final PersonFiltered person2 = mapper.read();
+        final PersonFiltered person3 = mapper.read();
+        mapper.close();
+
+        assertThat(person1.getAge(), is(20));
+        assertThat(person1.getName(), is("山田太郎"));
+        assertThat(person1.getLineNumber(), is(2L));
+        assertThat(person2.getAge(), is(50));
+        assertThat(person2.getName(), is("佐藤\r\n四郎"));
+        assertThat(person2.getLineNumber(), is(6L));
+        assertThat(person3, is(nullValue()));
+    }
+
+    /**
+     * {@link Csv#projection()}を指定した場合でも、読み飛ばした項目を含めて項目数が検証されること
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRead_projection_invalidFieldCount() throws Exception {
+        resource.writeLine("年齢,氏名,住所");
+        resource.writeLine("20,山田太郎");
+        resource.close();
+
+        final ObjectMapper<PersonProjection> mapper = ObjectMapperFactory.create(
+                PersonProjection.class, resource.createInputStream());
+        try {
+            mapper.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), is("data format is invalid. property size does not match."
+                    + " expected field count = [3], actual field count = [2]. line number = [2]"));
+        } finally {
+            mapper.close();
+        }
+    }
+
+    /**
+     * 読み込むプロパティのみを持つBean(氏名は読み飛ばす)。
+     */
+    /**
+     * 状態が"1"のレコードのみを受け入れるフィルタ。
+     */
+    public static class ActiveFilter implements CsvRecordFilter {
+        @Override
+        public boolean accept(final CsvRecord record) {
+            return record.size() == 3 && "1".contentEquals(record.get(2));
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"age", "name", "status"}, headers = {"年齢", "氏名", "状態"},
+            recordFilter = ActiveFilter.class)
+    public static class PersonFiltered {
+        private Long lineNumber;
+        private Integer age;
+        private String name;
+        private String status;
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"age", "name", "address"}, headers = {"年齢", "氏名", "住所"},
+            projection = {"age", "address"})
+    public static class PersonProjection {
+        private Long lineNumber;
+        private Integer age;
+        private String address;
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public void setAddress(String address) {
+            this.address = address;
+        }
+    }
+
     @Csv(type = Csv.CsvType.RFC4180, properties = {"age", "name"}, headers = {"年齢", "氏名"})
     public static class PersonWithLineNumber {
        private Long lineNumber;
@@ -791,4 +1227,74 @@ public class CsvBeanMapperTest {
             this.name = name;
         }
     }
-}
\ No newline at end of file
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"age", "name"}, headers = {"年齢", "氏名"})
+    public record PersonRecord(Integer age, String name, @LineNumber long lineNumber) {
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"no", "count", "amount", "date", "name"},
+            headers = {"番号", "件数", "金額", "日付", "名前"}, typedBinding = true)
+    public record LedgerRecord(@LineNumber long lineNumber, int no, Long count, BigDecimal amount, LocalDate date,
+            String name) {
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"no", "count", "amount", "date", "name"},
+            headers = {"番号", "件数", "金額", "日付", "名前"}, typedBinding = true)
+    public static class Ledger {
+        private long lineNumber;
+        private int no;
+        private Long count;
+        private BigDecimal amount;
+        private LocalDate date;
+        private String name;
+
+        @LineNumber
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+
+        public int getNo() {
+            return no;
+        }
+
+        public void setNo(int no) {
+            this.no = no;
+        }
+
+        public Long getCount() {
+            return count;
+        }
+
+        public void setCount(Long count) {
+            this.count = count;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public void setDate(LocalDate date) {
+            this.date = date;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.InvalidRecordHandler;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ReadPosition;
+
+import org.junit.Test;
+
+/**
+ * {@link CsvBindPipeline}のテスト。
+ */
+public class CsvBindPipelineTest {
+
+    private final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT.withProperties("age", "name");
+
+    /**
+     * 並列に変換した結果が、呼び出し側のスレッドで変換した場合と同じ順序と行番号で返却されること。
+     * <p/>
+     * クォート内の改行を含むレコードがある場合も、行番号は呼び出し側のスレッドで変換した場合と一致すること。
+     */
+    @Test
+    public void read_bean() throws Exception {
+        final StringBuilder csv = new StringBuilder("年齢,氏名\r\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append(i).append(i % 10 == 0 ? ",\"山田\r\n太郎\"\r\n" : ",山田\r\n");
+        }
+        final CsvBeanMapper<CsvParallelReaderTest.Person> expected = new CsvBeanMapper<CsvParallelReaderTest.Person>(
+                CsvParallelReaderTest.Person.class, config, toStream(csv.toString()));
+        final CsvBeanMapper<CsvParallelReaderTest.Person> sut = new CsvBeanMapper<CsvParallelReaderTest.Person>(
+                CsvParallelReaderTest.Person.class, config.withParallelBind(4), toStream(csv.toString()));
+        for (int i = 0; i < 1000; i++) {
+            final CsvParallelReaderTest.Person person = sut.read();
+            final CsvParallelReaderTest.Person expectedPerson = expected.read();
+            assertThat(person.getAge(), is(String.valueOf(i)));
+            assertThat(person.getName(), is(expectedPerson.getName()));
+            assertThat(person.getLineNumber(), is(expectedPerson.getLineNumber()));
+        }
+        assertThat(sut.read(), is(nullValue()));
+        sut.close();
+        expected.close();
+    }
+
+    /**
+     * Mapへの変換も並列に行えること。
+     */
+    @Test
+    public void read_map() throws Exception {
+        final StringBuilder csv = new StringBuilder("年齢,氏名\r\n");
+        for (int i = 0; i < 500; i++) {
+            csv.append(i).append(",name").append(i).append("\r\n");
+        }
+        final ObjectMapper<Map<String, ?>> sut = new CsvMapMapper(config.withParallelBind(2), toStream(csv.toString()));
+        for (int i = 0; i < 500; i++) {
+            final Map<String, ?> map = sut.read();
+            assertThat(map.get("age").toString(), is(String.valueOf(i)));
+            assertThat(map.get("name").toString(), is("name" + i));
+        }
+        assertThat(sut.read(), is(nullValue()));
+        sut.close();
+    }
+
+    /**
+     * 項目数が不正なレコードがある場合、それより前のレコードを返却した後に例外が送出されること。
+     * <p/>
+     * 例外が送出された後も、後続のレコードを読み込めること。
+     */
+    @Test
+    public void read_invalidFieldCount() throws Exception {
+        final CsvMapMapper sut = new CsvMapMapper(config.withParallelBind(2),
+                toStream("年齢,氏名\r\n1,a\r\n2,b\r\n3\r\n4,d\r\n"));
+        assertThat(sut.read().get("age").toString(), is("1"));
+        assertThat(sut.read().get("age").toString(), is("2"));
+        try {
+            sut.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getLineNumber(), is(4L));
+        }
+        assertThat(sut.read().get("age").toString(), is("4"));
+        assertThat(sut.read(), is(nullValue()));
+        sut.close();
+    }
+
+    /**
+     * 不正なレコードを受け取るハンドラを設定した場合、不正なレコードを読み飛ばして並列に変換できること。
+     */
+    @Test
+    public void read_invalidRecordHandler() throws Exception {
+        final List<String> records = new ArrayList<String>();
+        final CsvMapMapper sut = new CsvMapMapper(config.withParallelBind(2)
+                .withInvalidRecordHandler(new InvalidRecordHandler() {
+                    @Override
+                    public void handle(final String record, final InvalidDataFormatException cause) {
+                        records.add(cause.getLineNumber() + ":" + record);
+                    }
+                }), toStream("年齢,氏名\r\n1,a\r\n2\r\n3,\"c\"x\r\n4,d\r\n"));
+        assertThat(sut.read().get("age").toString(), is("1"));
+        assertThat(sut.read().get("age").toString(), is("4"));
+        assertThat(sut.read(), is(nullValue()));
+        assertThat(records, is(Arrays.asList("3:2", "4:3,\"c\"x")));
+        sut.close();
+    }
+
+    /**
+     * 先に読み込んだレコードがある場合も、次に返却するレコードの読み込み位置が返されること。
+     * <p/>
+     * 読み飛ばしは、先に読み込んだレコードも含めて数えること。
+     */
+    @Test
+    public void getPositionAndSkip() throws Exception {
+        final String csv = "年齢,氏名\r\n1,a\r\n2,b\r\n3,c\r\n4,d\r\n";
+        final CsvMapMapper sut = new CsvMapMapper(config.withParallelBind(2), toStream(csv));
+        assertThat(sut.read().get("age").toString(), is("1"));
+        final ReadPosition position = sut.getPosition();
+        assertThat(position.getOffset(), is(20L));
+        assertThat(position.getNextLineNumber(), is(3L));
+
+        assertThat(sut.skip(1L), is(1L));
+        assertThat(sut.read().get("age").toString(), is("3"));
+        assertThat("終端を超える分は読み飛ばさない", sut.skip(5L), is(1L));
+        assertThat(sut.read(), is(nullValue()));
+        sut.close();
+    }
+
+    /**
+     * 並列の変換に対応していないサブクラスの場合、例外が送出されること。
+     */
+    @Test
+    public void bind_unsupported() throws Exception {
+        final CsvObjectMapperSupport<String> sut = new CsvObjectMapperSupport<String>(
+                config.withParallelBind(1), toStream("年齢,氏名\r\n1,a\r\n")) {
+            @Override
+            protected String createObject(final String[] record) {
+                return record[0];
+            }
+        };
+        try {
+            sut.read();
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage().startsWith("parallel bind is not supported."), is(true));
+        }
+        sut.close();
+    }
+
+    private static ByteArrayInputStream toStream(final String csv) throws Exception {
+        return new ByteArrayInputStream(csv.getBytes("UTF-8"));
+    }
+}
@@ -0,0 +1,234 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import nablarch.common.databind.InvalidDataFormatException;
+
+import org.junit.Test;
+
+/**
+ * {@link CsvByteTokenizer}のテスト。
+ *
+ * ※パース処理の網羅的なテストは{@link CsvDataReaderLineTest}で行っている。
+ */
+public class CsvByteTokenizerTest {
+
+    /**
+     * 1行のデータを読み込めること
+     */
+    @Test
+    public void next() throws Exception {
+        final CsvByteTokenizer sut = createTokenizer("1,\"2\",3", CsvDataBindConfig.DEFAULT, 8192);
+        assertThat("1番目の要素:1", sut.next(), is("1"));
+        assertThat("2番目の要素:2", sut.next(), is("2"));
+        assertThat("3番目の要素:3", sut.next(), is("3"));
+        assertThat("おわり", sut.next(), is(nullValue()));
+    }
+
+    /**
+     * バッファの境界をまたぐマルチバイト文字を含む要素を読み込めること
+     */
+    @Test
+    public void next_multiByteCharAcrossBuffer() throws Exception {
+        for (String charset : new String[] {"UTF-8", "MS932", "EUC-JP"}) {
+            final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT.withCharset(charset);
+            final CsvByteTokenizer sut = createTokenizer(
+                    "あいう,\"ソ表\"\"\r\n能\",abc\r\n", config, 3);
+            assertThat(charset, sut.next(), is("あいう"));
+            assertThat(charset, sut.next(), is("ソ表\"\r\n能"));
+            assertThat(charset, sut.next(), is("abc"));
+            assertThat(charset, sut.isEndOfLine(), is(true));
+            assertThat(charset, sut.getLineNumber(), is(2L));
+            assertThat(charset, sut.isEndOfFile(), is(true));
+        }
+    }
+
+    /**
+     * 不正なフォーマットの場合、行番号を持つ例外が送出されること
+     */
+    @Test
+    public void next_invalidFormat() throws Exception {
+        final CsvByteTokenizer sut = createTokenizer("あ\r\nい\"", CsvDataBindConfig.DEFAULT, 2);
+        assertThat(sut.next(), is("あ"));
+        sut.reset();
+        try {
+            sut.next();
+            fail("クォート文字が不正なので例外が発生する");
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getLineNumber(), is(2L));
+            assertThat(e.getMessage(), is("data format is invalid. invalid quote character. line number = [2]"));
+        }
+    }
+
+    /**
+     * バイト単位での解析をサポートするフォーマットか判定できること
+     */
+    @Test
+    public void isSupported() throws Exception {
+        assertThat(CsvByteTokenizer.isSupported(CsvDataBindConfig.DEFAULT), is(true));
+        assertThat(CsvByteTokenizer.isSupported(CsvDataBindConfig.TSV.withCharset("EUC-JP")), is(true));
+        assertThat(CsvByteTokenizer.isSupported(CsvDataBindConfig.DEFAULT.withCharset("Shift_JIS")), is(true));
+        assertThat(CsvByteTokenizer.isSupported(CsvDataBindConfig.DEFAULT.withCharset("MS932")), is(true));
+
+        assertThat("Shift_JISの2バイト目に現れる文字は対象外",
+                CsvByteTokenizer.isSupported(CsvDataBindConfig.DEFAULT.withCharset("MS932").withFieldSeparator('|')),
+                is(false));
+        assertThat("ASCII以外の区切り文字は対象外",
+                CsvByteTokenizer.isSupported(CsvDataBindConfig.DEFAULT.withFieldSeparator('、')), is(false));
+        assertThat("ASCII互換でない文字コードは対象外",
+                CsvByteTokenizer.isSupported(CsvDataBindConfig.DEFAULT.withCharset("UTF-16")), is(false));
+    }
+
+    /**
+     * サポートしないフォーマットを指定した場合はエラーとなること
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedFormat() throws Exception {
+        createTokenizer("1", CsvDataBindConfig.DEFAULT.withCharset("UTF-16"), 8192);
+    }
+
+    /**
+     * 8バイトより長い要素を読み込めること。
+     * <p/>
+     * 8バイト単位の走査とバッファの境界をまたぐ場合も、ASCII以外の文字を含む要素が正しく変換されること。
+     */
+    @Test
+    public void next_longItems() throws Exception {
+        for (final String charset : new String[] {"UTF-8", "MS932"}) {
+            final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT.withCharset(charset);
+            final StringBuilder input = new StringBuilder();
+            final List<String> expected = new ArrayList<String>();
+            for (int length = 1; length <= 40; length++) {
+                final String ascii = repeat('a', length);
+                final String mixed = repeat('b', length / 2) + "山田" + repeat('c', length - length / 2);
+                final String quoted = repeat('d', length) + "ソ表" + repeat('e', length);
+                input.append(ascii).append(',').append(mixed).append(",\"").append(quoted).append("\"\r\n");
+                expected.add(expected.size() + 1 + ":" + ascii + "|" + mixed + "|" + quoted);
+            }
+            for (final int bufferSize : new int[] {8192, 17, 9}) {
+                assertThat(charset + ":" + bufferSize,
+                        readRecords(createTokenizer(input.toString(), config, bufferSize)), is(expected));
+            }
+        }
+    }
+
+    /**
+     * 区切り文字、クォート文字、CR、LFが8バイト単位の走査の各位置(0～7)にある場合も、要素の終わりを判定できること。
+     */
+    @Test
+    public void next_structuralByteAtEachPosition() throws Exception {
+        final CsvDataBindConfig[] configs = {
+                CsvDataBindConfig.DEFAULT,
+                CsvDataBindConfig.DEFAULT.withLineSeparator("\n"),
+                CsvDataBindConfig.DEFAULT.withLineSeparator("\r"),
+                CsvDataBindConfig.TSV};
+        for (final CsvDataBindConfig config : configs) {
+            final String lineSeparator = config.getLineSeparator();
+            final char separator = config.getFieldSeparator();
+            for (int offset = 0; offset < 16; offset++) {
+                final String first = repeat('a', offset + 1);
+                final String second = repeat('b', 16 - offset);
+                final String escaped = repeat('c', offset) + "\"" + repeat('d', 9);
+                final String input = first + separator + second + lineSeparator
+                        + '"' + escaped.replace("\"", "\"\"") + '"' + separator + first + lineSeparator;
+                final List<String> expected = new ArrayList<String>();
+                expected.add("1:" + first + "|" + second);
+                expected.add("2:" + escaped + "|" + first);
+                for (final int bufferSize : new int[] {8192, 11}) {
+                    assertThat(lineSeparator + ":" + offset + ":" + bufferSize,
+                            readRecords(createTokenizer(input, config, bufferSize)), is(expected));
+                }
+            }
+        }
+    }
+
+    /**
+     * 一致したバイトの直前と直後にASCII以外のバイトがある場合も、要素ごとに正しく変換されること。
+     */
+    @Test
+    public void next_nonAsciiAroundMatch() throws Exception {
+        for (final String charset : new String[] {"UTF-8", "MS932"}) {
+            final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT.withCharset(charset);
+            for (int offset = 0; offset < 16; offset++) {
+                final String before = repeat('a', offset) + "あ";
+                final String after = "い" + repeat('b', offset);
+                final String ascii = repeat('c', offset + 1);
+                final String quotedBefore = repeat('d', offset) + "ソ";
+                final String input = before + ',' + after + ',' + ascii + ",ア\r\n"
+                        + '"' + quotedBefore + "\",\"" + "能" + ascii + "\"\r\n";
+                final List<String> expected = new ArrayList<String>();
+                expected.add("1:" + before + "|" + after + "|" + ascii + "|ア");
+                expected.add("2:" + quotedBefore + "|能" + ascii);
+                for (final int bufferSize : new int[] {8192, 13}) {
+                    assertThat(charset + ":" + offset + ":" + bufferSize,
+                            readRecords(createTokenizer(input, config, bufferSize)), is(expected));
+                }
+            }
+        }
+    }
+
+    /**
+     * クォートで囲まれた要素内の改行が8バイト単位の走査の境界をまたぐ場合も、行番号が正しく数えられること。
+     * <p/>
+     * 後続にLFがないCRと単独のLFも、それぞれ1つの改行として数える。
+     */
+    @Test
+    public void next_quotedLineBreaksAcrossWords() throws Exception {
+        for (int offset = 0; offset < 16; offset++) {
+            final String crlf = repeat('a', offset) + "\r\n" + repeat('b', 8);
+            final String lf = repeat('c', offset) + "\n" + repeat('d', 7) + "\n";
+            final String cr = repeat('e', offset) + "\r" + repeat('f', 5) + "\r\r\n";
+            final String input = '"' + crlf + "\",x\r\n"
+                    + '"' + lf + "\",\"" + cr + "\"\r\n"
+                    + "end\r\n";
+            final List<String> expected = new ArrayList<String>();
+            expected.add("2:" + crlf + "|x");
+            expected.add("8:" + lf + "|" + cr);
+            expected.add("9:end");
+            for (final int bufferSize : new int[] {8192, 10, 3}) {
+                assertThat(offset + ":" + bufferSize,
+                        readRecords(createTokenizer(input, CsvDataBindConfig.DEFAULT, bufferSize)), is(expected));
+            }
+        }
+    }
+
+    /**
+     * 全てのレコードを読み込み、「行番号:要素|要素…」の形式で返す。
+     */
+    private static List<String> readRecords(final CsvByteTokenizer sut) throws Exception {
+        final List<String> records = new ArrayList<String>();
+        while (!sut.isEndOfFile()) {
+            sut.reset();
+            final StringBuilder record = new StringBuilder();
+            do {
+                if (record.length() > 0) {
+                    record.append('|');
+                }
+                record.append(sut.next());
+            } while (!sut.isEndOfLine());
+            records.add(sut.getLineNumber() + ":" + record);
+        }
+        return records;
+    }
+
+    private static String repeat(final char c, final int count) {
+        final char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static CsvByteTokenizer createTokenizer(
+            final String input, final CsvDataBindConfig config, final int bufferSize) {
+        final Charset charset = config.getCharset();
+        return new CsvByteTokenizer(new ByteArrayInputStream(input.getBytes(charset)), config, bufferSize);
+    }
+}
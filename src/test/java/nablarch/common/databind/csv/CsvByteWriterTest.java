@@ -0,0 +1,148 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link CsvByteWriter}のテスト。
+ */
+public class CsvByteWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** テストで書き込む文字列(サロゲートペア、変換できない文字、対にならないサロゲートを含む) */
+    private static final String[] CHUNKS = {
+            "abc,\"あいう\"\r\n",
+            "🙀𪛊,ｱｲｳ,〜～①",
+            "\ud83d",
+            "\ude40,x\ud83d",
+            "y\ude40z,é\r\n",
+            "\ud83d"
+    };
+
+    /**
+     * サポートする文字コードで、{@link OutputStreamWriter}と同じバイト列が出力されること。
+     * <p/>
+     * 書き込み単位をまたぐサロゲートペアや、バッファに収まらない文字も同じく変換されること。
+     */
+    @Test
+    public void testSameAsOutputStreamWriter() throws Exception {
+        for (final String charsetName : new String[] {
+                "UTF-8", "US-ASCII", "ISO-8859-1", "EUC-JP", "Shift_JIS", "windows-31j"}) {
+            final Charset charset = Charset.forName(charsetName);
+            assertThat(charsetName, CsvByteWriter.isSupported(charset), is(true));
+
+            final byte[] expected = expected(charset);
+            final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            write(new CsvByteWriter(actual, null, charset, ByteBuffer.allocate(4)));
+            assertThat(charsetName, actual.toByteArray(), is(expected));
+
+            final ByteArrayOutputStream defaultBuffer = new ByteArrayOutputStream();
+            write(new CsvByteWriter(defaultBuffer, charset));
+            assertThat(charsetName, defaultBuffer.toByteArray(), is(expected));
+        }
+    }
+
+    /**
+     * チャネルに出力できること。
+     */
+    @Test
+    public void testWriteChannel() throws Exception {
+        final Charset charset = Charset.forName("windows-31j");
+        final byte[] expected = expected(charset);
+
+        final File file = folder.newFile();
+        for (int i = 0; i < 2; i++) {
+            // 2回目はプールされたダイレクトバッファを使用する
+            write(new CsvByteWriter(
+                    FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                    charset));
+            assertThat(Files.readAllBytes(file.toPath()), is(expected));
+        }
+
+        final StringBuilder large = new StringBuilder();
+        for (int i = 0; i < CsvByteWriter.BUFFER_SIZE; i++) {
+            large.append("aあ");
+        }
+        final Writer writer = new CsvByteWriter(
+                FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                charset);
+        writer.write(large.toString());
+        writer.close();
+        assertThat(new String(Files.readAllBytes(file.toPath()), charset), is(large.toString()));
+    }
+
+    /**
+     * flushで出力先に書き込まれ、close後は書き込めないこと。
+     */
+    @Test
+    public void testFlushAndClose() throws Exception {
+        final File file = folder.newFile();
+        final FileOutputStream stream = new FileOutputStream(file);
+        final Writer writer = new CsvByteWriter(stream, Charset.forName("UTF-8"));
+        writer.write("あa");
+        assertThat(Files.readAllBytes(file.toPath()).length, is(0));
+        writer.flush();
+        assertThat(new String(Files.readAllBytes(file.toPath()), "UTF-8"), is("あa"));
+
+        writer.close();
+        writer.close();
+        try {
+            writer.write("b");
+            fail();
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("Stream closed"));
+        }
+    }
+
+    /**
+     * 状態を持つ文字コードやASCII互換でない文字コードはサポートしないこと。
+     */
+    @Test
+    public void testNotSupported() throws Exception {
+        assertThat(CsvByteWriter.isSupported(Charset.forName("UTF-16")), is(false));
+        assertThat(CsvByteWriter.isSupported(Charset.forName("ISO-2022-JP")), is(false));
+    }
+
+    /**
+     * {@link OutputStreamWriter}でテストで使用する文字列を書き込み、出力されたバイト列を返す。
+     *
+     * @param charset 文字コード
+     * @return 出力されたバイト列
+     */
+    private static byte[] expected(final Charset charset) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(new OutputStreamWriter(out, charset));
+        return out.toByteArray();
+    }
+
+    /**
+     * テストで使用する文字列を書き込み、閉じる。
+     *
+     * @param writer 書き込み先
+     */
+    private static void write(final Writer writer) throws IOException {
+        for (final String chunk : CHUNKS) {
+            writer.write(chunk);
+        }
+        writer.close();
+    }
+}
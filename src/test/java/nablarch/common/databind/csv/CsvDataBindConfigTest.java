@@ -1,14 +1,19 @@
 package nablarch.common.databind.csv;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.Matchers.array;
 import static org.hamcrest.Matchers.emptyArray;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collections;
 
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.InvalidRecordHandler;
 import nablarch.common.databind.csv.CsvDataBindConfig.QuoteMode;
 
 import org.junit.Rule;
@@ -274,4 +279,147 @@ public class CsvDataBindConfigTest {
         assertThat(sut.getProperties(), array(is("prop1"), is("prop2")));
         assertThat(sut.getKeys(), array(is("prop1"), is("prop2")));
     }
+
+    @Test
+    public void withProjection() throws Exception {
+        CsvDataBindConfig sut = CsvDataBindConfig.DEFAULT.withProperties("prop1", "prop2", "prop3");
+        assertThat(sut.getProjection().length, is(0));
+        assertThat("射影が設定されていない場合はnull", sut.getProjectedIndexes(), is(nullValue()));
+
+        sut = sut.withProjection("prop3", "prop1");
+        assertThat(sut.getProjection(), array(is("prop3"), is("prop1")));
+        assertThat("レコード上の順に並ぶ", sut.getProjectedIndexes(), is(new int[] {0, 2}));
+        assertThat("他の設定値を変更しても引き継がれる",
+                sut.withCharset("MS932").getProjection(), array(is("prop3"), is("prop1")));
+
+        assertThat(sut.getProperties(), array(is("prop1"), is("prop2"), is("prop3")));
+        assertThat(sut.getQuote(), is(CsvDataBindConfig.DEFAULT.getQuote()));
+        assertThat(sut.getFieldSeparator(), is(CsvDataBindConfig.DEFAULT.getFieldSeparator()));
+        assertThat(sut.isRequiredHeader(), is(CsvDataBindConfig.DEFAULT.isRequiredHeader()));
+    }
+
+    @Test
+    public void withProjection_invalidKey() throws Exception {
+        final CsvDataBindConfig sut = CsvDataBindConfig.DEFAULT.withProperties("prop1", "prop2")
+                .withProjection("prop1", "prop9");
+        try {
+            sut.getProjectedIndexes();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("projection key is not found. key = [prop9]"));
+        }
+    }
+
+    @Test
+    public void withRecordFilter() throws Exception {
+        assertThat(CsvDataBindConfig.DEFAULT.getRecordFilter(), is(nullValue()));
+
+        final CsvRecordFilter filter = new CsvRecordFilter() {
+            @Override
+            public boolean accept(final CsvRecord record) {
+                return true;
+            }
+        };
+        final CsvDataBindConfig sut = CsvDataBindConfig.DEFAULT.withRecordFilter(filter)
+                .withProperties("prop1")
+                .withProjection("prop1");
+        assertThat("他の設定を変更しても引き継がれる", sut.getRecordFilter(), is(filter));
+    }
+
+    @Test
+    public void withCachedColumns() throws Exception {
+        CsvDataBindConfig sut = CsvDataBindConfig.DEFAULT.withProperties("prop1", "prop2", "prop3");
+        assertThat(sut.getCachedColumns().length, is(0));
+        assertThat("キャッシュする項目が設定されていない場合はnull", sut.getCachedColumnIndexes(), is(nullValue()));
+
+        sut = sut.withCachedColumns(16, "prop3", "prop2");
+        assertThat(sut.getCachedColumns(), array(is("prop3"), is("prop2")));
+        assertThat(sut.getColumnCacheSize(), is(16));
+        assertThat("レコード上の順に並ぶ", sut.getCachedColumnIndexes(), is(new int[] {1, 2}));
+        assertThat("他の設定値を変更しても引き継がれる",
+                sut.withQuote('\'').getColumnCacheSize(), is(16));
+    }
+
+    @Test
+    public void withCachedColumns_invalid() throws Exception {
+        try {
+            CsvDataBindConfig.DEFAULT.withCachedColumns(0, "prop1");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("cache size must be greater than 0. cache size = [0]"));
+        }
+        final CsvDataBindConfig sut = CsvDataBindConfig.DEFAULT.withProperties("prop1")
+                .withCachedColumns(16, "prop9");
+        try {
+            sut.getCachedColumnIndexes();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("cached column key is not found. key = [prop9]"));
+        }
+    }
+
+    @Test
+    public void withReadAhead() throws Exception {
+        assertThat("デフォルトは先読みしない", CsvDataBindConfig.DEFAULT.getReadAheadBuffers(), is(0));
+        final CsvDataBindConfig sut = CsvDataBindConfig.DEFAULT.withReadAhead(2);
+        assertThat(sut.getReadAheadBuffers(), is(2));
+        assertThat("他の設定値を変更しても引き継がれる", sut.withQuote('\'').getReadAheadBuffers(), is(2));
+        try {
+            CsvDataBindConfig.DEFAULT.withReadAhead(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("buffer count must not be negative. buffer count = [-1]"));
+        }
+    }
+
+    @Test
+    public void withParallelBind() throws Exception {
+        assertThat("デフォルトは並列に変換しない", CsvDataBindConfig.DEFAULT.getBindParallelism(), is(0));
+        final CsvDataBindConfig sut = CsvDataBindConfig.DEFAULT.withParallelBind(4);
+        assertThat(sut.getBindParallelism(), is(4));
+        assertThat("他の設定値を変更しても引き継がれる", sut.withReadAhead(2).getBindParallelism(), is(4));
+        try {
+            CsvDataBindConfig.DEFAULT.withParallelBind(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("parallelism must not be negative. parallelism = [-1]"));
+        }
+    }
+
+    @Test
+    public void withInvalidRecordHandler() throws Exception {
+        assertThat(CsvDataBindConfig.DEFAULT.getInvalidRecordHandler(), is(nullValue()));
+        final InvalidRecordHandler handler = new InvalidRecordHandler() {
+            @Override
+            public void handle(final String record, final InvalidDataFormatException cause) {
+            }
+        };
+        final CsvDataBindConfig sut = CsvDataBindConfig.DEFAULT.withInvalidRecordHandler(handler);
+        assertThat(sut.getInvalidRecordHandler(), is(sameInstance(handler)));
+        assertThat("他の設定値を変更しても引き継がれる",
+                sut.withParallelBind(2).getInvalidRecordHandler(), is(sameInstance(handler)));
+    }
+
+    @Test
+    public void withTypedBinding() throws Exception {
+        assertThat("デフォルトは直接解析しない", CsvDataBindConfig.DEFAULT.isTypedBinding(), is(false));
+        final CsvDataBindConfig sut = CsvDataBindConfig.DEFAULT.withTypedBinding(true);
+        assertThat(sut.isTypedBinding(), is(true));
+        assertThat("他の設定値を変更しても引き継がれる", sut.withParallelBind(2).isTypedBinding(), is(true));
+        assertThat(sut.withTypedBinding(false).isTypedBinding(), is(false));
+    }
+
+    @Test
+    public void withParallelWrite() throws Exception {
+        assertThat("デフォルトは並列にフォーマットしない", CsvDataBindConfig.DEFAULT.getWriteParallelism(), is(0));
+        final CsvDataBindConfig sut = CsvDataBindConfig.DEFAULT.withParallelWrite(4);
+        assertThat(sut.getWriteParallelism(), is(4));
+        assertThat("他の設定値を変更しても引き継がれる", sut.withParallelBind(2).getWriteParallelism(), is(4));
+        try {
+            CsvDataBindConfig.DEFAULT.withParallelWrite(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("parallelism must not be negative. parallelism = [-1]"));
+        }
+    }
 }
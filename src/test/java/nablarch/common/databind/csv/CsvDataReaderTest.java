@@ -4,12 +4,16 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.junit.runners.Parameterized.Parameters;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -235,4 +239,223 @@ public class CsvDataReaderTest {
             assertThat("IOExceptionが発生していること", e.getCause(), instanceOf(IOException.class));
         }
     }
+
+    /**
+     * 入力ストリームから読み込めること。
+     * バイト単位で解析する場合も、文字に変換してから解析する場合も同じ結果となること。
+     */
+    @Test
+    public void testInputStream() throws Exception {
+        resource.writeLine("1,\"あ\"\"\r\nい\",う");
+        resource.writeLine("10,,30");
+        resource.close();
+
+        for (CsvDataBindConfig config : new CsvDataBindConfig[] {format, format.withCharset("UTF-16")}) {
+            final CsvDataReader sut = new CsvDataReader(
+                    new ByteArrayInputStream(readAllBytes(config.getCharset())), config);
+
+            final String[] line1 = sut.read();
+            assertThat(line1.length, is(3));
+            assertThat(line1[0], is("1"));
+            assertThat(line1[1], is("あ\"\r\nい"));
+            assertThat(line1[2], is("う"));
+            assertThat("クォート内の改行も行数に含まれる", sut.getLineNumber(), is(2L));
+
+            final String[] line2 = sut.read();
+            assertThat(line2.length, is(3));
+            assertThat(line2[0], is("10"));
+            assertThat(line2[1], is(nullValue()));
+            assertThat(line2[2], is("30"));
+            assertThat(sut.getLineNumber(), is(3L));
+
+            assertThat("ファイルの終わりに到達したのでnull", sut.read(), is(nullValue()));
+            sut.close();
+        }
+    }
+
+    /**
+     * {@link CsvRecord}にレコードを読み込めること。
+     * <p/>
+     * 同じ{@link CsvRecord}を使用して、複数のレコードを読み込めること。
+     */
+    @Test
+    public void testReadCsvRecord() throws Exception {
+        resource.writeLine("1,\"あ\"\"\r\nい\",う");
+        resource.writeLine("10,,30,abcdefghij");
+        resource.close();
+
+        final CsvDataReader[] readers = {
+                new CsvDataReader(resource.createReader(), format, 4),
+                new CsvDataReader(new ByteArrayInputStream(readAllBytes(format.getCharset())), format, 4),
+                new CsvDataReader(new ByteArrayInputStream(readAllBytes(Charset.forName("UTF-16"))),
+                        format.withCharset("UTF-16"), 4)
+        };
+        for (CsvDataReader sut : readers) {
+            final CsvRecord record = new CsvRecord();
+
+            assertThat(sut.read(record), is(true));
+            assertThat(record.size(), is(3));
+            assertThat(record.get(0).toString(), is("1"));
+            assertThat(record.get(1).toString(), is("あ\"\r\nい"));
+            assertThat(record.getString(2), is("う"));
+            assertThat("クォート内の改行も行数に含まれる", record.getLineNumber(), is(2L));
+
+            assertThat(sut.read(record), is(true));
+            assertThat(record.size(), is(4));
+            assertThat(record.getString(0), is("10"));
+            assertThat(record.get(1), is(nullValue()));
+            assertThat(record.isNull(1), is(true));
+            assertThat(record.getString(2), is("30"));
+            assertThat("バッファサイズを超える要素", record.getString(3), is("abcdefghij"));
+            assertThat(record.getLineNumber(), is(3L));
+
+            assertThat("ファイルの終わりに到達したのでfalse", sut.read(record), is(false));
+            assertThat(record.size(), is(0));
+            sut.close();
+        }
+    }
+
+    /**
+     * 指定した項目のみを読み込めること。
+     * <p/>
+     * 読み飛ばした項目も項目数に含まれること。
+     */
+    @Test
+    public void testReadColumns() throws Exception {
+        resource.writeLine("1,\"あ\"\"\r\nい\",う,\"え\"");
+        resource.writeLine("");
+        resource.writeLine("10");
+        resource.close();
+
+        final CsvDataReader[] readers = {
+                new CsvDataReader(resource.createReader(), format, 4),
+                new CsvDataReader(new ByteArrayInputStream(readAllBytes(format.getCharset())), format, 4)
+        };
+        for (CsvDataReader sut : readers) {
+            final int[] columns = {0, 2};
+
+            final String[] line1 = sut.read(columns);
+            assertThat(line1.length, is(2));
+            assertThat(line1[0], is("1"));
+            assertThat(line1[1], is("う"));
+            assertThat(sut.getFieldCount(), is(4));
+            assertThat(sut.isEmptyLine(), is(false));
+            assertThat("読み飛ばした項目内の改行も行数に含まれる", sut.getLineNumber(), is(2L));
+
+            final String[] line2 = sut.read(columns);
+            assertThat(line2[0], is(nullValue()));
+            assertThat(sut.getFieldCount(), is(1));
+            assertThat(sut.isEmptyLine(), is(true));
+
+            final String[] line3 = sut.read(columns);
+            assertThat(line3[0], is("10"));
+            assertThat("存在しない項目はnull", line3[1], is(nullValue()));
+            assertThat(sut.getFieldCount(), is(1));
+            assertThat(sut.getLineNumber(), is(4L));
+
+            assertThat("ファイルの終わりに到達したのでnull", sut.read(columns), is(nullValue()));
+            sut.close();
+        }
+    }
+
+    /**
+     * 値をキャッシュする項目は、同じ値に対して同じ文字列のインスタンスが返されること。
+     * <p/>
+     * クォートのエスケープなどでバッファ上に収まらない要素も、組み立て後の値でキャッシュされること。
+     */
+    @Test
+    public void testReadCachedColumns() throws Exception {
+        resource.writeLine("1,東京,\"a\"\"b\"");
+        resource.writeLine("2,東京,\"a\"\"b\"");
+        resource.writeLine("3,大阪,\"a\"\"b\"");
+        resource.close();
+
+        final CsvDataBindConfig cached = format.withProperties("no", "city", "value")
+                .withCachedColumns(2, "city", "value");
+        final CsvDataReader[] readers = {
+                new CsvDataReader(resource.createReader(), cached, 4),
+                new CsvDataReader(new ByteArrayInputStream(readAllBytes(format.getCharset())), cached, 4)
+        };
+        for (CsvDataReader sut : readers) {
+            final String[] line1 = sut.read();
+            final String[] line2 = sut.read();
+            assertThat(line2[1], is("東京"));
+            assertThat(line2[1], is(sameInstance(line1[1])));
+            assertThat(line2[2], is("a\"b"));
+            assertThat(line2[2], is(sameInstance(line1[2])));
+            assertThat("キャッシュしない項目", line2[0], is("2"));
+
+            final String[] line3 = sut.read(new int[] {1, 2});
+            assertThat(line3[0], is("大阪"));
+            assertThat(line3[1], is(sameInstance(line1[2])));
+            sut.close();
+        }
+    }
+
+    /**
+     * 先読みを有効にした場合も、先読みしない場合と同じ結果が読み込めること。
+     * <p/>
+     * バイト単位で解析する文字コード、文字単位で解析する文字コードのいずれも対象とする。
+     */
+    @Test
+    public void testReadAhead() throws Exception {
+        for (int i = 0; i < 3000; i++) {
+            resource.writeLine(i + ",\"あ\"\"\r\nい\"," + (i % 7 == 0 ? "" : "value" + i));
+        }
+        resource.close();
+
+        for (final Charset charset : new Charset[] {Charset.forName("UTF-8"), Charset.forName("UTF-16")}) {
+            final byte[] bytes = readAllBytes(charset);
+            final CsvDataBindConfig config = format.withCharset(charset);
+            final CsvDataReader expected = new CsvDataReader(new ByteArrayInputStream(bytes), config);
+            final CsvDataReader[] readers = {
+                    new CsvDataReader(new ByteArrayInputStream(bytes), config.withReadAhead(2)),
+                    new CsvDataReader(resource.createReader(), config.withReadAhead(2))
+            };
+            final List<String[]> records = new ArrayList<String[]>();
+            String[] record;
+            while ((record = expected.read()) != null) {
+                records.add(record);
+            }
+            assertThat(records.size(), is(3000));
+            for (CsvDataReader sut : readers) {
+                for (String[] r : records) {
+                    assertThat(sut.read(), is(r));
+                }
+                assertThat(sut.read(), is(nullValue()));
+                sut.close();
+            }
+        }
+    }
+
+    /**
+     * 指定した数のレコードを読み飛ばせること。
+     * <p/>
+     * 空行を無視する設定の場合、空行は読み飛ばすレコード数に数えないこと。
+     */
+    @Test
+    public void testSkip() throws Exception {
+        resource.writeLine("1,\"a\r\nb\"");
+        resource.writeLine("");
+        resource.writeLine("2,c");
+        resource.writeLine("3,d");
+        resource.close();
+
+        final CsvDataReader sut = new CsvDataReader(resource.createReader(), format.withIgnoreEmptyLine(true));
+        assertThat(sut.skip(2L), is(2L));
+        assertThat(sut.read(), is(new String[] {"3", "d"}));
+        assertThat(sut.getLineNumber(), is(5L));
+        assertThat("ファイルの終端に達した場合は読み飛ばせた数を返す", sut.skip(1L), is(0L));
+        sut.close();
+    }
+
+    private byte[] readAllBytes(final Charset charset) throws IOException {
+        final BufferedReader reader = resource.createReader();
+        final StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            sb.append((char) c);
+        }
+        return sb.toString().getBytes(charset);
+    }
 }
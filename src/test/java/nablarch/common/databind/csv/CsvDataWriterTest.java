@@ -1,6 +1,7 @@
 package nablarch.common.databind.csv;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
@@ -8,6 +9,8 @@ import static org.junit.Assert.fail;
 import java.io.BufferedWriter;
 import java.io.StringWriter;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
@@ -474,6 +477,29 @@ public class CsvDataWriterTest {
         }
     }
 
+    /**
+     * {@link QuoteMode#CUSTOM}の場合、列の位置ではなくプロパティ名で囲む列が決まり、
+     * 囲まない列もクォート文字はエスケープされること。
+     */
+    @Test
+    public void testQuoteModeCustom_columnOrder() throws Exception {
+        Assume.assumeThat(config.getQuoteMode(), is(QuoteMode.CUSTOM));
+
+        Object[] param = {"a" + quote + "b", "12345", "c" + fieldSeparator + "d", "e"};
+
+        final StringWriter actual = new StringWriter();
+        sut = new CsvDataWriter(new BufferedWriter(actual), config,
+                new String[] {"field4", "field3", "field2", "field1"});
+        sut.write(param);
+        sut.close();
+
+        assertThat(actual.toString(), is(join(fieldSeparator,
+                "a" + quote + quote + "b",
+                quote + "12345" + quote,
+                "c" + fieldSeparator + "d",
+                quote + "e" + quote) + config.getLineSeparator()));
+    }
+
     /**
      * {@link QuoteMode}がnullの場合のケース
      */
@@ -492,6 +518,72 @@ public class CsvDataWriterTest {
         assertThat("囲み文字で囲まれないこと", actual.toString(), is("12345,aaa,,1\r\n"));
     }
 
+    /**
+     * バッファの大きさを超えるレコードを追加した場合も、
+     * レコードごとに書き込んだ場合と同じ内容が出力されること。
+     */
+    @Test
+    public void testAppendExceedsBuffer() throws Exception {
+        final StringBuilder large = new StringBuilder();
+        for (int i = 0; i < CsvDataWriter.BUFFER_SIZE; i++) {
+            large.append(i % 10 == 0 ? quote : "a");
+        }
+        final Object[][] records = {
+                objects("12345", large.toString(), null),
+                objects("1", "2", BigDecimal.TEN),
+                objects(large.toString(), "a\r\nb", "c" + fieldSeparator + "d")
+        };
+        final String[] properties = {"field1", "field2", "field3"};
+
+        final StringWriter expected = new StringWriter();
+        final CsvDataWriter writer = new CsvDataWriter(new BufferedWriter(expected), config, properties);
+        for (final Object[] record : records) {
+            writer.write(record);
+        }
+        writer.close();
+
+        final StringWriter actual = new StringWriter();
+        final CsvDataWriter appender = new CsvDataWriter(new BufferedWriter(actual), config, properties);
+        sut = appender;
+        for (final Object[] record : records) {
+            appender.append(record);
+        }
+        appender.flushBuffer();
+        sut.close();
+
+        assertThat(actual.toString(), is(expected.toString()));
+        assertThat(actual.toString().length() > CsvDataWriter.BUFFER_SIZE * 2, is(true));
+    }
+
+    /**
+     * 数値や日付の値は、文字列に変換した値と同じ内容で出力されること。
+     */
+    @Test
+    public void testTypedValues() throws Exception {
+        Assume.assumeThat(config.getQuoteMode(), is(not(QuoteMode.NOT_NUMERIC)));
+
+        final Object[] typed = {-123, Long.MIN_VALUE, new BigDecimal("-0.050"),
+                LocalDate.of(2024, 2, 29), LocalDateTime.of(2024, 2, 29, 13, 5, 0, 120000000)};
+        final Object[] strings = new Object[typed.length];
+        for (int i = 0; i < typed.length; i++) {
+            strings[i] = typed[i].toString();
+        }
+        strings[2] = "-0.050";
+        final String[] properties = {"field1", "field2", "field3", "field4", "field5"};
+
+        final StringWriter expected = new StringWriter();
+        final CsvDataWriter writer = new CsvDataWriter(new BufferedWriter(expected), config, properties);
+        writer.write(strings);
+        writer.close();
+
+        final StringWriter actual = new StringWriter();
+        sut = new CsvDataWriter(new BufferedWriter(actual), config, properties);
+        sut.write(typed);
+        sut.close();
+
+        assertThat(actual.toString(), is(expected.toString()));
+    }
+
     /**
      * Objectの配列を作るそれだけです。
      *
@@ -0,0 +1,116 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Random;
+
+import nablarch.core.util.StringUtil;
+
+import org.junit.Test;
+
+/**
+ * {@link CsvFieldFormatter}のテスト。
+ */
+public class CsvFieldFormatterTest {
+
+    /**
+     * 整数が{@link StringUtil#toString(Object)}と同じ内容で書き込まれること。
+     */
+    @Test
+    public void testInteger() throws Exception {
+        for (final Object value : new Object[] {
+                0, 1, -1, 9, 10, -10, 123456789, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                0L, 99999999999L, -100000000000L, Long.MAX_VALUE, Long.MIN_VALUE,
+                (short) -32768, (short) 32767, (byte) -128, (byte) 127}) {
+            assertFormatted(value);
+        }
+        final Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            assertFormatted(random.nextInt());
+            assertFormatted(random.nextLong() >> random.nextInt(64));
+        }
+    }
+
+    /**
+     * {@link BigDecimal}が{@link StringUtil#toString(Object)}と同じく指数表記を使用せずに書き込まれること。
+     */
+    @Test
+    public void testBigDecimal() throws Exception {
+        for (final String value : new String[] {
+                "0", "0.00", "-0.00", "0E+3", "0E-18", "1", "-1", "1.5", "-1.05", "0.001", "-0.000123",
+                "123.456", "1E+3", "-1.2E+5", "999999999999999999", "-0.999999999999999999",
+                "1E-18", "-9E+18", "123456789012345678E-18"}) {
+            assertFormatted(new BigDecimal(value));
+        }
+        final Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            final long unscaled = random.nextLong() / (long) Math.pow(10, 1 + random.nextInt(18));
+            assertFormatted(BigDecimal.valueOf(unscaled, random.nextInt(37) - 18));
+        }
+    }
+
+    /**
+     * 日付と日時が{@link StringUtil#toString(Object)}と同じ形式で書き込まれること。
+     */
+    @Test
+    public void testDate() throws Exception {
+        assertFormatted(LocalDate.of(2024, 2, 29));
+        assertFormatted(LocalDate.of(1, 1, 1));
+        assertFormatted(LocalDate.of(9999, 12, 31));
+        assertFormatted(LocalDate.of(0, 1, 1));
+
+        final LocalDate date = LocalDate.of(2024, 10, 5);
+        for (final LocalTime time : new LocalTime[] {
+                LocalTime.MIDNIGHT, LocalTime.of(1, 2), LocalTime.of(23, 59, 1), LocalTime.of(0, 0, 0, 1),
+                LocalTime.of(12, 0, 0, 100000000), LocalTime.of(12, 0, 0, 120000), LocalTime.of(12, 0, 5, 123456789),
+                LocalTime.MAX}) {
+            assertFormatted(LocalDateTime.of(date, time));
+        }
+    }
+
+    /**
+     * 対象外の型や範囲の値は書き込まれないこと。
+     */
+    @Test
+    public void testNotFormatted() throws Exception {
+        for (final Object value : new Object[] {
+                "123", 1.5d, 1.5f, BigInteger.TEN, new BigDecimal("1234567890123456789"),
+                new BigDecimal("1E+19"), new BigDecimal("1E-19"), LocalDate.of(10000, 1, 1),
+                LocalDate.of(-1, 1, 1), LocalDateTime.of(10000, 1, 1, 0, 0), LocalTime.NOON}) {
+            assertThat(String.valueOf(value), CsvFieldFormatter.format(value, new char[CsvFieldFormatter.MAX_LENGTH], 0),
+                    is(-1));
+        }
+    }
+
+    /**
+     * 区切り文字とクォート文字が書き込む文字と重なる場合はサポートしないこと。
+     */
+    @Test
+    public void testIsSupported() throws Exception {
+        assertThat(CsvFieldFormatter.isSupported(CsvDataBindConfig.DEFAULT), is(true));
+        assertThat(CsvFieldFormatter.isSupported(CsvDataBindConfig.TSV), is(true));
+        assertThat(CsvFieldFormatter.isSupported(CsvDataBindConfig.DEFAULT.withFieldSeparator('.')), is(false));
+        assertThat(CsvFieldFormatter.isSupported(CsvDataBindConfig.DEFAULT.withFieldSeparator('-')), is(false));
+        assertThat(CsvFieldFormatter.isSupported(CsvDataBindConfig.DEFAULT.withQuote('0')), is(false));
+        assertThat(CsvFieldFormatter.isSupported(CsvDataBindConfig.DEFAULT.withQuote('T')), is(false));
+    }
+
+    /**
+     * 書き込まれた内容が{@link StringUtil#toString(Object)}と同じであることを検証する。
+     *
+     * @param value 値
+     */
+    private static void assertFormatted(final Object value) {
+        final String expected = StringUtil.toString(value);
+        final char[] buf = new char[CsvFieldFormatter.MAX_LENGTH + 3];
+        final int end = CsvFieldFormatter.format(value, buf, 3);
+        assertThat(expected, end, is(3 + expected.length()));
+        assertThat(new String(buf, 3, end - 3), is(expected));
+    }
+}
@@ -6,12 +6,21 @@ import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import nablarch.common.databind.DataBindConfig;
 import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.InvalidRecordHandler;
 import nablarch.common.databind.ObjectMapper;
 import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.common.databind.ReadPosition;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -124,6 +133,134 @@ public class CsvMapMapperTest {
         assertThat(map.get("name"), is("山田太郎"));
     }
 
+    /**
+     * 読み込む項目を設定した場合、設定した項目のみをキーとして読み込めること。
+     * 読み込まない項目のみからなる空行も読み飛ばされること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRead_projection() throws Exception {
+        resource.writeLine("年齢,氏名,住所");
+        resource.writeLine("20,山田太郎,東京都");
+        resource.writeLine("\"\"");
+        resource.writeLine("30,\"田中\"\"次郎\",");
+        resource.close();
+
+        final ObjectMapper<Map> mapper = ObjectMapperFactory.create(Map.class, resource.createReader(),
+                CsvDataBindConfig.DEFAULT.withHeaderTitles("年齢", "氏名", "住所").withProjection("氏名"));
+        Map<String, String> map1 = mapper.read();
+        Map<String, String> map2 = mapper.read();
+        Map<String, String> map3 = mapper.read();
+        mapper.close();
+
+        assertThat(map1.size(), is(1));
+        assertThat(map1.get("氏名"), is("山田太郎"));
+        assertThat(map2.size(), is(1));
+        assertThat(map2.get("氏名"), is("田中\"次郎"));
+        assertThat(map3, is(nullValue()));
+    }
+
+    /**
+     * 読み込み位置を保存し、その位置から読み込みを再開できること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRead_restart() throws Exception {
+        resource.writeLine("年齢,氏名");
+        resource.writeLine("20,\"山田\r\n太郎\"");
+        resource.writeLine("");
+        resource.writeLine("30,田中次郎");
+        resource.writeLine("40,鈴木三郎");
+        resource.close();
+
+        final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT.withHeaderTitles("年齢", "氏名");
+        final CsvMapMapper mapper = new CsvMapMapper(config, resource.createInputStream());
+        assertThat("ヘッダ行の読み込み後の位置", mapper.getPosition(), is(new ReadPosition(15L, 2L)));
+        assertThat(mapper.read().get("年齢"), is((Object) "20"));
+        final ReadPosition position = mapper.getPosition();
+        mapper.close();
+
+        // 直列化して保存した読み込み位置から再開する
+        final ByteArrayOutputStream saved = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(saved);
+        out.writeObject(position);
+        out.close();
+        final ReadPosition restored = (ReadPosition) new ObjectInputStream(
+                new ByteArrayInputStream(saved.toByteArray())).readObject();
+
+        final ObjectMapper<Map> sut = ObjectMapperFactory.create(Map.class,
+                new File(resource.getRoot(), "test.csv").toPath(), config, restored);
+        try {
+            final Map<String, ?> map1 = sut.read();
+            assertThat(map1.get("年齢"), is((Object) "30"));
+            assertThat(map1.get("氏名"), is((Object) "田中次郎"));
+            assertThat(((CsvObjectMapperSupport<?>) sut).getPosition().getNextLineNumber(), is(6L));
+            assertThat(sut.read().get("年齢"), is((Object) "40"));
+            assertThat(sut.read(), is(nullValue()));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * 読み込み位置から再開した場合でも、ファイル全体でのレコード番号で不正なデータが通知されること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRead_restart_invalidFormat() throws Exception {
+        resource.writeLine("年齢,氏名");
+        resource.writeLine("20,\"山田\r\n太郎\"");
+        resource.writeLine("30");
+        resource.close();
+
+        final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT.withHeaderTitles("年齢", "氏名");
+        final ObjectMapper<Map> sut = ObjectMapperFactory.create(Map.class,
+                new File(resource.getRoot(), "test.csv").toPath(), config, new ReadPosition(28L, 4L));
+        try {
+            sut.read();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getLineNumber(), is(4L));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * レコードのフィルタを設定した場合、フィルタが受け入れたレコードのみを読み込めること。
+     * 読み込む項目を設定した場合でも、フィルタは全ての項目を参照できること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRead_recordFilter() throws Exception {
+        resource.writeLine("年齢,氏名,状態");
+        resource.writeLine("20,山田太郎,0");
+        resource.writeLine("");
+        resource.writeLine("30,田中次郎,1");
+        resource.close();
+
+        final ObjectMapper<Map> mapper = ObjectMapperFactory.create(Map.class, resource.createReader(),
+                CsvDataBindConfig.DEFAULT.withHeaderTitles("年齢", "氏名", "状態")
+                        .withProjection("氏名")
+                        .withRecordFilter(new CsvRecordFilter() {
+                            @Override
+                            public boolean accept(final CsvRecord record) {
+                                return "1".contentEquals(record.get(2));
+                            }
+                        }));
+        Map<String, String> map1 = mapper.read();
+        Map<String, String> map2 = mapper.read();
+        mapper.close();
+
+        assertThat(map1.size(), is(1));
+        assertThat(map1.get("氏名"), is("田中次郎"));
+        assertThat(map2, is(nullValue()));
+    }
+
     /**
      *  プロパティのみ設定されている場合、プロパティをキーとして読み込めること
      *
@@ -373,4 +510,69 @@ public class CsvMapMapperTest {
         assertThat(map.get("🙀"), is("20"));
         assertThat(map.get("𪛊"), is("山田太郎"));
     }
-}
\ No newline at end of file
+
+    /**
+     * 不正なレコードを受け取るハンドラを設定した場合、不正なレコードを読み飛ばして読み込みを続けること。
+     * <p/>
+     * バイト単位で解析する場合と文字単位で解析する場合のいずれも、
+     * バッファを跨ぐレコードを含めてレコードの内容がハンドラに渡されること。
+     */
+    @Test
+    public void testRead_invalidRecordHandler() throws Exception {
+        final StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            longValue.append((char) ('a' + i % 26));
+        }
+        resource.writeLine("年齢,氏名");
+        resource.writeLine("1,a");
+        resource.writeLine("2,\"b\"x");
+        resource.writeLine("3,c\"d");
+        resource.writeLine("4");
+        resource.writeLine("5,\"" + longValue + "\"y,z");
+        resource.writeLine("6,f");
+        resource.writeLine("7,\"g");
+        resource.close();
+
+        final List<String> records = new ArrayList<String>();
+        final List<InvalidDataFormatException> causes = new ArrayList<InvalidDataFormatException>();
+        final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT.withProperties("age", "name")
+                .withInvalidRecordHandler(new InvalidRecordHandler() {
+                    @Override
+                    public void handle(final String record, final InvalidDataFormatException cause) {
+                        records.add(record);
+                        causes.add(cause);
+                    }
+                });
+        final ObjectMapper<?>[] mappers = {
+                new CsvMapMapper(config, resource.createInputStream()),
+                new CsvMapMapper(config, resource.createReader())
+        };
+        for (ObjectMapper<?> mapper : mappers) {
+            records.clear();
+            causes.clear();
+            assertThat(((Map<?, ?>) mapper.read()).get("age").toString(), is("1"));
+            assertThat(((Map<?, ?>) mapper.read()).get("age").toString(), is("6"));
+            assertThat(mapper.read(), is(nullValue()));
+            mapper.close();
+
+            assertThat(records.size(), is(5));
+            assertThat(records.get(0), is("2,\"b\"x"));
+            assertThat(records.get(1), is("3,c\"d"));
+            assertThat(records.get(2), is("4"));
+            assertThat(records.get(3), is("5,\"" + longValue + "\"y,z"));
+            assertThat(records.get(4), is("7,\"g"));
+            assertThat(causes.get(0).getMessage(), containsString("unescaped quote character."));
+            assertThat(causes.get(0).getLineNumber(), is(3L));
+            assertThat(causes.get(1).getMessage(), containsString("invalid quote character."));
+            assertThat(causes.get(1).getLineNumber(), is(4L));
+            assertThat(causes.get(2).getMessage(), containsString("property size does not match."));
+            assertThat(causes.get(2).getLineNumber(), is(5L));
+            assertThat(causes.get(3).getLineNumber(), is(6L));
+            assertThat(causes.get(4).getMessage(), containsString("EOF reached before quoted token finished."));
+            assertThat(causes.get(4).getLineNumber(), is(8L));
+            for (InvalidDataFormatException cause : causes) {
+                assertThat("スタックトレースを持たない", cause.getStackTrace().length, is(0));
+            }
+        }
+    }
+}
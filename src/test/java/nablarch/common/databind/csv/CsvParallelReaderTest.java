@@ -0,0 +1,339 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.LineNumber;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link CsvParallelReader}のテスト。
+ */
+public class CsvParallelReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 範囲の境界がクォートで囲まれた要素の途中にある場合でも、レコードの先頭で分割されること。
+     */
+    @Test
+    public void split() throws Exception {
+        // 均等に分割した位置(6, 13)は、いずれもクォートで囲まれた2レコード目(5～14)の途中となる
+        final Path path = write("a,b\r\n1,\"x\r\ny\"\r\n2,z\r\n", "UTF-8");
+        final CsvParallelReader<Person> sut = new CsvParallelReader<Person>(
+                Person.class, CsvDataBindConfig.DEFAULT.withProperties("age", "name"), path, 3, 1L);
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final List<CsvParallelReader.Chunk> chunks = sut.split(channel, executor);
+            assertThat("空の範囲は除外される", chunks.size(), is(2));
+            assertThat(chunks.get(0).start, is(0L));
+            assertThat(chunks.get(0).end, is(15L));
+            assertThat(chunks.get(0).firstLineNumber, is(1L));
+            // 2レコード目はクォート内の改行を含むため、3レコード目は4行目から始まる
+            assertThat(chunks.get(1).start, is(15L));
+            assertThat(chunks.get(1).end, is(20L));
+            assertThat(chunks.get(1).firstLineNumber, is(4L));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * クォート文字を含まないファイルでは、各範囲の走査が範囲の終端の直後のレコードの先頭までで終わること。
+     * <p/>
+     * 範囲の先頭がクォートの内側である場合のレコードの先頭は見つからないため、未確定のまま走査を終える。
+     */
+    @Test
+    public void scan_withoutQuote() throws Exception {
+        final StringBuilder csv = new StringBuilder("年齢,氏名\r\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append(i).append(",山田\r\n");
+        }
+        final Path path = write(csv.toString(), "UTF-8");
+        final int count = 16;
+        final CsvParallelReader<Person> sut = new CsvParallelReader<Person>(
+                Person.class, CsvDataBindConfig.DEFAULT.withProperties("age", "name"), path, count, 1L);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long scanned = 0L;
+            for (int i = 0; i < count; i++) {
+                final long from = size * i / count;
+                final long to = size * (i + 1) / count;
+                final CsvParallelReader.ScanResult result = sut.scan(channel, from, to, size);
+                assertThat(result.recordStart[1], is(CsvParallelReader.ScanResult.UNRESOLVED));
+                assertThat("範囲の終端を1レコード分以上超えて走査しない",
+                        result.position - to < "999,山田\r\n".getBytes("UTF-8").length, is(true));
+                scanned += result.position - from;
+            }
+            assertThat("ファイル全体を1回程度のみ走査する", scanned < size + count * 16L, is(true));
+
+            final ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                final List<CsvParallelReader.Chunk> chunks = sut.split(channel, executor);
+                assertThat(chunks.size(), is(count));
+                long lineNumber = 1L;
+                long start = 0L;
+                for (final CsvParallelReader.Chunk chunk : chunks) {
+                    assertThat(chunk.start, is(start));
+                    assertThat(chunk.firstLineNumber, is(lineNumber));
+                    lineNumber += countLines(path, chunk);
+                    start = chunk.end;
+                }
+                assertThat(start, is(size));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * 並列に読み込んだ結果が、1スレッドで読み込んだ結果と一致すること。
+     * <p/>
+     * 分割位置がクォート内の改行やエスケープされたクォート、マルチバイト文字の途中になるデータを、
+     * 範囲の最小サイズを変えながら検証する。
+     */
+    @Test
+    public void forEach_sameAsSequential() throws Exception {
+        final Random random = new Random(1L);
+        for (int n = 0; n < 30; n++) {
+            final StringBuilder csv = new StringBuilder("年齢,氏名\r\n");
+            final int records = random.nextInt(50);
+            for (int i = 0; i < records; i++) {
+                if (random.nextInt(10) == 0) {
+                    // 空行は読み飛ばされる
+                    csv.append("\r\n");
+                }
+                csv.append(i).append(',').append(randomItem(random)).append("\r\n");
+            }
+            final Path path = write(csv.toString(), "UTF-8");
+            final List<Person> expected = readSequential(path);
+
+            for (long chunkSize = 1L; chunkSize < 64L; chunkSize += 7L) {
+                final List<Person> actual = readParallel(path, 4, chunkSize);
+                assertThat("件数", actual.size(), is(expected.size()));
+                for (int i = 0; i < expected.size(); i++) {
+                    assertThat(actual.get(i).getAge(), is(expected.get(i).getAge()));
+                    assertThat(actual.get(i).getName(), is(expected.get(i).getName()));
+                    assertThat(actual.get(i).getLineNumber(), is(expected.get(i).getLineNumber()));
+                }
+            }
+        }
+    }
+
+    /**
+     * 不正なデータが存在する場合、ファイル全体でのレコード番号を持つ例外が送出されること。
+     */
+    @Test
+    public void forEach_invalidFormat() throws Exception {
+        final StringBuilder csv = new StringBuilder("年齢,氏名\r\n");
+        for (int i = 0; i < 20; i++) {
+            csv.append(i).append(",\"山田\r\n太郎\"\r\n");
+        }
+        csv.append("20,山\"田\r\n");
+        for (int i = 21; i < 30; i++) {
+            csv.append(i).append(",田中\r\n");
+        }
+        final Path path = write(csv.toString(), "UTF-8");
+        try {
+            readParallel(path, 4, 16L);
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), is("data format is invalid. invalid quote character. line number = [42]"));
+        }
+    }
+
+    /**
+     * Mapに読み込めること。
+     */
+    @Test
+    public void forEach_map() throws Exception {
+        final Path path = write("age\tname\n1\t\"a\nb\"\n2\tc\n3\td\n", "UTF-8");
+        final CsvDataBindConfig config = CsvDataBindConfig.TSV.withLineSeparator("\n")
+                .withHeaderTitles("age", "name")
+                .withRequiredHeader(true);
+        final Map<String, String> actual = Collections.synchronizedMap(new TreeMap<String, String>());
+        @SuppressWarnings("unchecked")
+        final Class<Map<String, ?>> mapClass = (Class<Map<String, ?>>) (Class<?>) Map.class;
+        new CsvParallelReader<Map<String, ?>>(mapClass, config, path, 3, 1L).forEach(new Consumer<Map<String, ?>>() {
+            @Override
+            public void accept(final Map<String, ?> map) {
+                actual.put((String) map.get("age"), (String) map.get("name"));
+            }
+        });
+        assertThat(actual.toString(), is("{1=a\nb, 2=c, 3=d}"));
+    }
+
+    /**
+     * バイト単位で解析できない文字コードの場合、分割せずに読み込めること。
+     */
+    @Test
+    public void forEach_unsupportedCharset() throws Exception {
+        final Path path = write("age,name\r\n1,\"a\r\nb\"\r\n2,c\r\n", "UTF-16");
+        final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT.withCharset(Charset.forName("UTF-16"))
+                .withProperties("age", "name");
+        final List<Person> actual = new ArrayList<Person>();
+        new CsvParallelReader<Person>(Person.class, config, path, 4, 1L).forEach(new Consumer<Person>() {
+            @Override
+            public void accept(final Person person) {
+                actual.add(person);
+            }
+        });
+        assertThat(actual.size(), is(2));
+        assertThat(actual.get(0).getName(), is("a\r\nb"));
+        assertThat(actual.get(1).getLineNumber(), is(4L));
+    }
+
+    /**
+     * 並列度が0以下の場合、例外が送出されること。
+     */
+    @Test
+    public void invalidParallelism() throws Exception {
+        try {
+            new CsvParallelReader<Person>(Person.class, CsvDataBindConfig.DEFAULT, folder.newFile().toPath(), 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("parallelism must be greater than 0. parallelism = [0]"));
+        }
+    }
+
+    /**
+     * {@link ObjectMapperFactory}から並列に読み込めること。
+     */
+    @Test
+    public void forEachInParallel() throws Exception {
+        final Path path = write("年齢,氏名\r\n20,山田\r\n30,田中\r\n", "UTF-8");
+        final ConcurrentLinkedQueue<Person> actual = new ConcurrentLinkedQueue<Person>();
+        ObjectMapperFactory.forEachInParallel(Person.class, path, 2, new Consumer<Person>() {
+            @Override
+            public void accept(final Person person) {
+                actual.add(person);
+            }
+        });
+        assertThat(actual.size(), is(2));
+    }
+
+    private static String randomItem(final Random random) {
+        final String[] parts = {"a", "山田", "\"\"", "\r\n", ",", "ソ"};
+        final int length = random.nextInt(5);
+        if (length == 0) {
+            return "";
+        }
+        final StringBuilder item = new StringBuilder("\"");
+        for (int i = 0; i < length; i++) {
+            item.append(parts[random.nextInt(parts.length)]);
+        }
+        return item.append('"').toString();
+    }
+
+    private Path write(final String csv, final String charset) throws Exception {
+        final File file = folder.newFile();
+        Files.write(file.toPath(), csv.getBytes(charset));
+        return file.toPath();
+    }
+
+    private static long countLines(final Path path, final CsvParallelReader.Chunk chunk) throws Exception {
+        final byte[] bytes = Files.readAllBytes(path);
+        assertThat("範囲の先頭はレコードの先頭", chunk.start == 0 || bytes[(int) chunk.start - 1] == '\n', is(true));
+        long lines = 0L;
+        for (int i = (int) chunk.start; i < chunk.end; i++) {
+            if (bytes[i] == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static List<Person> readSequential(final Path path) throws Exception {
+        final List<Person> result = new ArrayList<Person>();
+        final ObjectMapper<Person> mapper = ObjectMapperFactory.create(Person.class, Files.newInputStream(path));
+        try {
+            Person person;
+            while ((person = mapper.read()) != null) {
+                result.add(person);
+            }
+        } finally {
+            mapper.close();
+        }
+        return result;
+    }
+
+    private static List<Person> readParallel(final Path path, final int parallelism, final long chunkSize) {
+        final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT
+                .withHeaderTitles("年齢", "氏名")
+                .withProperties("age", "name");
+        final ConcurrentLinkedQueue<Person> queue = new ConcurrentLinkedQueue<Person>();
+        new CsvParallelReader<Person>(Person.class, config, path, parallelism, chunkSize).forEach(
+                new Consumer<Person>() {
+                    @Override
+                    public void accept(final Person person) {
+                        queue.add(person);
+                    }
+                });
+        final List<Person> result = new ArrayList<Person>(queue);
+        Collections.sort(result, new Comparator<Person>() {
+            @Override
+            public int compare(final Person o1, final Person o2) {
+                return o1.getLineNumber().compareTo(o2.getLineNumber());
+            }
+        });
+        return result;
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"age", "name"}, headers = {"年齢", "氏名"})
+    public static class Person {
+        private Long lineNumber;
+        private String age;
+        private String name;
+
+        @LineNumber
+        public Long getLineNumber() {
+            return lineNumber;
+        }
+
+        public void setLineNumber(Long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+
+        public String getAge() {
+            return age;
+        }
+
+        public void setAge(String age) {
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link CsvRecordIndex}のテスト。
+ */
+public class CsvRecordIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final CsvDataBindConfig CONFIG = CsvDataBindConfig.DEFAULT.withHeaderTitles("年齢", "氏名");
+
+    /**
+     * ヘッダ行と空行を除いたレコード数と、間隔ごとのレコードの位置が保持されること。
+     */
+    @Test
+    public void build() throws Exception {
+        final Path path = write("年齢,氏名\r\n1,\"a\r\nb\"\r\n\r\n2,\"\"\"\"\r\n3,c\r\n\"\"\r\n4,d");
+        final CsvRecordIndex sut = CsvRecordIndex.build(path, CONFIG, 2);
+        assertThat(sut.getRecordCount(), is(4L));
+        assertThat(sut.getInterval(), is(2));
+        assertThat(sut.getFileSize(), is(Files.size(path)));
+
+        // 0レコード目はヘッダ行の直後
+        assertThat(sut.floorEntry(1L), is(0));
+        assertThat(sut.getOffset(0), is(15L));
+        assertThat(sut.getLineNumber(0), is(2L));
+        // 2レコード目は、2レコード目の直前のレコードの直後(空行を含む)
+        assertThat(sut.floorEntry(3L), is(1));
+        assertThat(sut.getOffset(1), is(35L));
+        assertThat(sut.getLineNumber(1), is(6L));
+        assertThat("レコード数と同じ位置はファイルの終端", sut.floorEntry(4L), is(2));
+    }
+
+    /**
+     * 空行を無視しない設定の場合、空行もレコードとして数えること。
+     */
+    @Test
+    public void build_notIgnoreEmptyLine() throws Exception {
+        final Path path = write("1\n\n2\n");
+        final CsvRecordIndex sut = CsvRecordIndex.build(path, CsvDataBindConfig.TSV.withLineSeparator("\n"), 1);
+        assertThat(sut.getRecordCount(), is(3L));
+        assertThat(sut.getOffset(2), is(3L));
+        assertThat(sut.getLineNumber(2), is(3L));
+    }
+
+    /**
+     * 索引を使用して指定したレコードに移動して読み込めること。
+     */
+    @Test
+    public void seek() throws Exception {
+        final StringBuilder csv = new StringBuilder("年齢,氏名\r\n");
+        for (int i = 0; i < 100; i++) {
+            csv.append(i).append(",\"名前\r\n").append(i).append("\"\r\n");
+            if (i % 7 == 0) {
+                csv.append("\r\n");
+            }
+        }
+        final Path path = write(csv.toString());
+        final CsvRecordIndex index = CsvRecordIndex.build(path, CONFIG, 10);
+
+        final ObjectMapper<CsvParallelReaderTest.Person> mapper = ObjectMapperFactory.create(
+                CsvParallelReaderTest.Person.class, new FileInputStream(path.toFile()));
+        final CsvObjectMapperSupport<CsvParallelReaderTest.Person> sut =
+                (CsvObjectMapperSupport<CsvParallelReaderTest.Person>) mapper;
+        try {
+            for (int record : new int[] {57, 3, 0, 99, 10}) {
+                sut.seek(index, record);
+                final CsvParallelReaderTest.Person person = sut.read();
+                assertThat(person.getAge(), is(String.valueOf(record)));
+                assertThat(person.getName(), is("名前\r\n" + record));
+                assertThat(person.getLineNumber(), is(readSequential(path, record).getLineNumber()));
+            }
+            sut.seek(index, 100L);
+            assertThat("レコード数と同じ位置に移動した場合は終端", sut.read(), is(nullValue()));
+
+            sut.seek(index, 20L);
+            assertThat(sut.skip(5L), is(5L));
+            assertThat(sut.read().getAge(), is("25"));
+        } finally {
+            mapper.close();
+        }
+    }
+
+    /**
+     * 索引をファイルに保存して読み込めること。
+     */
+    @Test
+    public void saveAndLoad() throws Exception {
+        final Path path = write("年齢,氏名\r\n1,a\r\n2,b\r\n3,c\r\n");
+        final CsvRecordIndex index = CsvRecordIndex.build(path, CONFIG, 2);
+        final Path indexFile = folder.newFile().toPath();
+        index.save(indexFile);
+
+        final CsvRecordIndex sut = CsvRecordIndex.load(indexFile);
+        assertThat(sut.getRecordCount(), is(3L));
+        assertThat(sut.getInterval(), is(2));
+        assertThat(sut.getFileSize(), is(index.getFileSize()));
+        assertThat(sut.getOffset(1), is(index.getOffset(1)));
+        assertThat(sut.getLineNumber(1), is(index.getLineNumber(1)));
+    }
+
+    /**
+     * CSVファイルと同じディレクトリに索引を保存し、ファイルが変更された場合は作り直すこと。
+     */
+    @Test
+    public void loadOrBuild() throws Exception {
+        final Path path = write("年齢,氏名\r\n1,a\r\n");
+        final Path indexFile = path.resolveSibling(path.getFileName() + ".idx");
+        assertThat(CsvRecordIndex.loadOrBuild(path, CONFIG, 1).getRecordCount(), is(1L));
+        assertThat(Files.exists(indexFile), is(true));
+
+        Files.write(path, "年齢,氏名\r\n1,a\r\n2,b\r\n".getBytes("UTF-8"));
+        assertThat(CsvRecordIndex.loadOrBuild(path, CONFIG, 1).getRecordCount(), is(2L));
+        assertThat(CsvRecordIndex.load(indexFile).getRecordCount(), is(2L));
+    }
+
+    /**
+     * ファイルのサイズが変わらない変更の場合や、保存した索引と間隔または設定が異なる場合も作り直すこと。
+     * <p/>
+     * 索引ファイルが途中で切れている場合も、例外を送出せずに作り直すこと。
+     */
+    @Test
+    public void loadOrBuild_rebuild() throws Exception {
+        final Path path = write("年齢,氏名\r\n1,a\r\n\r\n2,b\r\n");
+        final Path indexFile = path.resolveSibling(path.getFileName() + ".idx");
+        assertThat(CsvRecordIndex.loadOrBuild(path, CONFIG, 1).getRecordCount(), is(2L));
+        assertThat("同じ設定の場合は保存した索引を使用する",
+                CsvRecordIndex.loadOrBuild(path, CONFIG, 1).getFileSize(), is(Files.size(path)));
+
+        final FileTime lastModified = Files.getLastModifiedTime(path);
+        Files.write(path, "年齢,氏名\r\n1,a,,,,,,b\r\n".getBytes("UTF-8"));
+        Files.setLastModifiedTime(path, FileTime.fromMillis(lastModified.toMillis() + 10000L));
+        assertThat("サイズが同じでも最終更新日時が異なる場合は作り直す",
+                CsvRecordIndex.loadOrBuild(path, CONFIG, 1).getRecordCount(), is(1L));
+        Files.write(path, "年齢,氏名\r\n1,a\r\n\r\n2,b\r\n".getBytes("UTF-8"));
+        Files.setLastModifiedTime(path, FileTime.fromMillis(lastModified.toMillis() + 20000L));
+        assertThat(CsvRecordIndex.loadOrBuild(path, CONFIG, 1).getRecordCount(), is(2L));
+
+        assertThat("間隔が異なる場合は作り直す", CsvRecordIndex.loadOrBuild(path, CONFIG, 2).getInterval(), is(2));
+        assertThat(CsvRecordIndex.load(indexFile).getInterval(), is(2));
+
+        assertThat("ヘッダ行の有無が異なる場合は作り直す",
+                CsvRecordIndex.loadOrBuild(path, CONFIG.withRequiredHeader(false), 2).getRecordCount(), is(3L));
+        assertThat("空行を無視するか否かが異なる場合は作り直す",
+                CsvRecordIndex.loadOrBuild(path, CONFIG.withIgnoreEmptyLine(false), 2).getRecordCount(), is(3L));
+        assertThat(CsvRecordIndex.loadOrBuild(path, CONFIG, 2).getRecordCount(), is(2L));
+
+        final byte[] saved = Files.readAllBytes(indexFile);
+        Files.write(indexFile, Arrays.copyOf(saved, saved.length - 4));
+        assertThat("索引ファイルが途中で切れている場合は作り直す",
+                CsvRecordIndex.loadOrBuild(path, CONFIG, 2).getRecordCount(), is(2L));
+        assertThat(Files.readAllBytes(indexFile).length, is(saved.length));
+    }
+
+    /**
+     * 索引ファイルの形式が不正な場合、例外が送出されること。
+     */
+    @Test
+    public void load_invalidFile() throws Exception {
+        final Path indexFile = write("年齢,氏名\r\n1,a\r\n");
+        try {
+            CsvRecordIndex.load(indexFile);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("invalid index file. path = [" + indexFile + ']'));
+        }
+    }
+
+    /**
+     * バイト単位で解析できない文字コードの場合、例外が送出されること。
+     */
+    @Test
+    public void build_unsupportedCharset() throws Exception {
+        try {
+            CsvRecordIndex.build(write(""), CONFIG.withCharset(Charset.forName("UTF-16")), 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("unsupported charset for record index. charset = [UTF-16]"));
+        }
+    }
+
+    /**
+     * 間隔が0以下の場合、例外が送出されること。
+     */
+    @Test
+    public void build_invalidInterval() throws Exception {
+        try {
+            CsvRecordIndex.build(write(""), CONFIG, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("interval must be greater than 0. interval = [0]"));
+        }
+    }
+
+    /**
+     * 範囲外のレコードを指定した場合、例外が送出されること。
+     */
+    @Test
+    public void seek_outOfRange() throws Exception {
+        final Path path = write("年齢,氏名\r\n1,a\r\n");
+        final CsvRecordIndex index = CsvRecordIndex.build(path, CONFIG, 1);
+        final CsvDataReader sut = new CsvDataReader(new FileInputStream(path.toFile()), CONFIG);
+        try {
+            sut.seek(index, 2L);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("record number is out of range. record number = [2], record count = [1]"));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * 索引と異なるファイルの場合、例外が送出されること。
+     */
+    @Test
+    public void seek_otherFile() throws Exception {
+        final CsvRecordIndex index = CsvRecordIndex.build(write("年齢,氏名\r\n1,a\r\n"), CONFIG, 1);
+        final Path other = write("年齢,氏名\r\n10,a\r\n");
+        final CsvDataReader sut = new CsvDataReader(new FileInputStream(other.toFile()), CONFIG);
+        try {
+            sut.seek(index, 0L);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("index does not match the file. file size = [21], index file size = [20]"));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * ファイル以外の入力の場合、例外が送出されること。
+     */
+    @Test
+    public void seek_notFile() throws Exception {
+        final Path path = write("年齢,氏名\r\n1,a\r\n");
+        final CsvRecordIndex index = CsvRecordIndex.build(path, CONFIG, 1);
+        final CsvDataReader sut = new CsvDataReader(new ByteArrayInputStream(Files.readAllBytes(path)), CONFIG);
+        try {
+            sut.seek(index, 0L);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage(), is("seek is not supported. input must be a FileInputStream"
+                    + " with a byte parsable charset."));
+        } finally {
+            sut.close();
+        }
+    }
+
+    private CsvParallelReaderTest.Person readSequential(final Path path, final int record) throws Exception {
+        final ObjectMapper<CsvParallelReaderTest.Person> mapper = ObjectMapperFactory.create(
+                CsvParallelReaderTest.Person.class, Files.newInputStream(path));
+        try {
+            CsvParallelReaderTest.Person person = mapper.read();
+            for (int i = 0; i < record; i++) {
+                person = mapper.read();
+            }
+            return person;
+        } finally {
+            mapper.close();
+        }
+    }
+
+    private Path write(final String csv) throws Exception {
+        final File file = folder.newFile();
+        Files.write(file.toPath(), csv.getBytes("UTF-8"));
+        return file.toPath();
+    }
+}
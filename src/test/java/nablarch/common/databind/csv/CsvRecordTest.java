@@ -0,0 +1,100 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+/**
+ * {@link CsvRecord}のテスト。
+ */
+public class CsvRecordTest {
+
+    /**
+     * 要素を{@link CharSequence}として参照できること。
+     */
+    @Test
+    public void get() throws Exception {
+        final CsvRecord sut = read("abc,\"d\"\"e\",,");
+
+        assertThat(sut.size(), is(4));
+        final CharSequence first = sut.get(0);
+        assertThat(first.length(), is(3));
+        assertThat(first.charAt(1), is('b'));
+        assertThat(first.subSequence(1, 3).toString(), is("bc"));
+        assertThat(first.toString(), is("abc"));
+        assertThat(sut.get(1).toString(), is("d\"e"));
+        assertThat(sut.get(2), is(nullValue()));
+        assertThat(sut.getString(3), is(nullValue()));
+        assertThat(sut.toString(), is("[abc, d\"e, null, null]"));
+    }
+
+    /**
+     * 同じインデックスの要素は、同じ{@link CharSequence}で次のレコードの値を参照すること。
+     */
+    @Test
+    public void get_reuse() throws Exception {
+        final CsvDataReader reader = new CsvDataReader(
+                new BufferedReader(new StringReader("a,b\r\nccc,d\r\n")), CsvDataBindConfig.DEFAULT);
+        final CsvRecord sut = new CsvRecord();
+        reader.read(sut);
+        final CharSequence first = sut.get(0);
+        final String value = sut.getString(0);
+
+        reader.read(sut);
+        assertThat(sut.get(0), is(sameInstance(first)));
+        assertThat(first.toString(), is("ccc"));
+        assertThat("文字列として取得した値は変わらない", value, is("a"));
+    }
+
+    /**
+     * 要素数やバッファの初期サイズを超えるレコードを保持できること。
+     */
+    @Test
+    public void largeRecord() throws Exception {
+        final StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            csv.append(i == 0 ? "" : ",").append("value").append(i);
+        }
+        final CsvRecord sut = read(csv.toString());
+
+        assertThat(sut.size(), is(100));
+        for (int i = 0; i < 100; i++) {
+            assertThat(sut.get(i).toString(), is("value" + i));
+        }
+    }
+
+    /**
+     * 範囲外のインデックスを指定した場合、例外が送出されること。
+     */
+    @Test
+    public void indexOutOfBounds() throws Exception {
+        final CsvRecord sut = read("a,b");
+        try {
+            sut.get(2);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            assertThat(e.getMessage(), is("index = [2], size = [2]"));
+        }
+        try {
+            sut.get(0).charAt(1);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            assertThat(e.getMessage(), is("index = [1], length = [1]"));
+        }
+    }
+
+    private static CsvRecord read(final String csv) {
+        final CsvDataReader reader = new CsvDataReader(
+                new BufferedReader(new StringReader(csv)), CsvDataBindConfig.DEFAULT);
+        final CsvRecord record = new CsvRecord();
+        reader.read(record);
+        return record;
+    }
+}
@@ -0,0 +1,274 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import nablarch.common.databind.DataBindConfig;
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ObjectMapper;
+import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.common.databind.csv.CsvParallelReaderTest.Person;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link CsvSpliterator}のテスト。
+ */
+public class CsvSpliteratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT
+            .withHeaderTitles("年齢", "氏名")
+            .withProperties("age", "name");
+
+    /**
+     * 並列ストリームで読み込んだ結果が、ファイル上の順序で1スレッドで読み込んだ結果と一致すること。
+     * <p/>
+     * 分割位置がクォート内の改行やエスケープされたクォートの途中になるデータで検証する。
+     */
+    @Test
+    public void parallel_sameAsSequential() throws Exception {
+        final Random random = new Random(1L);
+        for (int n = 0; n < 20; n++) {
+            final StringBuilder csv = new StringBuilder("年齢,氏名\r\n");
+            final int records = random.nextInt(200);
+            for (int i = 0; i < records; i++) {
+                if (random.nextInt(10) == 0) {
+                    csv.append("\r\n");
+                }
+                csv.append(i).append(',').append(randomItem(random)).append("\r\n");
+            }
+            final Path path = write(csv.toString());
+
+            final List<String> expected;
+            try (Stream<Person> stream = ObjectMapperFactory.stream(Person.class, path)) {
+                expected = toStrings(stream.collect(Collectors.<Person>toList()));
+            }
+            for (int parallelism = 1; parallelism < 20; parallelism += 6) {
+                final CsvParallelReader<Person> reader = new CsvParallelReader<Person>(
+                        Person.class, config, path, parallelism, 1L);
+                try (Stream<Person> stream = CsvSpliterator.stream(reader, path)) {
+                    assertThat(toStrings(stream.parallel().collect(Collectors.<Person>toList())), is(expected));
+                }
+            }
+        }
+    }
+
+    /**
+     * 初めて分割する際にレコードの境界で分割され、以降は分割した範囲を単位として分割されること。
+     */
+    @Test
+    public void trySplit() throws Exception {
+        // 均等に4分割した位置(5, 10, 15)は、いずれもクォートで囲まれた2レコード目(5～14)の途中または直後となる
+        final Path path = write("a,b\r\n1,\"x\r\ny\"\r\n2,z\r\n");
+        final CsvParallelReader<Person> reader = new CsvParallelReader<Person>(
+                Person.class, CsvDataBindConfig.DEFAULT.withProperties("age", "name"), path, 4, 1L);
+        try (Stream<Person> stream = CsvSpliterator.stream(reader, path)) {
+            final CsvSpliterator<Person> suffix = (CsvSpliterator<Person>) stream.spliterator();
+            assertThat(suffix.estimateSize(), is(20L));
+
+            final CsvSpliterator<Person> prefix = suffix.trySplit();
+            assertThat("ヘッダと2レコード目", prefix.estimateSize(), is(15L));
+            assertThat(suffix.estimateSize(), is(5L));
+            assertThat("分割した範囲が1つの場合は分割しない", suffix.trySplit() == null, is(true));
+        }
+    }
+
+    /**
+     * Mapに読み込めること。
+     */
+    @Test
+    public void stream_map() throws Exception {
+        final Path path = write("age,name\r\n1,a\r\n2,b\r\n");
+        final CsvDataBindConfig mapConfig = CsvDataBindConfig.DEFAULT.withHeaderTitles("age", "name");
+        try (Stream<Map<String, ?>> stream = streamMap(path, mapConfig)) {
+            final List<Map<String, ?>> actual = stream.collect(Collectors.<Map<String, ?>>toList());
+            assertThat(actual.size(), is(2));
+            assertThat(actual.get(1).get("age"), is((Object) "2"));
+            assertThat(actual.get(1).get("name"), is((Object) "b"));
+        }
+    }
+
+    /**
+     * 不正なデータが存在する場合、ファイル全体でのレコード番号を持つ例外が送出されること。
+     */
+    @Test
+    public void parallel_invalidFormat() throws Exception {
+        final StringBuilder csv = new StringBuilder("年齢,氏名\r\n");
+        for (int i = 0; i < 20; i++) {
+            csv.append(i).append(",\"山田\r\n太郎\"\r\n");
+        }
+        csv.append("20,山\"田\r\n");
+        final Path path = write(csv.toString());
+        final CsvParallelReader<Person> reader = new CsvParallelReader<Person>(Person.class, config, path, 4, 16L);
+        try (Stream<Person> stream = CsvSpliterator.stream(reader, path)) {
+            stream.parallel().count();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), is("data format is invalid. invalid quote character. line number = [42]"));
+        }
+    }
+
+    /**
+     * 範囲を読み終える前にストリームの処理が終了した場合も、ストリームを閉じると読み込み中の範囲の{@link ObjectMapper}が閉じられること。
+     */
+    @Test
+    public void close_closesUnfinishedMappers() throws Exception {
+        final StringBuilder csv = new StringBuilder("年齢,氏名\r\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append(i).append(",山田\r\n");
+        }
+        final Path path = write(csv.toString());
+        final List<ObjectMapper<Person>> closed =
+                Collections.synchronizedList(new ArrayList<ObjectMapper<Person>>());
+
+        final CsvParallelReader<Person> reader = new CsvParallelReader<Person>(Person.class, config, path, 4, 1L) {
+            @Override
+            ObjectMapper<Person> createMapper(final FileChannel channel, final Chunk chunk) {
+                final ObjectMapper<Person> mapper = super.createMapper(channel, chunk);
+                return new ObjectMapper<Person>() {
+                    @Override
+                    public void write(final Person object) {
+                        mapper.write(object);
+                    }
+
+                    @Override
+                    public Person read() {
+                        return mapper.read();
+                    }
+
+                    @Override
+                    public void close() {
+                        closed.add(mapper);
+                        mapper.close();
+                    }
+                };
+            }
+        };
+        final Stream<Person> stream = CsvSpliterator.stream(reader, path);
+        final CsvSpliterator<Person> suffix = (CsvSpliterator<Person>) stream.spliterator();
+        final CsvSpliterator<Person> prefix = suffix.trySplit();
+        final Consumer<Person> ignore = new Consumer<Person>() {
+            @Override
+            public void accept(final Person person) {
+            }
+        };
+        assertThat(prefix.tryAdvance(ignore), is(true));
+        assertThat(suffix.tryAdvance(ignore), is(true));
+        assertThat(closed.size(), is(0));
+        stream.close();
+        assertThat("分割した範囲ごとのObjectMapperが閉じられている", closed.size(), is(2));
+        stream.close();
+        assertThat("閉じたObjectMapperは再度閉じない", closed.size(), is(2));
+    }
+
+    /**
+     * 範囲を読み終える前にストリームの処理が終了した場合も、ストリームを閉じると読み込み中の範囲の変換用のスレッドが停止すること。
+     */
+    @Test
+    public void close_stopsUnfinishedMappers() throws Exception {
+        final StringBuilder csv = new StringBuilder("年齢,氏名\r\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append(i).append(",山田\r\n");
+        }
+        final Path path = write(csv.toString());
+        final CsvDataBindConfig parallelConfig = config.withParallelBind(2);
+        final int before = countThreads("databind-bind");
+
+        final CsvParallelReader<Person> reader = new CsvParallelReader<Person>(Person.class, parallelConfig, path, 4, 1L);
+        final Stream<Person> stream = CsvSpliterator.stream(reader, path);
+        final CsvSpliterator<Person> suffix = (CsvSpliterator<Person>) stream.spliterator();
+        final CsvSpliterator<Person> prefix = suffix.trySplit();
+        final Consumer<Person> ignore = new Consumer<Person>() {
+            @Override
+            public void accept(final Person person) {
+            }
+        };
+        assertThat(prefix.tryAdvance(ignore), is(true));
+        assertThat(suffix.tryAdvance(ignore), is(true));
+        assertThat("分割した範囲ごとに変換用のスレッドが起動している", countThreads("databind-bind") > before, is(true));
+        stream.close();
+        awaitThreads("databind-bind", before);
+
+        try (Stream<Person> parallel = CsvSpliterator.stream(
+                new CsvParallelReader<Person>(Person.class, parallelConfig, path, 4, 1L), path)) {
+            assertThat(parallel.parallel().findFirst().get().getAge(), is("0"));
+        }
+        awaitThreads("databind-bind", before);
+    }
+
+    private static int countThreads(final String name) {
+        int count = 0;
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && thread.getName().equals(name)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void awaitThreads(final String name, final int expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000L;
+        while (countThreads(name) > expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertThat(countThreads(name), is(expected));
+    }
+
+    private static String randomItem(final Random random) {
+        final String[] parts = {"a", "山田", "\"\"", "\r\n", ","};
+        final int length = random.nextInt(5);
+        if (length == 0) {
+            return "";
+        }
+        final StringBuilder item = new StringBuilder("\"");
+        for (int i = 0; i < length; i++) {
+            item.append(parts[random.nextInt(parts.length)]);
+        }
+        return item.append('"').toString();
+    }
+
+    private static List<String> toStrings(final List<Person> persons) {
+        final List<String> result = new ArrayList<String>(persons.size());
+        for (final Person person : persons) {
+            result.add(person.getLineNumber() + ":" + person.getAge() + ":" + person.getName());
+        }
+        return result;
+    }
+
+    /**
+     * {@link Map}に読み込む{@link Stream}を生成する。
+     *
+     * @param path 読み込むファイル
+     * @param config マッピング設定
+     * @return {@link Map}に読み込む{@link Stream}
+     */
+    @SuppressWarnings("unchecked")
+    private static Stream<Map<String, ?>> streamMap(final Path path, final DataBindConfig config) {
+        return (Stream<Map<String, ?>>) (Stream<?>) ObjectMapperFactory.stream(Map.class, path, config);
+    }
+
+    private Path write(final String csv) throws Exception {
+        final File file = folder.newFile();
+        Files.write(file.toPath(), csv.getBytes("UTF-8"));
+        return file.toPath();
+    }
+}
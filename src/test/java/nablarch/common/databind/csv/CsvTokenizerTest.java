@@ -1,17 +1,15 @@
 package nablarch.common.databind.csv;
 
-import nablarch.test.support.reflection.ReflectionUtil;
 import org.junit.Test;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
-import java.nio.CharBuffer;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
-import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
@@ -39,104 +37,73 @@ public class CsvTokenizerTest {
     }
 
     /**
-     * 内部のリーダの未実装メソッドのテスト
+     * バッファサイズより長い要素を読み込めること
      */
     @Test
-    public void unsupportedMethod() throws Exception {
-
-        final CsvTokenizer sut = new CsvTokenizer(new BufferedReader(new StringReader("1,\"2\",3")), CsvDataBindConfig.DEFAULT);
-        final BufferedReader reader = ReflectionUtil.getFieldValue(sut, "reader");
-
-        try {
-            reader.skip(1);
-            fail();
-        } catch (UnsupportedOperationException ignore) {
-        }
-
-        try {
-            reader.read(new char[1]);
-            fail();
-        } catch (UnsupportedOperationException ignore) {
-        }
-
-        try {
-            reader.read(new char[1], 1, 1);
-            fail();
-        } catch (UnsupportedOperationException ignore) {
-        }
-
-        try {
-            reader.read(CharBuffer.allocate(10));
-            fail();
-        } catch (UnsupportedOperationException ignore) {
-        }
-
-        try {
-            reader.readLine();
-            fail();
-        } catch (UnsupportedOperationException ignore) {
-        }
+    public void next_bufferBoundary() throws Exception {
+        final CsvTokenizer sut = new CsvTokenizer(
+                new StringReader("12345,\"ab\"\"c\r\nde\",xyz\r\n"), CsvDataBindConfig.DEFAULT, 2);
+        assertThat(sut.next(), is("12345"));
+        assertThat(sut.next(), is("ab\"c\r\nde"));
+        assertThat(sut.next(), is("xyz"));
+        assertThat(sut.isEndOfLine(), is(true));
+        assertThat(sut.getLineNumber(), is(2L));
+        assertThat(sut.isEndOfFile(), is(true));
     }
 
     /**
-     * カレントポジションを移動せずに次の一文字が読み取れること
+     * 行番号が取れること
      */
     @Test
-    public void reader_readNextCharAndReset() throws Exception {
-        final CsvTokenizer sut = new CsvTokenizer(new BufferedReader(new StringReader("1,\"2\",3")), CsvDataBindConfig.DEFAULT);
-        final BufferedReader reader = ReflectionUtil.getFieldValue(sut, "reader");
+    public void getLineNumber() throws Exception {
+        final CsvTokenizer sut = new CsvTokenizer(new StringReader("1\r\n2\r\n3\r\n"), CsvDataBindConfig.DEFAULT, 1);
+        assertThat(sut.getLineNumber(), is(1L));
 
-        int c = ReflectionUtil.invokeMethod(reader, "readNextCharAndReset");
-        assertThat((char) c, is('1'));
+        assertThat(sut.next(), is("1"));
+        assertThat("改行までが1行目", sut.getLineNumber(), is(1L));
 
-        c = reader.read();
-        assertThat("カレントが戻っているので同じ文字がリードされる", (char) c, is('1'));
-
-        c = reader.read();
-        assertThat("readで次の文字が読める", (char) c, is(','));
+        sut.reset();
+        assertThat(sut.next(), is("2"));
+        assertThat(sut.getLineNumber(), is(2L));
 
+        sut.reset();
+        assertThat(sut.next(), is("3"));
+        assertThat(sut.getLineNumber(), is(3L));
+        assertThat(sut.isEndOfFile(), is(true));
     }
 
     /**
-     * 行番号が取れること
+     * クォート内の改行(CR、LF、CRLF)が行番号に反映されること
      */
     @Test
-    public void reader_getLineNumber() throws Exception {
-        final CsvTokenizer sut = new CsvTokenizer(new BufferedReader(new StringReader("1\r\n2\r\n3\r\n")), CsvDataBindConfig.DEFAULT);
-        final BufferedReader reader = ReflectionUtil.getFieldValue(sut, "reader");
-
-        long lineNumber = ReflectionUtil.invokeMethod(reader, "getLineNumber");
-        assertThat(lineNumber, is(1L));
-
-        reader.read();              // 1
-        lineNumber = ReflectionUtil.invokeMethod(reader, "getLineNumber");
-        assertThat(lineNumber, is(1L));
-
-        reader.read();              // \r
-        lineNumber = ReflectionUtil.invokeMethod(reader, "getLineNumber");
-        assertThat(lineNumber, is(1L));
-
-        reader.read();              // \n
-        lineNumber = ReflectionUtil.invokeMethod(reader, "getLineNumber");
-        assertThat(lineNumber, is(1L));
+    public void getLineNumber_lineSeparatorInQuotedItem() throws Exception {
+        final CsvTokenizer sut = new CsvTokenizer(
+                new StringReader("\"a\rb\nc\r\nd\"\r\n\"\r\""), CsvDataBindConfig.DEFAULT, 3);
+        assertThat(sut.next(), is("a\rb\nc\r\nd"));
+        assertThat(sut.getLineNumber(), is(4L));
+
+        sut.reset();
+        assertThat(sut.next(), is("\r"));
+        assertThat(sut.getLineNumber(), is(6L));
+    }
 
-        reader.read();              // 2
-        lineNumber = ReflectionUtil.invokeMethod(reader, "getLineNumber");
-        assertThat(lineNumber, is(2L));
+    /**
+     * バッファサイズに0以下を指定した場合はエラーとなること
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBufferSize() throws Exception {
+        new CsvTokenizer(new StringReader("1"), CsvDataBindConfig.DEFAULT, 0);
     }
 
     /**
-     * 行番号の取得に失敗するケース
+     * 読み込みに失敗した場合は例外が送出されること
      */
-    @Test(expected = RuntimeException.class)
-    public void reader_getLineNumber_fail() throws Exception {
-        final BufferedReader mockReader = mock(BufferedReader.class);
-        when(mockReader.read(any(), anyInt(), anyInt())).thenThrow(new IOException("io error"));
-        
-        final CsvTokenizer sut = new CsvTokenizer(mockReader, CsvDataBindConfig.DEFAULT);
+    @Test(expected = IOException.class)
+    public void next_fail() throws Exception {
+        final Reader mockReader = mock(Reader.class);
+        when(mockReader.read(any(char[].class), anyInt(), anyInt())).thenThrow(new IOException("io error"));
 
-        final BufferedReader reader = ReflectionUtil.getFieldValue(sut, "reader");
-        ReflectionUtil.setFieldValue(reader, "lastChar", '\r');
-        ReflectionUtil.invokeMethod(reader, "getLineNumber");
+        final CsvTokenizer sut = new CsvTokenizer(mockReader, CsvDataBindConfig.DEFAULT);
+        sut.next();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,359 @@
+package nablarch.common.databind.csv;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+/**
+ * {@link CsvWritePipeline}のテスト。
+ */
+public class CsvWritePipelineTest {
+
+    private final CsvDataBindConfig config = CsvDataBindConfig.DEFAULT
+            .withHeaderTitles("年齢", "氏名", "金額", "日付")
+            .withProperties("age", "name", "amount", "date");
+
+    /**
+     * 並列にフォーマットした結果が、呼び出し側のスレッドでフォーマットした場合と同じ内容で書き込まれること。
+     * <p/>
+     * 複数のチャンクにまたがる件数で、エスケープが必要な値やnullを含む場合も同じ内容となること。
+     */
+    @Test
+    public void write_writer() throws Exception {
+        final List<Map<String, ?>> records = createRecords(CsvWritePipeline.RECORDS_PER_CHUNK * 5 + 3);
+
+        final StringWriter expected = new StringWriter();
+        final MapCsvMapper serial = new MapCsvMapper(config, expected);
+        for (final Map<String, ?> record : records) {
+            serial.write(record);
+        }
+        serial.close();
+
+        final StringWriter actual = new StringWriter();
+        final MapCsvMapper sut = new MapCsvMapper(config.withParallelWrite(4), actual);
+        for (final Map<String, ?> record : records) {
+            sut.write(record);
+        }
+        sut.close();
+
+        assertThat(actual.toString(), is(expected.toString()));
+    }
+
+    /**
+     * 出力先がストリームの場合は、文字コードの変換まで並列に行い同じ内容で書き込まれること。
+     */
+    @Test
+    public void write_outputStream() throws Exception {
+        for (final String charset : new String[] {"UTF-8", "windows-31j"}) {
+            final CsvDataBindConfig charsetConfig = config.withCharset(charset);
+            final List<Map<String, ?>> records = createRecords(CsvWritePipeline.RECORDS_PER_CHUNK * 3 + 1);
+
+            final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            final MapCsvMapper serial = new MapCsvMapper(charsetConfig, expected);
+            serial.writeAll(records);
+            serial.close();
+
+            final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            final MapCsvMapper sut = new MapCsvMapper(charsetConfig.withParallelWrite(3), actual);
+            sut.writeAll(records);
+            sut.close();
+
+            assertArrayEquals(charset, expected.toByteArray(), actual.toByteArray());
+        }
+    }
+
+    /**
+     * 出力先がチャネルの場合も同じ内容で書き込まれること。
+     * <p/>
+     * {@link ObjectCsvMapperSupport#write(Object)}と{@link ObjectCsvMapperSupport#writeAll(Iterable)}を
+     * 組み合わせた場合も、呼び出した順に書き込まれること。
+     */
+    @Test
+    public void write_channel() throws Exception {
+        final List<Map<String, ?>> records = createRecords(CsvWritePipeline.RECORDS_PER_CHUNK * 2 + 10);
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        final MapCsvMapper serial = new MapCsvMapper(config, Channels.newChannel(expected));
+        serial.write(records.get(0));
+        serial.writeAll(records.subList(1, records.size() - 1));
+        serial.write(records.get(records.size() - 1));
+        serial.close();
+
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        final MapCsvMapper sut = new MapCsvMapper(config.withParallelWrite(2), Channels.newChannel(actual));
+        sut.write(records.get(0));
+        sut.writeAll(records.subList(1, records.size() - 1));
+        sut.write(records.get(records.size() - 1));
+        sut.close();
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    /**
+     * {@link ObjectCsvMapperSupport#collector()}で並列ストリームの要素をストリームの順序で書き込めること。
+     * <p/>
+     * 並列にフォーマットする場合としない場合のいずれも、同じ内容で書き込まれること。
+     */
+    @Test
+    public void collector() throws Exception {
+        final List<Map<String, ?>> records = createRecords(CsvWritePipeline.RECORDS_PER_CHUNK * 4 + 7);
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        final MapCsvMapper serial = new MapCsvMapper(config, expected);
+        serial.writeAll(records);
+        serial.close();
+
+        for (final CsvDataBindConfig sutConfig : new CsvDataBindConfig[] {config, config.withParallelWrite(4)}) {
+            final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            final MapCsvMapper sut = new MapCsvMapper(sutConfig, actual);
+            final long count = records.parallelStream().collect(sut.collector());
+            sut.close();
+
+            assertThat(count, is((long) records.size()));
+            assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        }
+
+        final StringWriter expectedChars = new StringWriter();
+        final MapCsvMapper serialChars = new MapCsvMapper(config, expectedChars);
+        serialChars.writeAll(records);
+        serialChars.close();
+
+        final StringWriter actualChars = new StringWriter();
+        final MapCsvMapper sut = new MapCsvMapper(config, actualChars);
+        assertThat(records.parallelStream().collect(sut.collector()), is((long) records.size()));
+        sut.close();
+        assertThat(actualChars.toString(), is(expectedChars.toString()));
+    }
+
+    /**
+     * 書き込みに失敗した場合、失敗したチャンクより後ろのチャンクは書き込まれずに例外が送出されること。
+     * <p/>
+     * 例外が送出された後は、以降の書き込みと{@link ObjectCsvMapperSupport#close()}でも同じ例外が送出されること。
+     */
+    @Test
+    public void write_ioError() throws Exception {
+        final StringWriter written = new StringWriter();
+        final Writer writer = new Writer() {
+            private int count;
+
+            @Override
+            public void write(final char[] cbuf, final int off, final int len) throws IOException {
+                if (++count > 1) {
+                    throw new IOException("write error");
+                }
+                written.write(cbuf, off, len);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        final MapCsvMapper sut = new MapCsvMapper(config.withRequiredHeader(false).withParallelWrite(2), writer);
+        final List<Map<String, ?>> records = createRecords(CsvWritePipeline.RECORDS_PER_CHUNK * 10);
+        RuntimeException first = null;
+        try {
+            sut.writeAll(records);
+            sut.close();
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), is("failed to write."));
+            assertThat(e.getCause(), is(instanceOf(IOException.class)));
+            assertThat(e.getCause().getMessage(), is("write error"));
+            first = e;
+        }
+        try {
+            sut.write(records.get(0));
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e, is(sameInstance(first)));
+        }
+        try {
+            sut.writeAll(records);
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e, is(sameInstance(first)));
+        }
+        try {
+            records.parallelStream().collect(sut.collector());
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e, is(sameInstance(first)));
+        }
+        try {
+            sut.close();
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e, is(sameInstance(first)));
+        }
+        assertThat("1回目の書き込みのみ行われていること", written.toString().startsWith("0,"), is(true));
+        assertThat(written.toString().length() < CsvWritePipeline.RECORDS_PER_CHUNK * 64, is(true));
+    }
+
+    /**
+     * 書き込み用のスレッドで失敗した後は、失敗を呼び出し側で検知する前に依頼されたレコードも受け付けずに例外が送出されること。
+     */
+    @Test
+    public void write_afterFailure() throws Exception {
+        final CountDownLatch failed = new CountDownLatch(1);
+        final Writer writer = new Writer() {
+            @Override
+            public void write(final char[] cbuf, final int off, final int len) throws IOException {
+                failed.countDown();
+                throw new IOException("write error");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        final CsvWritePipeline sut = new CsvWritePipeline(writer, config, 4);
+        for (int i = 0; i < CsvWritePipeline.RECORDS_PER_CHUNK; i++) {
+            sut.write(new Object[] {i, "name"});
+        }
+        failed.await();
+        Thread.sleep(50L);
+        try {
+            sut.write(new Object[] {1, "name"});
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), is("failed to write."));
+        }
+        try {
+            sut.close();
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), is("failed to write."));
+        }
+    }
+
+    /**
+     * 書き込みを依頼した後に呼び出し側が配列や値を変更しても、依頼した時点の値が書き込まれること。
+     */
+    @Test
+    public void write_mutableValues() throws Exception {
+        final StringWriter expected = new StringWriter();
+        final CsvDataWriter serial = new CsvDataWriter(expected, config, config.getKeys());
+        final StringWriter actual = new StringWriter();
+        final CsvWritePipeline sut = new CsvWritePipeline(actual, config, 2);
+
+        final Object[] values = new Object[4];
+        final StringBuilder name = new StringBuilder();
+        final Date date = new Date(0L);
+        for (int i = 0; i < CsvWritePipeline.RECORDS_PER_CHUNK * 2 + 1; i++) {
+            name.setLength(0);
+            name.append(i % 3 == 0 ? "quote\"" : "name").append(i);
+            date.setTime(i * 86400000L);
+            values[0] = i;
+            values[1] = name;
+            values[2] = BigDecimal.valueOf(i, 2);
+            values[3] = date;
+            serial.write(values);
+            sut.write(values);
+        }
+        values[1] = "changed";
+        name.append("changed");
+        date.setTime(0L);
+        sut.close();
+
+        assertThat(actual.toString(), is(expected.toString()));
+    }
+
+    /**
+     * フォーマットで発生した例外が、呼び出し側のスレッドで送出されること。
+     * <p/>
+     * 変更できない型以外の値は書き込みの依頼時に文字列に変換するため、書き込みの依頼で例外が送出されること。
+     */
+    @Test
+    public void write_formatError() throws Exception {
+        final MapCsvMapper sut = new MapCsvMapper(config.withParallelWrite(2), new StringWriter());
+        final Map<String, Object> record = new HashMap<String, Object>();
+        record.put("name", new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("format error");
+            }
+        });
+        try {
+            sut.write(record);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("format error"));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * 空のレコードは書き込めないこと。
+     */
+    @Test
+    public void write_emptyRecord() throws Exception {
+        final CsvWritePipeline sut = new CsvWritePipeline(new StringWriter(), config, 1);
+        try {
+            sut.write(new Object[0]);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("columns should not be empty and null."));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * テスト用のレコードを生成する。
+     *
+     * @param size レコード数
+     * @return レコード
+     */
+    private static List<Map<String, ?>> createRecords(final int size) {
+        final List<Map<String, ?>> records = new ArrayList<Map<String, ?>>(size);
+        for (int i = 0; i < size; i++) {
+            final Map<String, Object> record = new HashMap<String, Object>();
+            record.put("age", i);
+            switch (i % 4) {
+                case 0:
+                    record.put("name", "山田太郎" + i);
+                    break;
+                case 1:
+                    record.put("name", "quote\"and,comma");
+                    break;
+                case 2:
+                    record.put("name", "line\r\nbreak🙀");
+                    break;
+                default:
+                    break;
+            }
+            record.put("amount", BigDecimal.valueOf(i, 2));
+            record.put("date", LocalDate.of(2024, 1, 1).plusDays(i));
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -1,8 +1,11 @@
 package nablarch.common.databind.csv;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 
 import nablarch.common.databind.ObjectMapper;
@@ -25,6 +28,40 @@ public class PerformanceTest {
         }
     }
 
+    /**
+     * 文字単位で解析する場合({@link CsvTokenizer})とバイト単位で解析する場合({@link CsvByteTokenizer})の読み込み時間を比較する。
+     */
+    @Test
+    public void readTest() throws IOException {
+        final File file = File.createTempFile("input", ".csv");
+        final FileOutputStream stream = new FileOutputStream(file);
+        final ObjectMapper<Person> writer = ObjectMapperFactory.create(Person.class, stream);
+        for (int i = 0; i < 1000000; i++) {
+            writer.write(new Person("first,name", "last\"name", "address", i, "company", "company address"));
+        }
+        writer.close();
+
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            read(ObjectMapperFactory.create(Person.class,
+                    new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)));
+            final long charTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            read(ObjectMapperFactory.create(Person.class, new FileInputStream(file)));
+            final long byteTime = System.nanoTime() - start;
+            System.out.println("処理時間[" + i + "]: char=" + TimeUnit.NANOSECONDS.toMillis(charTime)
+                    + ", byte=" + TimeUnit.NANOSECONDS.toMillis(byteTime));
+        }
+    }
+
+    private void read(ObjectMapper<Person> mapper) {
+        while (mapper.read() != null) {
+            // 読み込むだけ
+        }
+        mapper.close();
+    }
+
     private void write(int count) throws IOException {
         final File file = File.createTempFile("out", String.valueOf(count));
         final FileOutputStream stream = new FileOutputStream(file);
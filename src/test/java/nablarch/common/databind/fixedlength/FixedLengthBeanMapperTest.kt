@@ -9,6 +9,7 @@ import org.junit.Assert.assertThat
 import org.junit.Rule
 import org.junit.Test
 import org.junit.rules.ExpectedException
+import java.beans.ConstructorProperties
 import java.io.*
 import java.nio.charset.*
 
@@ -324,4 +325,138 @@ class FixedLengthBeanMapperTest {
             override fun getRecordName(): String = "data"
         };
     }
+
+    @Test
+    fun `呼び出し元のBeanを再利用して変換できること`() {
+
+        @FixedLength(length = 7, charset = "MS932", lineSeparator = "\r\n")
+        data class TestBean(
+            @field:Field(offset = 1, length = 4)
+            @field:Rpad
+            var name: String? = null,
+            @field:Field(offset = 5, length = 3)
+            @field:Lpad
+            var age: Int? = null,
+            @get:LineNumber
+            var lineNumber: Long? = null
+        ) {
+            constructor() : this(null, null, null)
+        }
+
+        val inputStream = listOf(
+            "ab  003",
+            "efg 010"
+        ).joinToString("\r\n").byteInputStream(charset("MS932"))
+
+        ObjectMapperFactory.create<TestBean>(TestBean::class.java, inputStream).use { sut ->
+            val target = TestBean()
+            assertThat(sut.read(target), sameInstance(target))
+            assertThat(target, `is`(TestBean("ab", 3, 1)))
+            assertThat(sut.read(target), sameInstance(target))
+            assertThat(target, `is`(TestBean("efg", 10, 2)))
+            assertThat(sut.read(target), `is`(nullValue()))
+        }
+    }
+
+    @Test
+    fun `マルチレイアウトの場合に呼び出し元のBeanを再利用すると読み込んだレコード以外のプロパティはnullになること`() {
+        data class Header (
+                @field:Field(offset = 1, length = 1)
+                var id: Int? = null,
+                @field:Field(offset = 2, length = 7)
+                @field:Rpad
+                var field: String? = null
+        ) {
+            constructor() : this(null, null)
+        }
+
+        data class Data(
+                @field:Field(offset = 1, length = 1)
+                var id: Int? = null,
+                @field:Field(offset = 2, length = 4)
+                @field:Rpad
+                var name: String? = null,
+                @field:Field(offset = 6, length = 3)
+                @field:Lpad
+                var age: Int? = null
+        ) {
+            constructor() : this(null, null, null)
+        }
+
+        @FixedLength(length = 8, charset = "MS932", lineSeparator = "\r\n", multiLayout = true)
+        class Multi : MultiLayout() {
+            override fun getRecordIdentifier(): MultiLayoutConfig.RecordIdentifier {
+                return MultiLayoutConfig.RecordIdentifier {
+                    if (it.first().toInt() == 0x31) {
+                        RecordType.HEADER
+                    } else {
+                        RecordType.DATA
+                    }
+                }
+            }
+            @field:Record
+            var header: Header? = null
+
+            @field:Record
+            var data: Data? = null
+        }
+
+        ObjectMapperFactory.create(Multi::class.java, "1test   \r\n2aaa 012\r\n1next   ".toByteArray().inputStream()).use {
+            val target = Multi()
+            assertThat(it.read(target), sameInstance(target))
+            assertThat(target.getRecordName(), `is`<MultiLayoutConfig.RecordName>(RecordType.HEADER))
+            assertThat(target.header, `is`(Header(1, "test")))
+            assertThat(target.data, `is`(nullValue()))
+
+            assertThat(it.read(target), sameInstance(target))
+            assertThat(target.getRecordName(), `is`<MultiLayoutConfig.RecordName>(RecordType.DATA))
+            assertThat(target.header, `is`(nullValue()))
+            assertThat(target.data, `is`(Data(2, "aaa", 12)))
+
+            assertThat(it.read(target), sameInstance(target))
+            assertThat(target.getRecordName(), `is`<MultiLayoutConfig.RecordName>(RecordType.HEADER))
+            assertThat(target.header, `is`(Header(1, "next")))
+            assertThat(target.data, `is`(nullValue()))
+
+            assertThat(it.read(target), `is`(nullValue()))
+        }
+    }
+
+    @Test
+    fun `コンストラクタバインディングの場合はBeanを再利用できないこと`() {
+        val inputStream = "ab  003".byteInputStream(charset("MS932"))
+
+        ObjectMapperFactory.create(ImmutableBean::class.java, inputStream).use { sut ->
+            expectedException.expect(UnsupportedOperationException::class.java)
+            expectedException.expectMessage("unsupported read method.")
+            sut.read(ImmutableBean("a", 1, 1))
+        }
+    }
+
+    @Test
+    fun `コンストラクタバインディングでBeanに変換できること`() {
+        val inputStream = listOf(
+            "ab  003",
+            "efg 000"
+        ).joinToString("\r\n").byteInputStream(charset("MS932"))
+
+        ObjectMapperFactory.create(ImmutableBean::class.java, inputStream).use { sut ->
+            assertThat(sut, instanceOf<Any>(FixedLengthBeanMapper::class.java))
+            assertThat(sut.read(), `is`(ImmutableBean("ab", 3, 1)))
+            assertThat(sut.read(), `is`(ImmutableBean("efg", null, 2)))
+            assertThat(sut.read(), `is`(nullValue()))
+        }
+    }
+
+    @FixedLength(length = 7, charset = "MS932", lineSeparator = "\r\n")
+    data class ImmutableBean @ConstructorProperties("name", "age", "lineNumber") constructor(
+        @field:Field(offset = 1, length = 4)
+        @field:Rpad
+        val name: String?,
+        @field:Field(offset = 5, length = 3)
+        @field:Lpad
+        val age: Int?,
+        @get:LineNumber
+        val lineNumber: Long?
+    )
 }
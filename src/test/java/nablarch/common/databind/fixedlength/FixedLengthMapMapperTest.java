@@ -2,8 +2,10 @@ package nablarch.common.databind.fixedlength;
 
 import nablarch.common.databind.DataBindConfig;
 import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.InvalidRecordHandler;
 import nablarch.common.databind.ObjectMapper;
 import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.common.databind.ReadPosition;
 import nablarch.common.databind.fixedlength.converter.Lpad;
 import nablarch.common.databind.fixedlength.converter.Rpad;
 import org.hamcrest.Matchers;
@@ -11,12 +13,18 @@ import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
@@ -30,6 +38,9 @@ public class FixedLengthMapMapperTest {
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private InputStream inputStream;
 
     private ObjectMapper<Map> sut;
@@ -76,6 +87,135 @@ public class FixedLengthMapMapperTest {
         sut.close();
     }
 
+    @Test
+    public void 読み込み位置から読み込みを再開できること() throws Exception {
+        final File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), "ab  あい003\r\nefg か　000\r\nh   さし010".getBytes("MS932"));
+        inputStream = new FileInputStream(file);
+
+        final DataBindConfig dataBindConfig =
+                FixedLengthDataBindConfigBuilder
+                        .newBuilder()
+                        .length(11)
+                        .charset(Charset.forName("MS932"))
+                        .lineSeparator("\r\n")
+                        .singleLayout()
+                        .field("name", 1, 4, new Rpad.RpadConverter(' '))
+                        .field("text", 5, 4, new Rpad.RpadConverter('　'))
+                        .field("age", 9, 3, new Lpad.LpadConverter('0'))
+                        .build();
+
+        final FixedLengthMapMapper first = new FixedLengthMapMapper(
+                (FixedLengthDataBindConfig) dataBindConfig, inputStream);
+        assertThat(first.read().get("name").toString(), is("ab"));
+        final ReadPosition position = first.getPosition();
+        assertThat(position, is(new ReadPosition(13L, 2L)));
+        first.close();
+
+        sut = ObjectMapperFactory.create(Map.class, file.toPath(), dataBindConfig, position);
+        assertThat(sut.read().get("name").toString(), is("efg"));
+        assertThat(sut.read().get("age").toString(), is("10"));
+        assertThat(sut.read(), nullValue());
+        assertThat("終端に達した後の位置", ((FixedLengthMapMapper) (ObjectMapper<?>) sut).getPosition(), is(new ReadPosition(37L, 4L)));
+    }
+
+    @Test
+    public void 値をキャッシュするフィールドは同じ値に対して同じインスタンスが返されること() throws Exception {
+        inputStream = new ByteArrayInputStream("01東京\r\n02東京\r\n03大阪".getBytes("MS932"));
+
+        final DataBindConfig dataBindConfig =
+                FixedLengthDataBindConfigBuilder
+                        .newBuilder()
+                        .length(6)
+                        .charset(Charset.forName("MS932"))
+                        .lineSeparator("\r\n")
+                        .singleLayout()
+                        .field("no", 1, 2, new Lpad.LpadConverter('0'))
+                        .field("city", 3, 4, new Rpad.RpadConverter('　'), 16)
+                        .build();
+
+        sut = ObjectMapperFactory.create(Map.class, inputStream, dataBindConfig);
+        final Map<?, ?> first = sut.read();
+        final Map<?, ?> second = sut.read();
+        final Map<?, ?> third = sut.read();
+        assertThat(second.get("city").toString(), is("東京"));
+        assertThat(second.get("city"), sameInstance(first.get("city")));
+        assertThat(third.get("city").toString(), is("大阪"));
+        assertThat("キャッシュしないフィールド", second.get("no").toString(), is("2"));
+    }
+
+    @Test
+    public void 不正なレコードを受け取るハンドラを設定した場合は不正なレコードを読み飛ばして読み込みを続けること() throws Exception {
+        // 2レコード目は1バイト長く、3レコード目は1バイト短い。最終レコードは長さが不足する。
+        inputStream = new ByteArrayInputStream(
+                "00001東京\r\n00002大阪X\r\n0003京都\r\n00004東京\r\n0000".getBytes("MS932"));
+
+        final List<String> records = new ArrayList<String>();
+        final List<InvalidDataFormatException> causes = new ArrayList<InvalidDataFormatException>();
+        final DataBindConfig dataBindConfig =
+                FixedLengthDataBindConfigBuilder
+                        .newBuilder()
+                        .length(9)
+                        .charset(Charset.forName("MS932"))
+                        .lineSeparator("\r\n")
+                        .singleLayout()
+                        .field("no", 1, 5, new Lpad.LpadConverter('0'))
+                        .field("city", 6, 4, new Rpad.RpadConverter('　'))
+                        .build()
+                        .withInvalidRecordHandler(new InvalidRecordHandler() {
+                            @Override
+                            public void handle(final String record, final InvalidDataFormatException cause) {
+                                records.add(record);
+                                causes.add(cause);
+                            }
+                        });
+
+        sut = ObjectMapperFactory.create(Map.class, inputStream, dataBindConfig);
+        final Map<?, ?> first = sut.read();
+        assertThat(first.get("no").toString(), is("1"));
+        final Map<?, ?> second = sut.read();
+        assertThat("短いレコードの改行文字の後ろから読み込みを再開する", second.get("no").toString(), is("4"));
+        assertThat(second.get("city").toString(), is("東京"));
+        assertThat(sut.read(), is(nullValue()));
+
+        assertThat(records, contains("00002大阪X", "0003京都", "0000"));
+        assertThat(causes.get(0).getMessage(), is("data format is invalid. line separator is invalid. line number = [2]"));
+        assertThat(causes.get(1).getLineNumber(), is(3L));
+        assertThat(causes.get(2).getMessage(), is("data format is invalid. last record is short. line number = [5]"));
+        assertThat("スタックトレースを持たない", causes.get(0).getStackTrace().length, is(0));
+    }
+
+    @Test
+    public void 先読みを有効にした場合も同じ結果が読み込めること() throws Exception {
+        final StringBuilder data = new StringBuilder();
+        for (int i = 1; i <= 10000; i++) {
+            data.append(String.format("%05d", i)).append(i % 2 == 0 ? "東京" : "大阪").append("\r\n");
+        }
+        data.setLength(data.length() - 2);
+        inputStream = new ByteArrayInputStream(data.toString().getBytes("MS932"));
+
+        final DataBindConfig dataBindConfig =
+                FixedLengthDataBindConfigBuilder
+                        .newBuilder()
+                        .length(9)
+                        .charset(Charset.forName("MS932"))
+                        .lineSeparator("\r\n")
+                        .singleLayout()
+                        .field("no", 1, 5, new Lpad.LpadConverter('0'))
+                        .field("city", 6, 4, new Rpad.RpadConverter('　'))
+                        .build()
+                        .withReadAhead(2);
+
+        sut = ObjectMapperFactory.create(Map.class, inputStream, dataBindConfig);
+        for (int i = 1; i <= 10000; i++) {
+            final Map<?, ?> map = sut.read();
+            assertThat(map.get("no").toString(), is(String.valueOf(i)));
+            assertThat(map.get("city").toString(), is(i % 2 == 0 ? "東京" : "大阪"));
+        }
+        assertThat(sut.read(), is(nullValue()));
+        sut.close();
+    }
+
     @Test
     public void マルチレイアウトの固定長をMapに変換できること() throws Exception {
         inputStream = new ByteArrayInputStream("1test   \r\n2aaa 012\r\n2bb  345".getBytes("MS932"));
@@ -0,0 +1,185 @@
+package nablarch.common.databind.fixedlength;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import nablarch.common.databind.DataBindConfig;
+import nablarch.common.databind.InvalidDataFormatException;
+import nablarch.common.databind.ObjectMapperFactory;
+import nablarch.common.databind.fixedlength.converter.Lpad;
+import nablarch.common.databind.fixedlength.converter.Rpad;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link FixedLengthSpliterator}のテスト。
+ */
+public class FixedLengthSpliteratorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final DataBindConfig config = FixedLengthDataBindConfigBuilder
+            .newBuilder()
+            .length(7)
+            .charset(Charset.forName("MS932"))
+            .lineSeparator("\r\n")
+            .singleLayout()
+            .field("no", 1, 3, new Lpad.LpadConverter('0'))
+            .field("name", 4, 4, new Rpad.RpadConverter('　'))
+            .build();
+
+    /**
+     * 並列ストリームで読み込んだ結果が、ファイル上の順序で1スレッドで読み込んだ結果と一致すること。
+     * <p/>
+     * 最終レコードの改行は省略できること。
+     */
+    @Test
+    public void parallel_sameAsSequential() throws Exception {
+        final StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            data.append(String.format("%03d", i)).append(i % 2 == 0 ? "山田" : "田　").append("\r\n");
+        }
+        data.setLength(data.length() - 2);
+        final Path path = write(data.toString());
+
+        final List<Map<String, ?>> expected;
+        try (Stream<Map<String, ?>> stream = streamMap(path, config)) {
+            expected = stream.collect(Collectors.<Map<String, ?>>toList());
+        }
+        assertThat(expected.size(), is(1000));
+        assertThat(expected.get(999).toString(), is("{no=999, name=田}"));
+
+        try (Stream<Map<String, ?>> stream = streamMap(path, config)) {
+            assertThat(stream.parallel().collect(Collectors.<Map<String, ?>>toList()), is(expected));
+        }
+    }
+
+    /**
+     * レコードの先頭で二等分されること。
+     */
+    @Test
+    public void trySplit() throws Exception {
+        final Path path = write("001山田\r\n002田中\r\n003鈴木\r\n004佐藤\r\n005伊藤");
+        try (Stream<Map<String, ?>> stream = streamMap(path, config)) {
+            final Spliterator<Map<String, ?>> suffix = stream.spliterator();
+            assertThat("改行を省略した最終レコードも含む", suffix.estimateSize(), is(43L));
+
+            final Spliterator<Map<String, ?>> prefix = suffix.trySplit();
+            assertThat(prefix.estimateSize(), is(18L));
+            assertThat(suffix.estimateSize(), is(25L));
+
+            final StringBuilder actual = new StringBuilder();
+            final Consumer<Map<String, ?>> action = new Consumer<Map<String, ?>>() {
+                @Override
+                public void accept(final Map<String, ?> map) {
+                    actual.append(map.get("no"));
+                }
+            };
+            while (suffix.tryAdvance(action)) {
+                assertThat("読み込みを開始した後は分割しない", suffix.trySplit(), is(nullValue()));
+            }
+            prefix.forEachRemaining(action);
+            assertThat(actual.toString(), is("34512"));
+        }
+    }
+
+    /**
+     * 不正なデータが存在する場合、ファイル全体でのレコード番号を持つ例外が送出されること。
+     */
+    @Test
+    public void parallel_invalidFormat() throws Exception {
+        final StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            data.append(String.format("%03d", i)).append("山田\r\n");
+        }
+        data.append("100山");
+        final Path path = write(data.toString());
+        try (Stream<Map<String, ?>> stream = streamMap(path, config)) {
+            stream.parallel().count();
+            fail();
+        } catch (InvalidDataFormatException e) {
+            assertThat(e.getMessage(), is("data format is invalid. last record is short. line number = [101]"));
+        }
+    }
+
+    /**
+     * 範囲を読み終える前にストリームの処理が終了した場合も、ストリームを閉じると読み込み中の範囲の先読み用のスレッドが停止すること。
+     */
+    @Test
+    public void close_stopsUnfinishedMappers() throws Exception {
+        final StringBuilder data = new StringBuilder();
+        // 先読み用のバッファに収まらないレコード数とする
+        for (int i = 0; i < 100000; i++) {
+            data.append(String.format("%03d", i % 1000)).append("山田\r\n");
+        }
+        final Path path = write(data.toString());
+        final int before = countThreads("databind-read-ahead");
+
+        final Stream<Map<String, ?>> stream = streamMap(path, ((FixedLengthDataBindConfig) config).withReadAhead(2));
+        final Spliterator<Map<String, ?>> suffix = stream.spliterator();
+        final Spliterator<Map<String, ?>> prefix = suffix.trySplit();
+        final Consumer<Map<String, ?>> ignore = new Consumer<Map<String, ?>>() {
+            @Override
+            public void accept(final Map<String, ?> map) {
+            }
+        };
+        assertThat(prefix.tryAdvance(ignore), is(true));
+        assertThat(suffix.tryAdvance(ignore), is(true));
+        assertThat("分割した範囲ごとに先読み用のスレッドが起動している",
+                countThreads("databind-read-ahead") > before, is(true));
+        stream.close();
+        awaitThreads("databind-read-ahead", before);
+    }
+
+    private static int countThreads(final String name) {
+        int count = 0;
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && thread.getName().equals(name)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void awaitThreads(final String name, final int expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000L;
+        while (countThreads(name) > expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertThat(countThreads(name), is(expected));
+    }
+
+    /**
+     * {@link Map}に読み込む{@link Stream}を生成する。
+     *
+     * @param path 読み込むファイル
+     * @param config マッピング設定
+     * @return {@link Map}に読み込む{@link Stream}
+     */
+    @SuppressWarnings("unchecked")
+    private static Stream<Map<String, ?>> streamMap(final Path path, final DataBindConfig config) {
+        return (Stream<Map<String, ?>>) (Stream<?>) ObjectMapperFactory.stream(Map.class, path, config);
+    }
+
+    private Path write(final String data) throws Exception {
+        final File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), data.getBytes("MS932"));
+        return file.toPath();
+    }
+}
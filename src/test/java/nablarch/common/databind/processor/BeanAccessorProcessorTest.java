@@ -0,0 +1,171 @@
+package nablarch.common.databind.processor;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import nablarch.common.databind.BeanBinder;
+import nablarch.common.databind.GeneratedBeanAccessor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link BeanAccessorProcessor}のテスト。
+ */
+public class BeanAccessorProcessorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * {@link nablarch.common.databind.csv.Csv}が設定されたBeanに対してアクセサが生成され、
+     * {@link BeanBinder}が生成されたアクセサを使用すること。
+     * <p/>
+     * 生成されたアクセサを使用するため、publicでないクラスのプロパティにもアクセスできること。
+     */
+    @Test
+    public void generate() throws Exception {
+        final File classes = compile("sample/Person.java", "package sample;\n"
+                + "@nablarch.common.databind.csv.Csv(type = nablarch.common.databind.csv.Csv.CsvType.DEFAULT,"
+                + " properties = {\"age\", \"name\"}, headers = {\"age\", \"name\"})\n"
+                + "class Person {\n"
+                + "    private int age;\n"
+                + "    private String name;\n"
+                + "    private boolean active;\n"
+                + "    public int getAge() { return age; }\n"
+                + "    public void setAge(int age) { this.age = age; }\n"
+                + "    public String getName() { return name; }\n"
+                + "    public void setName(String name) { this.name = name; }\n"
+                + "    public void setName(StringBuilder name) { this.name = name.toString(); }\n"
+                + "    public boolean isActive() { return active; }\n"
+                + "    public void setActive(boolean active) { this.active = active; }\n"
+                + "}\n");
+
+        final URLClassLoader loader = new URLClassLoader(new URL[] {classes.toURI().toURL()},
+                getClass().getClassLoader());
+        try {
+            final Class<?> beanClass = loader.loadClass("sample.Person");
+            final Object generated = loader.loadClass("sample.Person" + GeneratedBeanAccessor.SUFFIX)
+                    .getConstructor()
+                    .newInstance();
+            assertThat(generated, is(instanceOf(GeneratedBeanAccessor.class)));
+            assertThat("同じ名前のメソッドが複数存在するプロパティは対象としない",
+                    Arrays.asList(((GeneratedBeanAccessor<?>) generated).getWritablePropertyNames()),
+                    is(Arrays.asList("age", "active")));
+
+            final BeanBinder<?> binder = BeanBinder.get(beanClass);
+            final Object bean = binder.newInstance();
+            binder.getAccessor("age").set(bean, "20");
+            binder.getAccessor("active").set(bean, "true");
+            assertThat(binder.getAccessor("age").get(bean), is((Object) 20));
+            assertThat(binder.getAccessor("active").get(bean), is((Object) true));
+            assertThat(binder.getAccessor("age").getPropertyType(), is((Object) int.class));
+        } finally {
+            loader.close();
+        }
+    }
+
+    /**
+     * 総称型のクラスから継承したセッタは、Beanのクラスで指定された型にキャストして呼び出すアクセサが生成されること。
+     */
+    @Test
+    public void generate_genericBase() throws Exception {
+        final File classes = compile("sample/Sub.java", "package sample;\n"
+                + "class Base<T> {\n"
+                + "    private T name;\n"
+                + "    public T getName() { return name; }\n"
+                + "    public void setName(T name) { this.name = name; }\n"
+                + "}\n"
+                + "@nablarch.common.databind.csv.Csv(type = nablarch.common.databind.csv.Csv.CsvType.DEFAULT,"
+                + " properties = \"name\", headers = \"name\")\n"
+                + "public class Sub extends Base<String> {\n"
+                + "}\n");
+
+        final URLClassLoader loader = new URLClassLoader(new URL[] {classes.toURI().toURL()},
+                getClass().getClassLoader());
+        try {
+            final Object generated = loader.loadClass("sample.Sub" + GeneratedBeanAccessor.SUFFIX)
+                    .getConstructor()
+                    .newInstance();
+            assertThat(Arrays.asList(((GeneratedBeanAccessor<?>) generated).getWritablePropertyNames()),
+                    is(Arrays.asList("name")));
+
+            final BeanBinder<?> binder = BeanBinder.get(loader.loadClass("sample.Sub"));
+            final Object bean = binder.newInstance();
+            binder.getAccessor("name").set(bean, "山田");
+            assertThat(binder.getAccessor("name").get(bean), is((Object) "山田"));
+        } finally {
+            loader.close();
+        }
+    }
+
+    /**
+     * 内部クラスと抽象クラスに対しては、アクセサが生成されないこと。
+     */
+    @Test
+    public void notGenerated() throws Exception {
+        final File classes = compile("sample/Outer.java", "package sample;\n"
+                + "public class Outer {\n"
+                + "    @nablarch.common.databind.csv.Csv(type = nablarch.common.databind.csv.Csv.CsvType.DEFAULT,"
+                + " properties = \"name\", headers = \"name\")\n"
+                + "    public class Inner {\n"
+                + "        public void setName(String name) { }\n"
+                + "    }\n"
+                + "    @nablarch.common.databind.csv.Csv(type = nablarch.common.databind.csv.Csv.CsvType.DEFAULT,"
+                + " properties = \"name\", headers = \"name\")\n"
+                + "    public static abstract class Base {\n"
+                + "        public void setName(String name) { }\n"
+                + "    }\n"
+                + "    @nablarch.common.databind.csv.Csv(type = nablarch.common.databind.csv.Csv.CsvType.DEFAULT,"
+                + " properties = \"name\", headers = \"name\")\n"
+                + "    public static class Nested {\n"
+                + "        public void setName(String name) { }\n"
+                + "    }\n"
+                + "}\n");
+
+        assertThat(new File(classes, "sample/Outer$Inner" + GeneratedBeanAccessor.SUFFIX + ".class").exists(), is(false));
+        assertThat(new File(classes, "sample/Outer$Base" + GeneratedBeanAccessor.SUFFIX + ".class").exists(), is(false));
+        assertThat(new File(classes, "sample/Outer$Nested" + GeneratedBeanAccessor.SUFFIX + ".class").exists(), is(true));
+    }
+
+    /**
+     * ソースを本プロセッサを使用してコンパイルする。
+     *
+     * @param path ソースのパス
+     * @param source ソース
+     * @return クラスファイルの出力先
+     */
+    private File compile(final String path, final String source) throws Exception {
+        final File sources = temporaryFolder.newFolder("src");
+        final File classes = temporaryFolder.newFolder("classes");
+        final File file = new File(sources, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final StringWriter output = new StringWriter();
+        final boolean success = compiler.getTask(output, null, null,
+                Arrays.asList("-classpath", System.getProperty("java.class.path"),
+                        "-processor", BeanAccessorProcessor.class.getName(),
+                        "-d", classes.getPath(), "-s", sources.getPath()),
+                null, compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)
+                        .getJavaFileObjectsFromFiles(Collections.singletonList(file)))
+                .call();
+        assertThat(output.toString(), success, is(true));
+        return classes;
+    }
+}